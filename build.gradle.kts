@@ -11,6 +11,7 @@ plugins {
     alias(libs.plugins.kotlin) // Kotlin support
     alias(libs.plugins.intelliJPlatform) // IntelliJ Platform Gradle Plugin
     alias(libs.plugins.changelog) // Gradle Changelog Plugin
+    id("me.champeau.jmh") version "0.7.2" // JMH benchmarks of src/jmh
 }
 
 //group = prop("pluginGroup")
@@ -44,7 +45,9 @@ dependencies {
   //      testFramework(TestFrameworkType.Platform)
   //  }
 
-  //  testImplementation("junit:junit:4.13.2")
+    testImplementation("junit:junit:4.13.2")
+    // Required by the test framework of the IntelliJ Platform, even for plain JUnit 4 tests
+    testImplementation("org.opentest4j:opentest4j:1.3.0")
     // other dependencies, e.g., 3rd-party libraries
 
     // IntelliJ Platform Gradle Plugin Dependencies Extension - read more: https://plugins.jetbrains.com/docs/intellij/tools-intellij-platform-gradle-plugin-dependencies-extension.html
@@ -144,12 +147,95 @@ java {
     //}
 }
 
+// The agent classes run inside the launched Tomcat (loaded from CATALINA_BASE/lib), not in the IDE.
+// They are compiled for Java 8 against the Tomcat API, and the classes of src/shared are compiled into both sides.
+sourceSets {
+    main {
+        java.srcDir("src/shared/java")
+    }
+    create("agent") {
+        java.srcDirs("src/agent/java", "src/shared/java")
+    }
+    // The log filters are loaded by the system class loader of Tomcat, they only depend on java.util.logging
+    create("juli") {
+        java.srcDirs("src/juli/java", "src/shared/java")
+    }
+}
+
+dependencies {
+    "agentCompileOnly"("org.apache.tomcat:tomcat-catalina:9.0.98")
+}
+
+// The benchmarks of src/jmh run the plugin code outside the IDE, with the IntelliJ Platform jars on the class path: ./gradlew jmh
+// The results are written to build/results/jmh/results.json, no baseline is committed: compare two runs on the same machine.
+configurations {
+    named("jmhCompileClasspath") { extendsFrom(compileClasspath.get()) }
+    named("jmhRuntimeClasspath") { extendsFrom(compileClasspath.get()) }
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// The launch benchmark of src/harness launches a local Tomcat distribution on generated webapps, without the IDE:
+// ./gradlew launchBenchmark -PtomcatHome=/opt/apache-tomcat-9.0.98 [-PjavaHome= -Pcontexts= -Pjars= -Pclasses= -Pjsps= -Pruns= -Pfeatures=]
+sourceSets {
+    create("harness") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+}
+
+configurations {
+    named("harnessCompileClasspath") { extendsFrom(compileClasspath.get()) }
+    named("harnessRuntimeClasspath") { extendsFrom(compileClasspath.get()) }
+}
+
+val launchBenchmark by tasks.registering(JavaExec::class) {
+    group = "verification"
+    description = "Measures the launch of a local Tomcat distribution on synthetic webapps for each startup feature"
+    classpath = sourceSets["harness"].runtimeClasspath
+    mainClass.set("com.poratu.idea.plugins.tomcat.harness.LaunchBenchmark")
+    val options = listOf("tomcatHome", "javaHome", "contexts", "jars", "classes", "jsps", "runs", "features")
+    args(options.mapNotNull { key -> providers.gradleProperty(key).orNull?.let { "--$key=$it" } })
+    args("--out=${layout.buildDirectory.dir("harness").get().asFile}")
+}
+
+val agentJar by tasks.registering(Jar::class) {
+    archiveFileName.set("smart-tomcat-agent.jar")
+    from(sourceSets["agent"].output)
+}
+
+val juliJar by tasks.registering(Jar::class) {
+    archiveFileName.set("smart-tomcat-juli.jar")
+    from(sourceSets["juli"].output)
+}
+
 tasks {
     // Set the JVM compatibility versions
     compileJava {
        // options.release.set(providers.gradleProperty("compatibleJdkVersion"))
     }
 
+    named<JavaCompile>("compileAgentJava") {
+        options.release.set(8)
+    }
+
+    named<JavaCompile>("compileJuliJava") {
+        options.release.set(8)
+    }
+
+    processResources {
+        from(agentJar, juliJar) {
+            into("agent")
+        }
+    }
+
     wrapper {
         gradleVersion = providers.gradleProperty("gradleVersion").toString()
     }
@@ -0,0 +1,87 @@
+package com.poratu.idea.plugins.tomcat.agent;
+
+import com.poratu.idea.plugins.tomcat.shared.LoggingControl;
+import org.apache.catalina.Container;
+import org.apache.catalina.Context;
+import org.apache.catalina.Loader;
+import org.apache.catalina.Server;
+import org.apache.catalina.Service;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Changes the level of a logger in the running Tomcat. JULI keeps a tree of loggers per class loader, so the level is
+ * set in the tree of the system, the common and the shared class loaders, and of each web application.
+ */
+public class LoggingLevels implements LoggingLevelsMBean {
+    private final Server server;
+
+    LoggingLevels(Server server) {
+        this.server = server;
+    }
+
+    @Override
+    public void setLevel(String loggerName, String level) {
+        Level parsed = level == null || level.isEmpty() ? null : Level.parse(level);
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        try {
+            for (ClassLoader classLoader : getClassLoaders()) {
+                // JULI returns the logger of the context class loader
+                thread.setContextClassLoader(classLoader);
+                Logger.getLogger(loggerName).setLevel(parsed);
+            }
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Override
+    public long getDroppedRecords() {
+        try {
+            // The filter is only on the class path of the system class loader when the rate is limited
+            Class<?> filter = Class.forName(LoggingControl.RATE_LIMIT_FILTER_CLASS, false, ClassLoader.getSystemClassLoader());
+            return (Long) filter.getMethod("getDroppedRecords").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return 0;
+        }
+    }
+
+    private Set<ClassLoader> getClassLoaders() {
+        Set<ClassLoader> classLoaders = new LinkedHashSet<>();
+        classLoaders.add(ClassLoader.getSystemClassLoader());
+        classLoaders.add(LoggingLevels.class.getClassLoader());
+        if (server.getParentClassLoader() != null) {
+            classLoaders.add(server.getParentClassLoader());
+        }
+        for (Service service : server.findServices()) {
+            Container engine = getEngine(service);
+            if (engine == null) {
+                continue;
+            }
+            for (Container host : engine.findChildren()) {
+                for (Container context : host.findChildren()) {
+                    Loader loader = context instanceof Context ? ((Context) context).getLoader() : null;
+                    if (loader != null && loader.getClassLoader() != null) {
+                        classLoaders.add(loader.getClassLoader());
+                    }
+                }
+            }
+        }
+        return classLoaders;
+    }
+
+    // Service.getContainer() returns an Engine since Tomcat 8.5 and a Container before, the call is resolved at runtime
+    private static Container getEngine(Service service) {
+        try {
+            Method getContainer = service.getClass().getMethod("getContainer");
+            return (Container) getContainer.invoke(service);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
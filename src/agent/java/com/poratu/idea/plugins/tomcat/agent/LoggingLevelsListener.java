@@ -0,0 +1,40 @@
+package com.poratu.idea.plugins.tomcat.agent;
+
+import com.poratu.idea.plugins.tomcat.shared.LoggingControl;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.LifecycleEvent;
+import org.apache.catalina.LifecycleListener;
+import org.apache.catalina.Server;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registers the {@link LoggingLevels} MBean while the server runs, so the IDE changes the logger levels through JMX.
+ * Added to the server.xml by Smart Tomcat when the run configuration generates the logging configuration.
+ */
+public class LoggingLevelsListener implements LifecycleListener {
+    private static final Logger LOG = Logger.getLogger(LoggingLevelsListener.class.getName());
+
+    @Override
+    public void lifecycleEvent(LifecycleEvent event) {
+        if (!(event.getLifecycle() instanceof Server)) {
+            return;
+        }
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(LoggingControl.OBJECT_NAME);
+            if (Lifecycle.AFTER_START_EVENT.equals(event.getType()) && !mBeanServer.isRegistered(name)) {
+                mBeanServer.registerMBean(new LoggingLevels((Server) event.getLifecycle()), name);
+            } else if (Lifecycle.BEFORE_STOP_EVENT.equals(event.getType()) && mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Failed to register the Smart Tomcat logging MBean", e);
+        }
+    }
+}
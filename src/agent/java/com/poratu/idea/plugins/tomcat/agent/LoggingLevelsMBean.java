@@ -0,0 +1,13 @@
+package com.poratu.idea.plugins.tomcat.agent;
+
+/**
+ * The logging MBean of the agent, see {@link com.poratu.idea.plugins.tomcat.shared.LoggingControl}
+ */
+public interface LoggingLevelsMBean {
+    /**
+     * @param level a java.util.logging level, or an empty string to inherit the level of the parent logger
+     */
+    void setLevel(String loggerName, String level);
+
+    long getDroppedRecords();
+}
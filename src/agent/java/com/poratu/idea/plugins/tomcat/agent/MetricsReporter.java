@@ -0,0 +1,110 @@
+package com.poratu.idea.plugins.tomcat.agent;
+
+import com.poratu.idea.plugins.tomcat.shared.MetricsProtocol;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Sends the histograms of all the {@link RequestMetricsValve}s and the sampled slow requests to the IDE, from a single daemon thread.
+ * The thread is started with the first valve and reconnects as long as Tomcat runs, the IDE side may be closed at any time.
+ */
+final class MetricsReporter implements Runnable {
+    private static final Set<RequestMetricsValve> VALVES = new CopyOnWriteArraySet<>();
+    private static Thread thread;
+
+    private final int port;
+    private final long intervalMillis;
+
+    private MetricsReporter(int port, long intervalMillis) {
+        this.port = port;
+        this.intervalMillis = intervalMillis;
+    }
+
+    static synchronized void register(RequestMetricsValve valve) {
+        VALVES.add(valve);
+        Integer port = Integer.getInteger(MetricsProtocol.PORT_PROPERTY);
+        if (thread != null || port == null) {
+            return;
+        }
+
+        thread = new Thread(new MetricsReporter(port, Long.getLong(MetricsProtocol.INTERVAL_PROPERTY, 1000)), "SmartTomcat-metrics-reporter");
+        thread.setDaemon(true);
+        // Do not pin the class loader of the first web application
+        thread.setContextClassLoader(null);
+        thread.start();
+    }
+
+    static void unregister(RequestMetricsValve valve) {
+        VALVES.remove(valve);
+    }
+
+    @Override
+    public void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                while (true) {
+                    writeSnapshot(writer);
+                    writer.flush();
+                    Thread.sleep(intervalMillis);
+                }
+            } catch (IOException e) {
+                // The IDE is not listening (anymore), retry later
+                if (!sleep()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(intervalMillis * 5);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static void writeSnapshot(Writer writer) throws IOException {
+        String slowRequest;
+        while ((slowRequest = SlowRequestSampler.pollCompleted()) != null) {
+            writer.write(slowRequest);
+        }
+
+        StringBuilder line = new StringBuilder(256);
+        for (RequestMetricsValve valve : VALVES) {
+            String context = MetricsProtocol.sanitize(valve.getContextPath());
+            for (RequestMetricsValve.ServletLatency servlet : valve.getServlets()) {
+                line.setLength(0);
+                line.append(MetricsProtocol.RECORD).append(MetricsProtocol.SEPARATOR)
+                        .append(context).append(MetricsProtocol.SEPARATOR)
+                        .append(MetricsProtocol.sanitize(servlet.name)).append(MetricsProtocol.SEPARATOR)
+                        .append(MetricsProtocol.sanitize(servlet.servletClass)).append(MetricsProtocol.SEPARATOR)
+                        .append(MetricsProtocol.sanitize(String.join(MetricsProtocol.MAPPING_SEPARATOR, servlet.mappings)))
+                        .append(MetricsProtocol.SEPARATOR)
+                        .append(servlet.histogram.getTotalCount()).append(MetricsProtocol.SEPARATOR)
+                        .append(servlet.histogram.getTotalMicros()).append(MetricsProtocol.SEPARATOR);
+                int start = line.length();
+                servlet.histogram.forEachBucket((index, count) -> {
+                    if (line.length() > start) {
+                        line.append(',');
+                    }
+                    line.append(index).append(':').append(count);
+                });
+                writer.write(line.append('\n').toString());
+            }
+        }
+        writer.write(MetricsProtocol.END_OF_SNAPSHOT + "\n");
+    }
+}
@@ -0,0 +1,102 @@
+package com.poratu.idea.plugins.tomcat.agent;
+
+import com.poratu.idea.plugins.tomcat.shared.LatencyHistogram;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the latency of each request into a histogram per servlet of the context.
+ * Added to each web application context by Smart Tomcat, the histograms are sent to the IDE by the {@link MetricsReporter}.
+ * <p>
+ * Only the Catalina request API is used, so the same class runs on the javax and the jakarta based Tomcat versions.
+ * The latency of asynchronous requests is the time until the container thread is released.
+ * <p>
+ * With a {@code slowThresholdMillis} attribute, the stacks of the slow requests are sampled by the {@link SlowRequestSampler}.
+ */
+public class RequestMetricsValve extends ValveBase {
+    static final String UNMAPPED = "(unmapped)";
+
+    private final ConcurrentMap<String, ServletLatency> servlets = new ConcurrentHashMap<>();
+    private long slowThresholdMillis;
+
+    public RequestMetricsValve() {
+        super(true);
+    }
+
+    public long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    @Override
+    protected void startInternal() throws LifecycleException {
+        super.startInternal();
+        MetricsReporter.register(this);
+        if (slowThresholdMillis > 0) {
+            SlowRequestSampler.start(slowThresholdMillis);
+        }
+    }
+
+    @Override
+    protected void stopInternal() throws LifecycleException {
+        MetricsReporter.unregister(this);
+        super.stopInternal();
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        long start = System.nanoTime();
+        SlowRequestSampler.Slot slot = slowThresholdMillis > 0 ? SlowRequestSampler.enter(getContextPath(), request, start) : null;
+        try {
+            getNext().invoke(request, response);
+        } finally {
+            long micros = (System.nanoTime() - start) / 1000;
+            if (slot != null) {
+                SlowRequestSampler.exit(slot, micros);
+            }
+            record(request.getWrapper(), micros);
+        }
+    }
+
+    private void record(Wrapper wrapper, long micros) {
+        String name = wrapper == null ? UNMAPPED : wrapper.getName();
+        // get() first, computeIfAbsent() would lock the bin on each request
+        ServletLatency latency = servlets.get(name);
+        if (latency == null) {
+            latency = servlets.computeIfAbsent(name, key -> new ServletLatency(wrapper));
+        }
+        latency.histogram.record(micros);
+    }
+
+    String getContextPath() {
+        return getContainer() == null ? "" : getContainer().getName();
+    }
+
+    Iterable<ServletLatency> getServlets() {
+        return servlets.values();
+    }
+
+    static final class ServletLatency {
+        final String name;
+        final String servletClass;
+        final String[] mappings;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        ServletLatency(Wrapper wrapper) {
+            this.name = wrapper == null ? UNMAPPED : wrapper.getName();
+            this.servletClass = wrapper == null ? null : wrapper.getServletClass();
+            this.mappings = wrapper == null ? new String[0] : wrapper.findMappings();
+        }
+    }
+}
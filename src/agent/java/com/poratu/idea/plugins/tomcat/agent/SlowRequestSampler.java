@@ -0,0 +1,206 @@
+package com.poratu.idea.plugins.tomcat.agent;
+
+import com.poratu.idea.plugins.tomcat.shared.MetricsProtocol;
+import org.apache.catalina.connector.Request;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples the stack of the request threads which exceed the slow request threshold, until their request completes.
+ * <p>
+ * The request path only writes a few volatile fields of a per-thread {@link Slot}, the stacks are read by a single daemon thread
+ * and only for the requests which are already slow. The completed slow requests are queued for the {@link MetricsReporter}.
+ */
+final class SlowRequestSampler implements Runnable {
+    private static final int MAX_QUEUED = 50;
+    private static final int MAX_DEPTH = 128;
+
+    private static final Set<Slot> SLOTS = ConcurrentHashMap.newKeySet();
+    private static final ThreadLocal<Slot> CURRENT = ThreadLocal.withInitial(() -> {
+        Slot slot = new Slot(Thread.currentThread());
+        SLOTS.add(slot);
+        return slot;
+    });
+    private static final Queue<String> COMPLETED = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger QUEUED = new AtomicInteger();
+    private static Thread thread;
+    private static volatile long thresholdNanos;
+
+    private final long intervalMillis;
+    private final Map<Slot, SlowRequest> sampled = new HashMap<>();
+
+    private SlowRequestSampler(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    static synchronized void start(long thresholdMillis) {
+        thresholdNanos = thresholdMillis * 1_000_000;
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(new SlowRequestSampler(Long.getLong(MetricsProtocol.SAMPLER_INTERVAL_PROPERTY, 20)), "SmartTomcat-slow-request-sampler");
+        thread.setDaemon(true);
+        thread.setContextClassLoader(null);
+        thread.start();
+    }
+
+    static Slot enter(String context, Request request, long startNanos) {
+        Slot slot = CURRENT.get();
+        slot.context = context;
+        slot.request = request;
+        slot.startNanos = startNanos;
+        slot.sequence++;
+        return slot;
+    }
+
+    static void exit(Slot slot, long durationMicros) {
+        slot.lastDurationMicros = durationMicros;
+        slot.completedSequence = slot.sequence;
+    }
+
+    /**
+     * @return the next completed slow request in the wire format, or {@code null}
+     */
+    static String pollCompleted() {
+        String request = COMPLETED.poll();
+        if (request != null) {
+            QUEUED.decrementAndGet();
+        }
+        return request;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            sample(System.nanoTime());
+        }
+    }
+
+    private void sample(long now) {
+        for (Iterator<Slot> it = SLOTS.iterator(); it.hasNext(); ) {
+            Slot slot = it.next();
+            if (!slot.thread.isAlive()) {
+                it.remove();
+                sampled.remove(slot);
+                continue;
+            }
+
+            long sequence = slot.sequence;
+            SlowRequest slow = sampled.get(slot);
+            if (slow != null && slot.completedSequence >= slow.sequence) {
+                long duration = slot.completedSequence == slow.sequence ? slot.lastDurationMicros : slow.elapsedMicros(now);
+                complete(slow, duration);
+                sampled.remove(slot);
+                slow = null;
+            }
+
+            boolean inFlight = slot.completedSequence < sequence;
+            if (!inFlight || now - slot.startNanos < thresholdNanos) {
+                continue;
+            }
+
+            if (slow == null) {
+                slow = new SlowRequest(slot, sequence);
+                sampled.put(slot, slow);
+            }
+            StackTraceElement[] stack = slot.thread.getStackTrace();
+            // The thread may have completed the request while its stack was captured
+            if (slot.sequence == sequence && slot.completedSequence < sequence) {
+                slow.add(stack);
+            }
+        }
+    }
+
+    private static void complete(SlowRequest slow, long durationMicros) {
+        if (slow.samples == 0 || QUEUED.incrementAndGet() > MAX_QUEUED) {
+            QUEUED.decrementAndGet();
+            return;
+        }
+        COMPLETED.add(slow.encode(durationMicros));
+    }
+
+    static final class Slot {
+        final Thread thread;
+        volatile String context;
+        volatile Request request;
+        volatile long startNanos;
+        volatile long sequence;
+        volatile long completedSequence;
+        volatile long lastDurationMicros;
+
+        Slot(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    private static final class SlowRequest {
+        private final long sequence;
+        private final long startNanos;
+        private final String context;
+        private final String method;
+        private final String uri;
+        private final String threadName;
+        private final Map<String, Integer> stacks = new HashMap<>();
+        private int samples;
+
+        SlowRequest(Slot slot, long sequence) {
+            this.sequence = sequence;
+            this.startNanos = slot.startNanos;
+            this.context = slot.context;
+            this.threadName = slot.thread.getName();
+            // The request object is recycled once completed, the values may be inconsistent in a rare race
+            Request request = slot.request;
+            this.method = request == null ? "" : String.valueOf(request.getMethod());
+            this.uri = request == null ? "" : String.valueOf(request.getRequestURI());
+        }
+
+        long elapsedMicros(long now) {
+            return (now - startNanos) / 1000;
+        }
+
+        void add(StackTraceElement[] stack) {
+            StringBuilder folded = new StringBuilder();
+            // Root frame first, the deepest frames are cut so the roots of the flame graph stay stable
+            for (int i = stack.length - 1; i >= Math.max(0, stack.length - MAX_DEPTH); i--) {
+                StackTraceElement frame = stack[i];
+                if (folded.length() > 0) {
+                    folded.append(MetricsProtocol.FRAME_SEPARATOR);
+                }
+                folded.append(frame.getClassName()).append('.').append(frame.getMethodName())
+                        .append(':').append(frame.getLineNumber());
+            }
+            stacks.merge(folded.toString(), 1, Integer::sum);
+            samples++;
+        }
+
+        String encode(long durationMicros) {
+            List<String> lines = new ArrayList<>();
+            lines.add(MetricsProtocol.SLOW_REQUEST + MetricsProtocol.SEPARATOR + MetricsProtocol.sanitize(context)
+                    + MetricsProtocol.SEPARATOR + MetricsProtocol.sanitize(method)
+                    + MetricsProtocol.SEPARATOR + MetricsProtocol.sanitize(uri)
+                    + MetricsProtocol.SEPARATOR + MetricsProtocol.sanitize(threadName)
+                    + MetricsProtocol.SEPARATOR + durationMicros
+                    + MetricsProtocol.SEPARATOR + samples);
+            for (Map.Entry<String, Integer> stack : stacks.entrySet()) {
+                lines.add(MetricsProtocol.STACK + MetricsProtocol.SEPARATOR + stack.getValue()
+                        + MetricsProtocol.SEPARATOR + MetricsProtocol.sanitize(stack.getKey()));
+            }
+            return String.join("\n", lines) + "\n";
+        }
+    }
+}
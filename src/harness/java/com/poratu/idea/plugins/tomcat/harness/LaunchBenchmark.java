@@ -0,0 +1,380 @@
+package com.poratu.idea.plugins.tomcat.harness;
+
+import com.google.gson.GsonBuilder;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import com.poratu.idea.plugins.tomcat.conf.CatalinaConf;
+import com.poratu.idea.plugins.tomcat.conf.JvmPreset;
+import com.poratu.idea.plugins.tomcat.perf.ProcessMetrics;
+import com.poratu.idea.plugins.tomcat.perf.TomcatStartupListener;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Launches Tomcat from a local distribution on synthetic webapps and measures, for each combination of startup
+ * features: the launch preparation time, the server startup time reported by Tomcat, the time from the process spawn
+ * to the first successful request, and the resident set size once every context has answered.
+ * <p>
+ * Every scenario starts from an empty Catalina base and is launched once before the measured runs, which populates
+ * the incremental base and the CDS archive, and warms up the file system cache.
+ * <p>
+ * Runs without the IDE: {@code ./gradlew launchBenchmark -PtomcatHome=/opt/apache-tomcat-9.0.98}, the sizes and the
+ * features are set with {@code -Pcontexts=3 -Pjars=50 -Pclasses=200 -Pjsps=20 -Pruns=3 -Pfeatures=parallel,cds}
+ */
+public final class LaunchBenchmark {
+    private static final String TOMCAT_MAIN_CLASS = "org.apache.catalina.startup.Bootstrap";
+    private static final String JDK_JAVA_OPTIONS = "--add-opens=java.base/java.lang=ALL-UNNAMED "
+            + "--add-opens=java.base/java.io=ALL-UNNAMED "
+            + "--add-opens=java.base/java.util=ALL-UNNAMED "
+            + "--add-opens=java.base/java.util.concurrent=ALL-UNNAMED "
+            + "--add-opens=java.rmi/sun.rmi.transport=ALL-UNNAMED";
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long STARTUP_LOG_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final int POLL_INTERVAL_MILLIS = 10;
+
+    record Scenario(String name, Set<StartupFeature> features) {
+    }
+
+    /**
+     * @param startupMillis the server startup time logged by Tomcat, or -1 if it was not logged
+     * @param rssKb         the resident set size in kilobytes, or -1 if it cannot be measured on this platform
+     */
+    record Run(long prepMillis, long startupMillis, long firstRequestMillis, long allContextsMillis, long rssKb) {
+    }
+
+    record Result(String scenario, List<String> features, List<Run> runs, Run median) {
+    }
+
+    private final Path tomcatHome;
+    private final Path javaHome;
+    private final String tomcatVersion;
+    private final int tomcatMajorVersion;
+    private final int javaVersion;
+    private final Path outputDir;
+
+    private LaunchBenchmark(Path tomcatHome, Path javaHome, Path outputDir) throws IOException {
+        this.tomcatHome = tomcatHome;
+        this.javaHome = javaHome;
+        this.outputDir = outputDir;
+        this.tomcatVersion = readTomcatVersion(tomcatHome);
+        this.tomcatMajorVersion = CatalinaConf.parseMajorVersion(tomcatVersion);
+        this.javaVersion = readJavaFeatureVersion(javaHome);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArguments(args);
+        String tomcatHome = options.get("tomcatHome");
+        if (tomcatHome == null) {
+            throw new IllegalArgumentException("The Tomcat distribution is missing: --tomcatHome=<path>");
+        }
+
+        LaunchBenchmark benchmark = new LaunchBenchmark(Paths.get(tomcatHome),
+                Paths.get(options.getOrDefault("javaHome", System.getProperty("java.home"))),
+                Paths.get(options.getOrDefault("out", "build/harness")));
+        SyntheticWebapps.Size size = new SyntheticWebapps.Size(
+                Integer.parseInt(options.getOrDefault("contexts", "3")),
+                Integer.parseInt(options.getOrDefault("jars", "50")),
+                Integer.parseInt(options.getOrDefault("classes", "200")),
+                Integer.parseInt(options.getOrDefault("jsps", "20")));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+
+        Set<StartupFeature> features = EnumSet.allOf(StartupFeature.class);
+        if (options.containsKey("features")) {
+            features.clear();
+            Arrays.stream(options.get("features").split(",")).map(String::trim).map(StartupFeature::fromId).forEach(features::add);
+        }
+
+        benchmark.run(size, runs, benchmark.createScenarios(features));
+    }
+
+    /**
+     * `--key=value` arguments
+     */
+    private static Map<String, String> parseArguments(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    /**
+     * The baseline without any feature, each feature on its own, and all features together
+     */
+    private List<Scenario> createScenarios(Set<StartupFeature> features) {
+        Set<StartupFeature> supported = EnumSet.noneOf(StartupFeature.class);
+        for (StartupFeature feature : features) {
+            if (feature == StartupFeature.CDS && javaVersion < StartupFeature.CDS_MIN_JAVA_VERSION) {
+                System.out.println("Skipped " + feature.getId() + ": Java " + StartupFeature.CDS_MIN_JAVA_VERSION + " or later is required");
+            } else if (feature == StartupFeature.JAR_SCAN_FILTER && tomcatMajorVersion < StartupFeature.JAR_SCAN_FILTER_MIN_TOMCAT_VERSION) {
+                System.out.println("Skipped " + feature.getId() + ": Tomcat " + StartupFeature.JAR_SCAN_FILTER_MIN_TOMCAT_VERSION + " or later is required");
+            } else {
+                supported.add(feature);
+            }
+        }
+
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("baseline", EnumSet.noneOf(StartupFeature.class)));
+        for (StartupFeature feature : supported) {
+            scenarios.add(new Scenario(feature.getId(), EnumSet.of(feature)));
+        }
+        if (supported.size() > 1) {
+            scenarios.add(new Scenario("all", supported));
+        }
+        return scenarios;
+    }
+
+    private void run(SyntheticWebapps.Size size, int runs, List<Scenario> scenarios) throws Exception {
+        System.out.println("Tomcat " + tomcatVersion + ", Java " + javaVersion + ", " + size.contexts() + " contexts of "
+                + size.jars() + " jars and " + size.classes() + " classes per jar, " + size.jsps() + " JSPs");
+        System.out.println("Generating the webapps...");
+        List<SyntheticWebapps.Webapp> webapps = SyntheticWebapps.generate(outputDir.resolve("webapps"), size);
+        long webappBytes = SyntheticWebapps.getSize(outputDir.resolve("webapps"), size);
+
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            Path catalinaBase = outputDir.resolve("base").resolve(scenario.name());
+            FileUtil.delete(catalinaBase);
+            Files.createDirectories(catalinaBase);
+
+            System.out.println("Scenario " + scenario.name() + ": priming launch");
+            launch(scenario, catalinaBase, webapps);
+
+            List<Run> scenarioRuns = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Run run = launch(scenario, catalinaBase, webapps);
+                System.out.println("Scenario " + scenario.name() + ": run " + (i + 1) + "/" + runs + " " + run);
+                scenarioRuns.add(run);
+            }
+            results.add(new Result(scenario.name(), scenario.features().stream().map(StartupFeature::getId).toList(), scenarioRuns, median(scenarioRuns)));
+        }
+
+        printResults(results);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tomcatVersion", tomcatVersion);
+        report.put("javaVersion", javaVersion);
+        report.put("os", SystemInfo.getOsNameAndVersion());
+        report.put("size", size);
+        report.put("webappBytes", webappBytes);
+        report.put("results", results);
+        Path reportFile = outputDir.resolve("launch-benchmark-" + size.getKey() + ".json");
+        Files.writeString(reportFile, new GsonBuilder().setPrettyPrinting().create().toJson(report));
+        System.out.println("Results written to " + reportFile.toAbsolutePath());
+    }
+
+    private Run launch(Scenario scenario, Path catalinaBase, List<SyntheticWebapps.Webapp> webapps) throws Exception {
+        int port = findFreePort();
+        int adminPort = findFreePort();
+
+        long prepStart = System.nanoTime();
+        new LaunchPreparation(tomcatHome, tomcatVersion, scenario.features()).prepare(catalinaBase, webapps, port, adminPort);
+        long prepMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - prepStart);
+
+        ProcessBuilder builder = new ProcessBuilder(createCommandLine(scenario, catalinaBase))
+                .directory(catalinaBase.toFile())
+                .redirectErrorStream(true);
+        if (javaVersion >= 9) {
+            builder.environment().put("JDK_JAVA_OPTIONS", JDK_JAVA_OPTIONS);
+        }
+
+        long spawn = System.nanoTime();
+        Process process = builder.start();
+        try {
+            CompletableFuture<Long> startupMillis = readStartupMillis(process.getInputStream());
+            long firstRequestMillis = awaitSuccessfulRequest(process, port, webapps.get(0).contextPath(), spawn);
+            for (SyntheticWebapps.Webapp webapp : webapps.subList(1, webapps.size())) {
+                awaitSuccessfulRequest(process, port, webapp.contextPath(), spawn);
+            }
+            long allContextsMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - spawn);
+            long rssKb = ProcessMetrics.getRssKb(process.pid());
+            // Tomcat logs the startup time right after the connector is started
+            long startup = startupMillis.completeOnTimeout(-1L, STARTUP_LOG_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).get();
+            return new Run(prepMillis, startup, firstRequestMillis, allContextsMillis, rssKb);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private List<String> createCommandLine(Scenario scenario, Path catalinaBase) {
+        List<String> command = new ArrayList<>();
+        command.add(javaHome.resolve("bin").resolve(SystemInfo.isWindows ? "java.exe" : "java").toString());
+        if (scenario.features().contains(StartupFeature.FAST_DEV_PRESET)) {
+            command.addAll(Arrays.asList(JvmPreset.FAST_DEV_STARTUP.getVmOptions(javaVersion).split(" ")));
+        }
+        if (scenario.features().contains(StartupFeature.CDS)) {
+            // Outside of the base, so the archive is kept when the base is cleaned
+            Path archive = outputDir.resolve("cds").resolve(scenario.name() + ".jsa");
+            FileUtil.createParentDirs(archive.toFile());
+            command.add("-XX:+AutoCreateSharedArchive");
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-cp");
+        command.add(tomcatHome.resolve("bin/bootstrap.jar") + File.pathSeparator + tomcatHome.resolve("bin/tomcat-juli.jar"));
+        command.add("-Dcatalina.home=" + tomcatHome);
+        command.add("-Dcatalina.base=" + catalinaBase);
+        command.add("-Djava.io.tmpdir=" + catalinaBase.resolve("temp"));
+        command.add("-Djava.util.logging.config.file=" + catalinaBase.resolve("conf/logging.properties"));
+        command.add("-Djava.util.logging.manager=org.apache.juli.ClassLoaderLogManager");
+        command.add(TOMCAT_MAIN_CLASS);
+        command.add("start");
+        return command;
+    }
+
+    /**
+     * Consumes the console of Tomcat, so the process never blocks on a full pipe, and parses the server startup time
+     */
+    private static CompletableFuture<Long> readStartupMillis(InputStream console) {
+        CompletableFuture<Long> startupMillis = new CompletableFuture<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(console, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    long millis = TomcatStartupListener.parseServerStartupMillis(line);
+                    if (millis >= 0) {
+                        startupMillis.complete(millis);
+                    }
+                }
+            } catch (IOException ignored) {
+                // The process was destroyed
+            }
+            startupMillis.complete(-1L);
+        }, "Tomcat console reader");
+        reader.setDaemon(true);
+        reader.start();
+        return startupMillis;
+    }
+
+    /**
+     * Polls the index.jsp of the context, which is compiled on the first request
+     *
+     * @return the milliseconds from the process spawn to the first response with status 200
+     */
+    private static long awaitSuccessfulRequest(Process process, int port, String contextPath, long spawn) throws Exception {
+        URL url = new URL("http://127.0.0.1:" + port + contextPath + "/");
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Tomcat terminated with exit code " + process.exitValue());
+            }
+            try {
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                connection.setConnectTimeout(1000);
+                connection.setReadTimeout((int) STARTUP_TIMEOUT_MILLIS);
+                int status = connection.getResponseCode();
+                connection.disconnect();
+                if (status == HttpURLConnection.HTTP_OK) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - spawn);
+                }
+            } catch (IOException e) {
+                // The connector is not started yet
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+        throw new IllegalStateException("No successful response from " + url + " within " + STARTUP_TIMEOUT_MILLIS + " ms");
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Run median(List<Run> runs) {
+        return new Run(
+                median(runs.stream().mapToLong(Run::prepMillis).toArray()),
+                median(runs.stream().mapToLong(Run::startupMillis).toArray()),
+                median(runs.stream().mapToLong(Run::firstRequestMillis).toArray()),
+                median(runs.stream().mapToLong(Run::allContextsMillis).toArray()),
+                median(runs.stream().mapToLong(Run::rssKb).toArray()));
+    }
+
+    private static long median(long[] values) {
+        if (values.length == 0) {
+            return -1;
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    private static void printResults(List<Result> results) {
+        String format = "%-12s %10s %12s %16s %16s %10s%n";
+        System.out.println();
+        System.out.printf(format, "Scenario", "Prep (ms)", "Startup (ms)", "1st request (ms)", "All contexts (ms)", "RSS (MB)");
+        for (Result result : results) {
+            Run median = result.median();
+            System.out.printf(format, result.scenario(), median.prepMillis(), median.startupMillis(), median.firstRequestMillis(),
+                    median.allContextsMillis(), median.rssKb() < 0 ? "-" : String.valueOf(median.rssKb() / 1024));
+        }
+        System.out.println();
+    }
+
+    private static String readTomcatVersion(Path tomcatHome) throws IOException {
+        Path catalinaJar = tomcatHome.resolve("lib/catalina.jar");
+        if (!Files.exists(catalinaJar)) {
+            throw new IOException("Can not find catalina.jar in " + tomcatHome);
+        }
+
+        try (JarFile jar = new JarFile(catalinaJar.toFile())) {
+            ZipEntry entry = jar.getEntry("org/apache/catalina/util/ServerInfo.properties");
+            if (entry == null) {
+                throw new IOException("Can not read server version in " + tomcatHome);
+            }
+            Properties p = new Properties();
+            try (InputStream is = jar.getInputStream(entry)) {
+                p.load(is);
+            }
+            return p.getProperty("server.number");
+        }
+    }
+
+    /**
+     * @return the feature version of the JDK from its `release` file, e.g. 8 for "1.8.0_392" and 17 for "17.0.2"
+     */
+    private static int readJavaFeatureVersion(Path javaHome) throws IOException {
+        Path release = javaHome.resolve("release");
+        if (!Files.exists(release)) {
+            throw new IOException("Can not find the release file of the JDK in " + javaHome);
+        }
+
+        Properties p = new Properties();
+        try (InputStream is = Files.newInputStream(release)) {
+            p.load(is);
+        }
+        String version = p.getProperty("JAVA_VERSION", "").replace("\"", "");
+        String[] parts = version.split("[._-]");
+        int feature = Integer.parseInt(parts[0]);
+        return feature == 1 && parts.length > 1 ? Integer.parseInt(parts[1]) : feature;
+    }
+}
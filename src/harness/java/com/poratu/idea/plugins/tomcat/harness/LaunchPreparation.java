@@ -0,0 +1,116 @@
+package com.poratu.idea.plugins.tomcat.harness;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.conf.CatalinaConf;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The launch preparation of `TomcatCommandLineState#createJavaParameters` for a run configuration with the default
+ * options: copy conf, update server.xml, write one context file per webapp with the ResourceSets of its class path,
+ * and delete the work files. The state itself needs a project and its modules, the harness runs the same steps on
+ * the synthetic webapps with the {@link CatalinaConf} rewrites of the plugin. Only the candidate features are
+ * applied here: the JarScanFilter and the incremental Catalina base.
+ */
+final class LaunchPreparation {
+    private final Path tomcatHome;
+    private final String tomcatVersion;
+    private final int tomcatMajorVersion;
+    private final Set<StartupFeature> features;
+
+    LaunchPreparation(Path tomcatHome, String tomcatVersion, Set<StartupFeature> features) {
+        this.tomcatHome = tomcatHome;
+        this.tomcatVersion = tomcatVersion;
+        this.tomcatMajorVersion = CatalinaConf.parseMajorVersion(tomcatVersion);
+        this.features = features;
+    }
+
+    void prepare(Path catalinaBase, List<SyntheticWebapps.Webapp> webapps, int port, int adminPort) throws Exception {
+        boolean incremental = features.contains(StartupFeature.INCREMENTAL_BASE);
+
+        Path confPath = catalinaBase.resolve("conf");
+        if (!incremental || !Files.exists(confPath.resolve("server.xml"))) {
+            FileUtil.delete(confPath);
+            FileUtil.createDirectory(confPath.toFile());
+            FileUtil.copyDir(tomcatHome.resolve("conf").toFile(), confPath.toFile());
+        }
+
+        updateServerConf(confPath, webapps.size(), port, adminPort);
+        FileUtil.createDirectory(catalinaBase.resolve("temp").toFile());
+        FileUtil.createDirectory(catalinaBase.resolve("logs").toFile());
+
+        Path contextFilesDir = confPath.resolve(Paths.get("Catalina", "localhost"));
+        if (incremental) {
+            // The context files are always rewritten, remove the ones of webapps which are not deployed anymore
+            FileUtil.delete(contextFilesDir);
+        }
+        FileUtil.createDirectory(contextFilesDir.toFile());
+        for (SyntheticWebapps.Webapp webapp : webapps) {
+            createContextFile(contextFilesDir, webapp);
+        }
+
+        if (!incremental) {
+            FileUtil.processFilesRecursively(catalinaBase.resolve("work/Catalina/localhost").toFile(), file -> {
+                if (file.isFile() && !file.getName().endsWith(".ser")) {
+                    FileUtil.delete(file);
+                }
+                return true;
+            });
+        }
+    }
+
+    private void updateServerConf(Path confPath, int contexts, int port, int adminPort) throws Exception {
+        Path serverXml = confPath.resolve("server.xml");
+        Document doc = PluginUtils.createDocumentBuilder().parse(serverXml.toFile());
+        boolean parallel = features.contains(StartupFeature.PARALLEL_START) && contexts > 1 && tomcatMajorVersion >= 7;
+        CatalinaConf.ServerOptions options = CatalinaConf.ServerOptions.defaults(tomcatVersion, port, adminPort, parallel ? contexts : 1);
+        CatalinaConf.updateServerXml(doc, options, () -> {
+            throw new ExecutionException("No SSL connector is generated without HTTP/2");
+        });
+
+        if (!parallel) {
+            // The attribute is removed, as the incremental base keeps the server.xml of the previous launch
+            for (String container : new String[]{"Engine", "Host"}) {
+                Element element = (Element) doc.getElementsByTagName(container).item(0);
+                if (element != null) {
+                    element.removeAttribute("startStopThreads");
+                }
+            }
+        }
+
+        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(serverXml.toFile()));
+    }
+
+    private void createContextFile(Path contextFilesDir, SyntheticWebapps.Webapp webapp) throws Exception {
+        Document doc = PluginUtils.createDocumentBuilder().newDocument();
+        Element contextRoot = doc.createElement("Context");
+        contextRoot.setAttribute("docBase", webapp.docBase().toString());
+        CatalinaConf.addClassPathResources(doc, contextRoot, webapp.classPath(), tomcatVersion, CatalinaConf.ResourceOptions.DEFAULTS);
+
+        if (features.contains(StartupFeature.JAR_SCAN_FILTER) && tomcatMajorVersion >= StartupFeature.JAR_SCAN_FILTER_MIN_TOMCAT_VERSION) {
+            Element jarScanner = doc.createElement("JarScanner");
+            jarScanner.setAttribute("scanClassPath", "false");
+            Element jarScanFilter = doc.createElement("JarScanFilter");
+            jarScanFilter.setAttribute("tldSkip", "*.jar");
+            jarScanFilter.setAttribute("pluggabilitySkip", "*.jar");
+            jarScanner.appendChild(jarScanFilter);
+            contextRoot.appendChild(jarScanner);
+        }
+        doc.appendChild(contextRoot);
+
+        String contextFileName = StringUtil.trim(webapp.contextPath(), ch -> ch != '/').replace('/', '#');
+        PluginUtils.createTransformer().transform(new DOMSource(doc),
+                new StreamResult(contextFilesDir.resolve(StringUtil.defaultIfEmpty(contextFileName, "ROOT") + ".xml").toFile()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.poratu.idea.plugins.tomcat.harness;
+
+/**
+ * The startup features compared by the launch benchmark. Parallel start and the fast development preset are what the
+ * plugin does today, the others are candidates measured before they are implemented.
+ */
+enum StartupFeature {
+    /**
+     * `startStopThreads="0"` on the Engine and the Host, set by the plugin when several contexts are deployed
+     */
+    PARALLEL_START("parallel"),
+    /**
+     * The VM options of {@link com.poratu.idea.plugins.tomcat.conf.JvmPreset#FAST_DEV_STARTUP}
+     */
+    FAST_DEV_PRESET("fastdev"),
+    /**
+     * Reuse the Catalina base of the previous launch: conf is copied only when missing, and the work files,
+     * e.g. the compiled JSPs, are kept
+     */
+    INCREMENTAL_BASE("incremental"),
+    /**
+     * Skip the TLD and the pluggability scan of all jars with the JarScanFilter of the context files, Tomcat 8 or later
+     */
+    JAR_SCAN_FILTER("jarscan"),
+    /**
+     * A dynamic CDS archive of the classes loaded by Tomcat and the webapps, created by the first launch, Java 19 or later
+     */
+    CDS("cds");
+
+    static final int CDS_MIN_JAVA_VERSION = 19;
+    static final int JAR_SCAN_FILTER_MIN_TOMCAT_VERSION = 8;
+
+    private final String id;
+
+    StartupFeature(String id) {
+        this.id = id;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    static StartupFeature fromId(String id) {
+        for (StartupFeature feature : values()) {
+            if (feature.id.equals(id)) {
+                return feature;
+            }
+        }
+        throw new IllegalArgumentException("Unknown startup feature: " + id);
+    }
+}
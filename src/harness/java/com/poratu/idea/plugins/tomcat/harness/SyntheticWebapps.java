@@ -0,0 +1,187 @@
+package com.poratu.idea.plugins.tomcat.harness;
+
+import com.intellij.openapi.util.io.FileUtil;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Generates the webapps of a multi-module project: each context has its own output directory of compiled classes and
+ * a docBase with JSPs, and all contexts share the same third party jars, like the jars of a local Maven repository.
+ * The webapps are generated once per size and reused by the following benchmarks.
+ */
+final class SyntheticWebapps {
+    private static final String COMPLETE_MARKER = ".complete";
+
+    /**
+     * @param contexts the number of webapps
+     * @param jars     the number of jars on the class path of each webapp
+     * @param classes  the number of classes in each jar and in the output directory of each webapp
+     * @param jsps     the number of JSPs of each webapp, besides its index.jsp
+     */
+    record Size(int contexts, int jars, int classes, int jsps) {
+        String getKey() {
+            return "c" + contexts + "-j" + jars + "-k" + classes + "-p" + jsps;
+        }
+    }
+
+    /**
+     * @param classPath the runtime class path of the module: the output directory, then the jars
+     */
+    record Webapp(String contextPath, Path docBase, List<Path> classPath) {
+    }
+
+    private SyntheticWebapps() {
+    }
+
+    static List<Webapp> generate(Path dir, Size size) throws IOException {
+        Path root = dir.resolve(size.getKey());
+        if (!Files.exists(root.resolve(COMPLETE_MARKER))) {
+            FileUtil.delete(root);
+            Files.createDirectories(root);
+            for (int j = 0; j < size.jars(); j++) {
+                String pkg = "org.example.lib" + j;
+                Path classes = compile(root.resolve("tmp").resolve("lib" + j), pkg, size.classes());
+                createJar(classes, getJar(root, j));
+            }
+            for (int i = 0; i < size.contexts(); i++) {
+                String pkg = "org.example.app" + i;
+                Path module = root.resolve("app" + i);
+                compile(module, pkg, size.classes());
+                createDocBase(module.resolve("webapp"), pkg, size);
+            }
+            FileUtil.delete(root.resolve("tmp"));
+            Files.createFile(root.resolve(COMPLETE_MARKER));
+        }
+
+        List<Webapp> webapps = new ArrayList<>();
+        for (int i = 0; i < size.contexts(); i++) {
+            Path module = root.resolve("app" + i);
+            List<Path> classPath = new ArrayList<>();
+            classPath.add(module.resolve("classes"));
+            for (int j = 0; j < size.jars(); j++) {
+                classPath.add(getJar(root, j));
+            }
+            webapps.add(new Webapp("/app" + i, module.resolve("webapp"), classPath));
+        }
+        return webapps;
+    }
+
+    private static Path getJar(Path root, int index) {
+        return root.resolve("lib").resolve("lib" + index + "-1.0.jar");
+    }
+
+    /**
+     * Compiles the classes for Java 8, so the webapps run on any JDK supported by the plugin
+     *
+     * @return the output directory
+     */
+    private static Path compile(Path module, String pkg, int count) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The synthetic webapps are compiled at runtime, run the harness with a JDK");
+        }
+
+        Path sources = module.resolve("src").resolve(pkg.replace('.', '/'));
+        Path classes = module.resolve("classes");
+        Files.createDirectories(sources);
+        Files.createDirectories(classes);
+
+        List<String> arguments = new ArrayList<>(List.of("--release", "8", "-nowarn", "-d", classes.toString()));
+        for (int i = 0; i < count; i++) {
+            Path source = sources.resolve("Class" + i + ".java");
+            Files.writeString(source, createSource(pkg, i, count));
+            arguments.add(source.toString());
+        }
+        if (compiler.run(null, null, null, arguments.toArray(new String[0])) != 0) {
+            throw new IOException("Failed to compile the synthetic classes of " + module);
+        }
+        return classes;
+    }
+
+    /**
+     * A class with a couple of fields and methods, which references the next class so loading one class loads a chain
+     */
+    private static String createSource(String pkg, int index, int count) {
+        String next = index + 1 < count ? "new Class" + (index + 1) + "().value()" : "0";
+        return "package " + pkg + ";\n\n"
+                + "public class Class" + index + " implements java.io.Serializable {\n"
+                + "    private final int seed = " + index + ";\n"
+                + "    private final String name = \"Class" + index + "\";\n"
+                + "    private final java.util.List<String> tags = new java.util.ArrayList<>();\n\n"
+                + "    public int value() {\n"
+                + "        return seed % 10 == 9 ? seed : seed + " + next + ";\n"
+                + "    }\n\n"
+                + "    public String describe(String prefix) {\n"
+                + "        StringBuilder sb = new StringBuilder(prefix).append(name);\n"
+                + "        for (String tag : tags) {\n"
+                + "            sb.append(',').append(tag);\n"
+                + "        }\n"
+                + "        return sb.toString();\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static void createJar(Path classes, Path jar) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        Files.createDirectories(jar.getParent());
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest);
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                out.putNextEntry(new JarEntry(FileUtil.toSystemIndependentName(classes.relativize(file).toString())));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static void createDocBase(Path docBase, String pkg, Size size) throws IOException {
+        Files.createDirectories(docBase.resolve("WEB-INF"));
+        Files.createDirectories(docBase.resolve("pages"));
+
+        // Not metadata-complete, so Tomcat scans the classes and the jars for annotations
+        Files.writeString(docBase.resolve("WEB-INF").resolve("web.xml"), """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <web-app xmlns="http://xmlns.jcp.org/xml/ns/javaee"
+                         xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                         xsi:schemaLocation="http://xmlns.jcp.org/xml/ns/javaee http://xmlns.jcp.org/xml/ns/javaee/web-app_3_1.xsd"
+                         version="3.1" metadata-complete="false">
+                    <welcome-file-list>
+                        <welcome-file>index.jsp</welcome-file>
+                    </welcome-file-list>
+                </web-app>
+                """);
+
+        Files.writeString(docBase.resolve("index.jsp"), createJsp(pkg, "index", size.classes()));
+        for (int i = 0; i < size.jsps(); i++) {
+            Files.writeString(docBase.resolve("pages").resolve("page" + i + ".jsp"), createJsp(pkg, "page" + i, size.classes()));
+        }
+    }
+
+    private static String createJsp(String pkg, String title, int classes) {
+        String value = classes > 0 ? "<%= new " + pkg + ".Class0().value() %>" : "0";
+        return "<%@ page contentType=\"text/html;charset=UTF-8\" %>\n"
+                + "<html><head><title>" + title + "</title></head>\n"
+                + "<body><p>" + title + ": " + value + "</p></body></html>\n";
+    }
+
+    /**
+     * @return the number of bytes of the generated webapps
+     */
+    static long getSize(Path dir, Size size) throws IOException {
+        try (Stream<Path> files = Files.walk(dir.resolve(size.getKey()))) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
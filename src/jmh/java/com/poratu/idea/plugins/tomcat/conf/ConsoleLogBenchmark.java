@@ -0,0 +1,73 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.util.Urls;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The drain of {@link ServerConsoleView} through {@link ConsoleBatcher}: the batches of the chunks of the same type, and
+ * the analysis of the startup log until Tomcat has started, on the log of a Tomcat deploying 20 contexts with an
+ * application logging and failing on stderr in between. The console editor itself needs a running IDE, the batches
+ * are handed to a black hole.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConsoleLogBenchmark {
+    private static final int CONTEXTS = 20;
+    private static final int LINES_PER_CONTEXT = 500;
+
+    private final List<String> lines = new ArrayList<>();
+    private final List<ConsoleViewContentType> contentTypes = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        lines.add("21-Jun-2023 13:27:14.101 INFO [main] org.apache.catalina.startup.VersionLoggerListener.log Server version name:   Apache Tomcat/9.0.76\n");
+        lines.add("21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler [\"http-nio-8080\"]\n");
+        lines.add("21-Jun-2023 13:27:15.390 INFO [main] org.apache.catalina.core.StandardService.startInternal Starting service [Catalina]\n");
+        lines.add("21-Jun-2023 13:27:15.391 INFO [main] org.apache.catalina.core.StandardEngine.startInternal Starting Servlet engine: [Apache Tomcat/9.0.76]\n");
+        for (int context = 0; context < CONTEXTS; context++) {
+            lines.add("21-Jun-2023 13:27:15.400 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deploying deployment descriptor [/home/user/.SmartTomcat/project/conf/Catalina/localhost/app" + context + ".xml]\n");
+            for (int i = 0; i < LINES_PER_CONTEXT; i++) {
+                if (i % 100 == 99) {
+                    lines.add("java.lang.IllegalStateException: Bean creation failed\n");
+                    lines.add("\tat org.example.app.Config.dataSource(Config.java:42)\n");
+                    lines.add("\tat org.springframework.beans.factory.support.AbstractBeanFactory.getBean(AbstractBeanFactory.java:208)\n");
+                } else {
+                    lines.add("2023-06-21 13:27:15.512  INFO 4711 --- [startStop-1] o.s.b.f.s.DefaultListableBeanFactory : Creating shared instance of singleton bean 'service" + i + "'\n");
+                }
+            }
+            lines.add("21-Jun-2023 13:27:16.385 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deployment of deployment descriptor [/home/user/.SmartTomcat/project/conf/Catalina/localhost/app" + context + ".xml] has finished in [1,000] ms\n");
+        }
+        lines.add("21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1,012] milliseconds\n");
+        for (String line : lines) {
+            boolean stderr = line.startsWith("java.") || line.startsWith("\tat ");
+            contentTypes.add(stderr ? ConsoleViewContentType.ERROR_OUTPUT : ConsoleViewContentType.NORMAL_OUTPUT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTEXTS * LINES_PER_CONTEXT)
+    public void drain(Blackhole blackhole) {
+        StartupLogParser parser = new StartupLogParser(new ContextStartupReport(List.of()));
+        ConsoleBatcher batcher = new ConsoleBatcher(parser, () -> List.of(Urls.newHttpUrl("localhost:8080", "/")),
+                (text, contentType) -> blackhole.consume(text));
+        long nanos = System.nanoTime();
+        for (int i = 0; i < lines.size(); i++) {
+            batcher.add(lines.get(i), contentTypes.get(i), nanos);
+        }
+        batcher.flush();
+    }
+}
@@ -0,0 +1,73 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The context file of `createContextFile` with the ResourceSets of {@link CatalinaConf#addClassPathResources}, one per
+ * class path entry of the module: a PreResources for each output directory and a PostResources for each jar.
+ * The module class path needs a project, the benchmark mounts a class path of 10, 100 and 1000 entries created on disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContextFileBenchmark {
+    @Param({"10", "100", "1000"})
+    public int classPathEntries;
+
+    private final List<Path> classPath = new ArrayList<>();
+    private Path root;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("context-file-benchmark");
+        classPath.clear();
+        for (int i = 0; i < classPathEntries; i++) {
+            // One output directory for ten jars, as in a multi-module build with its dependencies
+            if (i % 10 == 0) {
+                classPath.add(Files.createDirectories(root.resolve(Path.of("module" + i, "build", "classes", "java", "main"))));
+            } else {
+                classPath.add(Files.createFile(root.resolve("lib" + i + "-1.0." + i + ".jar")));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtil.delete(root);
+    }
+
+    @Benchmark
+    public String createContextFile() throws Exception {
+        Document doc = PluginUtils.createDocumentBuilder().newDocument();
+        Element contextRoot = doc.createElement("Context");
+        contextRoot.setAttribute("docBase", root.resolve("webapp").toString());
+        CatalinaConf.addClassPathResources(doc, contextRoot, classPath, "9.0.98", CatalinaConf.ResourceOptions.DEFAULTS);
+        doc.appendChild(contextRoot);
+
+        StringWriter writer = new StringWriter();
+        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(writer));
+        return writer.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.execution.ExecutionException;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.w3c.dom.Document;
+
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The XML round trip of `updateServerConf`: parse server.xml, {@link CatalinaConf#updateServerXml} with the options of
+ * a default run configuration, and serialize the document. The state reads and writes the file, the benchmark runs
+ * in memory on the stock server.xml and on a huge one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServerXmlBenchmark {
+    private static final String HEAD = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <Server port="8005" shutdown="SHUTDOWN">
+              <Listener className="org.apache.catalina.startup.VersionLoggerListener" />
+              <Listener className="org.apache.catalina.core.AprLifecycleListener" SSLEngine="on" />
+              <Listener className="org.apache.catalina.core.JreMemoryLeakPreventionListener" />
+              <Listener className="org.apache.catalina.mbeans.GlobalResourcesLifecycleListener" />
+              <Listener className="org.apache.catalina.core.ThreadLocalLeakPreventionListener" />
+              <GlobalNamingResources>
+                <Resource name="UserDatabase" auth="Container" type="org.apache.catalina.UserDatabase"
+                          factory="org.apache.catalina.users.MemoryUserDatabaseFactory" pathname="conf/tomcat-users.xml" />
+            """;
+    private static final String SERVICE = """
+              </GlobalNamingResources>
+              <Service name="Catalina">
+                <Connector port="8080" protocol="HTTP/1.1" connectionTimeout="20000" redirectPort="8443" />
+                <Engine name="Catalina" defaultHost="localhost">
+                  <Realm className="org.apache.catalina.realm.LockOutRealm">
+                    <Realm className="org.apache.catalina.realm.UserDatabaseRealm" resourceName="UserDatabase"/>
+                  </Realm>
+                  <Host name="localhost" appBase="webapps" unpackWARs="true" autoDeploy="true">
+                    <Valve className="org.apache.catalina.valves.AccessLogValve" directory="logs"
+                           prefix="localhost_access_log" suffix=".txt" pattern="%h %l %u %t &quot;%r&quot; %s %b" />
+            """;
+    private static final String TAIL = """
+                  </Host>
+                </Engine>
+              </Service>
+            </Server>
+            """;
+
+    /**
+     * The number of global resources and of contexts declared in the Host, which are removed by the update
+     */
+    @Param({"0", "2000"})
+    public int extraElements;
+
+    private final CatalinaConf.ServerOptions options = CatalinaConf.ServerOptions.defaults("9.0.98", 8080, 8005, 1);
+    private byte[] serverXml;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(HEAD);
+        for (int i = 0; i < extraElements; i++) {
+            sb.append("    <Resource name=\"jdbc/ds").append(i).append("\" auth=\"Container\" type=\"javax.sql.DataSource\" ")
+                    .append("url=\"jdbc:postgresql://localhost/db").append(i).append("\" maxTotal=\"20\" />\n");
+        }
+        sb.append(SERVICE);
+        for (int i = 0; i < extraElements; i++) {
+            sb.append("        <Context path=\"/app").append(i).append("\" docBase=\"/srv/apps/app").append(i).append("\" reloadable=\"false\" />\n");
+        }
+        sb.append(TAIL);
+        serverXml = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] updateServerXml() throws Exception {
+        Document doc = PluginUtils.createDocumentBuilder().parse(new ByteArrayInputStream(serverXml));
+        CatalinaConf.updateServerXml(doc, options, () -> {
+            throw new ExecutionException("No SSL connector is generated without HTTP/2");
+        });
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(serverXml.length);
+        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(out));
+        return out.toByteArray();
+    }
+}
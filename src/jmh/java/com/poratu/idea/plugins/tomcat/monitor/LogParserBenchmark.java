@@ -0,0 +1,64 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parsers of the logs tailed by the tool window every couple of seconds: the access log lines with the timings of
+ * {@link AccessLogFormat}, and the lines of a G1 unified GC log
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LogParserBenchmark {
+    private static final int LINES = 1000;
+
+    private final byte[][] accessLogLines = new byte[LINES][];
+    private final String[] gcLogLines = new String[LINES];
+    private final AccessLogParser accessLogParser = new AccessLogParser(true);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < LINES; i++) {
+            accessLogLines[i] = ("127.0.0.1 - - [10/Oct/2024:13:55:" + String.format("%02d", i % 60) + " +0200] \"GET /app/users/" + i
+                    + "?page=2 HTTP/1.1\" 200 " + (2000 + i) + " " + (1000 + i) + " " + (i % 50) + " http-nio-8080-exec-" + (i % 10))
+                    .getBytes(StandardCharsets.ISO_8859_1);
+
+            String decorations = "[2024-10-10T13:55:36.123+0200][" + (i / 10) + "." + String.format("%03d", i % 1000) + "s][info]";
+            switch (i % 4) {
+                case 0 -> gcLogLines[i] = decorations + "[gc,heap     ] GC(" + i + ") Old regions: " + i + "->" + (i + 2);
+                case 1 -> gcLogLines[i] = decorations + "[gc,phases   ] GC(" + i + ")   Evacuate Collection Set: 2.1ms";
+                case 2 -> gcLogLines[i] = decorations + "[gc,cpu      ] GC(" + i + ") User=0.01s Sys=0.00s Real=0.00s";
+                default -> gcLogLines[i] = decorations + "[gc          ] GC(" + i + ") Pause Young (Normal) (G1 Evacuation Pause) 40M->16M(256M) 3.456ms";
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseAccessLog(Blackhole blackhole) {
+        for (byte[] line : accessLogLines) {
+            blackhole.consume(accessLogParser.parse(line, 0, line.length));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseGcLog(Blackhole blackhole) {
+        GcLogParser parser = new GcLogParser();
+        for (String line : gcLogLines) {
+            parser.parse(line);
+        }
+        blackhole.consume(parser.getPauseCount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.poratu.idea.plugins.tomcat.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link PluginUtils#generateSequentName} over 10, 100 and 1000 existing names, and the directory probing of
+ * {@link PluginUtils#findWebRoots} with {@link PluginUtils#isWebRootCandidate} and {@link PluginUtils#isWebRoot}.
+ * The module file index of findWebRoots needs a project, the benchmark walks a synthetic source tree on disk instead.
+ * As with the index, the files are filtered out and only the directories are probed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PluginUtilsBenchmark {
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private final List<String> existingNames = new ArrayList<>();
+    private Path sourceTree;
+
+    @Setup
+    public void setUp() throws IOException {
+        existingNames.clear();
+        existingNames.add("Tomcat");
+        for (int i = 2; i <= size; i++) {
+            existingNames.add("Tomcat (" + i + ")");
+        }
+
+        // size packages of 10 classes, a webapp, and a node_modules folder as big as the sources
+        sourceTree = Files.createTempDirectory("smarttomcat-jmh");
+        for (int i = 0; i < size; i++) {
+            Path sources = Files.createDirectories(sourceTree.resolve("src/main/java/org/example/package" + i));
+            Path modules = Files.createDirectories(sourceTree.resolve("src/main/webapp/node_modules/module" + i));
+            for (int j = 0; j < 10; j++) {
+                Files.createFile(sources.resolve("Class" + j + ".java"));
+                Files.createFile(modules.resolve("index" + j + ".js"));
+            }
+        }
+        Files.createDirectories(sourceTree.resolve("src/main/webapp/WEB-INF"));
+        Files.createFile(sourceTree.resolve("src/main/webapp/WEB-INF/web.xml"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(sourceTree)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public String generateSequentName() {
+        return PluginUtils.generateSequentName(existingNames, "Tomcat");
+    }
+
+    @Benchmark
+    public List<String> findWebRoots() throws IOException {
+        List<String> webRoots = new ArrayList<>();
+        Files.walkFileTree(sourceTree.resolve("src"), new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String path = dir.toString();
+                if (!PluginUtils.isWebRootCandidate(path, webRoots)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (PluginUtils.isWebRoot(path)) {
+                    webRoots.add(path);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return webRoots;
+    }
+}
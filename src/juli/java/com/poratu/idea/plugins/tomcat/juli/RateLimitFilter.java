@@ -0,0 +1,73 @@
+package com.poratu.idea.plugins.tomcat.juli;
+
+import com.poratu.idea.plugins.tomcat.shared.LoggingControl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Filter;
+import java.util.logging.LogRecord;
+
+/**
+ * Limits the records written by a log handler to a number per second and logger, so a log storm (e.g. the same
+ * exception logged by each request) neither fills the queue of the asynchronous handlers nor the disk.
+ * The loggers share a fixed number of token buckets by the hash of their name, a storm of one logger only limits
+ * the few loggers in the same bucket. A bucket allows a burst of one second of records.
+ * <p>
+ * The handlers create the filter with its default constructor, so the rate is read from the system property
+ * {@value LoggingControl#RATE_LIMIT_PROPERTY}. The filter is loaded by the system class loader of Tomcat, with
+ * java.util.logging only, and must stay compatible with Java 8.
+ */
+public class RateLimitFilter implements Filter {
+    private static final int BUCKETS = 64;
+    private static final AtomicLong DROPPED_RECORDS = new AtomicLong();
+
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+    private final double recordsPerNano;
+    private final double burst;
+
+    public RateLimitFilter() {
+        int recordsPerSecond = Math.max(1, Integer.getInteger(LoggingControl.RATE_LIMIT_PROPERTY, 1000));
+        this.recordsPerNano = recordsPerSecond / 1e9;
+        this.burst = recordsPerSecond;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket(burst);
+        }
+    }
+
+    /**
+     * @return the records dropped by all the handlers since Tomcat started
+     */
+    public static long getDroppedRecords() {
+        return DROPPED_RECORDS.get();
+    }
+
+    @Override
+    public boolean isLoggable(LogRecord record) {
+        String loggerName = record.getLoggerName();
+        int hash = loggerName == null ? 0 : loggerName.hashCode();
+        Bucket bucket = buckets[(hash ^ (hash >>> 16)) & (BUCKETS - 1)];
+        if (bucket.tryAcquire(System.nanoTime())) {
+            return true;
+        }
+        DROPPED_RECORDS.incrementAndGet();
+        return false;
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        Bucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * recordsPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.poratu.idea.plugins.tomcat.cluster;
+
+/**
+ * A node of a local cluster launched from one run configuration. The ports of node i are the ports of the run
+ * configuration plus 100 * (i + 1), e.g. 8180, 8280, ... for 8080, the load balancer listens on the port itself.
+ *
+ * @param clusterName   the name of the run configuration the cluster is launched from
+ * @param index         0 for the first node, which is launched by the run configuration and launches the others
+ * @param nodes         the number of nodes of the cluster
+ * @param baseAdminPort the admin port of the run configuration, the replication ports are derived from it
+ */
+public record ClusterNode(String clusterName, int index, int nodes, int baseAdminPort) {
+    public static final int MAX_NODES = 9;
+    static final int PORT_OFFSET = 100;
+
+    public static int getNodePort(int port, int index) {
+        return port + PORT_OFFSET * (index + 1);
+    }
+
+    /**
+     * @return the port of the run configuration a port of the node is derived from
+     */
+    public static int getBasePort(int nodePort, int index) {
+        return nodePort - PORT_OFFSET * (index + 1);
+    }
+
+    /**
+     * The session ids of the node end with `.nodeN`, which the sticky routing of the load balancer relies on
+     */
+    public String getJvmRoute() {
+        return getJvmRoute(index);
+    }
+
+    static String getJvmRoute(int index) {
+        return "node" + (index + 1);
+    }
+
+    /**
+     * The session replication port of a node, next to its admin port
+     */
+    public int getReceiverPort(int nodeIndex) {
+        return getNodePort(baseAdminPort, nodeIndex) + 1;
+    }
+
+    public boolean isFirst() {
+        return index == 0;
+    }
+}
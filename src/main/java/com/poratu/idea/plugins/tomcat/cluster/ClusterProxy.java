@@ -0,0 +1,328 @@
+package com.poratu.idea.plugins.tomcat.cluster;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.poratu.idea.plugins.tomcat.conf.ClusterRouting;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The load balancer in front of a local cluster: a reverse proxy on one selector thread which reads the head of the
+ * first request of a connection, picks a node, and then relays the bytes of the connection in both directions.
+ * A keep-alive connection stays on its node, like the connections of a layer 4 balancer.
+ * When a node refuses the connection, the next node is tried, and a 502 is answered when no node is up.
+ */
+public final class ClusterProxy implements AutoCloseable {
+    private static final Logger LOG = Logger.getInstance(ClusterProxy.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // The session id of a cookie or of a path parameter, with the jvmRoute of the node after the dot
+    private static final Pattern SESSION_ROUTE = Pattern.compile("(?i)jsessionid=[^.;,\\s]+\\.([\\w-]+)");
+    private static final byte[] BAD_GATEWAY = ("HTTP/1.1 502 Bad Gateway\r\nContent-Type: text/plain\r\nContent-Length: 29\r\n"
+            + "Connection: close\r\n\r\nNo Tomcat node is available.\n").getBytes(StandardCharsets.ISO_8859_1);
+
+    /**
+     * A Tomcat node behind the load balancer, with the counters of the connections routed to it
+     */
+    public static final class Backend {
+        private final String jvmRoute;
+        private final InetSocketAddress address;
+        private final LongAdder connections = new LongAdder();
+        private final AtomicInteger activeConnections = new AtomicInteger();
+        private final LongAdder failedConnects = new LongAdder();
+
+        public Backend(String jvmRoute, InetSocketAddress address) {
+            this.jvmRoute = jvmRoute;
+            this.address = address;
+        }
+
+        public String getJvmRoute() {
+            return jvmRoute;
+        }
+
+        public InetSocketAddress getAddress() {
+            return address;
+        }
+
+        public long getConnections() {
+            return connections.sum();
+        }
+
+        public int getActiveConnections() {
+            return activeConnections.get();
+        }
+
+        public long getFailedConnects() {
+            return failedConnects.sum();
+        }
+    }
+
+    private final List<Backend> backends;
+    private final ClusterRouting routing;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public ClusterProxy(int port, List<Backend> backends, ClusterRouting routing) throws IOException {
+        this.backends = new ArrayList<>(backends);
+        this.routing = routing;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            // All interfaces, like the HTTP connector of the stock server.xml
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "Smart Tomcat cluster proxy :" + port);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public List<Backend> getBackends() {
+        return backends;
+    }
+
+    public ClusterRouting getRouting() {
+        return routing;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ((Connection) key.attachment()).handle(key);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            LOG.warn("The cluster proxy stopped", e);
+        } finally {
+            // The server socket and the connections in flight
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        Connection connection = new Connection(client);
+        connection.clientKey = client.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * @return the order in which the nodes are tried for a request head
+     */
+    private List<Backend> route(String head) {
+        int first = Math.floorMod(next.getAndIncrement(), backends.size());
+        if (routing == ClusterRouting.STICKY) {
+            Matcher matcher = SESSION_ROUTE.matcher(head);
+            if (matcher.find()) {
+                for (int i = 0; i < backends.size(); i++) {
+                    if (backends.get(i).getJvmRoute().equals(matcher.group(1))) {
+                        first = i;
+                        break;
+                    }
+                }
+            }
+        }
+
+        List<Backend> order = new ArrayList<>(backends.size());
+        for (int i = 0; i < backends.size(); i++) {
+            order.add(backends.get((first + i) % backends.size()));
+        }
+        return order;
+    }
+
+    private final class Connection {
+        private final SocketChannel client;
+        private final ByteBuffer clientToBackend = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer backendToClient = ByteBuffer.allocate(BUFFER_SIZE);
+        private SelectionKey clientKey;
+        private SelectionKey backendKey;
+        private SocketChannel backend;
+        private Backend target;
+        private List<Backend> candidates;
+        private boolean clientEof;
+        private boolean backendEof;
+        private boolean backendOutputShutdown;
+        private boolean closed;
+
+        Connection(SocketChannel client) {
+            this.client = client;
+        }
+
+        void handle(SelectionKey key) {
+            try {
+                if (key == backendKey && key.isConnectable()) {
+                    finishConnect();
+                } else if (target == null) {
+                    readHead();
+                } else {
+                    relay();
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void readHead() throws IOException {
+            if (client.read(clientToBackend) < 0) {
+                close();
+                return;
+            }
+            String head = new String(clientToBackend.array(), 0, clientToBackend.position(), StandardCharsets.ISO_8859_1);
+            // The request line and the headers, a head which does not fit in the buffer is routed as it is
+            if (head.contains("\r\n\r\n") || !clientToBackend.hasRemaining()) {
+                candidates = route(head);
+                connect();
+            }
+        }
+
+        private void connect() throws IOException {
+            if (candidates.isEmpty()) {
+                client.write(ByteBuffer.wrap(BAD_GATEWAY));
+                close();
+                return;
+            }
+
+            target = candidates.remove(0);
+            backend = SocketChannel.open();
+            backend.configureBlocking(false);
+            clientKey.interestOps(0);
+            try {
+                backend.connect(target.getAddress());
+                backendKey = backend.register(selector, SelectionKey.OP_CONNECT, this);
+            } catch (IOException e) {
+                failover();
+            }
+        }
+
+        private void finishConnect() throws IOException {
+            try {
+                backend.finishConnect();
+            } catch (IOException e) {
+                failover();
+                return;
+            }
+            target.connections.increment();
+            target.activeConnections.incrementAndGet();
+            relay();
+        }
+
+        private void failover() throws IOException {
+            target.failedConnects.increment();
+            if (backendKey != null) {
+                backendKey.cancel();
+            }
+            backend.close();
+            connect();
+        }
+
+        /**
+         * Moves the buffered bytes in both directions, and propagates the end of stream of one side to the other
+         */
+        private void relay() throws IOException {
+            if (!clientEof && clientToBackend.hasRemaining() && client.read(clientToBackend) < 0) {
+                clientEof = true;
+            }
+            if (!backendEof && backendToClient.hasRemaining() && backend.read(backendToClient) < 0) {
+                backendEof = true;
+            }
+            write(clientToBackend, backend);
+            write(backendToClient, client);
+
+            if (clientEof && clientToBackend.position() == 0 && !backendOutputShutdown) {
+                backend.shutdownOutput();
+                backendOutputShutdown = true;
+            }
+            if (backendEof && backendToClient.position() == 0) {
+                close();
+                return;
+            }
+
+            int clientOps = (!clientEof && clientToBackend.hasRemaining() ? SelectionKey.OP_READ : 0)
+                    | (backendToClient.position() > 0 ? SelectionKey.OP_WRITE : 0);
+            int backendOps = (!backendEof && backendToClient.hasRemaining() ? SelectionKey.OP_READ : 0)
+                    | (clientToBackend.position() > 0 ? SelectionKey.OP_WRITE : 0);
+            clientKey.interestOps(clientOps);
+            backendKey.interestOps(backendOps);
+        }
+
+        private void write(ByteBuffer buffer, SocketChannel channel) throws IOException {
+            if (buffer.position() == 0) {
+                return;
+            }
+            buffer.flip();
+            channel.write(buffer);
+            buffer.compact();
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (target != null && backend.isConnected()) {
+                target.activeConnections.decrementAndGet();
+            }
+            closeQuietly(client);
+            if (backend != null) {
+                closeQuietly(backend);
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the connections in flight
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+}
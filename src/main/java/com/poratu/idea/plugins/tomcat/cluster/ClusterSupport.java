@@ -0,0 +1,264 @@
+package com.poratu.idea.plugins.tomcat.cluster;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.runners.ExecutionEnvironmentBuilder;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstance;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstanceRegistry;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launches a run configuration as a local cluster: the run configuration launches the first node, which starts the
+ * load balancer on the server port and launches the other nodes, each on a copy of the run configuration with its own
+ * ports and Catalina base. Stopping the first node stops the load balancer and the other nodes.
+ */
+public final class ClusterSupport {
+    private static final Logger LOG = Logger.getInstance(ClusterSupport.class);
+    private static final String NOTIFICATION_GROUP = "com.poratu.idea.plugins.tomcat";
+    private static final String LOOPBACK = "127.0.0.1";
+
+    private ClusterSupport() {
+    }
+
+    /**
+     * The first node keeps the name and the Catalina base of the run configuration, so its logs, its RAM disk base and
+     * its performance history are the ones of the run configuration
+     */
+    public static TomcatRunConfiguration createNode(TomcatRunConfiguration configuration, int index) throws ExecutionException {
+        TomcatRunConfiguration node = (TomcatRunConfiguration) configuration.clone();
+        node.setClusterNode(new ClusterNode(configuration.getName(), index, configuration.getClusterNodes(), configuration.getAdminPort()));
+        if (index > 0) {
+            Path diskBase = PluginUtils.getDiskCatalinaBase(configuration);
+            if (diskBase == null) {
+                throw new ExecutionException("The Catalina base of " + configuration.getName() + " cannot be created");
+            }
+            node.setName(configuration.getName() + " " + ClusterNode.getJvmRoute(index));
+            node.setCatalinaBase(diskBase.resolve("cluster").resolve(ClusterNode.getJvmRoute(index)).toString());
+        }
+
+        node.setPort(ClusterNode.getNodePort(configuration.getPort(), index));
+        node.setAdminPort(ClusterNode.getNodePort(configuration.getAdminPort(), index));
+        if (configuration.getSslPort() != null) {
+            node.setSslPort(ClusterNode.getNodePort(configuration.getSslPort(), index));
+        }
+        if (configuration.getJmxPort() != null) {
+            node.setJmxPort(ClusterNode.getNodePort(configuration.getJmxPort(), index));
+        }
+        return node;
+    }
+
+    /**
+     * The static membership service which keeps the replication on loopback, instead of the multicast of the default
+     * cluster configuration, is available since Tomcat 9
+     */
+    public static boolean supportsSessionReplication(String tomcatVersion) {
+        try {
+            return Integer.parseInt(tomcatVersion.split("\\.")[0]) >= 9;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A {@code <Cluster>} of the Engine which replicates the changed session attributes to all the other nodes
+     * (DeltaManager), with a static membership over loopback
+     */
+    public static Element createClusterElement(Document doc, ClusterNode node) {
+        Element cluster = doc.createElement("Cluster");
+        cluster.setAttribute("className", "org.apache.catalina.ha.tcp.SimpleTcpCluster");
+        cluster.setAttribute("channelSendOptions", "8");
+
+        Element manager = doc.createElement("Manager");
+        manager.setAttribute("className", "org.apache.catalina.ha.session.DeltaManager");
+        manager.setAttribute("expireSessionsOnShutdown", "false");
+        manager.setAttribute("notifyListenersOnReplication", "true");
+        cluster.appendChild(manager);
+
+        Element channel = doc.createElement("Channel");
+        channel.setAttribute("className", "org.apache.catalina.tribes.group.GroupChannel");
+        cluster.appendChild(channel);
+
+        Element membership = doc.createElement("Membership");
+        membership.setAttribute("className", "org.apache.catalina.tribes.membership.StaticMembershipService");
+        Element localMember = doc.createElement("LocalMember");
+        localMember.setAttribute("className", "org.apache.catalina.tribes.membership.StaticMember");
+        localMember.setAttribute("uniqueId", getUniqueId(node.index()));
+        membership.appendChild(localMember);
+        for (int i = 0; i < node.nodes(); i++) {
+            if (i == node.index()) {
+                continue;
+            }
+            Element member = doc.createElement("Member");
+            member.setAttribute("className", "org.apache.catalina.tribes.membership.StaticMember");
+            member.setAttribute("host", LOOPBACK);
+            member.setAttribute("port", String.valueOf(node.getReceiverPort(i)));
+            member.setAttribute("uniqueId", getUniqueId(i));
+            membership.appendChild(member);
+        }
+        channel.appendChild(membership);
+
+        Element receiver = doc.createElement("Receiver");
+        receiver.setAttribute("className", "org.apache.catalina.tribes.transport.nio.NioReceiver");
+        receiver.setAttribute("address", LOOPBACK);
+        receiver.setAttribute("port", String.valueOf(node.getReceiverPort(node.index())));
+        receiver.setAttribute("autoBind", "0");
+        channel.appendChild(receiver);
+
+        Element sender = doc.createElement("Sender");
+        sender.setAttribute("className", "org.apache.catalina.tribes.transport.ReplicationTransmitter");
+        Element transport = doc.createElement("Transport");
+        transport.setAttribute("className", "org.apache.catalina.tribes.transport.nio.PooledParallelSender");
+        sender.appendChild(transport);
+        channel.appendChild(sender);
+
+        for (String interceptor : new String[]{
+                "org.apache.catalina.tribes.group.interceptors.TcpPingInterceptor",
+                "org.apache.catalina.tribes.group.interceptors.TcpFailureDetector",
+                "org.apache.catalina.tribes.group.interceptors.MessageDispatchInterceptor"}) {
+            Element element = doc.createElement("Interceptor");
+            element.setAttribute("className", interceptor);
+            if (interceptor.endsWith("TcpPingInterceptor")) {
+                element.setAttribute("staticOnly", "true");
+            }
+            channel.appendChild(element);
+        }
+
+        Element replicationValve = doc.createElement("Valve");
+        replicationValve.setAttribute("className", "org.apache.catalina.ha.tcp.ReplicationValve");
+        replicationValve.setAttribute("filter", "");
+        cluster.appendChild(replicationValve);
+
+        // Takes over the sessions of a stopped node, whose requests the load balancer sends to another node
+        Element jvmRouteBinderValve = doc.createElement("Valve");
+        jvmRouteBinderValve.setAttribute("className", "org.apache.catalina.ha.session.JvmRouteBinderValve");
+        cluster.appendChild(jvmRouteBinderValve);
+
+        Element listener = doc.createElement("ClusterListener");
+        listener.setAttribute("className", "org.apache.catalina.ha.session.ClusterSessionListener");
+        cluster.appendChild(listener);
+        return cluster;
+    }
+
+    // The 16 bytes of the member id, unique per node
+    private static String getUniqueId(int index) {
+        StringBuilder uniqueId = new StringBuilder("{");
+        for (int i = 0; i < 15; i++) {
+            uniqueId.append("0,");
+        }
+        return uniqueId.append(index + 1).append('}').toString();
+    }
+
+    /**
+     * Called once the process of the first node is started: starts the load balancer on the server port of the run
+     * configuration and launches the other nodes
+     */
+    public static void startCluster(TomcatRunConfiguration firstNode, TomcatInstance instance) throws ExecutionException {
+        ClusterNode node = firstNode.getClusterNode();
+        if (node == null || !node.isFirst()) {
+            return;
+        }
+
+        int port = ClusterNode.getBasePort(firstNode.getPort(), 0);
+        List<ClusterProxy.Backend> backends = new ArrayList<>();
+        for (int i = 0; i < node.nodes(); i++) {
+            backends.add(new ClusterProxy.Backend(ClusterNode.getJvmRoute(i),
+                    new InetSocketAddress(LOOPBACK, ClusterNode.getNodePort(port, i))));
+        }
+        ClusterProxy proxy;
+        try {
+            proxy = new ClusterProxy(port, backends, firstNode.getClusterRouting());
+        } catch (IOException e) {
+            instance.getProcessHandler().destroyProcess();
+            throw new ExecutionException("The load balancer cannot listen on port " + port + ": " + e.getMessage(), e);
+        }
+        instance.setClusterProxy(proxy);
+
+        List<TomcatRunConfiguration> nodes = new ArrayList<>();
+        for (int i = 1; i < node.nodes(); i++) {
+            nodes.add(createNode(firstNode, port, i));
+        }
+        instance.getProcessHandler().addProcessListener(new ProcessAdapter() {
+            @Override
+            public void processTerminated(@NotNull ProcessEvent event) {
+                proxy.close();
+                stopNodes(instance);
+            }
+        });
+
+        ApplicationManager.getApplication().invokeLater(() -> {
+            for (TomcatRunConfiguration other : nodes) {
+                launch(other);
+            }
+        });
+    }
+
+    // The ports of the first node are already derived, the other nodes derive theirs from the ones of the run configuration
+    private static TomcatRunConfiguration createNode(TomcatRunConfiguration firstNode, int port, int index) throws ExecutionException {
+        TomcatRunConfiguration configuration = (TomcatRunConfiguration) firstNode.clone();
+        configuration.setPort(port);
+        configuration.setAdminPort(firstNode.getClusterNode().baseAdminPort());
+        if (firstNode.getSslPort() != null) {
+            configuration.setSslPort(ClusterNode.getBasePort(firstNode.getSslPort(), 0));
+        }
+        if (firstNode.getJmxPort() != null) {
+            configuration.setJmxPort(ClusterNode.getBasePort(firstNode.getJmxPort(), 0));
+        }
+        return createNode(configuration, index);
+    }
+
+    private static void launch(TomcatRunConfiguration node) {
+        try {
+            ExecutionEnvironmentBuilder.create(node.getProject(), DefaultRunExecutor.getRunExecutorInstance(), node).buildAndExecute();
+        } catch (ExecutionException e) {
+            LOG.warn("Failed to launch " + node.getName(), e);
+            Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "Smart Tomcat cluster",
+                    "Failed to launch " + node.getName() + ": " + e.getMessage(), NotificationType.ERROR), node.getProject());
+        }
+    }
+
+    private static void stopNodes(TomcatInstance firstNode) {
+        String clusterName = firstNode.getConfiguration().getClusterNode().clusterName();
+        for (TomcatInstance instance : getNodes(firstNode)) {
+            if (instance != firstNode && !instance.getProcessHandler().isProcessTerminating()) {
+                LOG.info("Stopping " + instance.getConfiguration().getName() + " of the cluster " + clusterName);
+                instance.getProcessHandler().destroyProcess();
+            }
+        }
+    }
+
+    /**
+     * @return the running instances of the cluster of the given instance, in the order of the nodes
+     */
+    public static List<TomcatInstance> getNodes(TomcatInstance instance) {
+        ClusterNode node = instance.getConfiguration().getClusterNode();
+        List<TomcatInstance> nodes = new ArrayList<>();
+        if (node == null) {
+            return nodes;
+        }
+        for (TomcatInstance other : TomcatInstanceRegistry.getInstance(instance.getConfiguration().getProject()).getInstances()) {
+            ClusterNode otherNode = other.getConfiguration().getClusterNode();
+            if (otherNode != null && otherNode.clusterName().equals(node.clusterName())) {
+                nodes.add(other);
+            }
+        }
+        nodes.sort((a, b) -> Integer.compare(a.getConfiguration().getClusterNode().index(), b.getConfiguration().getClusterNode().index()));
+        return nodes;
+    }
+}
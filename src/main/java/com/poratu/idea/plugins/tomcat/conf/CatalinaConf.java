@@ -0,0 +1,336 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterNode;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterSupport;
+import com.poratu.idea.plugins.tomcat.monitor.AccessLogFormat;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The rewrites of the Catalina base configuration on the parsed documents: server.xml and the ResourceSets of the
+ * context files. {@link TomcatCommandLineState} reads and writes the files around them, the benchmarks and the launch
+ * harness call the same methods on their own documents.
+ */
+public final class CatalinaConf {
+    static final String KEYSTORE_PASSWORD = "changeit";
+    private static final String HTTP2_PROTOCOL_CLASS = "org.apache.coyote.http2.Http2Protocol";
+    private static final String LOGGING_LEVELS_LISTENER_CLASS = "com.poratu.idea.plugins.tomcat.agent.LoggingLevelsListener";
+
+    private CatalinaConf() {
+    }
+
+    /**
+     * The options of a launch which end up in server.xml
+     *
+     * @param sslPort  the SSL connector is removed without it
+     * @param contexts the number of webapps, several are started in parallel
+     */
+    public record ServerOptions(String tomcatVersion, int port, int adminPort, @Nullable Integer sslPort, int contexts,
+                                boolean http2Enabled, @Nullable String compressionMimeTypes, int compressionMinSize,
+                                @Nullable ClusterNode clusterNode, boolean sessionReplication,
+                                boolean managedLogging, boolean sendfileEnabled) {
+
+        /**
+         * The options of a run configuration with the default settings
+         */
+        public static ServerOptions defaults(String tomcatVersion, int port, int adminPort, int contexts) {
+            return new ServerOptions(tomcatVersion, port, adminPort, null, contexts, false, null, 2048, null, false, false, false);
+        }
+
+        static ServerOptions of(TomcatRunConfiguration cfg) {
+            return new ServerOptions(cfg.getTomcatInfo().getVersion(), cfg.getPort(), cfg.getAdminPort(), cfg.getSslPort(),
+                    cfg.getWebappConfigs().size(), cfg.isHttp2Enabled(),
+                    Registry.stringValue("smartTomcat.compression.mimeTypes"),
+                    Registry.intValue("smartTomcat.compression.minSize", 2048),
+                    cfg.getClusterNode(), cfg.isSessionReplication(), cfg.isManagedLogging(), cfg.isSendfileEnabled());
+        }
+    }
+
+    /**
+     * The options of the Resources element of the context files
+     */
+    public record ResourceOptions(boolean allowLinking, int cacheMaxSize) {
+        public static final ResourceOptions DEFAULTS = new ResourceOptions(false, 10240);
+
+        static ResourceOptions fromRegistry() {
+            return new ResourceOptions(Registry.is("smartTomcat.resources.allowLinking"),
+                    Registry.intValue("smartTomcat.resources.cacheMaxSize", 10240));
+        }
+    }
+
+    /**
+     * Creates the keystore of the SSL connector generated for HTTP/2
+     */
+    public interface KeystoreFactory {
+        Path create() throws ExecutionException;
+    }
+
+    /**
+     * Set the ports, remove the declared contexts and apply the options of the launch to server.xml.
+     * The keystore is only created when an SSL connector is generated.
+     */
+    public static void updateServerXml(Document doc, ServerOptions options, KeystoreFactory keystoreFactory)
+            throws XPathExpressionException, ExecutionException {
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        XPathExpression exprConnectorShutdown = xpath.compile("/Server[@shutdown='SHUTDOWN']");
+        XPathExpression serviceExpression = xpath.compile("/Server/Service[@name='Catalina']");
+        XPathExpression exprConnector = xpath.compile("/Server/Service[@name='Catalina']/Connector[(@protocol='HTTP/1.1' or @protocol='org.apache.coyote.http11.Http11NioProtocol' or @protocol='org.apache.coyote.http11.Http11Protocol') and (not(@SSLEnabled) or @SSLEnabled='false')]");
+        //XPathExpression exprConnector = xpath.compile("/Server/Service[@name='Catalina']/Connector[@protocol='HTTP/1.1' and (not(@SSLEnabled) or @SSLEnabled='false')]");
+        XPathExpression exprSSLConnector = xpath.compile("/Server/Service[@name='Catalina']/Connector[@SSLEnabled='true']");
+        XPathExpression exprContext = xpath.compile("/Server/Service[@name='Catalina']/Engine[@name='Catalina']/Host/Context");
+        XPathExpression exprEngine = xpath.compile("/Server/Service[@name='Catalina']/Engine[@name='Catalina']");
+        XPathExpression exprHost = xpath.compile("/Server/Service[@name='Catalina']/Engine[@name='Catalina']/Host");
+        XPathExpression exprAccessLog = xpath.compile("/Server/Service[@name='Catalina']/Engine[@name='Catalina']/Host/Valve"
+                + "[@className='org.apache.catalina.valves.AccessLogValve' and starts-with(@prefix, '" + AccessLogFormat.PREFIX + "')]");
+
+        Element serviceE = (Element) serviceExpression.evaluate(doc, XPathConstants.NODE);
+        Element portShutdown = (Element) exprConnectorShutdown.evaluate(doc, XPathConstants.NODE);
+        Element portE = (Element) exprConnector.evaluate(doc, XPathConstants.NODE);
+        Element sslPortE = (Element) exprSSLConnector.evaluate(doc, XPathConstants.NODE);
+        Element engineE = (Element) exprEngine.evaluate(doc, XPathConstants.NODE);
+        Element hostE = (Element) exprHost.evaluate(doc, XPathConstants.NODE);
+        Element accessLogE = (Element) exprAccessLog.evaluate(doc, XPathConstants.NODE);
+
+        NodeList nodeList = (NodeList) exprContext.evaluate(doc, XPathConstants.NODESET);
+        if (nodeList != null) {
+            for (int i = 0; i < nodeList.getLength(); i++) {
+                Node node = nodeList.item(i);
+                node.getParentNode().removeChild(node);
+            }
+        }
+
+        if (portShutdown != null) {
+            portShutdown.setAttribute("port", String.valueOf(options.adminPort()));
+        }
+        if (portE != null) {
+            portE.setAttribute("port", String.valueOf(options.port()));
+        }
+        Integer sslPort = options.sslPort();
+        String tomcatVersion = options.tomcatVersion();
+        boolean http2 = options.http2Enabled() && isTomcat85OrLater(tomcatVersion);
+
+        if (http2 && sslPortE == null && sslPort != null && serviceE != null && portE != null) {
+            // The stock server.xml ships the SSL connector commented out, generate one backed by a local keystore
+            sslPortE = createSslConnector(doc, keystoreFactory.create());
+            serviceE.insertBefore(sslPortE, portE.getNextSibling());
+        }
+
+        if (sslPortE != null && sslPort != null) {
+            // Update SSL configuration
+            sslPortE.setAttribute("port", sslPort.toString());
+            portE.setAttribute("redirectPort", sslPort.toString());
+        } else {
+            // Clean up SSL configuration
+            portE.removeAttribute("redirectPort");
+            if (serviceE != null && sslPortE != null) {
+                serviceE.removeChild(sslPortE);
+            }
+            sslPortE = null;
+        }
+
+        if (options.http2Enabled()) {
+            for (Element connector : new Element[]{portE, sslPortE}) {
+                if (connector == null) {
+                    continue;
+                }
+                if (http2) {
+                    addUpgradeProtocol(doc, connector);
+                }
+                configureCompression(connector, options);
+            }
+        }
+
+        // Start (and deploy) the contexts in parallel, 0 means one thread per available core
+        if (options.contexts() > 1 && parseMajorVersion(tomcatVersion) >= 7) {
+            for (Element container : new Element[]{engineE, hostE}) {
+                if (container != null) {
+                    container.setAttribute("startStopThreads", "0");
+                }
+            }
+        }
+
+        // Log the processing time, the commit time and the thread of each request for the access log analytics
+        if (accessLogE != null) {
+            accessLogE.setAttribute("pattern", AccessLogFormat.withTimings(accessLogE.getAttribute("pattern"), parseMajorVersion(tomcatVersion)));
+        }
+
+        ClusterNode clusterNode = options.clusterNode();
+        if (clusterNode != null && engineE != null) {
+            // The session ids end with the node, for the sticky routing of the load balancer
+            engineE.setAttribute("jvmRoute", clusterNode.getJvmRoute());
+            if (options.sessionReplication() && ClusterSupport.supportsSessionReplication(tomcatVersion)
+                    && engineE.getElementsByTagName("Cluster").getLength() == 0) {
+                engineE.insertBefore(ClusterSupport.createClusterElement(doc, clusterNode), engineE.getFirstChild());
+            }
+        }
+
+        // The logger levels are changed at runtime through the MBean registered by the listener
+        Element serverE = doc.getDocumentElement();
+        if (options.managedLogging() && serverE != null) {
+            Element listener = doc.createElement("Listener");
+            listener.setAttribute("className", LOGGING_LEVELS_LISTENER_CLASS);
+            serverE.insertBefore(listener, serviceE);
+        }
+
+        if (options.sendfileEnabled() && portE != null) {
+            // NIO only supports sendfile on plain connections, the valve logs whether the static files were sent with it
+            portE.setAttribute("useSendfile", "true");
+            if (hostE != null) {
+                hostE.appendChild(createSendfileCheckValve(doc));
+            }
+        }
+    }
+
+    /**
+     * Mount the class path of a webapp: a PreResources for each directory and a PostResources for each jar since
+     * Tomcat 8, a VirtualWebappLoader before. The entries which do not exist are skipped.
+     */
+    public static void addClassPathResources(Document doc, Element contextRoot, List<Path> classPath, String tomcatVersion,
+                                             ResourceOptions resourceOptions) {
+        if (classPath.isEmpty()) {
+            return;
+        }
+
+        int majorVersion = parseMajorVersion(tomcatVersion);
+        if (majorVersion >= 8) {
+            Element resources = createResourcesElementIfNecessary(doc, contextRoot, resourceOptions);
+            for (Path path : classPath) {
+                Element res;
+                String tagName;
+                String className;
+                String webAppMount;
+
+                if (Files.isDirectory(path)) {
+                    tagName = "PreResources";
+                    className = "org.apache.catalina.webresources.DirResourceSet";
+                    webAppMount = "/WEB-INF/classes";
+                } else if (Files.exists(path)) {
+                    tagName = "PostResources";
+                    className = "org.apache.catalina.webresources.FileResourceSet";
+                    webAppMount = "/WEB-INF/lib/" + path.getFileName();
+                } else {
+                    continue;
+                }
+
+                res = doc.createElement(tagName);
+                res.setAttribute("base", path.toString());
+                res.setAttribute("className", className);
+                res.setAttribute("webAppMount", webAppMount);
+
+                resources.appendChild(res);
+            }
+        } else if (majorVersion >= 6) {
+            Element loader = doc.createElement("Loader");
+            loader.setAttribute("className", "org.apache.catalina.loader.VirtualWebappLoader");
+            loader.setAttribute("virtualClasspath", StringUtil.join(classPath, Path::toString, File.pathSeparator));
+            contextRoot.appendChild(loader);
+        } else {
+            throw new RuntimeException("Unsupported Tomcat version: " + tomcatVersion);
+        }
+    }
+
+    static Element createResourcesElementIfNecessary(Document doc, Element contextRoot, ResourceOptions resourceOptions) {
+        Element resources = (Element) contextRoot.getElementsByTagName("Resources").item(0);
+        if (resources == null) {
+            resources = doc.createElement("Resources");
+            contextRoot.appendChild(resources);
+        }
+
+        if (resourceOptions.allowLinking()) {
+            resources.setAttribute("allowLinking", "true");
+        }
+
+        if (resourceOptions.cacheMaxSize() > 0) {
+            resources.setAttribute("cacheMaxSize", String.valueOf(resourceOptions.cacheMaxSize()));
+        }
+
+        return resources;
+    }
+
+    /**
+     * HTTP/2 (h2 and h2c) and precompressed static resources are available since Tomcat 8.5
+     */
+    static boolean isTomcat85OrLater(String tomcatVersion) {
+        int majorVersion = parseMajorVersion(tomcatVersion);
+        return majorVersion > 8 || (majorVersion == 8 && tomcatVersion.startsWith("8.5"));
+    }
+
+    public static int parseMajorVersion(String tomcatVersion) {
+        return Integer.parseInt(tomcatVersion.split("\\.")[0]);
+    }
+
+    private static void addUpgradeProtocol(Document doc, Element connector) {
+        NodeList upgradeProtocols = connector.getElementsByTagName("UpgradeProtocol");
+        for (int i = 0; i < upgradeProtocols.getLength(); i++) {
+            Element upgradeProtocol = (Element) upgradeProtocols.item(i);
+            if (HTTP2_PROTOCOL_CLASS.equals(upgradeProtocol.getAttribute("className"))) {
+                return;
+            }
+        }
+
+        Element upgradeProtocol = doc.createElement("UpgradeProtocol");
+        upgradeProtocol.setAttribute("className", HTTP2_PROTOCOL_CLASS);
+        // UpgradeProtocol must precede SSLHostConfig
+        connector.insertBefore(upgradeProtocol, connector.getFirstChild());
+    }
+
+    private static void configureCompression(Element connector, ServerOptions options) {
+        // The attribute was misspelled before Tomcat 8.5
+        String mimeTypeAttribute = isTomcat85OrLater(options.tomcatVersion()) ? "compressibleMimeType" : "compressableMimeType";
+
+        connector.setAttribute("compression", "on");
+        connector.setAttribute("compressionMinSize", String.valueOf(options.compressionMinSize()));
+        if (StringUtil.isNotEmpty(options.compressionMimeTypes())) {
+            connector.setAttribute(mimeTypeAttribute, options.compressionMimeTypes());
+        }
+    }
+
+    private static Element createSslConnector(Document doc, Path keystore) {
+        Element connector = doc.createElement("Connector");
+        connector.setAttribute("protocol", "org.apache.coyote.http11.Http11NioProtocol");
+        connector.setAttribute("SSLEnabled", "true");
+        connector.setAttribute("maxThreads", "150");
+
+        Element sslHostConfig = doc.createElement("SSLHostConfig");
+        Element certificate = doc.createElement("Certificate");
+        certificate.setAttribute("certificateKeystoreFile", keystore.toString());
+        certificate.setAttribute("certificateKeystorePassword", KEYSTORE_PASSWORD);
+        certificate.setAttribute("certificateKeystoreType", "PKCS12");
+        certificate.setAttribute("type", "RSA");
+        sslHostConfig.appendChild(certificate);
+        connector.appendChild(sslHostConfig);
+
+        return connector;
+    }
+
+    /**
+     * Log every request with the sendfile request attributes, so that it can be checked whether
+     * the DefaultServlet actually served a static file with sendfile.
+     * `org.apache.tomcat.sendfile.filename` is only set when the response is written with sendfile.
+     */
+    private static Element createSendfileCheckValve(Document doc) {
+        Element valve = doc.createElement("Valve");
+        valve.setAttribute("className", "org.apache.catalina.valves.AccessLogValve");
+        valve.setAttribute("directory", "logs");
+        valve.setAttribute("prefix", TomcatLogFile.SENDFILE_CHECK_LOG_PREFIX + ".");
+        valve.setAttribute("suffix", ".txt");
+        valve.setAttribute("pattern", "%t \"%r\" %s %b supported=%{org.apache.tomcat.sendfile.support}r sendfile=%{org.apache.tomcat.sendfile.filename}r");
+        return valve;
+    }
+}
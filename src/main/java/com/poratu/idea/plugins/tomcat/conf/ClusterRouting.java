@@ -0,0 +1,20 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+/**
+ * How the load balancer in front of a local cluster picks the Tomcat node of a connection
+ */
+public enum ClusterRouting {
+    ROUND_ROBIN("Round robin"),
+    STICKY("Sticky sessions (jvmRoute of the session id)");
+
+    private final String displayName;
+
+    ClusterRouting(String displayName) {
+        this.displayName = displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,65 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.util.Url;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Merges the consecutive chunks of the same content type of {@link ServerConsoleView} into one print, and parses the
+ * startup log on the way. The server URLs and the startup report are printed right after the line which tells that
+ * Tomcat has started. The view prints the batches to the console, outside of a drain nothing is buffered.
+ */
+class ConsoleBatcher {
+    private final StartupLogParser startupLogParser;
+    private final Supplier<List<Url>> serverUrls;
+    private final Printer printer;
+    private final StringBuilder batch = new StringBuilder();
+    private ConsoleViewContentType batchType;
+
+    interface Printer {
+        void print(String text, ConsoleViewContentType contentType);
+    }
+
+    ConsoleBatcher(StartupLogParser startupLogParser, Supplier<List<Url>> serverUrls, Printer printer) {
+        this.startupLogParser = startupLogParser;
+        this.serverUrls = serverUrls;
+        this.printer = printer;
+    }
+
+    /**
+     * @param nanos when the chunk was printed
+     */
+    void add(String text, ConsoleViewContentType contentType, long nanos) {
+        append(text, contentType);
+
+        if (startupLogParser.parse(text, nanos)) {
+            for (Url url : serverUrls.get()) {
+                batch.append(url).append('\n');
+            }
+            ContextStartupReport startupReport = startupLogParser.getStartupReport();
+            if (!startupReport.isEmpty()) {
+                append(startupReport.format(), ConsoleViewContentType.SYSTEM_OUTPUT);
+            }
+        }
+    }
+
+    /**
+     * Adds a text which is not part of the Tomcat output, e.g. a notice of the view
+     */
+    void append(String text, ConsoleViewContentType contentType) {
+        if (contentType != batchType) {
+            flush();
+            batchType = contentType;
+        }
+        batch.append(text);
+    }
+
+    void flush() {
+        if (batch.length() > 0) {
+            printer.print(batch.toString(), batchType);
+        }
+        batch.setLength(0);
+    }
+}
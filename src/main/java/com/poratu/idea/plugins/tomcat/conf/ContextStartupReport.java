@@ -0,0 +1,114 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.perf.TomcatStartupListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the startup time of each context from the Tomcat log, e.g.
+ * <pre>
+ * 21-Jun-2023 13:27:15.385 INFO [main] org.apache.catalina.core.StandardEngine.startInternal Starting Servlet engine: [Apache Tomcat/9.0.76]
+ * 21-Jun-2023 13:27:16.385 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deployment of deployment descriptor [/conf/Catalina/localhost/app.xml] has finished in [1,000] ms
+ * 21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1,012] milliseconds
+ * </pre>
+ * The contexts declared in server.xml are not logged individually, so their startup phase is measured as a whole.
+ */
+class ContextStartupReport {
+    private static final Pattern ENGINE_STARTING = Pattern.compile("Starting Servlet [Ee]ngine");
+    private static final Pattern DEPLOYING_DESCRIPTOR = Pattern.compile("Deploying deployment descriptor \\[");
+    private static final Pattern DESCRIPTOR_DEPLOYED = Pattern.compile("Deployment of deployment descriptor \\[(.+?)] has finished in \\[([\\d,.\\s]+)] ms");
+
+    private final List<String> earlyContextPaths;
+    private final Map<String, Long> contextTimes = new LinkedHashMap<>();
+    private long engineStartNanos = -1;
+    private long earlyPhaseMillis = -1;
+    private long serverStartupMillis = -1;
+
+    ContextStartupReport(TomcatRunConfiguration configuration) {
+        this(configuration.getWebappConfigs().stream()
+                .filter(WebappConfig::isStartBeforeOthers)
+                .map(WebappConfig::getContextPath)
+                .collect(Collectors.toList()));
+    }
+
+    ContextStartupReport(List<String> earlyContextPaths) {
+        this.earlyContextPaths = earlyContextPaths;
+    }
+
+    void parse(String s) {
+        parse(s, System.nanoTime());
+    }
+
+    /**
+     * @param nanos when the line was printed, the console parses its output in batches after a delay
+     */
+    void parse(String s, long nanos) {
+        if (engineStartNanos < 0 && ENGINE_STARTING.matcher(s).find()) {
+            engineStartNanos = nanos;
+            return;
+        }
+
+        if (DEPLOYING_DESCRIPTOR.matcher(s).find()) {
+            endEarlyPhase(nanos);
+            return;
+        }
+
+        Matcher matcher = DESCRIPTOR_DEPLOYED.matcher(s);
+        if (matcher.find()) {
+            contextTimes.put(toContextPath(matcher.group(1)), parseMillis(matcher.group(2)));
+            return;
+        }
+
+        long startupMillis = TomcatStartupListener.parseServerStartupMillis(s);
+        if (startupMillis >= 0) {
+            endEarlyPhase(nanos);
+            serverStartupMillis = startupMillis;
+        }
+    }
+
+    long getServerStartupMillis() {
+        return serverStartupMillis;
+    }
+
+    boolean isEmpty() {
+        return contextTimes.isEmpty() && earlyPhaseMillis < 0;
+    }
+
+    String format() {
+        StringBuilder sb = new StringBuilder("Context startup times:\n");
+        int width = contextTimes.keySet().stream().mapToInt(String::length).max().orElse(1);
+        if (earlyPhaseMillis >= 0 && !earlyContextPaths.isEmpty()) {
+            sb.append("  ").append(StringUtil.join(earlyContextPaths, ", "))
+                    .append(" (started first): ").append(earlyPhaseMillis).append(" ms\n");
+        }
+        contextTimes.forEach((path, millis) -> sb.append(String.format("  %-" + width + "s %8d ms\n", path, millis)));
+        if (serverStartupMillis >= 0) {
+            sb.append("  Server startup: ").append(serverStartupMillis).append(" ms\n");
+        }
+        return sb.toString();
+    }
+
+    private void endEarlyPhase(long nanos) {
+        if (earlyPhaseMillis < 0 && engineStartNanos >= 0) {
+            earlyPhaseMillis = (nanos - engineStartNanos) / 1_000_000;
+        }
+    }
+
+    // e.g. /home/user/.SmartTomcat/project/conf/Catalina/localhost/app#api.xml -> /app/api
+    private static String toContextPath(String descriptor) {
+        String fileName = StringUtil.trimEnd(descriptor.substring(descriptor.lastIndexOf('/') + 1), ".xml");
+        fileName = fileName.substring(fileName.lastIndexOf('\\') + 1);
+        return "ROOT".equals(fileName) ? "/" : "/" + fileName.replace('#', '/');
+    }
+
+    private static long parseMillis(String text) {
+        String digits = text.replaceAll("[^\\d]", "");
+        return digits.isEmpty() ? -1 : Long.parseLong(digits);
+    }
+}
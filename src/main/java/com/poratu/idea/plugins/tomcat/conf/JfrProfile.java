@@ -0,0 +1,33 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+/**
+ * The Java Flight Recorder settings used when a Tomcat is launched with a recording
+ */
+public enum JfrProfile {
+    NONE("Off", null),
+    DEFAULT("Continuous (default, ~1% overhead)", "default"),
+    PROFILE("Profiling (profile, ~2% overhead)", "profile");
+
+    // JFR is open source since Java 11
+    public static final int MIN_JAVA_VERSION = 11;
+
+    private final String displayName;
+    private final String settings;
+
+    JfrProfile(String displayName, String settings) {
+        this.displayName = displayName;
+        this.settings = settings;
+    }
+
+    /**
+     * @return the name of the JFR settings file of the JDK, e.g. `profile` for `lib/jfr/profile.jfc`
+     */
+    public String getSettings() {
+        return settings;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,61 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import java.util.regex.Pattern;
+
+/**
+ * JVM tuning presets, the preset options are added before the VM options of the run configuration
+ */
+public enum JvmPreset {
+    NONE("None", 8, ""),
+    FAST_DEV_STARTUP("Fast development startup", 8,
+            "-XX:TieredStopAtLevel=1 -XX:+UseSerialGC -Xshare:auto"),
+    PRODUCTION_G1("Production-like (G1)", 8,
+            "-XX:+UseG1GC -XX:MaxGCPauseMillis=200 -XX:+ParallelRefProcEnabled -XX:+UseStringDeduplication"),
+    LOW_PAUSE_ZGC("Low pause (ZGC)", 15,
+            "-XX:+UseZGC"),
+    SMALL_FOOTPRINT("Small footprint", 8,
+            "-XX:+UseSerialGC -XX:TieredStopAtLevel=1 -Xss512k -Xmx512m -XX:MaxMetaspaceSize=256m -XX:ReservedCodeCacheSize=64m");
+
+    private static final Pattern GC_OPTION = Pattern.compile("-XX:\\+Use\\w*GC\\b");
+
+    private final String displayName;
+    private final int minJavaVersion;
+    private final String vmOptions;
+
+    JvmPreset(String displayName, int minJavaVersion, String vmOptions) {
+        this.displayName = displayName;
+        this.minJavaVersion = minJavaVersion;
+        this.vmOptions = vmOptions;
+    }
+
+    public int getMinJavaVersion() {
+        return minJavaVersion;
+    }
+
+    /**
+     * @param javaVersion the feature version of the JDK, e.g. 17
+     */
+    public String getVmOptions(int javaVersion) {
+        if (this == LOW_PAUSE_ZGC && (javaVersion == 21 || javaVersion == 22)) {
+            // Generational ZGC is the default since Java 23
+            return vmOptions + " -XX:+ZGenerational";
+        }
+        return vmOptions;
+    }
+
+    public boolean selectsGarbageCollector() {
+        return GC_OPTION.matcher(vmOptions).find();
+    }
+
+    /**
+     * The JVM refuses to start with several garbage collectors selected
+     */
+    public static boolean selectsGarbageCollector(String vmOptions) {
+        return vmOptions != null && GC_OPTION.matcher(vmOptions).find();
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
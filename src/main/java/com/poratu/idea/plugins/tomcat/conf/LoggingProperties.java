@@ -0,0 +1,87 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.poratu.idea.plugins.tomcat.shared.LoggingControl;
+
+import java.util.Map;
+
+/**
+ * The logging.properties of a run configuration which owns the logging: the handlers of the stock Tomcat configuration
+ * (catalina, localhost, manager, host-manager and the console), written by asynchronous handlers so the request
+ * threads only queue the records, optionally rate limited, and the levels of the logger table.
+ * <p>
+ * The handlers log all the levels, the levels of the loggers decide what is written, so a level changed at runtime
+ * through JMX takes effect on its own.
+ */
+final class LoggingProperties {
+    /**
+     * The AsyncFileHandler is available since Tomcat 7
+     */
+    static final int ASYNC_HANDLER_MIN_TOMCAT_VERSION = 7;
+    /**
+     * The queue size of the AsyncFileHandler before Tomcat 10.1, which made it a property of the handler
+     */
+    static final String ASYNC_QUEUE_SIZE_PROPERTY = "org.apache.juli.AsyncMaxRecordCount";
+
+    private static final String[] FILE_HANDLERS = {"catalina", "localhost", "manager", "host-manager"};
+    private static final String CONSOLE_HANDLER = "java.util.logging.ConsoleHandler";
+
+    private LoggingProperties() {
+    }
+
+    static String create(TomcatRunConfiguration cfg, int tomcatMajorVersion) {
+        String handlerClass = tomcatMajorVersion >= ASYNC_HANDLER_MIN_TOMCAT_VERSION
+                ? "org.apache.juli.AsyncFileHandler" : "org.apache.juli.FileHandler";
+        String[] handlers = new String[FILE_HANDLERS.length];
+        for (int i = 0; i < FILE_HANDLERS.length; i++) {
+            handlers[i] = (i + 1) + FILE_HANDLERS[i] + "." + handlerClass;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Generated by Smart Tomcat from the run configuration \"").append(cfg.getName()).append("\", changes are overwritten\n");
+        sb.append("handlers = ").append(String.join(", ", handlers)).append(", ").append(CONSOLE_HANDLER).append('\n');
+        sb.append(".handlers = ").append(handlers[0]).append(", ").append(CONSOLE_HANDLER).append('\n');
+        sb.append(".level = INFO\n\n");
+
+        for (int i = 0; i < handlers.length; i++) {
+            String handler = handlers[i];
+            sb.append(handler).append(".level = ALL\n");
+            sb.append(handler).append(".directory = ${catalina.base}/logs\n");
+            sb.append(handler).append(".prefix = ").append(FILE_HANDLERS[i]).append(".\n");
+            sb.append(handler).append(".maxDays = 90\n");
+            sb.append(handler).append(".encoding = UTF-8\n");
+            if (cfg.getLoggingQueueSize() != null) {
+                sb.append(handler).append(".maxRecords = ").append(cfg.getLoggingQueueSize()).append('\n');
+            }
+            appendFilter(sb, cfg, handler);
+            sb.append('\n');
+        }
+
+        sb.append(CONSOLE_HANDLER).append(".level = ALL\n");
+        sb.append(CONSOLE_HANDLER).append(".formatter = org.apache.juli.OneLineFormatter\n");
+        sb.append(CONSOLE_HANDLER).append(".encoding = UTF-8\n");
+        appendFilter(sb, cfg, CONSOLE_HANDLER);
+        sb.append('\n');
+
+        String localhost = "org.apache.catalina.core.ContainerBase.[Catalina].[localhost]";
+        sb.append(localhost).append(".level = INFO\n");
+        sb.append(localhost).append(".handlers = ").append(handlers[1]).append('\n');
+        sb.append(localhost).append(".[/manager].level = INFO\n");
+        sb.append(localhost).append(".[/manager].handlers = ").append(handlers[2]).append('\n');
+        sb.append(localhost).append(".[/host-manager].level = INFO\n");
+        sb.append(localhost).append(".[/host-manager].handlers = ").append(handlers[3]).append('\n');
+
+        if (!cfg.getLoggingLevels().isEmpty()) {
+            sb.append('\n');
+            for (Map.Entry<String, String> entry : cfg.getLoggingLevels().entrySet()) {
+                sb.append(entry.getKey().trim()).append(".level = ").append(entry.getValue()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendFilter(StringBuilder sb, TomcatRunConfiguration cfg, String handler) {
+        if (cfg.getLoggingRateLimit() != null) {
+            sb.append(handler).append(".filter = ").append(LoggingControl.RATE_LIMIT_FILTER_CLASS).append('\n');
+        }
+    }
+}
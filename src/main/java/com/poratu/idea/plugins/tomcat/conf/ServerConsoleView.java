@@ -1,100 +1,264 @@
 package com.poratu.idea.plugins.tomcat.conf;
 
+import com.intellij.execution.impl.ConsoleBuffer;
 import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.ex.DocumentEx;
+import com.intellij.openapi.editor.ex.EditorEx;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ArrayUtil;
 import com.intellij.util.Url;
 import com.intellij.util.Urls;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.poratu.idea.plugins.tomcat.logs.ConsoleSpill;
+import com.poratu.idea.plugins.tomcat.logs.LogViewerDialog;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Author : zengkid
  * Date   : 2017-02-23
  * Time   : 00:13
+ * <p>
+ * The output is queued by {@link #print} and handed to the console in batches from a pooled thread: the startup log
+ * is parsed there, and the consecutive chunks of the same type are printed at once by {@link ConsoleBatcher}.
+ * When the console falls behind, the process output reader waits for it, which slows down Tomcat itself, and the
+ * output is dropped after a while.
+ * <p>
+ * The whole output is also appended to a spill file in the logs folder as it is printed, including the output which is
+ * dropped from the console, and the console only keeps the latest output, so its memory stays the same however long
+ * Tomcat runs. "Show Full Output" pages through the spill file.
  */
 public class ServerConsoleView extends ConsoleViewImpl {
+    private static final Logger LOG = Logger.getInstance(ServerConsoleView.class);
+    private static final int BATCH_DELAY_MILLIS = 50;
+    private static final long MAX_WAIT_MILLIS = 1000;
+
     private final TomcatRunConfiguration configuration;
-    private boolean printStarted = false;
-    private final List<String> httpPorts = new ArrayList<>();
-    private final List<String> httpsPorts = new ArrayList<>();
+    private final StartupLogParser startupLogParser;
+    private final ConsoleBatcher batcher;
+    private final Queue<Chunk> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingChars = new AtomicLong();
+    private final AtomicLong droppedChars = new AtomicLong();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Object drained = new Object();
+    private final long maxPendingChars = Registry.intValue("smartTomcat.console.maxPendingKb", 2048) * 1024L;
+    private volatile ConsoleSpill spill;
+    private volatile boolean disposed;
 
     public ServerConsoleView(TomcatRunConfiguration configuration) {
         super(configuration.getProject(), true);
         this.configuration = configuration;
+        this.startupLogParser = new StartupLogParser(new ContextStartupReport(configuration));
+        this.batcher = new ConsoleBatcher(startupLogParser, this::buildServerUrls, this::printBatch);
+        this.spill = createSpill(configuration);
     }
 
+    @Nullable
+    private static ConsoleSpill createSpill(TomcatRunConfiguration configuration) {
+        Path logsDir = PluginUtils.getTomcatLogsDirPath(configuration);
+        if (logsDir == null) {
+            return null;
+        }
+        try {
+            return ConsoleSpill.create(logsDir);
+        } catch (IOException e) {
+            LOG.warn("Failed to create the console spill file in " + logsDir, e);
+            return null;
+        }
+    }
+
+    /**
+     * With a spill file, the console keeps the latest output only, at most the cycle buffer of the console settings
+     */
     @Override
-    public void print(@NotNull String s, @NotNull ConsoleViewContentType contentType) {
-        super.print(s, contentType);
+    protected @NotNull EditorEx doCreateConsoleEditor() {
+        EditorEx editor = super.doCreateConsoleEditor();
+        if (spill != null) {
+            int window = Registry.intValue("smartTomcat.console.windowKb", 1024) * 1024;
+            if (ConsoleBuffer.useCycleBuffer()) {
+                window = Math.min(window, ConsoleBuffer.getCycleBufferSize());
+            }
+            ((DocumentEx) editor.getDocument()).setCyclicBufferSize(window);
+        }
+        return editor;
+    }
 
-        if (printStarted) {
-            return;
+    @Override
+    public AnAction @NotNull [] createConsoleActions() {
+        AnAction[] actions = super.createConsoleActions();
+        ConsoleSpill consoleSpill = spill;
+        if (consoleSpill == null) {
+            return actions;
         }
+        AnAction showFullOutput = new DumbAwareAction("Show Full Output", "Page through the whole output of this run", AllIcons.Actions.ShowAsTree) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                LogViewerDialog dialog = new LogViewerDialog(configuration.getProject(),
+                        configuration.getName() + ": " + consoleSpill.getFile(), consoleSpill.getIndex());
+                dialog.show();
+            }
+        };
+        return ArrayUtil.append(actions, showFullOutput);
+    }
 
-        // skip the exception log e.g.:
-        // at org.apache.catalina.startup.Catalina.start(Catalina.java:772)
-        boolean isExceptionLog = s.trim().startsWith("at ");
-        if (isExceptionLog) {
+    @Override
+    public void print(@NotNull String s, @NotNull ConsoleViewContentType contentType) {
+        // The spill keeps the output the console drops
+        appendToSpill(s);
+        if (!awaitCapacity()) {
+            droppedChars.addAndGet(s.length());
             return;
         }
+        pending.add(new Chunk(s, contentType, System.nanoTime()));
+        pendingChars.addAndGet(s.length());
+        if (drainScheduled.compareAndSet(false, true)) {
+            AppExecutorUtil.getAppScheduledExecutorService().schedule(this::drain, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
 
-        if (this.parsePorts(s)) {
-            return;
+    // The event dispatch thread never waits, its output is dropped right away when the console is behind
+    private boolean awaitCapacity() {
+        if (pendingChars.get() < maxPendingChars) {
+            return true;
+        }
+        if (disposed || ApplicationManager.getApplication().isDispatchThread()) {
+            return false;
         }
 
-        if (s.contains("org.apache.catalina.startup.Catalina start")
-                || s.contains("org.apache.catalina.startup.Catalina.start")) {
-            boolean portNotFound = httpPorts.isEmpty() && httpsPorts.isEmpty();
-            // Use the configured port if the port is not found in the log
-            if (portNotFound) {
-                this.httpPorts.add(String.valueOf(configuration.getPort()));
-                Integer sslPort = configuration.getSslPort();
-                if (sslPort != null) {
-                    this.httpsPorts.add(String.valueOf(sslPort));
+        long deadline = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        synchronized (drained) {
+            while (pendingChars.get() >= maxPendingChars && !disposed) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    drained.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
                 }
             }
+        }
+        return !disposed;
+    }
+
+    private void drain() {
+        long dropped = droppedChars.getAndSet(0);
+        if (dropped > 0) {
+            batcher.append("[" + dropped + " characters of output were dropped, the console could not keep up]\n", ConsoleViewContentType.SYSTEM_OUTPUT);
+        }
 
-            List<Url> urls = buildServerUrls();
-            for (Url url : urls) {
-                super.print(url + "\n", contentType);
+        Chunk chunk;
+        while ((chunk = pending.poll()) != null) {
+            pendingChars.addAndGet(-chunk.text().length());
+            batcher.add(chunk.text(), chunk.contentType(), chunk.nanos());
+        }
+        batcher.flush();
+        flushSpill();
+
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+        drainScheduled.set(false);
+        // Output queued while the flag was still set
+        if (!pending.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+            AppExecutorUtil.getAppScheduledExecutorService().schedule(this::drain, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void printBatch(String text, ConsoleViewContentType contentType) {
+        if (!disposed) {
+            super.print(text, contentType);
+        }
+    }
+
+    private void appendToSpill(String text) {
+        ConsoleSpill consoleSpill = spill;
+        if (consoleSpill != null) {
+            try {
+                consoleSpill.append(text);
+            } catch (IOException e) {
+                LOG.warn("Failed to write the console spill file, the full output is no longer kept", e);
+                closeSpill();
             }
-            printStarted = true;
         }
     }
 
-    // Parse the port number from the log
-    // 21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler ["http-nio-8080"]
-    // 21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler ["https-jsse-nio-8443"]
-    private boolean parsePorts(String s) {
-        Pattern pattern = Pattern.compile("http-nio-(\\d+)");
-        Matcher matcher = pattern.matcher(s);
-        if (matcher.find()) {
-            String port = matcher.group(1);
-            if (!this.httpPorts.contains(port)) {
-                this.httpPorts.add(port);
+    private void flushSpill() {
+        ConsoleSpill consoleSpill = spill;
+        if (consoleSpill != null) {
+            try {
+                consoleSpill.flush();
+            } catch (IOException e) {
+                LOG.warn("Failed to write the console spill file, the full output is no longer kept", e);
+                closeSpill();
             }
-            return true;
         }
+    }
 
-        pattern = Pattern.compile("https-jsse-nio-(\\d+)");
-        matcher = pattern.matcher(s);
-        if (matcher.find()) {
-            String port = matcher.group(1);
-            if (!this.httpsPorts.contains(port)) {
-                this.httpsPorts.add(port);
+    private void closeSpill() {
+        ConsoleSpill consoleSpill = spill;
+        spill = null;
+        if (consoleSpill != null) {
+            try {
+                consoleSpill.close();
+            } catch (IOException e) {
+                LOG.debug("Failed to close the console spill file", e);
             }
-            return true;
         }
+    }
+
+    @Override
+    public void clear() {
+        Chunk chunk;
+        while ((chunk = pending.poll()) != null) {
+            pendingChars.addAndGet(-chunk.text().length());
+        }
+        super.clear();
+    }
 
-        return false;
+    @Override
+    public void dispose() {
+        disposed = true;
+        synchronized (drained) {
+            drained.notifyAll();
+        }
+        closeSpill();
+        super.dispose();
     }
 
     private List<Url> buildServerUrls() {
+        List<String> httpPorts = new ArrayList<>(startupLogParser.getHttpPorts());
+        List<String> httpsPorts = new ArrayList<>(startupLogParser.getHttpsPorts());
+        // Use the configured port if the port is not found in the log
+        if (httpPorts.isEmpty() && httpsPorts.isEmpty()) {
+            httpPorts.add(String.valueOf(configuration.getPort()));
+            Integer sslPort = configuration.getSslPort();
+            if (sslPort != null) {
+                httpsPorts.add(String.valueOf(sslPort));
+            }
+        }
+
         List<Url> urls = new ArrayList<>();
         for(WebappConfig webappConfig: configuration.getWebappConfigs()) {
             String path = '/' + StringUtil.trimStart(webappConfig.getContextPath(), "/");
@@ -114,4 +278,7 @@ public class ServerConsoleView extends ConsoleViewImpl {
 
         return urls;
     }
+
+    private record Chunk(String text, ConsoleViewContentType contentType, long nanos) {
+    }
 }
@@ -0,0 +1,90 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the connector ports and the startup times of the contexts from the console output until Tomcat has started.
+ * The lines of interest are all logged by Tomcat classes, the other lines are skipped with a single scan, e.g.
+ * <pre>
+ * 21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler ["http-nio-8080"]
+ * 21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler ["https-jsse-nio-8443"]
+ * 21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1,012] milliseconds
+ * </pre>
+ */
+class StartupLogParser {
+    private static final String TOMCAT_PACKAGE = "org.apache.";
+    private static final String CATALINA_CLASS = "org.apache.catalina.startup.Catalina";
+    private static final Pattern CONNECTOR = Pattern.compile("(https-jsse-nio|http-nio)-(\\d+)");
+
+    private final List<String> httpPorts = new ArrayList<>();
+    private final List<String> httpsPorts = new ArrayList<>();
+    private final ContextStartupReport startupReport;
+    private boolean started;
+
+    StartupLogParser(ContextStartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    /**
+     * @param nanos when the line was printed
+     * @return true for the line which tells that Tomcat has started, the following lines are not parsed
+     */
+    boolean parse(String s, long nanos) {
+        if (started) {
+            return false;
+        }
+
+        int index = s.indexOf(TOMCAT_PACKAGE);
+        // skip the exception log e.g.:
+        // at org.apache.catalina.startup.Catalina.start(Catalina.java:772)
+        if (index < 0 || isStackFrame(s)) {
+            return false;
+        }
+
+        Matcher matcher = CONNECTOR.matcher(s);
+        if (matcher.find(index)) {
+            List<String> ports = matcher.group(1).startsWith("https") ? httpsPorts : httpPorts;
+            if (!ports.contains(matcher.group(2))) {
+                ports.add(matcher.group(2));
+            }
+            return false;
+        }
+
+        startupReport.parse(s, nanos);
+
+        // org.apache.catalina.startup.Catalina start, or org.apache.catalina.startup.Catalina.start
+        int catalina = s.indexOf(CATALINA_CLASS, index);
+        int end = catalina + CATALINA_CLASS.length();
+        if (catalina >= 0 && end < s.length() && (s.charAt(end) == ' ' || s.charAt(end) == '.') && s.startsWith("start", end + 1)) {
+            started = true;
+        }
+        return started;
+    }
+
+    private static boolean isStackFrame(String s) {
+        int i = 0;
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return s.startsWith("at ", i);
+    }
+
+    boolean isStarted() {
+        return started;
+    }
+
+    List<String> getHttpPorts() {
+        return httpPorts;
+    }
+
+    List<String> getHttpsPorts() {
+        return httpsPorts;
+    }
+
+    ContextStartupReport getStartupReport() {
+        return startupReport;
+    }
+}
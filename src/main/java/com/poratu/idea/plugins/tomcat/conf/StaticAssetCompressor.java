@@ -0,0 +1,192 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.configurations.PathEnvironmentVariableUtil;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.util.ExecUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates `.gz` and `.br` siblings of the compressible static assets of a docBase into a staging overlay,
+ * which is mounted in front of the docBase so that the DefaultServlet can serve them with `precompressed`.
+ * An asset is only compressed again when its modification time changed since the last run.
+ */
+public class StaticAssetCompressor {
+    private static final Logger LOG = Logger.getInstance(StaticAssetCompressor.class);
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String BROTLI_SUFFIX = ".br";
+
+    private final Path docBase;
+    private final Path overlay;
+    private final Set<String> extensions;
+    private final long minSize;
+    @Nullable
+    private final File brotli;
+
+    private int compressed;
+    private long compressedBytes;
+
+    public StaticAssetCompressor(Path docBase, Path overlay) {
+        this.docBase = docBase;
+        this.overlay = overlay;
+        this.extensions = new HashSet<>(StringUtil.split(Registry.stringValue("smartTomcat.precompress.extensions"), ","));
+        this.minSize = Registry.intValue("smartTomcat.precompress.minSize", 1024);
+        this.brotli = PathEnvironmentVariableUtil.findInPath("brotli");
+    }
+
+    public void compress() throws IOException {
+        if (!Files.isDirectory(docBase)) {
+            return;
+        }
+
+        Set<Path> expected = new HashSet<>();
+        Files.walkFileTree(docBase, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String name = dir.getFileName().toString();
+                // Never served by the DefaultServlet
+                if ("WEB-INF".equals(name) || "META-INF".equals(name) || "node_modules".equals(name)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && attrs.size() >= minSize && isCompressible(file)) {
+                    Path target = overlay.resolve(docBase.relativize(file).toString());
+                    Path gzip = target.resolveSibling(target.getFileName() + GZIP_SUFFIX);
+                    expected.add(gzip);
+                    compressIfModified(file, attrs.lastModifiedTime(), gzip, StaticAssetCompressor.this::writeGzip);
+
+                    if (brotli != null) {
+                        Path br = target.resolveSibling(target.getFileName() + BROTLI_SUFFIX);
+                        expected.add(br);
+                        compressIfModified(file, attrs.lastModifiedTime(), br, StaticAssetCompressor.this::writeBrotli);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        deleteStaleFiles(expected);
+    }
+
+    /**
+     * @return the compressed files written by {@link #compress()}, the files already up to date are not counted
+     */
+    public int getCompressed() {
+        return compressed;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    private boolean isCompressible(Path file) {
+        String extension = FileUtil.getExtension(file.getFileName().toString()).toLowerCase(Locale.ROOT);
+        return extensions.contains(extension);
+    }
+
+    private void compressIfModified(Path source, FileTime sourceTime, Path target, Encoder encoder) throws IOException {
+        if (Files.exists(target) && Files.getLastModifiedTime(target).equals(sourceTime)) {
+            return;
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            encoder.encode(source, target);
+        } catch (IOException e) {
+            FileUtil.delete(target.toFile());
+            LOG.warn("Failed to precompress " + source, e);
+            return;
+        }
+        // The modification time of the source marks the compressed file as up to date
+        Files.setLastModifiedTime(target, sourceTime);
+        compressed++;
+        compressedBytes += Files.size(target);
+    }
+
+    private void writeGzip(Path source, Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new BestCompressionGzipOutputStream(Files.newOutputStream(target))) {
+            FileUtil.copy(in, out);
+        }
+    }
+
+    private void writeBrotli(Path source, Path target) throws IOException {
+        GeneralCommandLine commandLine = new GeneralCommandLine(brotli.getPath(), "--force", "--best",
+                "--output=" + target, source.toString());
+        try {
+            ProcessOutput output = ExecUtil.execAndGetOutput(commandLine);
+            if (output.getExitCode() != 0) {
+                throw new IOException(output.getStderr());
+            }
+        } catch (ExecutionException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Remove the compressed files of assets which are deleted or no longer compressible, and the folders left empty
+    private void deleteStaleFiles(Set<Path> expected) throws IOException {
+        if (!Files.isDirectory(overlay)) {
+            return;
+        }
+
+        Files.walkFileTree(overlay, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!expected.contains(file)) {
+                    Files.delete(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            // The folders are visited after their files, so the folders emptied by the deletions are removed too
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) {
+                    throw e;
+                }
+                if (!dir.equals(overlay) && PluginUtils.isEmptyFolder(dir)) {
+                    Files.delete(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Encoder {
+        void encode(Path source, Path target) throws IOException;
+    }
+
+    private static class BestCompressionGzipOutputStream extends GZIPOutputStream {
+        BestCompressionGzipOutputStream(OutputStream out) throws IOException {
+            super(out, 64 * 1024);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
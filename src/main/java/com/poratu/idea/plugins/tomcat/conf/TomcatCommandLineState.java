@@ -8,19 +8,38 @@ import com.intellij.execution.configurations.*;
 import com.intellij.execution.executors.DefaultDebugExecutor;
 import com.intellij.execution.process.KillableColoredProcessHandler;
 import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessOutput;
 import com.intellij.execution.process.ProcessTerminatedListener;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.runners.ProgramRunner;
 import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.util.ExecUtil;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.OrderEnumerator;
-import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.PathsList;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterNode;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterSupport;
+import com.poratu.idea.plugins.tomcat.logs.LogHousekeeping;
+import com.poratu.idea.plugins.tomcat.monitor.RequestMetricsServer;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstance;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstanceRegistry;
 import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import com.poratu.idea.plugins.tomcat.perf.ClassLoadLog;
+import com.poratu.idea.plugins.tomcat.perf.JfrRecorder;
+import com.poratu.idea.plugins.tomcat.perf.LaunchTrace;
+import com.poratu.idea.plugins.tomcat.perf.PerfRecorder;
+import com.poratu.idea.plugins.tomcat.perf.TomcatStartupListener;
+import com.poratu.idea.plugins.tomcat.shared.LoggingControl;
+import com.poratu.idea.plugins.tomcat.shared.MetricsProtocol;
+import com.poratu.idea.plugins.tomcat.utils.RamDiskSupport;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Document;
@@ -36,16 +55,19 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -72,7 +94,15 @@ public class TomcatCommandLineState extends JavaCommandLineState {
     private static final String PARAM_LOGGING_CONFIG = "java.util.logging.config.file";
     private static final String PARAM_LOGGING_MANAGER = "java.util.logging.manager";
     private static final String PARAM_LOGGING_MANAGER_VALUE = "org.apache.juli.ClassLoaderLogManager";
+    private static final String AGENT_JAR = "smart-tomcat-agent.jar";
+    private static final String REQUEST_METRICS_VALVE_CLASS = "com.poratu.idea.plugins.tomcat.agent.RequestMetricsValve";
+    private static final String JULI_JAR = "smart-tomcat-juli.jar";
     private TomcatRunConfiguration configuration;
+    private Path ramDiskCatalinaBase;
+    private Path diskCatalinaBase;
+    private RequestMetricsServer requestMetricsServer;
+    private Path jfrRecording;
+    private LaunchTrace launchTrace;
 
     protected TomcatCommandLineState(@NotNull ExecutionEnvironment environment) {
         super(environment);
@@ -103,25 +133,78 @@ public class TomcatCommandLineState extends JavaCommandLineState {
     @Override
     @NotNull
     protected OSProcessHandler startProcess() throws ExecutionException {
-        KillableColoredProcessHandler processHandler = new TomcatProcessHandler(createCommandLine());
+        GeneralCommandLine commandLine = createCommandLine();
+        KillableColoredProcessHandler processHandler;
+        try (LaunchTrace.Stage ignored = launchTrace.stage("process spawn")) {
+            processHandler = new TomcatProcessHandler(commandLine);
+        }
         boolean shouldKillSoftly = !DebuggerSettings.getInstance().KILL_PROCESS_IMMEDIATELY;
 
         processHandler.setShouldKillProcessSoftly(shouldKillSoftly);
         ProcessTerminatedListener.attach(processHandler);
 
+        if (ramDiskCatalinaBase != null) {
+            Path ramDiskBase = ramDiskCatalinaBase;
+            Path diskBase = diskCatalinaBase;
+            processHandler.addProcessListener(new ProcessAdapter() {
+                @Override
+                public void processTerminated(@NotNull ProcessEvent event) {
+                    RamDiskSupport.syncBack(ramDiskBase, diskBase);
+                }
+            });
+        }
+
+        Path catalinaBase = ramDiskCatalinaBase != null ? ramDiskCatalinaBase : PluginUtils.getCatalinaBase(configuration);
+        TomcatInstance instance = new TomcatInstance(configuration, processHandler, catalinaBase, configuration.getJmxPort());
+        instance.setRequestMetrics(requestMetricsServer);
+        if (configuration.isManagedLogging()) {
+            instance.setLoggingLevels(configuration.getLoggingLevels());
+        }
+        if (jfrRecording != null) {
+            instance.setJfrRecording(jfrRecording);
+            JfrRecorder.summarizeOnExit(instance);
+        }
+        TomcatInstanceRegistry.getInstance(configuration.getProject()).register(instance);
+        LogHousekeeping.getInstance(configuration.getProject()).start();
+        ClusterSupport.startCluster(configuration, instance);
+
+        TomcatStartupListener startupListener = new TomcatStartupListener();
+        processHandler.addProcessListener(startupListener);
+        LaunchTrace trace = launchTrace;
+        startupListener.getStartupMillis().thenAccept(startupMillis -> {
+            trace.recordTomcatStartup(startupMillis);
+            if (!configuration.isSynthetic()) {
+                PerfRecorder.recordStartup(configuration, processHandler, startupMillis);
+            }
+        });
+        trace.finish();
+
         return processHandler;
     }
 
     @Override
     protected JavaParameters createJavaParameters() {
         try {
-            Path catalinaBase = PluginUtils.getCatalinaBase(configuration);
+            launchTrace = new LaunchTrace(configuration.getProject(), configuration.getName());
+            Path catalinaBase;
+            try (LaunchTrace.Stage ignored = launchTrace.stage("getCatalinaBase")) {
+                catalinaBase = PluginUtils.getCatalinaBase(configuration);
+            }
            // Module module = configuration.getModule();
            // if (catalinaBase == null || module == null) {
             if (catalinaBase == null || configuration.getWebappConfigs().isEmpty()) {
                 throw new ExecutionException("The Module Root specified is not a module according to Intellij");
             }
 
+            Path diskBase = PluginUtils.getDiskCatalinaBase(configuration);
+            if (diskBase != null && !catalinaBase.equals(diskBase)) {
+                try (LaunchTrace.Stage ignored = launchTrace.stage("prepare RAM disk")) {
+                    RamDiskSupport.prepare(configuration, catalinaBase, diskBase);
+                }
+                ramDiskCatalinaBase = catalinaBase;
+                diskCatalinaBase = diskBase;
+            }
+
             Path tomcatInstallationPath = Paths.get(configuration.getTomcatInfo().getPath());
             Project project = configuration.getProject();
             String tomcatVersion = configuration.getTomcatInfo().getVersion();
@@ -129,37 +212,70 @@ public class TomcatCommandLineState extends JavaCommandLineState {
             String extraClassPath = configuration.getExtraClassPath();
             Map<String, String> envOptions = configuration.getEnvOptions();
 
-            //copy to project folder, and then user is able to update server.xml under the project.
-            Path projectConfPath = Paths.get(project.getBasePath(), ".smarttomcat", configuration.getName(), "conf");
-            if (!projectConfPath.toFile().exists() || PluginUtils.isEmptyFolder(projectConfPath)) {
-                FileUtil.createDirectory(projectConfPath.toFile());
-                FileUtil.copyDir(tomcatInstallationPath.resolve("conf").toFile(), projectConfPath.toFile());
+            Path confPath = catalinaBase.resolve("conf");
+            try (LaunchTrace.Stage stage = launchTrace.stage("copy conf")) {
+                //copy to project folder, and then user is able to update server.xml under the project.
+                // The nodes of a cluster share the conf of their run configuration
+                ClusterNode clusterNode = configuration.getClusterNode();
+                String confName = clusterNode != null ? clusterNode.clusterName() : configuration.getName();
+                Path projectConfPath = Paths.get(project.getBasePath(), ".smarttomcat", confName, "conf");
+                if (!projectConfPath.toFile().exists() || PluginUtils.isEmptyFolder(projectConfPath)) {
+                    FileUtil.createDirectory(projectConfPath.toFile());
+                    FileUtil.copyDir(tomcatInstallationPath.resolve("conf").toFile(), projectConfPath.toFile());
+                    stage.addFiles(projectConfPath);
+                }
+
+                // Copy the Tomcat configuration files to the working directory
+                FileUtil.delete(confPath);
+                FileUtil.createDirectory(confPath.toFile());
+                FileUtil.copyDir(projectConfPath.toFile(), confPath.toFile());
+                stage.addFiles(confPath);
             }
 
-            // Copy the Tomcat configuration files to the working directory
-            Path confPath = catalinaBase.resolve("conf");
-            FileUtil.delete(confPath);
-            FileUtil.createDirectory(confPath.toFile());
-            FileUtil.copyDir(projectConfPath.toFile(), confPath.toFile());
+            Sdk jdk = configuration.getJdk();
+
+            try (LaunchTrace.Stage stage = launchTrace.stage("updateServerConf")) {
+                updateServerConf(catalinaBase, confPath, configuration, jdk);
+                stage.addFile(confPath.resolve("server.xml"));
+            }
+            try (LaunchTrace.Stage stage = launchTrace.stage("updateWebXml")) {
+                updateWebXml(confPath, configuration);
+                stage.addFile(confPath.resolve("web.xml"));
+            }
+            if (configuration.isManagedLogging()) {
+                try (LaunchTrace.Stage stage = launchTrace.stage("logging.properties")) {
+                    Path loggingProperties = confPath.resolve("logging.properties");
+                    Files.writeString(loggingProperties, LoggingProperties.create(configuration, CatalinaConf.parseMajorVersion(tomcatVersion)));
+                    stage.addFile(loggingProperties);
+                }
+            }
 
-            updateServerConf(confPath, configuration);
-            
             // create the temp folder
             FileUtil.createDirectory(catalinaBase.resolve("temp").toFile());
 
-            createContextFiles(tomcatVersion, confPath);
-
-            deleteTomcatWorkFiles(catalinaBase);
+            try (LaunchTrace.Stage stage = launchTrace.stage("installAgent")) {
+                installAgent(catalinaBase, isRequestMetricsEnabled(configuration) || configuration.isManagedLogging());
+                stage.addFiles(catalinaBase.resolve("lib"));
+                installJuliJar(catalinaBase, isRateLimitEnabled(configuration));
+            }
+            createContextFiles(tomcatVersion, catalinaBase, confPath);
 
-            ProjectRootManager manager = ProjectRootManager.getInstance(project);
+            try (LaunchTrace.Stage stage = launchTrace.stage("deleteTomcatWorkFiles")) {
+                deleteTomcatWorkFiles(catalinaBase, stage);
+            }
 
+            LaunchTrace.Stage assembly = launchTrace.stage("JavaParameters assembly");
             JavaParameters javaParams = new JavaParameters();
             javaParams.setDefaultCharset(project);
             javaParams.setWorkingDirectory(catalinaBase.toFile());
-            javaParams.setJdk(manager.getProjectSdk());
+            javaParams.setJdk(jdk);
 
             javaParams.getClassPath().add(tomcatInstallationPath.resolve("bin/bootstrap.jar").toFile());
             javaParams.getClassPath().add(tomcatInstallationPath.resolve("bin/tomcat-juli.jar").toFile());
+            if (isRateLimitEnabled(configuration)) {
+                // The handlers load their filter from the system class path
+                javaParams.getClassPath().add(catalinaBase.resolve("bin").resolve(JULI_JAR).toFile());
+            }
             if (StringUtil.isNotEmpty(extraClassPath)) {
                 javaParams.getClassPath().addAll(StringUtil.split(extraClassPath, File.pathSeparator));
             }
@@ -173,12 +289,38 @@ public class TomcatCommandLineState extends JavaCommandLineState {
             }
 
             ParametersList vmParams = javaParams.getVMParametersList();
+            // The VM options of the run configuration come last, so they take precedence over the preset
+            vmParams.addParametersString(configuration.getJvmPreset().getVmOptions(PluginUtils.getJavaFeatureVersion(jdk)));
+            if (configuration.getJfrProfile() != JfrProfile.NONE) {
+                jfrRecording = JfrRecorder.newRecordingFile(configuration);
+                vmParams.add(JfrRecorder.getStartFlightRecordingOption(configuration.getJfrProfile(), jfrRecording));
+            }
+            if (configuration.isGcLogEnabled() && PluginUtils.getJavaFeatureVersion(jdk) >= TomcatRunConfiguration.GC_LOG_MIN_JAVA_VERSION) {
+                Path logsDir = catalinaBase.resolve("logs");
+                FileUtil.createDirectory(logsDir.toFile());
+                vmParams.add(getGcLogOption(logsDir.resolve(TomcatLogFile.GC_LOG_FILE_NAME)));
+            }
+            if (configuration.isClassLoadLogEnabled() && PluginUtils.getJavaFeatureVersion(jdk) >= ClassLoadLog.MIN_JAVA_VERSION) {
+                vmParams.add(ClassLoadLog.getLogOption(ClassLoadLog.newLogFile(configuration)));
+            }
             vmParams.addParametersString(vmOptions);
             vmParams.addProperty(PARAM_CATALINA_HOME, tomcatInstallationPath.toString());
             vmParams.defineProperty(PARAM_CATALINA_BASE, catalinaBase.toString());
             vmParams.defineProperty(PARAM_CATALINA_TMPDIR, catalinaBase.resolve("temp").toString());
             vmParams.defineProperty(PARAM_LOGGING_CONFIG, confPath.resolve("logging.properties").toString());
             vmParams.defineProperty(PARAM_LOGGING_MANAGER, PARAM_LOGGING_MANAGER_VALUE);
+            if (configuration.isManagedLogging() && configuration.getLoggingQueueSize() != null) {
+                vmParams.defineProperty(LoggingProperties.ASYNC_QUEUE_SIZE_PROPERTY, String.valueOf(configuration.getLoggingQueueSize()));
+            }
+            if (isRateLimitEnabled(configuration)) {
+                vmParams.defineProperty(LoggingControl.RATE_LIMIT_PROPERTY, String.valueOf(configuration.getLoggingRateLimit()));
+            }
+            addJmxOptions(vmParams, configuration.getJmxPort());
+            if (isRequestMetricsEnabled(configuration)) {
+                requestMetricsServer = new RequestMetricsServer();
+                vmParams.defineProperty(MetricsProtocol.PORT_PROPERTY, String.valueOf(requestMetricsServer.getPort()));
+                vmParams.defineProperty(MetricsProtocol.SAMPLER_INTERVAL_PROPERTY, String.valueOf(Registry.intValue("smartTomcat.sampler.intervalMillis", 20)));
+            }
 
             // Only add debug options when in debug mode
             boolean isDebugMode = getEnvironment().getExecutor().getId().equals(DefaultDebugExecutor.EXECUTOR_ID);
@@ -187,6 +329,7 @@ public class TomcatCommandLineState extends JavaCommandLineState {
                 vmParams.add("-Xrunjdwp:transport=dt_socket,server=y,suspend=n,address=5005");
             }
 
+            assembly.close();
             return javaParams;
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -194,74 +337,251 @@ public class TomcatCommandLineState extends JavaCommandLineState {
 
     }
 
+    /**
+     * The GC events, the heap transitions and the safepoints, rotated over 5 files of 10 MB: gc.log, gc.log.0, ...
+     */
+    private static String getGcLogOption(Path file) {
+        return "-Xlog:gc*=info,safepoint=info:file=\"" + file + "\":time,uptime,level,tags:filecount=5,filesize=10m";
+    }
+
+    private static boolean isRequestMetricsEnabled(TomcatRunConfiguration cfg) {
+        return cfg.isRequestMetricsEnabled() && CatalinaConf.parseMajorVersion(cfg.getTomcatInfo().getVersion()) >= 7;
+    }
+
+    private static boolean isRateLimitEnabled(TomcatRunConfiguration cfg) {
+        return cfg.isManagedLogging() && cfg.getLoggingRateLimit() != null;
+    }
+
+    /**
+     * The log filters are loaded with the handlers by the system class loader, from `CATALINA_BASE/bin` added to the class path
+     */
+    private static void installJuliJar(Path catalinaBase, boolean needed) throws IOException, ExecutionException {
+        Path juliJar = catalinaBase.resolve("bin").resolve(JULI_JAR);
+        if (!needed) {
+            Files.deleteIfExists(juliJar);
+            return;
+        }
+
+        try (InputStream in = TomcatCommandLineState.class.getResourceAsStream("/agent/" + JULI_JAR)) {
+            if (in == null) {
+                throw new ExecutionException("The Smart Tomcat log filters are missing from the plugin distribution");
+            }
+            Files.createDirectories(juliJar.getParent());
+            Files.copy(in, juliJar, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The agent classes (valves) are loaded by the common class loader of Tomcat, from `CATALINA_BASE/lib`.
+     * The jar is removed when no feature needs it, so a stale copy is never picked up.
+     */
+    private static void installAgent(Path catalinaBase, boolean needed) throws IOException, ExecutionException {
+        Path agentJar = catalinaBase.resolve("lib").resolve(AGENT_JAR);
+        if (!needed) {
+            Files.deleteIfExists(agentJar);
+            return;
+        }
+
+        try (InputStream in = TomcatCommandLineState.class.getResourceAsStream("/agent/" + AGENT_JAR)) {
+            if (in == null) {
+                throw new ExecutionException("The Smart Tomcat agent is missing from the plugin distribution");
+            }
+            Files.createDirectories(agentJar.getParent());
+            Files.copy(in, agentJar, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // A loopback only agent without authentication, like the local attach of jconsole
+    private static void addJmxOptions(ParametersList vmParams, @Nullable Integer jmxPort) {
+        if (jmxPort == null) {
+            return;
+        }
+
+        vmParams.defineProperty("com.sun.management.jmxremote.port", String.valueOf(jmxPort));
+        vmParams.defineProperty("com.sun.management.jmxremote.rmi.port", String.valueOf(jmxPort));
+        vmParams.defineProperty("com.sun.management.jmxremote.host", "127.0.0.1");
+        vmParams.defineProperty("com.sun.management.jmxremote.local.only", "true");
+        vmParams.defineProperty("com.sun.management.jmxremote.authenticate", "false");
+        vmParams.defineProperty("com.sun.management.jmxremote.ssl", "false");
+        vmParams.defineProperty("java.rmi.server.hostname", "127.0.0.1");
+    }
+
     @Nullable
     @Override
     protected ConsoleView createConsole(@NotNull Executor executor) {
         return new ServerConsoleView(configuration);
     }
 
-    private void updateServerConf(Path confPath, TomcatRunConfiguration cfg)
-            throws ParserConfigurationException, XPathExpressionException, TransformerException, IOException, SAXException {
+    private void updateServerConf(Path catalinaBase, Path confPath, TomcatRunConfiguration cfg, @Nullable Sdk jdk)
+            throws ParserConfigurationException, XPathExpressionException, TransformerException, IOException, SAXException, ExecutionException {
         Path serverXml = confPath.resolve("server.xml");
         Document doc = PluginUtils.createDocumentBuilder().parse(serverXml.toFile());
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        XPathExpression exprConnectorShutdown = xpath.compile("/Server[@shutdown='SHUTDOWN']");
-        XPathExpression serviceExpression = xpath.compile("/Server/Service[@name='Catalina']");
-        XPathExpression exprConnector = xpath.compile("/Server/Service[@name='Catalina']/Connector[(@protocol='HTTP/1.1' or @protocol='org.apache.coyote.http11.Http11NioProtocol' or @protocol='org.apache.coyote.http11.Http11Protocol') and (not(@SSLEnabled) or @SSLEnabled='false')]");
-        //XPathExpression exprConnector = xpath.compile("/Server/Service[@name='Catalina']/Connector[@protocol='HTTP/1.1' and (not(@SSLEnabled) or @SSLEnabled='false')]");
-        XPathExpression exprSSLConnector = xpath.compile("/Server/Service[@name='Catalina']/Connector[@SSLEnabled='true']");
-        XPathExpression exprContext = xpath.compile("/Server/Service[@name='Catalina']/Engine[@name='Catalina']/Host/Context");
-
-        Element serviceE = (Element) serviceExpression.evaluate(doc, XPathConstants.NODE);
-        Element portShutdown = (Element) exprConnectorShutdown.evaluate(doc, XPathConstants.NODE);
-        Element portE = (Element) exprConnector.evaluate(doc, XPathConstants.NODE);
-        Element sslPortE = (Element) exprSSLConnector.evaluate(doc, XPathConstants.NODE);
-
-        NodeList nodeList = (NodeList) exprContext.evaluate(doc, XPathConstants.NODESET);
-        if (nodeList != null) {
-            for (int i = 0; i < nodeList.getLength(); i++) {
-                Node node = nodeList.item(i);
-                node.getParentNode().removeChild(node);
-            }
+        CatalinaConf.updateServerXml(doc, CatalinaConf.ServerOptions.of(cfg), () -> createSelfSignedKeystore(catalinaBase, jdk));
+        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(serverXml.toFile()));
+    }
+
+    /**
+     * Generate a self-signed certificate for localhost with the keytool of the project JDK.
+     * The keystore lives outside the conf folder, so it is created only once per Catalina base.
+     */
+    private Path createSelfSignedKeystore(Path catalinaBase, @Nullable Sdk jdk) throws ExecutionException {
+        Path keystore = catalinaBase.resolve(Paths.get("ssl", "smarttomcat.p12"));
+        if (Files.exists(keystore)) {
+            return keystore;
         }
 
-        if (portShutdown != null) {
-            portShutdown.setAttribute("port", String.valueOf(cfg.getAdminPort()));
+        String javaHome = jdk != null && jdk.getHomePath() != null ? jdk.getHomePath() : System.getProperty("java.home");
+        String keytool = Paths.get(javaHome, "bin", SystemInfo.isWindows ? "keytool.exe" : "keytool").toString();
+        FileUtil.createDirectory(keystore.getParent().toFile());
+
+        GeneralCommandLine commandLine = new GeneralCommandLine(keytool,
+                "-genkeypair",
+                "-alias", "smarttomcat",
+                "-keyalg", "RSA",
+                "-keysize", "2048",
+                "-validity", "3650",
+                "-dname", "CN=localhost",
+                "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-storetype", "PKCS12",
+                "-keystore", keystore.toString(),
+                "-storepass", CatalinaConf.KEYSTORE_PASSWORD,
+                "-keypass", CatalinaConf.KEYSTORE_PASSWORD);
+        ProcessOutput output = ExecUtil.execAndGetOutput(commandLine);
+        if (output.getExitCode() != 0) {
+            FileUtil.delete(keystore.toFile());
+            throw new ExecutionException("Failed to generate the local keystore: " + output.getStderr());
         }
-        if (portE != null) {
-            portE.setAttribute("port", String.valueOf(cfg.getPort()));
+
+        return keystore;
+    }
+
+    /**
+     * Tune the DefaultServlet in the global web.xml of the working directory
+     */
+    private void updateWebXml(Path confPath, TomcatRunConfiguration cfg)
+            throws ParserConfigurationException, IOException, SAXException, TransformerException {
+        Map<String, String> initParams = new LinkedHashMap<>();
+        if (cfg.isSendfileEnabled()) {
+            initParams.put("sendfileSize", String.valueOf(Registry.intValue("smartTomcat.defaultServlet.sendfileSize", 48)));
+            initParams.put("output", String.valueOf(Registry.intValue("smartTomcat.defaultServlet.outputBufferSize", 32768)));
+        }
+        if (isPrecompressEnabled(cfg)) {
+            initParams.put("precompressed", "true");
         }
-        Integer sslPort = cfg.getSslPort();
 
-        if (sslPortE != null && sslPort != null) {
-            // Update SSL configuration
-            sslPortE.setAttribute("port", sslPort.toString());
-            portE.setAttribute("redirectPort", sslPort.toString());
-        } else {
-            // Clean up SSL configuration
-            portE.removeAttribute("redirectPort");
-            if (serviceE != null && sslPortE != null) {
-                serviceE.removeChild(sslPortE);
+        Path webXml = confPath.resolve("web.xml");
+        if (initParams.isEmpty() || !Files.exists(webXml)) {
+            return;
+        }
+
+        Document doc = PluginUtils.createDocumentBuilder().parse(webXml.toFile());
+        Element defaultServlet = findServlet(doc, "default");
+        if (defaultServlet == null) {
+            return;
+        }
+
+        initParams.forEach((name, value) -> setInitParam(doc, defaultServlet, name, value));
+        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(webXml.toFile()));
+    }
+
+    @Nullable
+    private Element findServlet(Document doc, String servletName) {
+        NodeList servlets = doc.getElementsByTagName("servlet");
+        for (int i = 0; i < servlets.getLength(); i++) {
+            Element servlet = (Element) servlets.item(i);
+            Node name = servlet.getElementsByTagName("servlet-name").item(0);
+            if (name != null && servletName.equals(name.getTextContent().trim())) {
+                return servlet;
             }
         }
+        return null;
+    }
 
-        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(serverXml.toFile()));
+    private void setInitParam(Document doc, Element servlet, String name, String value) {
+        NodeList initParams = servlet.getElementsByTagName("init-param");
+        for (int i = 0; i < initParams.getLength(); i++) {
+            Element initParam = (Element) initParams.item(i);
+            Node paramName = initParam.getElementsByTagName("param-name").item(0);
+            Node paramValue = initParam.getElementsByTagName("param-value").item(0);
+            if (paramName != null && paramValue != null && name.equals(paramName.getTextContent().trim())) {
+                paramValue.setTextContent(value);
+                return;
+            }
+        }
+
+        Element initParam = doc.createElement("init-param");
+        Element paramName = doc.createElement("param-name");
+        paramName.setTextContent(name);
+        Element paramValue = doc.createElement("param-value");
+        paramValue.setTextContent(value);
+        initParam.appendChild(paramName);
+        initParam.appendChild(paramValue);
+
+        // init-param must precede load-on-startup
+        Node loadOnStartup = servlet.getElementsByTagName("load-on-startup").item(0);
+        servlet.insertBefore(initParam, loadOnStartup);
     }
 
-    private void createContextFiles(String tomcatVersion, Path confPath) throws ParserConfigurationException, IOException, TransformerException, SAXException {
+    private static boolean isPrecompressEnabled(TomcatRunConfiguration cfg) {
+        return cfg.isPrecompressEnabled() && CatalinaConf.isTomcat85OrLater(cfg.getTomcatInfo().getVersion());
+    }
+
+    private void createContextFiles(String tomcatVersion, Path catalinaBase, Path confPath)
+            throws ParserConfigurationException, IOException, TransformerException, SAXException, XPathExpressionException {
         List<WebappConfig> list = configuration.getWebappConfigs();
+        List<Element> earlyContexts = new ArrayList<>();
         for(WebappConfig config: list) {
-            createContextFile(tomcatVersion, config, confPath);
+            try (LaunchTrace.Stage stage = launchTrace.stage("createContextFile(" + getContextFileName(config) + ")")) {
+                Element contextRoot = createContextFile(tomcatVersion, config, catalinaBase, confPath, stage);
+                if (contextRoot != null) {
+                    earlyContexts.add(contextRoot);
+                }
+            }
+        }
+
+        addEarlyContexts(confPath, earlyContexts);
+    }
+
+    /**
+     * The contexts declared in server.xml are started by the Host itself, before the HostConfig
+     * deploys the context files of `conf/Catalina/localhost`.
+     * This gives two startup phases, the contexts of each phase are still started in parallel.
+     */
+    private void addEarlyContexts(Path confPath, List<Element> earlyContexts)
+            throws ParserConfigurationException, IOException, SAXException, XPathExpressionException, TransformerException {
+        if (earlyContexts.isEmpty()) {
+            return;
         }
+
+        Path serverXml = confPath.resolve("server.xml");
+        Document doc = PluginUtils.createDocumentBuilder().parse(serverXml.toFile());
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        Element hostE = (Element) xpath.evaluate("/Server/Service[@name='Catalina']/Engine[@name='Catalina']/Host", doc, XPathConstants.NODE);
+        if (hostE == null) {
+            throw new IOException("No Host is defined in " + serverXml);
+        }
+
+        for (Element contextRoot : earlyContexts) {
+            hostE.appendChild(doc.importNode(contextRoot, true));
+        }
+
+        PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(serverXml.toFile()));
+    }
+
+    private static String getContextFileName(WebappConfig webappConfig) {
+        String normalizedContextPath = StringUtil.trim(webappConfig.getContextPath(), ch -> ch != '/');
+        return StringUtil.defaultIfEmpty(normalizedContextPath, "ROOT").replace('/', '#');
     }
 
-    private void createContextFile(String tomcatVersion, WebappConfig webappConfig, Path confPath)
+    /**
+     * @return the context element if the context must be declared in server.xml, otherwise {@code null}
+     */
+    @Nullable
+    private Element createContextFile(String tomcatVersion, WebappConfig webappConfig, Path catalinaBase, Path confPath, LaunchTrace.Stage stage)
             throws ParserConfigurationException, IOException, SAXException, TransformerException {
         Module module = webappConfig.resolveModule(configuration.getProject());
         String docBase = webappConfig.getDocBase();//  configuration.getDocBase();
-        String contextPath = webappConfig.getContextPath(); // configuration.getContextPath();
-        String normalizedContextPath = StringUtil.trim(contextPath, ch -> ch != '/');
-        String contextFileName = StringUtil.defaultIfEmpty(normalizedContextPath, "ROOT").replace('/', '#');
+        String contextFileName = getContextFileName(webappConfig);
         Path contextFilesDir = confPath.resolve(Paths.get("Catalina", "localhost"));
         Path contextFilePath = contextFilesDir.resolve(contextFileName + ".xml");
 
@@ -275,11 +595,52 @@ public class TomcatCommandLineState extends JavaCommandLineState {
         contextRoot.setAttribute("docBase", docBase);
 
         collectResources(doc, contextRoot, module, tomcatVersion);
+        if (isPrecompressEnabled(configuration)) {
+            addPrecompressedOverlay(doc, contextRoot, docBase, catalinaBase.resolve(Paths.get("precompressed", contextFileName)));
+        }
+        if (isRequestMetricsEnabled(configuration)) {
+            Element valve = doc.createElement("Valve");
+            valve.setAttribute("className", REQUEST_METRICS_VALVE_CLASS);
+            if (configuration.getSlowRequestThreshold() != null) {
+                valve.setAttribute("slowThresholdMillis", String.valueOf(configuration.getSlowRequestThreshold()));
+            }
+            contextRoot.appendChild(valve);
+        }
         doc.appendChild(contextRoot);
 
+        if (webappConfig.isStartBeforeOthers()) {
+            // The path is derived from the file name for context files only
+            contextRoot.setAttribute("path", "ROOT".equals(contextFileName) ? "" : "/" + contextFileName.replace('#', '/'));
+            return contextRoot;
+        }
+
         StringWriter writer = new StringWriter();
         PluginUtils.createTransformer().transform(new DOMSource(doc), new StreamResult(writer));
         FileUtil.writeToFile(contextFilePath.toFile(), writer.toString());
+        stage.addFile(contextFilePath);
+        return null;
+    }
+
+    /**
+     * Mount the precompressed siblings of the static assets in front of the docBase,
+     * so the source folder of the webapp is left untouched
+     */
+    private void addPrecompressedOverlay(Document doc, Element contextRoot, String docBase, Path overlay) throws IOException {
+        try (LaunchTrace.Stage stage = launchTrace.stage("precompress(" + overlay.getFileName() + ")")) {
+            StaticAssetCompressor compressor = new StaticAssetCompressor(Paths.get(docBase), overlay);
+            compressor.compress();
+            stage.add(compressor.getCompressed(), compressor.getCompressedBytes());
+        }
+        if (!Files.isDirectory(overlay)) {
+            return;
+        }
+
+        Element resources = CatalinaConf.createResourcesElementIfNecessary(doc, contextRoot, CatalinaConf.ResourceOptions.fromRegistry());
+        Element res = doc.createElement("PreResources");
+        res.setAttribute("base", overlay.toString());
+        res.setAttribute("className", "org.apache.catalina.webresources.DirResourceSet");
+        res.setAttribute("webAppMount", "/");
+        resources.appendChild(res);
     }
 
     /*
@@ -340,74 +701,27 @@ public class TomcatCommandLineState extends JavaCommandLineState {
     }
 
     private void collectResources(Document doc, Element contextRoot, Module module, String tomcatVersion) {
-        String majorVersionStr = tomcatVersion.split("\\.")[0];
-        int majorVersion = Integer.parseInt(majorVersionStr);
-        PathsList pathsList = OrderEnumerator.orderEntries(module)
-                .withoutSdk().runtimeOnly().productionOnly().getPathsList();
-
-        if (pathsList.isEmpty()) {
-            return;
-        }
-
-        if (majorVersion >= 8) {
-            Element resources = createResourcesElementIfNecessary(doc, contextRoot);
-            pathsList.getVirtualFiles().forEach(file -> {
-                Element res;
-                String tagName;
-                String className;
-                String webAppMount;
-
-                if (file.isDirectory()) {
-                    tagName = "PreResources";
-                    className = "org.apache.catalina.webresources.DirResourceSet";
-                    webAppMount = "/WEB-INF/classes";
-                } else {
-                    tagName = "PostResources";
-                    className = "org.apache.catalina.webresources.FileResourceSet";
-                    webAppMount = "/WEB-INF/lib/" + file.getName();
-                }
-
-                res = doc.createElement(tagName);
-                res.setAttribute("base", file.getPath());
-                res.setAttribute("className", className);
-                res.setAttribute("webAppMount", webAppMount);
-
-                resources.appendChild(res);
-            });
-        } else if (majorVersion >= 6) {
-            Element loader = doc.createElement("Loader");
-            loader.setAttribute("className", "org.apache.catalina.loader.VirtualWebappLoader");
-            loader.setAttribute("virtualClasspath", StringUtil.join(pathsList.getPathList(), File.pathSeparator));
-            contextRoot.appendChild(loader);
-        } else {
-            throw new RuntimeException("Unsupported Tomcat version: " + tomcatVersion);
-        }
-    }
-
-    private Element createResourcesElementIfNecessary(Document doc, Element contextRoot) {
-        Element resources = (Element) contextRoot.getElementsByTagName("Resources").item(0);
-        if (resources == null) {
-            resources = doc.createElement("Resources");
-            contextRoot.appendChild(resources);
-        }
-
-        if (Registry.is("smartTomcat.resources.allowLinking")) {
-            resources.setAttribute("allowLinking", "true");
-        }
-
-        int cacheMaxSize = Registry.intValue("smartTomcat.resources.cacheMaxSize", 10240);
-        if (cacheMaxSize > 0) {
-            resources.setAttribute("cacheMaxSize", String.valueOf(cacheMaxSize));
+        List<Path> classPath = new ArrayList<>();
+        try (LaunchTrace.Stage stage = launchTrace.stage("collectResources(" + module.getName() + ")")) {
+            PathsList pathsList = OrderEnumerator.orderEntries(module)
+                    .withoutSdk().runtimeOnly().productionOnly().getPathsList();
+            pathsList.getPathList().forEach(path -> classPath.add(Paths.get(path)));
+            // The class path entries mounted as resources
+            stage.add(classPath.size(), 0);
         }
 
-        return resources;
+        CatalinaConf.addClassPathResources(doc, contextRoot, classPath, tomcatVersion, CatalinaConf.ResourceOptions.fromRegistry());
     }
 
-    private void deleteTomcatWorkFiles(Path tomcatHome) {
+    /**
+     * @param stage counts the deleted files and bytes
+     */
+    private void deleteTomcatWorkFiles(Path tomcatHome, LaunchTrace.Stage stage) {
         Path tomcatWorkPath = tomcatHome.resolve("work/Catalina/localhost");
         FileUtil.processFilesRecursively(tomcatWorkPath.toFile(), file -> {
             // Delete the work files except the session persistence files
             if (file.isFile() && !file.getName().endsWith(".ser")) {
+                stage.add(1, file.length());
                 FileUtil.delete(file);
             }
             return true;
@@ -14,6 +14,12 @@ public class TomcatLogFile {
     public static final String TOMCAT_ACCESS_LOG_ID = "Tomcat Access Log";
     public static final String TOMCAT_MANAGER_LOG_ID = "Tomcat Manager Log";
     public static final String TOMCAT_HOST_MANAGER_LOG_ID = "Tomcat Host Manager Log";
+    public static final String TOMCAT_SENDFILE_LOG_ID = "Tomcat Sendfile Check Log";
+    public static final String TOMCAT_GC_LOG_ID = "Tomcat GC Log";
+
+    public static final String SENDFILE_CHECK_LOG_PREFIX = "sendfile_check";
+    public static final String GC_LOG_PREFIX = "gc";
+    public static final String GC_LOG_FILE_NAME = GC_LOG_PREFIX + ".log";
 
     private final String id;
     private final String filename;
@@ -33,6 +39,10 @@ public class TomcatLogFile {
         return id;
     }
 
+    public String getFilename() {
+        return filename;
+    }
+
     public LogFileOptions createLogFileOptions(PredefinedLogFile file, @Nullable Path logsDirPath) {
         Path logsPath = logsDirPath == null ? Paths.get("logs") : logsDirPath;
         return new LogFileOptions(file.getId(), logsPath.resolve(filename) + ".*", file.isEnabled());
@@ -3,6 +3,7 @@ package com.poratu.idea.plugins.tomcat.conf;
 import com.intellij.configurationStore.XmlSerializer;
 import com.intellij.diagnostic.logging.LogConfigurationPanel;
 import com.intellij.execution.ExecutionBundle;
+import com.intellij.execution.ExecutionException;
 import com.intellij.execution.Executor;
 import com.intellij.execution.JavaRunConfigurationExtensionManager;
 import com.intellij.execution.configurations.ConfigurationFactory;
@@ -16,6 +17,7 @@ import com.intellij.execution.configurations.RunProfileState;
 import com.intellij.execution.configurations.RunProfileWithCompileBeforeLaunchOption;
 import com.intellij.execution.configurations.RuntimeConfigurationError;
 import com.intellij.execution.configurations.RuntimeConfigurationException;
+import com.intellij.execution.configurations.RuntimeConfigurationWarning;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.module.Module;
@@ -23,11 +25,15 @@ import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.options.SettingsEditor;
 import com.intellij.openapi.options.SettingsEditorGroup;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.InvalidDataException;
 import com.intellij.openapi.util.WriteExternalException;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterNode;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterSupport;
 import com.poratu.idea.plugins.tomcat.setting.TomcatInfo;
 import com.poratu.idea.plugins.tomcat.setting.TomcatServerManagerState;
 import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
@@ -38,6 +44,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -54,9 +61,25 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
             new TomcatLogFile(TomcatLogFile.TOMCAT_ACCESS_LOG_ID, "localhost_access_log", true),
             new TomcatLogFile(TomcatLogFile.TOMCAT_CATALINA_LOG_ID, "catalina"),
             new TomcatLogFile(TomcatLogFile.TOMCAT_MANAGER_LOG_ID, "manager"),
-            new TomcatLogFile(TomcatLogFile.TOMCAT_HOST_MANAGER_LOG_ID, "host-manager")
+            new TomcatLogFile(TomcatLogFile.TOMCAT_HOST_MANAGER_LOG_ID, "host-manager"),
+            new TomcatLogFile(TomcatLogFile.TOMCAT_SENDFILE_LOG_ID, TomcatLogFile.SENDFILE_CHECK_LOG_PREFIX),
+            new TomcatLogFile(TomcatLogFile.TOMCAT_GC_LOG_ID, TomcatLogFile.GC_LOG_PREFIX)
     );
 
+    /**
+     * The unified JVM logging (-Xlog) is available since Java 9
+     */
+    public static final int GC_LOG_MIN_JAVA_VERSION = 9;
+
+    /**
+     * The java.util.logging levels of the logger table
+     */
+    public static final List<String> LOGGING_LEVELS = List.of("OFF", "SEVERE", "WARNING", "INFO", "CONFIG", "FINE", "FINER", "FINEST", "ALL");
+
+    public static List<TomcatLogFile> getTomcatLogFiles() {
+        return tomcatLogFiles;
+    }
+
     private static List<PredefinedLogFile> createPredefinedLogFiles() {
         return tomcatLogFiles.stream()
                 .map(TomcatLogFile::createPredefinedLogFile)
@@ -65,6 +88,10 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
 
     private TomcatRunConfigurationOptions tomcatOptions = new TomcatRunConfigurationOptions();
     private RunConfigurationModule configurationModule;
+    private boolean classLoadLogEnabled;
+    private boolean synthetic;
+    private Sdk alternativeJdk;
+    private ClusterNode clusterNode;
 
     protected TomcatRunConfiguration(@NotNull Project project, @NotNull ConfigurationFactory factory, String name) {
         super(project, factory, name);
@@ -135,6 +162,102 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
         if (getPort() == null || getAdminPort() == null) {
             throw new RuntimeConfigurationError("Port cannot be empty");
         }
+
+        if (getJmxPort() != null && (getJmxPort().equals(getPort()) || getJmxPort().equals(getAdminPort()))) {
+            throw new RuntimeConfigurationError("JMX port must differ from the server and admin ports");
+        }
+
+        if (getSlowRequestThreshold() != null && getSlowRequestThreshold() <= 0) {
+            throw new RuntimeConfigurationError("Slow request threshold must be a positive number of milliseconds");
+        }
+
+        if (getRegressionBudget() != null && getRegressionBudget() <= 0) {
+            throw new RuntimeConfigurationError("Regression budget must be a positive percentage");
+        }
+
+        checkJvmPreset();
+        checkCluster();
+        checkLogging();
+
+        if (isGcLogEnabled()) {
+            int javaVersion = PluginUtils.getJavaFeatureVersion(getJdk());
+            if (javaVersion > 0 && javaVersion < GC_LOG_MIN_JAVA_VERSION) {
+                throw new RuntimeConfigurationWarning("The unified GC log requires Java " + GC_LOG_MIN_JAVA_VERSION
+                        + " or later, the JDK is Java " + javaVersion);
+            }
+        }
+
+        if (getJfrProfile() != JfrProfile.NONE) {
+            int javaVersion = PluginUtils.getJavaFeatureVersion(getJdk());
+            if (javaVersion > 0 && javaVersion < JfrProfile.MIN_JAVA_VERSION) {
+                throw new RuntimeConfigurationWarning("Recording with JFR requires Java " + JfrProfile.MIN_JAVA_VERSION
+                        + " or later, the JDK is Java " + javaVersion);
+            }
+        }
+    }
+
+    private void checkJvmPreset() throws RuntimeConfigurationException {
+        JvmPreset jvmPreset = getJvmPreset();
+        if (jvmPreset == JvmPreset.NONE) {
+            return;
+        }
+
+        Sdk jdk = getJdk();
+        int javaVersion = PluginUtils.getJavaFeatureVersion(jdk);
+        if (javaVersion > 0 && javaVersion < jvmPreset.getMinJavaVersion()) {
+            throw new RuntimeConfigurationError("The JVM preset \"" + jvmPreset + "\" requires Java "
+                    + jvmPreset.getMinJavaVersion() + " or later, the JDK is Java " + javaVersion);
+        }
+
+        if (jvmPreset.selectsGarbageCollector() && JvmPreset.selectsGarbageCollector(getVmOptions())) {
+            throw new RuntimeConfigurationError("The VM options select a garbage collector, which conflicts with the JVM preset \""
+                    + jvmPreset + "\", the JVM does not start with several collectors");
+        }
+    }
+
+    private void checkCluster() throws RuntimeConfigurationException {
+        Integer nodes = getClusterNodes();
+        if (nodes == null) {
+            return;
+        }
+        if (nodes < 1 || nodes > ClusterNode.MAX_NODES) {
+            throw new RuntimeConfigurationError("Cluster nodes must be between 1 and " + ClusterNode.MAX_NODES);
+        }
+        if (nodes > 1 && isSessionReplication() && getTomcatInfo() != null
+                && !ClusterSupport.supportsSessionReplication(getTomcatInfo().getVersion())) {
+            throw new RuntimeConfigurationWarning("Replicating sessions over loopback requires Tomcat 9 or later, the nodes will not share sessions");
+        }
+    }
+
+    private void checkLogging() throws RuntimeConfigurationException {
+        if (isLogArchiving()) {
+            if (getLogRetention() != null && getLogRetention() <= 0) {
+                throw new RuntimeConfigurationError("Archived logs kept must be a positive number of files");
+            }
+            if (getLogDiskBudget() != null && getLogDiskBudget() <= 0) {
+                throw new RuntimeConfigurationError("Logs disk budget must be a positive number of megabytes");
+            }
+        }
+        if (!isManagedLogging()) {
+            return;
+        }
+        if (getLoggingQueueSize() != null && getLoggingQueueSize() <= 0) {
+            throw new RuntimeConfigurationError("Log queue size must be a positive number of records");
+        }
+        if (getLoggingRateLimit() != null && getLoggingRateLimit() <= 0) {
+            throw new RuntimeConfigurationError("Log rate limit must be a positive number of records per second");
+        }
+        for (Map.Entry<String, String> entry : getLoggingLevels().entrySet()) {
+            if (StringUtil.isEmptyOrSpaces(entry.getKey())) {
+                throw new RuntimeConfigurationError("Logger name cannot be empty");
+            }
+            if (!LOGGING_LEVELS.contains(entry.getValue())) {
+                throw new RuntimeConfigurationError("Unknown level \"" + entry.getValue() + "\" for the logger " + entry.getKey());
+            }
+        }
+        if (getJmxPort() == null && !getLoggingLevels().isEmpty()) {
+            throw new RuntimeConfigurationWarning("Set a JMX port to apply the changed logger levels to the running Tomcat, they apply on the next launch otherwise");
+        }
     }
 
     @Override
@@ -205,12 +328,20 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
 
     @Nullable
     @Override
-    public RunProfileState getState(@NotNull Executor executor, @NotNull ExecutionEnvironment executionEnvironment) {
+    public RunProfileState getState(@NotNull Executor executor, @NotNull ExecutionEnvironment executionEnvironment) throws ExecutionException {
+        // The run configuration of a cluster launches the first node, which launches the others
+        if (isCluster() && clusterNode == null) {
+            return new TomcatCommandLineState(executionEnvironment, ClusterSupport.createNode(this, 0));
+        }
         return new TomcatCommandLineState(executionEnvironment, this);
     }
 
     @Override
     public @Nullable LogFileOptions getOptionsForPredefinedLogFile(PredefinedLogFile file) {
+        // The sendfile check log is only written when sendfile is enabled
+        if (TomcatLogFile.TOMCAT_SENDFILE_LOG_ID.equals(file.getId()) && !isSendfileEnabled()) {
+            return null;
+        }
         for (TomcatLogFile logFile : tomcatLogFiles) {
             if (logFile.getId().equals(file.getId())) {
                 return logFile.createLogFileOptions(file, PluginUtils.getTomcatLogsDirPath(this));
@@ -229,6 +360,8 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
         // for backward compatibility
         if (getAllLogFiles().isEmpty()) {
             addPredefinedTomcatLogFiles();
+        } else {
+            addMissingPredefinedTomcatLogFiles();
         }
     }
 
@@ -245,6 +378,16 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
         createPredefinedLogFiles().forEach(this::addPredefinedLogFile);
     }
 
+    // Log files added in later versions are not stored in existing run configurations
+    private void addMissingPredefinedTomcatLogFiles() {
+        List<String> existingIds = getPredefinedLogFiles().stream()
+                .map(PredefinedLogFile::getId)
+                .collect(Collectors.toList());
+        createPredefinedLogFiles().stream()
+                .filter(file -> !existingIds.contains(file.getId()))
+                .forEach(this::addPredefinedLogFile);
+    }
+
     @Nullable
     public Module getModule() {
         return this.configurationModule.getModule();
@@ -308,6 +451,268 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
         tomcatOptions.setAdminPort(adminPort);
     }
 
+    @Nullable
+    public Integer getJmxPort() {
+        return tomcatOptions.getJmxPort();
+    }
+
+    public void setJmxPort(Integer jmxPort) {
+        tomcatOptions.setJmxPort(jmxPort);
+    }
+
+    public boolean isRequestMetricsEnabled() {
+        return tomcatOptions.isRequestMetricsEnabled();
+    }
+
+    public void setRequestMetricsEnabled(boolean requestMetricsEnabled) {
+        tomcatOptions.setRequestMetricsEnabled(requestMetricsEnabled);
+    }
+
+    @Nullable
+    public Integer getSlowRequestThreshold() {
+        return tomcatOptions.getSlowRequestThreshold();
+    }
+
+    public void setSlowRequestThreshold(Integer slowRequestThreshold) {
+        tomcatOptions.setSlowRequestThreshold(slowRequestThreshold);
+    }
+
+    @NotNull
+    public JfrProfile getJfrProfile() {
+        return tomcatOptions.getJfrProfile() != null ? tomcatOptions.getJfrProfile() : JfrProfile.NONE;
+    }
+
+    public void setJfrProfile(JfrProfile jfrProfile) {
+        tomcatOptions.setJfrProfile(jfrProfile);
+    }
+
+    public boolean isGcLogEnabled() {
+        return tomcatOptions.isGcLogEnabled();
+    }
+
+    public void setGcLogEnabled(boolean gcLogEnabled) {
+        tomcatOptions.setGcLogEnabled(gcLogEnabled);
+    }
+
+    /**
+     * Not persisted, the class loading analysis enables it on its copy of the configuration
+     */
+    public boolean isClassLoadLogEnabled() {
+        return classLoadLogEnabled;
+    }
+
+    public void setClassLoadLogEnabled(boolean classLoadLogEnabled) {
+        this.classLoadLogEnabled = classLoadLogEnabled;
+    }
+
+    /**
+     * Not persisted, set on the copies of the configuration launched by the comparisons and analyses, whose startups
+     * are not recorded in the performance history of the configuration
+     */
+    public boolean isSynthetic() {
+        return synthetic;
+    }
+
+    public void setSynthetic(boolean synthetic) {
+        this.synthetic = synthetic;
+    }
+
+    /**
+     * Not persisted, the matrix runner launches its copies of the configuration on other JDKs than the project SDK
+     */
+    public void setAlternativeJdk(@Nullable Sdk alternativeJdk) {
+        this.alternativeJdk = alternativeJdk;
+    }
+
+    /**
+     * @return the JDK which runs Tomcat: the alternative JDK if one is set, otherwise the project SDK
+     */
+    @Nullable
+    public Sdk getJdk() {
+        return alternativeJdk != null ? alternativeJdk : ProjectRootManager.getInstance(getProject()).getProjectSdk();
+    }
+
+    /**
+     * @return the number of Tomcat nodes launched by the run configuration, null or 1 for a single Tomcat
+     */
+    @Nullable
+    public Integer getClusterNodes() {
+        return tomcatOptions.getClusterNodes();
+    }
+
+    public void setClusterNodes(Integer clusterNodes) {
+        tomcatOptions.setClusterNodes(clusterNodes);
+    }
+
+    public boolean isCluster() {
+        return getClusterNodes() != null && getClusterNodes() > 1;
+    }
+
+    public boolean isSessionReplication() {
+        return tomcatOptions.isSessionReplication();
+    }
+
+    public void setSessionReplication(boolean sessionReplication) {
+        tomcatOptions.setSessionReplication(sessionReplication);
+    }
+
+    @NotNull
+    public ClusterRouting getClusterRouting() {
+        return tomcatOptions.getClusterRouting() != null ? tomcatOptions.getClusterRouting() : ClusterRouting.ROUND_ROBIN;
+    }
+
+    public void setClusterRouting(ClusterRouting clusterRouting) {
+        tomcatOptions.setClusterRouting(clusterRouting);
+    }
+
+    /**
+     * Whether the launched Tomcat uses a logging.properties generated from the run configuration rather than the copied one
+     */
+    public boolean isManagedLogging() {
+        return tomcatOptions.isManagedLogging();
+    }
+
+    public void setManagedLogging(boolean managedLogging) {
+        tomcatOptions.setManagedLogging(managedLogging);
+    }
+
+    /**
+     * @return the log records queued by the asynchronous handlers, null for the default of Tomcat
+     */
+    @Nullable
+    public Integer getLoggingQueueSize() {
+        return tomcatOptions.getLoggingQueueSize();
+    }
+
+    public void setLoggingQueueSize(Integer loggingQueueSize) {
+        tomcatOptions.setLoggingQueueSize(loggingQueueSize);
+    }
+
+    /**
+     * @return the log records per second and logger written by the handlers, null for no limit
+     */
+    @Nullable
+    public Integer getLoggingRateLimit() {
+        return tomcatOptions.getLoggingRateLimit();
+    }
+
+    public void setLoggingRateLimit(Integer loggingRateLimit) {
+        tomcatOptions.setLoggingRateLimit(loggingRateLimit);
+    }
+
+    /**
+     * @return the level of each logger (a package or a class), in the order of the table of the run configuration
+     */
+    @NotNull
+    public Map<String, String> getLoggingLevels() {
+        return tomcatOptions.getLoggingLevels() != null ? tomcatOptions.getLoggingLevels() : Map.of();
+    }
+
+    public void setLoggingLevels(Map<String, String> loggingLevels) {
+        tomcatOptions.setLoggingLevels(new LinkedHashMap<>(loggingLevels));
+    }
+
+    /**
+     * Whether the rotated log files are compressed to logs/archive and pruned by the log housekeeping
+     */
+    public boolean isLogArchiving() {
+        return tomcatOptions.isLogArchiving();
+    }
+
+    public void setLogArchiving(boolean logArchiving) {
+        tomcatOptions.setLogArchiving(logArchiving);
+    }
+
+    /**
+     * @return the archived files kept per log, null to keep them all
+     */
+    @Nullable
+    public Integer getLogRetention() {
+        return tomcatOptions.getLogRetention();
+    }
+
+    public void setLogRetention(Integer logRetention) {
+        tomcatOptions.setLogRetention(logRetention);
+    }
+
+    /**
+     * @return the megabytes of the logs folder before the oldest archives are deleted, null for no budget
+     */
+    @Nullable
+    public Integer getLogDiskBudget() {
+        return tomcatOptions.getLogDiskBudget();
+    }
+
+    public void setLogDiskBudget(Integer logDiskBudget) {
+        tomcatOptions.setLogDiskBudget(logDiskBudget);
+    }
+
+    /**
+     * Not persisted, set on the copies of the configuration which launch the nodes of a cluster
+     */
+    @Nullable
+    public ClusterNode getClusterNode() {
+        return clusterNode;
+    }
+
+    public void setClusterNode(@Nullable ClusterNode clusterNode) {
+        this.clusterNode = clusterNode;
+    }
+
+    /**
+     * @return the tolerated increase of the startup time and the p95 latency over the previous runs, in percent
+     */
+    @Nullable
+    public Integer getRegressionBudget() {
+        return tomcatOptions.getRegressionBudget();
+    }
+
+    public void setRegressionBudget(Integer regressionBudget) {
+        tomcatOptions.setRegressionBudget(regressionBudget);
+    }
+
+    public boolean isHttp2Enabled() {
+        return tomcatOptions.isHttp2Enabled();
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        tomcatOptions.setHttp2Enabled(http2Enabled);
+    }
+
+    public boolean isSendfileEnabled() {
+        return tomcatOptions.isSendfileEnabled();
+    }
+
+    public void setSendfileEnabled(boolean sendfileEnabled) {
+        tomcatOptions.setSendfileEnabled(sendfileEnabled);
+    }
+
+    public boolean isPrecompressEnabled() {
+        return tomcatOptions.isPrecompressEnabled();
+    }
+
+    public void setPrecompressEnabled(boolean precompressEnabled) {
+        tomcatOptions.setPrecompressEnabled(precompressEnabled);
+    }
+
+    public boolean isRamDiskEnabled() {
+        return tomcatOptions.isRamDiskEnabled();
+    }
+
+    public void setRamDiskEnabled(boolean ramDiskEnabled) {
+        tomcatOptions.setRamDiskEnabled(ramDiskEnabled);
+    }
+
+    @NotNull
+    public JvmPreset getJvmPreset() {
+        JvmPreset jvmPreset = tomcatOptions.getJvmPreset();
+        return jvmPreset == null ? JvmPreset.NONE : jvmPreset;
+    }
+
+    public void setJvmPreset(JvmPreset jvmPreset) {
+        tomcatOptions.setJvmPreset(jvmPreset);
+    }
+
     public String getVmOptions() {
         return tomcatOptions.getVmOptions();
     }
@@ -357,6 +762,27 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
         private Integer port = 8080;
         private Integer sslPort;
         private Integer adminPort = 8005;
+        private Integer jmxPort;
+        private boolean http2Enabled;
+        private boolean sendfileEnabled;
+        private boolean precompressEnabled;
+        private boolean ramDiskEnabled;
+        private boolean requestMetricsEnabled;
+        private Integer slowRequestThreshold;
+        private JvmPreset jvmPreset = JvmPreset.NONE;
+        private JfrProfile jfrProfile = JfrProfile.NONE;
+        private Integer regressionBudget;
+        private boolean gcLogEnabled;
+        private Integer clusterNodes;
+        private boolean sessionReplication;
+        private ClusterRouting clusterRouting = ClusterRouting.ROUND_ROBIN;
+        private boolean managedLogging;
+        private Integer loggingQueueSize;
+        private Integer loggingRateLimit;
+        private Map<String, String> loggingLevels = new LinkedHashMap<>();
+        private boolean logArchiving;
+        private Integer logRetention;
+        private Integer logDiskBudget;
         private String vmOptions;
         private Map<String, String> envOptions;
         private Boolean passParentEnvs = true;
@@ -406,6 +832,174 @@ public class TomcatRunConfiguration extends LocatableConfigurationBase<Locatable
             this.adminPort = adminPort;
         }
 
+        public Integer getJmxPort() {
+            return jmxPort;
+        }
+
+        public void setJmxPort(Integer jmxPort) {
+            this.jmxPort = jmxPort;
+        }
+
+        public boolean isRequestMetricsEnabled() {
+            return requestMetricsEnabled;
+        }
+
+        public void setRequestMetricsEnabled(boolean requestMetricsEnabled) {
+            this.requestMetricsEnabled = requestMetricsEnabled;
+        }
+
+        public Integer getSlowRequestThreshold() {
+            return slowRequestThreshold;
+        }
+
+        public void setSlowRequestThreshold(Integer slowRequestThreshold) {
+            this.slowRequestThreshold = slowRequestThreshold;
+        }
+
+        public JfrProfile getJfrProfile() {
+            return jfrProfile;
+        }
+
+        public void setJfrProfile(JfrProfile jfrProfile) {
+            this.jfrProfile = jfrProfile;
+        }
+
+        public Integer getRegressionBudget() {
+            return regressionBudget;
+        }
+
+        public void setRegressionBudget(Integer regressionBudget) {
+            this.regressionBudget = regressionBudget;
+        }
+
+        public boolean isGcLogEnabled() {
+            return gcLogEnabled;
+        }
+
+        public void setGcLogEnabled(boolean gcLogEnabled) {
+            this.gcLogEnabled = gcLogEnabled;
+        }
+
+        public Integer getClusterNodes() {
+            return clusterNodes;
+        }
+
+        public void setClusterNodes(Integer clusterNodes) {
+            this.clusterNodes = clusterNodes;
+        }
+
+        public boolean isSessionReplication() {
+            return sessionReplication;
+        }
+
+        public void setSessionReplication(boolean sessionReplication) {
+            this.sessionReplication = sessionReplication;
+        }
+
+        public ClusterRouting getClusterRouting() {
+            return clusterRouting;
+        }
+
+        public void setClusterRouting(ClusterRouting clusterRouting) {
+            this.clusterRouting = clusterRouting;
+        }
+
+        public boolean isManagedLogging() {
+            return managedLogging;
+        }
+
+        public void setManagedLogging(boolean managedLogging) {
+            this.managedLogging = managedLogging;
+        }
+
+        public Integer getLoggingQueueSize() {
+            return loggingQueueSize;
+        }
+
+        public void setLoggingQueueSize(Integer loggingQueueSize) {
+            this.loggingQueueSize = loggingQueueSize;
+        }
+
+        public Integer getLoggingRateLimit() {
+            return loggingRateLimit;
+        }
+
+        public void setLoggingRateLimit(Integer loggingRateLimit) {
+            this.loggingRateLimit = loggingRateLimit;
+        }
+
+        public Map<String, String> getLoggingLevels() {
+            return loggingLevels;
+        }
+
+        public void setLoggingLevels(Map<String, String> loggingLevels) {
+            this.loggingLevels = loggingLevels;
+        }
+
+        public boolean isLogArchiving() {
+            return logArchiving;
+        }
+
+        public void setLogArchiving(boolean logArchiving) {
+            this.logArchiving = logArchiving;
+        }
+
+        public Integer getLogRetention() {
+            return logRetention;
+        }
+
+        public void setLogRetention(Integer logRetention) {
+            this.logRetention = logRetention;
+        }
+
+        public Integer getLogDiskBudget() {
+            return logDiskBudget;
+        }
+
+        public void setLogDiskBudget(Integer logDiskBudget) {
+            this.logDiskBudget = logDiskBudget;
+        }
+
+        public boolean isHttp2Enabled() {
+            return http2Enabled;
+        }
+
+        public void setHttp2Enabled(boolean http2Enabled) {
+            this.http2Enabled = http2Enabled;
+        }
+
+        public boolean isSendfileEnabled() {
+            return sendfileEnabled;
+        }
+
+        public void setSendfileEnabled(boolean sendfileEnabled) {
+            this.sendfileEnabled = sendfileEnabled;
+        }
+
+        public boolean isPrecompressEnabled() {
+            return precompressEnabled;
+        }
+
+        public void setPrecompressEnabled(boolean precompressEnabled) {
+            this.precompressEnabled = precompressEnabled;
+        }
+
+        public boolean isRamDiskEnabled() {
+            return ramDiskEnabled;
+        }
+
+        public void setRamDiskEnabled(boolean ramDiskEnabled) {
+            this.ramDiskEnabled = ramDiskEnabled;
+        }
+
+        public JvmPreset getJvmPreset() {
+            return jvmPreset;
+        }
+
+        public void setJvmPreset(JvmPreset jvmPreset) {
+            this.jvmPreset = jvmPreset;
+        }
+
         public String getVmOptions() {
             return vmOptions;
         }
@@ -9,6 +9,7 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.options.ConfigurationException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ModuleRootManager;
+import com.intellij.openapi.ui.ComboBox;
 import com.intellij.openapi.ui.TextComponentAccessor;
 import com.intellij.openapi.ui.TextFieldWithBrowseButton;
 import com.intellij.openapi.util.text.StringUtil;
@@ -27,18 +28,22 @@ import com.intellij.util.ui.ListTableModel;
 import com.poratu.idea.plugins.tomcat.setting.TomcatInfo;
 import com.poratu.idea.plugins.tomcat.setting.TomcatServerManagerState;
 import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import com.poratu.idea.plugins.tomcat.utils.RamDiskSupport;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.plaf.basic.BasicComboBoxEditor;
+import javax.swing.table.TableCellEditor;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 public class TomcatRunnerSettingsForm implements Disposable {
@@ -57,11 +62,36 @@ public class TomcatRunnerSettingsForm implements Disposable {
     private final JPanel tomcatField = new JPanel(new BorderLayout());
     private final TomcatComboBox tomcatComboBox = new TomcatComboBox();
     private final TextFieldWithBrowseButton catalinaBaseField = new TextFieldWithBrowseButton();
+    private final JCheckBox ramDiskEnabled = new JCheckBox("Keep Catalina base on a RAM disk (work, temp, logs and conf)");
+    private final JPanel catalinaBasePanel = new JPanel(new BorderLayout());
+    private String diskCatalinaBase;
+    private String ramDiskCatalinaBase;
     private final JPanel portFieldPanel = new JPanel(new GridBagLayout());
     private final JPanel adminPortFieldPanel = new JPanel(new GridBagLayout());
     private final JTextField portField = new JTextField();
     private final JTextField sslPortField = new JTextField();
     private final JTextField adminPort = new JTextField();
+    private final JTextField jmxPortField = new JTextField();
+    private final JCheckBox http2Enabled = new JCheckBox("Enable HTTP/2 and response compression");
+    private final JCheckBox sendfileEnabled = new JCheckBox("Serve static files with sendfile (zero-copy)");
+    private final JCheckBox precompressEnabled = new JCheckBox("Serve precompressed static assets (.gz/.br)");
+    private final JCheckBox requestMetricsEnabled = new JCheckBox("Record the request latency per servlet (Smart Tomcat tool window)");
+    private final JTextField slowRequestThreshold = new JTextField();
+    private final ComboBox<JvmPreset> jvmPreset = new ComboBox<>(JvmPreset.values());
+    private final ComboBox<JfrProfile> jfrProfile = new ComboBox<>(JfrProfile.values());
+    private final JTextField regressionBudget = new JTextField();
+    private final JCheckBox gcLogEnabled = new JCheckBox("Write a GC log to logs/" + TomcatLogFile.GC_LOG_FILE_NAME + " (GC tab of the Smart Tomcat tool window)");
+    private final JTextField clusterNodes = new JTextField();
+    private final JCheckBox sessionReplication = new JCheckBox("Replicate sessions between the nodes (DeltaManager over loopback)");
+    private final ComboBox<ClusterRouting> clusterRouting = new ComboBox<>(ClusterRouting.values());
+    private final JCheckBox managedLogging = new JCheckBox("Generate logging.properties (asynchronous handlers, logger levels applied while running)");
+    private final JTextField loggingQueueSize = new JTextField();
+    private final JTextField loggingRateLimit = new JTextField();
+    private final ListTableModel<LoggerLevel> loggerLevelsModel = createLoggerLevelsTableModel();
+    private final TableView<LoggerLevel> loggerLevelsTable = new TableView<>(loggerLevelsModel);
+    private final JCheckBox logArchiving = new JCheckBox("Compress the rotated logs to logs/archive and prune them");
+    private final JTextField logRetention = new JTextField();
+    private final JTextField logDiskBudget = new JTextField();
     private final RawCommandLineEditor vmOptions = new RawCommandLineEditor();
     private final EnvironmentVariablesTextFieldWithBrowseButton envOptions = new EnvironmentVariablesTextFieldWithBrowseButton();
     private final RawCommandLineEditor extraClassPath = new RawCommandLineEditor(PATH_SEPARATOR_LINE_PARSER, PATH_SEPARATOR_LINE_JOINER);
@@ -163,6 +193,49 @@ public class TomcatRunnerSettingsForm implements Disposable {
         return new ListTableModel<>(moduleColumn, contextPathColumn,docBaseColumn);
     }
 
+    private static ListTableModel<LoggerLevel> createLoggerLevelsTableModel() {
+        ColumnInfo<LoggerLevel, String> loggerColumn = new ColumnInfo<LoggerLevel, String>("Logger (package or class)") {
+            @Override
+            public String valueOf(LoggerLevel loggerLevel) {
+                return loggerLevel.logger;
+            }
+
+            @Override
+            public void setValue(LoggerLevel loggerLevel, String value) {
+                loggerLevel.logger = value;
+            }
+
+            @Override
+            public boolean isCellEditable(LoggerLevel loggerLevel) {
+                return true;
+            }
+        };
+
+        ColumnInfo<LoggerLevel, String> levelColumn = new ColumnInfo<LoggerLevel, String>("Level") {
+            @Override
+            public String valueOf(LoggerLevel loggerLevel) {
+                return loggerLevel.level;
+            }
+
+            @Override
+            public void setValue(LoggerLevel loggerLevel, String value) {
+                loggerLevel.level = value;
+            }
+
+            @Override
+            public boolean isCellEditable(LoggerLevel loggerLevel) {
+                return true;
+            }
+
+            @Override
+            public TableCellEditor getEditor(LoggerLevel loggerLevel) {
+                return new DefaultCellEditor(new ComboBox<>(TomcatRunConfiguration.LOGGING_LEVELS.toArray(new String[0])));
+            }
+        };
+
+        return new ListTableModel<>(loggerColumn, levelColumn);
+    }
+
     private void createTomcatField() {
         JButton configurationButton = new JButton("Configure...");
         configurationButton.addActionListener(e -> PluginUtils.openTomcatConfiguration());
@@ -196,6 +269,11 @@ public class TomcatRunnerSettingsForm implements Disposable {
     }
 
     private void createAdminPortField() {
+        JLabel jmxPortLabel = new JLabel("JMX port:");
+        jmxPortLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        jmxPortLabel.setLabelFor(jmxPortField);
+        jmxPortField.setToolTipText("Loopback JMX port for the metrics in the Smart Tomcat tool window, leave empty to disable");
+
         GridBagConstraints c = new GridBagConstraints();
 
         // default constraints
@@ -205,6 +283,15 @@ public class TomcatRunnerSettingsForm implements Disposable {
         c.gridx = 0;
         c.weightx = 1;
         adminPortFieldPanel.add(adminPort, c);
+
+        c.gridx = 1;
+        c.weightx = 0;
+        c.ipadx = 10;
+        adminPortFieldPanel.add(jmxPortLabel, c);
+
+        c.gridx = 2;
+        c.weightx = 1;
+        adminPortFieldPanel.add(jmxPortField, c);
     }
 
     private void initCatalinaBaseDirectory() {
@@ -213,6 +300,62 @@ public class TomcatRunnerSettingsForm implements Disposable {
                 "Please select the Catalina Base directory",
                 project, descriptor);
        // catalinaBaseField.addBrowseFolderListener(project, descriptor);
+
+        ramDiskEnabled.addItemListener(e -> updateCatalinaBaseField());
+        requestMetricsEnabled.addItemListener(e -> slowRequestThreshold.setEnabled(requestMetricsEnabled.isSelected()));
+        regressionBudget.setToolTipText("Warn, or fail a headless run, when the startup time or the load test p95 latency "
+                + "exceeds the median of the previous runs by more than this percentage, leave empty to disable");
+        managedLogging.addItemListener(e -> updateLoggingFields());
+        loggingQueueSize.setToolTipText("The log records queued by each asynchronous handler before the records are dropped, leave empty for the default of Tomcat (10000)");
+        loggingRateLimit.setToolTipText("The log records per second and logger written by each handler, the records beyond are dropped, leave empty for no limit");
+        logArchiving.addItemListener(e -> updateLogArchivingFields());
+        logRetention.setToolTipText("The compressed files kept per log, the oldest are deleted, leave empty to keep them all");
+        logDiskBudget.setToolTipText("The size of the logs folder before the oldest compressed files are deleted, leave empty for no budget");
+        clusterNodes.setToolTipText("Launch this many Tomcat nodes behind a load balancer on the server port, "
+                + "node N listens on the ports plus N * 100, leave empty for a single Tomcat");
+        catalinaBasePanel.add(catalinaBaseField, BorderLayout.CENTER);
+        catalinaBasePanel.add(ramDiskEnabled, BorderLayout.SOUTH);
+    }
+
+    // The RAM disk base is derived from the run configuration, it is never stored as Catalina base
+    private void updateCatalinaBaseField() {
+        boolean onRamDisk = ramDiskEnabled.isSelected() && ramDiskCatalinaBase != null;
+        if (onRamDisk) {
+            catalinaBaseField.setText(ramDiskCatalinaBase);
+        } else if (diskCatalinaBase != null) {
+            catalinaBaseField.setText(diskCatalinaBase);
+        }
+        catalinaBaseField.setEnabled(!onRamDisk);
+    }
+
+    private void updateLoggingFields() {
+        loggingQueueSize.setEnabled(managedLogging.isSelected());
+        loggingRateLimit.setEnabled(managedLogging.isSelected());
+        loggerLevelsTable.setEnabled(managedLogging.isSelected());
+    }
+
+    private void updateLogArchivingFields() {
+        logRetention.setEnabled(logArchiving.isSelected());
+        logDiskBudget.setEnabled(logArchiving.isSelected());
+    }
+
+    private JPanel createLoggerLevelsPanel() {
+        loggerLevelsTable.setPreferredScrollableViewportSize(new Dimension(-1, 80));
+        return ToolbarDecorator.createDecorator(loggerLevelsTable)
+                .setAddAction(button -> {
+                    loggerLevelsModel.addRow(new LoggerLevel("", "FINE"));
+                    int row = loggerLevelsModel.getRowCount() - 1;
+                    loggerLevelsTable.getSelectionModel().setSelectionInterval(row, row);
+                    loggerLevelsTable.editCellAt(row, 0);
+                })
+                .setRemoveAction(button -> {
+                    if (loggerLevelsTable.isEditing()) {
+                        loggerLevelsTable.getCellEditor().stopCellEditing();
+                    }
+                    loggerLevelsModel.removeRow(loggerLevelsTable.getSelectedRow());
+                })
+                .disableUpDownActions()
+                .createPanel();
     }
 
     private JPanel createWebappsPanel() {
@@ -253,9 +396,28 @@ public class TomcatRunnerSettingsForm implements Disposable {
     private void buildForm() {
         FormBuilder builder = FormBuilder.createFormBuilder()
                 .addLabeledComponent("Tomcat server:", tomcatField)
-                .addLabeledComponent("Catalina base:", catalinaBaseField)
+                .addLabeledComponent("Catalina base:", catalinaBasePanel)
                 .addLabeledComponent("Server port:", portFieldPanel)
                 .addLabeledComponent("Admin port:", adminPortFieldPanel)
+                .addComponent(http2Enabled)
+                .addComponent(sendfileEnabled)
+                .addComponent(precompressEnabled)
+                .addComponent(requestMetricsEnabled)
+                .addLabeledComponent("Slow request threshold (ms):", slowRequestThreshold)
+                .addLabeledComponent("JVM preset:", jvmPreset)
+                .addLabeledComponent("Record with JFR:", jfrProfile)
+                .addComponent(gcLogEnabled)
+                .addComponent(managedLogging)
+                .addLabeledComponent("Log queue size:", loggingQueueSize)
+                .addLabeledComponent("Log rate limit (records/s):", loggingRateLimit)
+                .addLabeledComponent("Logger levels:", createLoggerLevelsPanel())
+                .addComponent(logArchiving)
+                .addLabeledComponent("Archived logs kept:", logRetention)
+                .addLabeledComponent("Logs disk budget (MB):", logDiskBudget)
+                .addLabeledComponent("Regression budget (%):", regressionBudget)
+                .addLabeledComponent("Cluster nodes:", clusterNodes)
+                .addComponent(sessionReplication)
+                .addLabeledComponent("Load balancing:", clusterRouting)
                 .addLabeledComponent("VM options:", vmOptions)
                 .addLabeledComponent("Environment variables:", envOptions)
                 .addLabeledComponent("Extra JVM classpath:", extraClassPath)
@@ -273,16 +435,43 @@ public class TomcatRunnerSettingsForm implements Disposable {
     public void resetFrom(TomcatRunConfiguration configuration) {
         tomcatComboBox.setSelectedItem(configuration.getTomcatInfo());
 
-        Path catalinaBase = PluginUtils.getCatalinaBase(configuration);
-        if (catalinaBase != null) {
-            catalinaBaseField.setText(catalinaBase.toString());
-        } else {
-            catalinaBaseField.setText("");
-        }
+        Path catalinaBase = PluginUtils.getDiskCatalinaBase(configuration);
+        Path ramDiskBase = RamDiskSupport.getCatalinaBase(configuration);
+        diskCatalinaBase = catalinaBase != null ? catalinaBase.toString() : "";
+        ramDiskCatalinaBase = ramDiskBase != null ? ramDiskBase.toString() : null;
+        ramDiskEnabled.setEnabled(ramDiskBase != null || configuration.isRamDiskEnabled());
+        ramDiskEnabled.setSelected(configuration.isRamDiskEnabled());
+        catalinaBaseField.setText(diskCatalinaBase);
+        updateCatalinaBaseField();
 
         portField.setText(String.valueOf(configuration.getPort()));
         sslPortField.setText(configuration.getSslPort() != null ? String.valueOf(configuration.getSslPort()) : "");
         adminPort.setText(String.valueOf(configuration.getAdminPort()));
+        jmxPortField.setText(configuration.getJmxPort() != null ? String.valueOf(configuration.getJmxPort()) : "");
+        http2Enabled.setSelected(configuration.isHttp2Enabled());
+        sendfileEnabled.setSelected(configuration.isSendfileEnabled());
+        precompressEnabled.setSelected(configuration.isPrecompressEnabled());
+        requestMetricsEnabled.setSelected(configuration.isRequestMetricsEnabled());
+        slowRequestThreshold.setText(configuration.getSlowRequestThreshold() != null ? String.valueOf(configuration.getSlowRequestThreshold()) : "");
+        slowRequestThreshold.setEnabled(requestMetricsEnabled.isSelected());
+        jvmPreset.setSelectedItem(configuration.getJvmPreset());
+        jfrProfile.setSelectedItem(configuration.getJfrProfile());
+        gcLogEnabled.setSelected(configuration.isGcLogEnabled());
+        regressionBudget.setText(configuration.getRegressionBudget() != null ? String.valueOf(configuration.getRegressionBudget()) : "");
+        clusterNodes.setText(configuration.getClusterNodes() != null ? String.valueOf(configuration.getClusterNodes()) : "");
+        sessionReplication.setSelected(configuration.isSessionReplication());
+        clusterRouting.setSelectedItem(configuration.getClusterRouting());
+        managedLogging.setSelected(configuration.isManagedLogging());
+        loggingQueueSize.setText(configuration.getLoggingQueueSize() != null ? String.valueOf(configuration.getLoggingQueueSize()) : "");
+        loggingRateLimit.setText(configuration.getLoggingRateLimit() != null ? String.valueOf(configuration.getLoggingRateLimit()) : "");
+        List<LoggerLevel> loggerLevels = new ArrayList<>();
+        configuration.getLoggingLevels().forEach((logger, level) -> loggerLevels.add(new LoggerLevel(logger, level)));
+        loggerLevelsModel.setItems(loggerLevels);
+        updateLoggingFields();
+        logArchiving.setSelected(configuration.isLogArchiving());
+        logRetention.setText(configuration.getLogRetention() != null ? String.valueOf(configuration.getLogRetention()) : "");
+        logDiskBudget.setText(configuration.getLogDiskBudget() != null ? String.valueOf(configuration.getLogDiskBudget()) : "");
+        updateLogArchivingFields();
         vmOptions.setText(configuration.getVmOptions());
         if (configuration.getEnvOptions() != null) {
             envOptions.setEnvs(configuration.getEnvOptions());
@@ -297,10 +486,41 @@ public class TomcatRunnerSettingsForm implements Disposable {
     public void applyTo(TomcatRunConfiguration configuration) throws ConfigurationException {
         try {
             configuration.setTomcatInfo((TomcatInfo) tomcatComboBox.getSelectedItem());
-            configuration.setCatalinaBase(catalinaBaseField.getText());
+            if (catalinaBaseField.isEnabled()) {
+                diskCatalinaBase = catalinaBaseField.getText();
+            }
+            configuration.setCatalinaBase(diskCatalinaBase);
+            configuration.setRamDiskEnabled(ramDiskEnabled.isSelected());
             configuration.setPort(PluginUtils.parsePort(portField.getText()));
             configuration.setSslPort(StringUtil.isNotEmpty(sslPortField.getText()) ? PluginUtils.parsePort(sslPortField.getText()) : null);
             configuration.setAdminPort(PluginUtils.parsePort(adminPort.getText()));
+            configuration.setJmxPort(StringUtil.isNotEmpty(jmxPortField.getText()) ? PluginUtils.parsePort(jmxPortField.getText()) : null);
+            configuration.setHttp2Enabled(http2Enabled.isSelected());
+            configuration.setSendfileEnabled(sendfileEnabled.isSelected());
+            configuration.setPrecompressEnabled(precompressEnabled.isSelected());
+            configuration.setRequestMetricsEnabled(requestMetricsEnabled.isSelected());
+            configuration.setSlowRequestThreshold(StringUtil.isNotEmpty(slowRequestThreshold.getText()) ? Integer.parseInt(slowRequestThreshold.getText().trim()) : null);
+            configuration.setJvmPreset((JvmPreset) jvmPreset.getSelectedItem());
+            configuration.setJfrProfile((JfrProfile) jfrProfile.getSelectedItem());
+            configuration.setGcLogEnabled(gcLogEnabled.isSelected());
+            configuration.setRegressionBudget(StringUtil.isNotEmpty(regressionBudget.getText()) ? Integer.parseInt(regressionBudget.getText().trim()) : null);
+            configuration.setClusterNodes(StringUtil.isNotEmpty(clusterNodes.getText()) ? Integer.parseInt(clusterNodes.getText().trim()) : null);
+            configuration.setSessionReplication(sessionReplication.isSelected());
+            configuration.setClusterRouting((ClusterRouting) clusterRouting.getSelectedItem());
+            configuration.setManagedLogging(managedLogging.isSelected());
+            configuration.setLoggingQueueSize(StringUtil.isNotEmpty(loggingQueueSize.getText()) ? Integer.parseInt(loggingQueueSize.getText().trim()) : null);
+            configuration.setLoggingRateLimit(StringUtil.isNotEmpty(loggingRateLimit.getText()) ? Integer.parseInt(loggingRateLimit.getText().trim()) : null);
+            if (loggerLevelsTable.isEditing()) {
+                loggerLevelsTable.getCellEditor().stopCellEditing();
+            }
+            Map<String, String> loggingLevels = new LinkedHashMap<>();
+            for (LoggerLevel loggerLevel : loggerLevelsModel.getItems()) {
+                loggingLevels.put(StringUtil.notNullize(loggerLevel.logger).trim(), loggerLevel.level);
+            }
+            configuration.setLoggingLevels(loggingLevels);
+            configuration.setLogArchiving(logArchiving.isSelected());
+            configuration.setLogRetention(StringUtil.isNotEmpty(logRetention.getText()) ? Integer.parseInt(logRetention.getText().trim()) : null);
+            configuration.setLogDiskBudget(StringUtil.isNotEmpty(logDiskBudget.getText()) ? Integer.parseInt(logDiskBudget.getText().trim()) : null);
             configuration.setVmOptions(vmOptions.getText());
             configuration.setEnvOptions(envOptions.getEnvs());
             configuration.setPassParentEnvironmentVariables(envOptions.isPassParentEnvs());
@@ -318,6 +538,19 @@ public class TomcatRunnerSettingsForm implements Disposable {
         mainPanel = null;
     }
 
+    /**
+     * A row of the logger table
+     */
+    private static class LoggerLevel {
+        private String logger;
+        private String level;
+
+        LoggerLevel(String logger, String level) {
+            this.logger = logger;
+            this.level = level;
+        }
+    }
+
     private static class TomcatComboBox extends JComboBox<TomcatInfo> {
 
         TomcatComboBox() {
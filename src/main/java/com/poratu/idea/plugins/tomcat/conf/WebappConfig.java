@@ -9,6 +9,7 @@ public class WebappConfig implements Serializable {
     private String docBase;
     private String contextPath;
     private String moduleName; // Store module name instead of Module object for serialization
+    private boolean startBeforeOthers;
 
     public WebappConfig() {
     }
@@ -43,6 +44,17 @@ public class WebappConfig implements Serializable {
         this.moduleName = moduleName;
     }
 
+    /**
+     * Whether the context must be started before the other contexts, e.g. a service used by the other webapps at startup
+     */
+    public boolean isStartBeforeOthers() {
+        return startBeforeOthers;
+    }
+
+    public void setStartBeforeOthers(boolean startBeforeOthers) {
+        this.startBeforeOthers = startBeforeOthers;
+    }
+
     public Module resolveModule(Project project) {
         if (moduleName == null) return null;
         return com.intellij.openapi.module.ModuleManager.getInstance(project).findModuleByName(moduleName);
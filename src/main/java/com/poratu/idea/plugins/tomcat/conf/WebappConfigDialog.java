@@ -30,6 +30,7 @@ public class WebappConfigDialog extends DialogWrapper {
     private final ModulesComboBox modulesComboBox = new ModulesComboBox();
     private ComboBox<String> docBaseComboBox = new ComboBox<>();
     private final JTextField contextPathField = new JTextField();
+    private final JCheckBox startBeforeOthersCheckBox = new JCheckBox("Start before the other web applications");
 
     public WebappConfigDialog(@NotNull Project project, @NotNull WebappConfig webappConfig,
                               boolean isNewConfig, @NotNull List<WebappConfig> existingConfigs) {
@@ -75,6 +76,7 @@ public class WebappConfigDialog extends DialogWrapper {
                 selectDocBase(webappConfig.getDocBase());
             }
             contextPathField.setText(webappConfig.getContextPath());
+            startBeforeOthersCheckBox.setSelected(webappConfig.isStartBeforeOthers());
         } else if (modulesComboBox.getSelectedModule() != null) {
             // For new configs, suggest a context path based on the module name
             Module selectedModule = modulesComboBox.getSelectedModule();
@@ -177,9 +179,10 @@ public class WebappConfigDialog extends DialogWrapper {
                 .addLabeledComponent("Module:", modulesComboBox)
                 .addLabeledComponent("WebContent directory:", docBaseComboBox)
                 .addLabeledComponent("Context path:", contextPathField)
+                .addComponent(startBeforeOthersCheckBox)
                 .getPanel();
 
-        panel.setPreferredSize(new Dimension(500, 150));
+        panel.setPreferredSize(new Dimension(500, 180));
         return panel;
     }
 
@@ -226,6 +229,7 @@ public class WebappConfigDialog extends DialogWrapper {
         }
 
         webappConfig.setContextPath(contextPathField.getText());
+        webappConfig.setStartBeforeOthers(startBeforeOthersCheckBox.isSelected());
 
         super.doOKAction();
     }
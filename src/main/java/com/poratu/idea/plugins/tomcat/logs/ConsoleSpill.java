@@ -0,0 +1,56 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The whole console output of a run, appended to a file in the logs folder of the Catalina base while the console
+ * itself only keeps the latest output. The file is started over by each run.
+ */
+public class ConsoleSpill implements Closeable {
+    public static final String FILE_NAME = "smart-tomcat-console.log";
+
+    private final OutputStream out;
+    private final LineIndex index;
+
+    private ConsoleSpill(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        this.out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 64 * 1024);
+        this.index = new LineIndex(file);
+    }
+
+    public static ConsoleSpill create(Path logsDir) throws IOException {
+        return new ConsoleSpill(logsDir.resolve(FILE_NAME));
+    }
+
+    public Path getFile() {
+        return index.getFile();
+    }
+
+    public LineIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Appends a chunk of console output, the chunk is written to the file by {@link #flush()}
+     */
+    public synchronized void append(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,199 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import com.intellij.openapi.progress.ProgressManager;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A sparse index of the lines of a growing file: the offset of every {@value #STRIDE}th line is kept, about 32 bytes per
+ * 1000 lines, and the lines in between are found by scanning the file through memory mapped windows.
+ * The file is indexed incrementally, a file shorter than the indexed size is indexed again from the start.
+ */
+public class LineIndex implements LineSource {
+    static final int STRIDE = 256;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    private final Path file;
+    private long[] checkpoints = new long[256];
+    private int checkpointCount = 1;
+    private int completeLines;
+    private long lastLineStart;
+    private long indexedSize;
+
+    public LineIndex(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void update() throws IOException {
+        if (!Files.exists(file)) {
+            reset();
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < indexedSize) {
+                reset();
+            }
+            for (long position = indexedSize; position < size; position += MAP_WINDOW) {
+                long length = Math.min(MAP_WINDOW, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++) {
+                    if (buffer.get(i) == '\n') {
+                        lastLineStart = position + i + 1;
+                        if (++completeLines % STRIDE == 0) {
+                            addCheckpoint(lastLineStart);
+                        }
+                    }
+                }
+            }
+            indexedSize = size;
+        }
+    }
+
+    private void reset() {
+        checkpointCount = 1;
+        completeLines = 0;
+        lastLineStart = 0;
+        indexedSize = 0;
+    }
+
+    private void addCheckpoint(long offset) {
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+        }
+        checkpoints[checkpointCount++] = offset;
+    }
+
+    /**
+     * @return the indexed lines, including a last line without a line break yet
+     */
+    @Override
+    public synchronized int getLineCount() {
+        return completeLines + (indexedSize > lastLineStart ? 1 : 0);
+    }
+
+    /**
+     * @return the indexed lines with a line break, the last line may still be written otherwise
+     */
+    synchronized int getCompleteLineCount() {
+        return completeLines;
+    }
+
+    public synchronized long getIndexedSize() {
+        return indexedSize;
+    }
+
+    @Override
+    public List<String> readLines(int first, int count) throws IOException {
+        List<String> lines = new ArrayList<>(count);
+        forEachLine(first, (line, text) -> {
+            lines.add(text);
+            return lines.size() < count;
+        });
+        return lines;
+    }
+
+    @Override
+    public int find(Pattern pattern, int from, boolean forward) throws IOException {
+        int[] found = {-1};
+        if (forward) {
+            forEachLine(Math.max(0, from), (line, text) -> {
+                if (pattern.matcher(text).find()) {
+                    found[0] = line;
+                    return false;
+                }
+                return true;
+            });
+            return found[0];
+        }
+
+        // Backwards one stride at a time, the last match of a stride before the start line
+        for (int block = Math.min(from, getLineCount()) / STRIDE; block >= 0 && found[0] < 0; block--) {
+            int end = Math.min(from, (block + 1) * STRIDE);
+            forEachLine(block * STRIDE, (line, text) -> {
+                if (line >= end) {
+                    return false;
+                }
+                if (pattern.matcher(text).find()) {
+                    found[0] = line;
+                }
+                return true;
+            });
+        }
+        return found[0];
+    }
+
+    interface LineVisitor {
+        /**
+         * @return false to stop
+         */
+        boolean visit(int line, String text);
+    }
+
+    /**
+     * Visits the indexed lines from the given line, the lines are decoded as UTF-8 without their line break
+     */
+    void forEachLine(int first, LineVisitor visitor) throws IOException {
+        long start;
+        long end;
+        int line;
+        synchronized (this) {
+            if (first >= getLineCount()) {
+                return;
+            }
+            start = checkpoints[first / STRIDE];
+            line = first / STRIDE * STRIDE;
+            end = indexedSize;
+        }
+
+        byte[] pending = new byte[256];
+        int pendingLength = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            end = Math.min(end, channel.size());
+            for (long position = start; position < end; position += MAP_WINDOW) {
+                ProgressManager.checkCanceled();
+                long length = Math.min(MAP_WINDOW, end - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n') {
+                        if (line >= first && !visitor.visit(line, decode(pending, pendingLength))) {
+                            return;
+                        }
+                        line++;
+                        pendingLength = 0;
+                    } else if (line >= first) {
+                        if (pendingLength == pending.length) {
+                            pending = Arrays.copyOf(pending, pending.length * 2);
+                        }
+                        pending[pendingLength++] = b;
+                    }
+                }
+            }
+        }
+        if (pendingLength > 0 && line >= first) {
+            visitor.visit(line, decode(pending, pendingLength));
+        }
+    }
+
+    private static String decode(byte[] bytes, int length) {
+        int end = length > 0 && bytes[length - 1] == '\r' ? length - 1 : length;
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+}
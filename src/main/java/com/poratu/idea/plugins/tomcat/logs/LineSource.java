@@ -0,0 +1,24 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Lines of text which may be too large for the heap, read on demand by {@link LogPagerPanel}
+ */
+public interface LineSource {
+    /**
+     * Indexes the lines written since the previous update, called from a background thread
+     */
+    void update() throws IOException;
+
+    int getLineCount();
+
+    List<String> readLines(int first, int count) throws IOException;
+
+    /**
+     * @return the first line after (or before) {@code from} which matches the pattern, or -1
+     */
+    int find(Pattern pattern, int from, boolean forward) throws IOException;
+}
@@ -0,0 +1,365 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.configurations.ConfigurationTypeUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.poratu.idea.plugins.tomcat.conf.TomcatLogFile;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfigurationType;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import com.poratu.idea.plugins.tomcat.utils.RamDiskSupport;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the disk used by the Catalina bases of a project bounded, in the background from the first launch on.
+ * <p>
+ * For the run configurations with log archiving, the rotated files of each log, all but the latest one which may
+ * still be written, are compressed to logs/archive, so the {@code <prefix>.*} globs of the log tabs only match the
+ * recent files, while the "Logs" tab still reads the archives through {@link RotatedLogSource}. The oldest archives are
+ * deleted beyond the files kept per log and the disk budget of the logs folder.
+ * A logs folder shared by several run configurations gets the tightest limits.
+ * <p>
+ * The default Catalina bases of the projects which are not open, and the folders in .smarttomcat of the removed run
+ * configurations, are deleted once they have not been modified for {@code smartTomcat.logs.staleDays}.
+ */
+public final class LogHousekeeping implements Disposable {
+    private static final Logger LOG = Logger.getInstance(LogHousekeeping.class);
+    static final String ARCHIVE_DIR = "archive";
+    static final String GZIP_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // The first run waits for the launched Tomcat to start, not to slow its startup down
+    private static final long INITIAL_DELAY_MINUTES = 1;
+
+    private final Project project;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledFuture<?> task;
+
+    public LogHousekeeping(Project project) {
+        this.project = project;
+    }
+
+    public static LogHousekeeping getInstance(@NotNull Project project) {
+        return project.getService(LogHousekeeping.class);
+    }
+
+    /**
+     * Starts the housekeeping, every {@code smartTomcat.logs.housekeepingMinutes}, if it is not started yet
+     */
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        long minutes = Math.max(1, Registry.intValue("smartTomcat.logs.housekeepingMinutes", 60));
+        task = AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(this::run, INITIAL_DELAY_MINUTES, minutes, TimeUnit.MINUTES);
+    }
+
+    private void run() {
+        if (project.isDisposed() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<TomcatRunConfiguration> configurations = RunManager.getInstance(project)
+                    .getConfigurationsList(ConfigurationTypeUtil.findConfigurationType(TomcatRunConfigurationType.class))
+                    .stream()
+                    .filter(TomcatRunConfiguration.class::isInstance)
+                    .map(TomcatRunConfiguration.class::cast)
+                    .collect(Collectors.toList());
+
+            Map<Path, Limits> logsDirs = new LinkedHashMap<>();
+            for (TomcatRunConfiguration configuration : configurations) {
+                if (!configuration.isLogArchiving()) {
+                    continue;
+                }
+                Limits limits = Limits.of(configuration);
+                try {
+                    for (Path logsDir : getLogsDirs(configuration)) {
+                        logsDirs.merge(logsDir, limits, Limits::min);
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Failed to list the Catalina bases of " + configuration.getName(), e);
+                }
+            }
+            logsDirs.forEach((logsDir, limits) -> {
+                try {
+                    archive(logsDir, limits);
+                } catch (IOException e) {
+                    LOG.warn("Failed to archive the logs in " + logsDir, e);
+                }
+            });
+
+            try {
+                pruneStaleBases(configurations);
+            } catch (IOException e) {
+                LOG.warn("Failed to delete the stale Catalina bases", e);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to clean up the Tomcat logs", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static List<Path> getLogsDirs(TomcatRunConfiguration configuration) throws IOException {
+        List<Path> logsDirs = new ArrayList<>();
+        Path diskBase = PluginUtils.getDiskCatalinaBase(configuration);
+        if (diskBase != null) {
+            logsDirs.add(diskBase.resolve("logs"));
+            // The other nodes of a cluster have their Catalina base in the one of the run configuration
+            for (Path nodeBase : listDirectories(diskBase.resolve("cluster"))) {
+                logsDirs.add(nodeBase.resolve("logs"));
+            }
+        }
+        if (configuration.isRamDiskEnabled()) {
+            Path ramDiskBase = RamDiskSupport.getCatalinaBase(configuration);
+            if (ramDiskBase != null) {
+                logsDirs.add(ramDiskBase.resolve("logs"));
+            }
+        }
+        return logsDirs;
+    }
+
+    private static void archive(Path logsDir, Limits limits) throws IOException {
+        if (!Files.isDirectory(logsDir)) {
+            return;
+        }
+
+        Path archiveDir = logsDir.resolve(ARCHIVE_DIR);
+        for (TomcatLogFile logFile : TomcatRunConfiguration.getTomcatLogFiles()) {
+            // The JVM rotates the GC log in place, over a fixed number of files
+            if (TomcatLogFile.GC_LOG_PREFIX.equals(logFile.getFilename())) {
+                continue;
+            }
+
+            List<Path> files = listFiles(logsDir, logFile.getFilename(), false);
+            for (int i = 0; i < files.size() - 1; i++) {
+                compress(files.get(i), archiveDir);
+            }
+            if (limits.retention() != null) {
+                List<Path> archives = listFiles(archiveDir, logFile.getFilename(), true);
+                for (int i = 0; i < archives.size() - limits.retention(); i++) {
+                    Files.deleteIfExists(archives.get(i));
+                }
+            }
+        }
+
+        if (limits.budgetBytes() != null) {
+            enforceBudget(logsDir, archiveDir, limits.budgetBytes());
+        }
+    }
+
+    private static void compress(Path file, Path archiveDir) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path archive = archiveDir.resolve(file.getFileName() + GZIP_SUFFIX);
+        Path temp = archiveDir.resolve(archive.getFileName() + TEMP_SUFFIX);
+        try (InputStream in = Files.newInputStream(file);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+            in.transferTo(out);
+        }
+        // The budget deletes the oldest archives first
+        Files.setLastModifiedTime(temp, Files.getLastModifiedTime(file));
+        Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING);
+
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            // e.g. a file still mapped by the log viewer on Windows, it is compressed again by the next run
+            LOG.debug("Failed to delete the archived log " + file, e);
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    private static void enforceBudget(Path logsDir, Path archiveDir, long budgetBytes) throws IOException {
+        long size = directorySize(logsDir);
+        if (size <= budgetBytes) {
+            return;
+        }
+
+        List<File> archives = new ArrayList<>();
+        File[] files = archiveDir.toFile().listFiles(file -> file.isFile() && file.getName().endsWith(GZIP_SUFFIX));
+        if (files != null) {
+            archives.addAll(Arrays.asList(files));
+        }
+        archives.sort(Comparator.comparingLong(File::lastModified));
+        for (File archive : archives) {
+            if (size <= budgetBytes) {
+                break;
+            }
+            long length = archive.length();
+            if (FileUtil.delete(archive)) {
+                size -= length;
+            }
+        }
+
+        if (size > budgetBytes) {
+            LOG.info("The logs in " + logsDir + " use " + StringUtil.formatFileSize(size) + ", which exceeds the budget of "
+                    + StringUtil.formatFileSize(budgetBytes) + " with the files which are still written only");
+        }
+    }
+
+    /**
+     * @return the files of a log, {@code <prefix>.*}, either the compressed or the plain ones, in the order of their names
+     */
+    private static List<Path> listFiles(Path dir, String prefix, boolean compressed) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + ".*")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && file.getFileName().toString().endsWith(GZIP_SUFFIX) == compressed) {
+                    files.add(file);
+                }
+            }
+        }
+        // The rotated files have the date in their name, yyyy-MM-dd sorts by time
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Delete the default Catalina bases of the projects which are not open, and the folders in .smarttomcat of the
+     * removed run configurations, which have not been modified for the stale days
+     */
+    private void pruneStaleBases(List<TomcatRunConfiguration> configurations) throws IOException {
+        int staleDays = Registry.intValue("smartTomcat.logs.staleDays", 30);
+        if (staleDays <= 0) {
+            return;
+        }
+        long staleBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(staleDays);
+
+        Set<String> openProjectNames = Arrays.stream(ProjectManager.getInstance().getOpenProjects())
+                .map(Project::getName)
+                .collect(Collectors.toSet());
+        Set<Path> usedBases = new HashSet<>();
+        for (TomcatRunConfiguration configuration : configurations) {
+            Path diskBase = PluginUtils.getDiskCatalinaBase(configuration);
+            if (diskBase != null) {
+                usedBases.add(diskBase);
+            }
+        }
+        for (Path base : listDirectories(PluginUtils.getDefaultCatalinaBasesRoot())) {
+            if (!openProjectNames.contains(base.getFileName().toString()) && !usedBases.contains(base)
+                    && getLastModified(base) < staleBefore) {
+                LOG.info("Deleting the stale Catalina base " + base);
+                FileUtil.delete(base);
+            }
+        }
+
+        String basePath = project.getBasePath();
+        if (basePath == null) {
+            return;
+        }
+        List<String> configurationNames = configurations.stream()
+                .map(TomcatRunConfiguration::getName)
+                .collect(Collectors.toList());
+        for (Path dir : listDirectories(Paths.get(basePath, ".smarttomcat"))) {
+            if (!isConfigurationDir(dir.getFileName().toString(), configurationNames) && getLastModified(dir) < staleBefore) {
+                LOG.info("Deleting the folder of a removed run configuration " + dir);
+                FileUtil.delete(dir);
+            }
+        }
+    }
+
+    // The nodes of a cluster have the performance folder of the run configuration name and their route, e.g. "Tomcat node2".
+    // The performance folders have the sanitized name, the conf folders the name as it is.
+    private static boolean isConfigurationDir(String dirName, List<String> configurationNames) {
+        if ("diagnostics".equals(dirName)) {
+            return true;
+        }
+        for (String name : configurationNames) {
+            if (dirName.equals(name) || dirName.equals(FileUtil.sanitizeFileName(name))
+                    || dirName.startsWith(FileUtil.sanitizeFileName(name + " node"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getLastModified(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.map(Path::toFile).mapToLong(File::lastModified).max().orElse(0);
+        }
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.map(Path::toFile).filter(File::isFile).mapToLong(File::length).sum();
+        }
+    }
+
+    @NotNull
+    private static List<Path> listDirectories(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    /**
+     * @param retention   the archived files kept per log, null to keep them all
+     * @param budgetBytes the size of the logs folder, null for no budget
+     */
+    private record Limits(@Nullable Integer retention, @Nullable Long budgetBytes) {
+        static Limits of(TomcatRunConfiguration configuration) {
+            Integer budget = configuration.getLogDiskBudget();
+            return new Limits(configuration.getLogRetention(), budget == null ? null : budget * 1024L * 1024L);
+        }
+
+        static Limits min(Limits a, Limits b) {
+            return new Limits(min(a.retention, b.retention), min(a.budgetBytes, b.budgetBytes));
+        }
+
+        private static <T extends Comparable<T>> T min(@Nullable T a, @Nullable T b) {
+            if (a == null || b == null) {
+                return a == null ? b : a;
+            }
+            return a.compareTo(b) <= 0 ? a : b;
+        }
+    }
+}
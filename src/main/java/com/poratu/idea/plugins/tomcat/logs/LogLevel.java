@@ -0,0 +1,29 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The java.util.logging levels written by JULI, from the most to the least severe
+ */
+public enum LogLevel {
+    SEVERE, WARNING, INFO, CONFIG, FINE, FINER, FINEST;
+
+    public boolean isAtLeast(LogLevel level) {
+        return ordinal() <= level.ordinal();
+    }
+
+    @Nullable
+    static LogLevel of(String name) {
+        for (LogLevel level : values()) {
+            if (level.name().equals(name)) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return this == SEVERE ? name() : name() + " and above";
+    }
+}
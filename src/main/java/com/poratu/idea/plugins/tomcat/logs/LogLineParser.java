@@ -0,0 +1,104 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the time and the level of the records of the Tomcat logs:
+ * <pre>
+ * 19-Oct-2026 10:15:30.123 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1234] milliseconds
+ * 127.0.0.1 - - [19/Oct/2026:10:15:30 +0200] "GET /app/ HTTP/1.1" 200 2326
+ * </pre>
+ * The lines which do not start a record, e.g. the frames of a stack trace, have no time and belong to the previous record.
+ * The requests of the access log are SEVERE with a 5xx status, WARNING with a 4xx status and INFO otherwise.
+ */
+final class LogLineParser {
+    // The OneLineFormatter of JULI
+    private static final Pattern JULI_RECORD = Pattern.compile("^(\\d{2}-\\w{3}-\\d{4} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}) (\\S+) ");
+    private static final Pattern ACCESS_RECORD = Pattern.compile("\\[(\\d{2}/\\w{3}/\\d{4}:\\d{2}:\\d{2}:\\d{2} [+-]\\d{4})] \"[^\"]*\" (\\d{3}) ");
+    private static final DateTimeFormatter JULI_TIME = DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss.SSS", Locale.ENGLISH);
+    // The month is written in the default locale of Tomcat
+    private static final DateTimeFormatter JULI_LOCAL_TIME = DateTimeFormatter.ofPattern("dd-MMM-yyyy HH:mm:ss.SSS");
+    private static final DateTimeFormatter ACCESS_TIME = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    private LogLineParser() {
+    }
+
+    /**
+     * @return the time of the record in epoch milliseconds, or -1 if the line does not start a record
+     */
+    static long parseTime(String line) {
+        Matcher matcher = matchJuli(line);
+        if (matcher != null) {
+            return parseJuliTime(matcher.group(1));
+        }
+        matcher = matchAccess(line);
+        if (matcher != null) {
+            try {
+                return OffsetDateTime.parse(matcher.group(1), ACCESS_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the level of the record, or null if the line does not start a record
+     */
+    @Nullable
+    static LogLevel parseLevel(String line) {
+        Matcher matcher = matchJuli(line);
+        if (matcher != null) {
+            LogLevel level = LogLevel.of(matcher.group(2));
+            return level == null ? LogLevel.INFO : level;
+        }
+        matcher = matchAccess(line);
+        if (matcher != null) {
+            char status = matcher.group(2).charAt(0);
+            return status == '5' ? LogLevel.SEVERE : status == '4' ? LogLevel.WARNING : LogLevel.INFO;
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Matcher matchJuli(String line) {
+        // Cheap checks first, most lines of a stack trace start with a tab
+        if (line.length() < 25 || line.charAt(2) != '-' || line.charAt(6) != '-') {
+            return null;
+        }
+        Matcher matcher = JULI_RECORD.matcher(line);
+        return matcher.find() ? matcher : null;
+    }
+
+    @Nullable
+    private static Matcher matchAccess(String line) {
+        if (line.indexOf('[') < 0) {
+            return null;
+        }
+        Matcher matcher = ACCESS_RECORD.matcher(line);
+        return matcher.find() ? matcher : null;
+    }
+
+    private static long parseJuliTime(String text) {
+        LocalDateTime time;
+        try {
+            time = LocalDateTime.parse(text, JULI_TIME);
+        } catch (DateTimeParseException e) {
+            try {
+                time = LocalDateTime.parse(text, JULI_LOCAL_TIME);
+            } catch (DateTimeParseException e1) {
+                return -1;
+            }
+        }
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
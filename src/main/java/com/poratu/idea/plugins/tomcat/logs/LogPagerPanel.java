@@ -0,0 +1,238 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Shows the lines of a {@link LineSource} of any size: the list only asks for the visible lines, which are read a page
+ * at a time and kept in a small cache, so the memory does not grow with the number of lines.
+ * The regex search runs over all the lines in the background.
+ */
+public class LogPagerPanel extends JPanel implements Disposable {
+    private static final Logger LOG = Logger.getInstance(LogPagerPanel.class);
+    private static final int PAGE_SIZE = 256;
+    private static final int CACHED_PAGES = 32;
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final Project project;
+    private final LineSource source;
+    private final PagedListModel model = new PagedListModel();
+    private final JBList<String> list = new JBList<>(model);
+    private final JBTextField searchField = new JBTextField(30);
+    private final JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+    private final JBLabel status = new JBLabel();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private boolean followTail = true;
+
+    public LogPagerPanel(Project project, LineSource source, Disposable parent) {
+        super(new BorderLayout());
+        this.project = project;
+        this.source = source;
+
+        list.setFont(UIUtil.getFontWithFallback(JBUI.Fonts.create(Font.MONOSPACED, JBUI.Fonts.label().getSize())));
+        // A fixed height keeps the list from measuring all the lines
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + JBUI.scale(2));
+        list.setFixedCellWidth(JBUI.scale(2000));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+
+        JButton next = new JButton("Find Next");
+        next.addActionListener(e -> find(true));
+        JButton previous = new JButton("Find Previous");
+        previous.addActionListener(e -> find(false));
+        searchField.addActionListener(e -> find(true));
+        searchField.getEmptyText().setText("Regular expression");
+
+        header.add(new JBLabel("Search:"));
+        header.add(searchField);
+        header.add(next);
+        header.add(previous);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+
+        JBScrollPane scrollPane = new JBScrollPane(list);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            BoundedRangeModel range = scrollPane.getVerticalScrollBar().getModel();
+            followTail = range.getValue() + range.getExtent() >= range.getMaximum() - list.getFixedCellHeight();
+        });
+        add(scrollPane, BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        refresh();
+        timer.start();
+    }
+
+    /**
+     * The extra controls of the viewer, e.g. filters, on the left of the search
+     */
+    public void addHeaderComponent(JComponent component, int index) {
+        header.add(component, index);
+    }
+
+    public LineSource getSource() {
+        return source;
+    }
+
+    /**
+     * Shows the lines again from the start, e.g. after the filter of the source changed
+     */
+    public void reload() {
+        model.reset();
+        refresh();
+    }
+
+    private void refresh() {
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                source.update();
+            } catch (IOException e) {
+                LOG.debug("Failed to index the lines", e);
+            } finally {
+                updating.set(false);
+            }
+            int count = source.getLineCount();
+            ApplicationManager.getApplication().invokeLater(() -> {
+                model.setSize(count);
+                if (followTail && count > 0) {
+                    list.ensureIndexIsVisible(count - 1);
+                }
+            });
+        });
+    }
+
+    public void select(int line) {
+        if (line < 0 || line >= model.getSize()) {
+            return;
+        }
+        followTail = false;
+        list.setSelectedIndex(line);
+        list.ensureIndexIsVisible(line);
+    }
+
+    public int getSelectedLine() {
+        return list.getSelectedIndex();
+    }
+
+    private void find(boolean forward) {
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(searchField.getText());
+        } catch (PatternSyntaxException e) {
+            status.setText("Invalid regular expression: " + e.getDescription());
+            return;
+        }
+
+        int selected = list.getSelectedIndex();
+        int from = forward ? selected + 1 : (selected < 0 ? model.getSize() : selected);
+        new Task.Backgroundable(project, "Searching the log", true) {
+            private int found = -1;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    found = source.find(pattern, from, forward);
+                } catch (IOException e) {
+                    LOG.warn("Failed to search the log", e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (found < 0) {
+                    status.setText("No more matches");
+                } else {
+                    status.setText("Line " + (found + 1));
+                    select(found);
+                }
+            }
+        }.queue();
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+
+    /**
+     * The lines read a page at a time, the least recently used pages are evicted
+     */
+    private class PagedListModel extends AbstractListModel<String> {
+        private final Map<Integer, List<String>> pages = new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+        private int size;
+
+        void setSize(int newSize) {
+            int oldSize = size;
+            size = newSize;
+            if (newSize >= oldSize && oldSize > 0) {
+                // The last line may have been read before it was complete
+                pages.remove((oldSize - 1) / PAGE_SIZE);
+                fireContentsChanged(this, oldSize - 1, oldSize - 1);
+            }
+            if (newSize > oldSize) {
+                fireIntervalAdded(this, oldSize, newSize - 1);
+            } else if (newSize < oldSize) {
+                pages.clear();
+                fireIntervalRemoved(this, newSize, oldSize - 1);
+                if (newSize > 0) {
+                    fireContentsChanged(this, 0, newSize - 1);
+                }
+            }
+        }
+
+        void reset() {
+            pages.clear();
+            setSize(0);
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            List<String> page = pages.get(index / PAGE_SIZE);
+            if (page == null) {
+                try {
+                    page = source.readLines(index / PAGE_SIZE * PAGE_SIZE, PAGE_SIZE);
+                } catch (IOException e) {
+                    LOG.debug("Failed to read the lines", e);
+                    page = List.of();
+                }
+                pages.put(index / PAGE_SIZE, page);
+            }
+            int offset = index % PAGE_SIZE;
+            return offset < page.size() ? page.get(offset) : "";
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * A non-modal window over a {@link LogPagerPanel}
+ */
+public class LogViewerDialog extends DialogWrapper {
+    private final LogPagerPanel panel;
+
+    public LogViewerDialog(@NotNull Project project, @NotNull String title, LineSource source) {
+        super(project, false);
+        this.panel = new LogPagerPanel(project, source, getDisposable());
+        panel.setPreferredSize(new Dimension(1000, 600));
+        setTitle(title);
+        setModal(false);
+        init();
+    }
+
+    public LogPagerPanel getPanel() {
+        return panel;
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        return panel;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{getOKAction()};
+    }
+}
@@ -0,0 +1,528 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.io.FileUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The lines of all the files of a Tomcat log, {@code <prefix>.*} in the logs folder, e.g. catalina.2026-10-18.log and
+ * catalina.2026-10-19.log, in the order of their names. Each file has a {@link LineIndex} and the time of the first
+ * record of every {@value LineIndex#STRIDE} lines, so a time is found by a binary search and a short scan.
+ * <p>
+ * The files compressed to logs/archive by {@link LogHousekeeping} come first. They cannot be mapped, so each one is
+ * decompressed once to a temporary folder, which is deleted with the source.
+ * <p>
+ * With a level filter, the source only has the lines of the records at that level or above. The matching lines are
+ * kept as runs of consecutive line numbers, found by scanning the files once in the background, then incrementally.
+ */
+public class RotatedLogSource implements LineSource, Disposable {
+    private static final int STRIDE = LineIndex.STRIDE;
+
+    private final Path logsDir;
+    private final String prefix;
+    private final Map<Path, Segment> segmentsByFile = new HashMap<>();
+    private final Map<Path, Path> extractedArchives = new HashMap<>();
+    private volatile Path extractDir;
+    private volatile boolean disposed;
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new int[]{0}, 0);
+    private volatile LevelFilter filter;
+
+    public RotatedLogSource(Path logsDir, String prefix) {
+        this.logsDir = logsDir;
+        this.prefix = prefix;
+    }
+
+    public List<Path> getFiles() {
+        return snapshot.segments().stream().map(segment -> segment.index.getFile()).toList();
+    }
+
+    @Nullable
+    public LogLevel getMinLevel() {
+        LevelFilter levelFilter = filter;
+        return levelFilter == null ? null : levelFilter.minLevel;
+    }
+
+    /**
+     * @param level the least severe level of the records shown, or null for all the lines. The lines are filtered by
+     *              the next {@link #update()}.
+     */
+    public void setMinLevel(@Nullable LogLevel level) {
+        filter = level == null ? null : new LevelFilter(level);
+    }
+
+    @Override
+    public synchronized void update() throws IOException {
+        List<Path> files = listFiles();
+        segmentsByFile.keySet().retainAll(files);
+
+        List<Segment> segments = new ArrayList<>(files.size());
+        int[] starts = new int[files.size() + 1];
+        int filterable = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = segmentsByFile.computeIfAbsent(files.get(i), Segment::new);
+            segment.update();
+            segments.add(segment);
+            int lineCount = segment.index.getLineCount();
+            // The last line of the latest file may still be written
+            filterable = starts[i] + (i == files.size() - 1 ? segment.index.getCompleteLineCount() : lineCount);
+            starts[i + 1] = starts[i] + lineCount;
+        }
+        Snapshot next = new Snapshot(List.copyOf(segments), starts, filterable);
+        snapshot = next;
+
+        LevelFilter levelFilter = filter;
+        if (levelFilter != null) {
+            levelFilter.update(next);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        List<Path> files = new ArrayList<>(listFiles(logsDir, false));
+        List<Path> archives = disposed ? List.of() : listFiles(logsDir.resolve(LogHousekeeping.ARCHIVE_DIR), true);
+
+        for (Iterator<Map.Entry<Path, Path>> it = extractedArchives.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Path> entry = it.next();
+            if (!archives.contains(entry.getKey())) {
+                Files.deleteIfExists(entry.getValue());
+                it.remove();
+            }
+        }
+        for (Path archive : archives) {
+            if (disposed) {
+                break;
+            }
+            String name = archive.getFileName().toString();
+            // The file is deleted once its archive is complete
+            if (!Files.exists(logsDir.resolve(name.substring(0, name.length() - LogHousekeeping.GZIP_SUFFIX.length())))) {
+                files.add(extract(archive));
+            }
+        }
+        // The rotated files have the date in their name, yyyy-MM-dd sorts by time
+        files.sort(Comparator.comparing(file -> file.getFileName().toString()));
+        return files;
+    }
+
+    private List<Path> listFiles(Path dir, boolean compressed) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, prefix + ".*")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && file.getFileName().toString().endsWith(LogHousekeeping.GZIP_SUFFIX) == compressed) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @return the decompressed copy of an archive, named like the file before its compression
+     */
+    private Path extract(Path archive) throws IOException {
+        Path extracted = extractedArchives.get(archive);
+        if (extracted != null) {
+            return extracted;
+        }
+        if (extractDir == null) {
+            extractDir = Files.createTempDirectory("smart-tomcat-logs");
+        }
+        String name = archive.getFileName().toString();
+        extracted = extractDir.resolve(name.substring(0, name.length() - LogHousekeeping.GZIP_SUFFIX.length()));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive), 64 * 1024)) {
+            Files.copy(in, extracted, StandardCopyOption.REPLACE_EXISTING);
+        }
+        extractedArchives.put(archive, extracted);
+        return extracted;
+    }
+
+    @Override
+    public int getLineCount() {
+        LevelFilter levelFilter = filter;
+        return levelFilter == null ? snapshot.getLineCount() : levelFilter.getCount();
+    }
+
+    @Override
+    public List<String> readLines(int first, int count) throws IOException {
+        Snapshot current = snapshot;
+        LevelFilter levelFilter = filter;
+        if (levelFilter == null) {
+            return readLines(current, first, count);
+        }
+
+        List<String> lines = new ArrayList<>(count);
+        for (int line = first; lines.size() < count && line < levelFilter.getCount(); ) {
+            long run = levelFilter.getRun(line);
+            int length = Math.min(count - lines.size(), (int) run);
+            List<String> read = readLines(current, (int) (run >>> 32), length);
+            if (read.isEmpty()) {
+                break;
+            }
+            lines.addAll(read);
+            line += read.size();
+        }
+        return lines;
+    }
+
+    private static List<String> readLines(Snapshot current, int first, int count) throws IOException {
+        List<String> lines = new ArrayList<>(count);
+        current.forEachLine(first, current.getLineCount(), (line, text) -> {
+            lines.add(text);
+            return lines.size() < count;
+        });
+        return lines;
+    }
+
+    @Override
+    public int find(Pattern pattern, int from, boolean forward) throws IOException {
+        Snapshot current = snapshot;
+        LevelFilter levelFilter = filter;
+        int end = levelFilter == null ? current.getLineCount() : levelFilter.getScannedLines();
+        int globalFrom = levelFilter == null ? from : levelFilter.toLine(from, end);
+        int[] found = {-1};
+
+        if (forward) {
+            current.forEachLine(Math.max(0, globalFrom), end, (line, text) -> {
+                if ((levelFilter == null || levelFilter.accepts(line)) && pattern.matcher(text).find()) {
+                    found[0] = line;
+                    return false;
+                }
+                return true;
+            });
+        } else {
+            // Backwards one stride at a time, the last match of a stride before the start line
+            int last = Math.min(globalFrom, end);
+            for (int block = (last - 1) / STRIDE; block >= 0 && found[0] < 0 && last > 0; block--) {
+                current.forEachLine(block * STRIDE, Math.min(last, (block + 1) * STRIDE), (line, text) -> {
+                    if ((levelFilter == null || levelFilter.accepts(line)) && pattern.matcher(text).find()) {
+                        found[0] = line;
+                    }
+                    return true;
+                });
+            }
+        }
+        return found[0] < 0 || levelFilter == null ? found[0] : levelFilter.toFilteredLine(found[0]);
+    }
+
+    /**
+     * @param epochMillis the time to look for
+     * @return the first line of the first record at or after the time, the last line if there is no such record,
+     * or -1 if there are no lines
+     */
+    public int findTime(long epochMillis) throws IOException {
+        Snapshot current = snapshot;
+        LevelFilter levelFilter = filter;
+        int lineCount = levelFilter == null ? current.getLineCount() : levelFilter.getCount();
+        if (lineCount == 0) {
+            return -1;
+        }
+
+        // The latest file which starts before the time, then the latest stride of that file which starts before it
+        List<Segment> segments = current.segments();
+        int segmentIndex = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            long firstTime = segments.get(i).getFirstTime();
+            if (firstTime >= 0 && firstTime <= epochMillis) {
+                segmentIndex = i;
+            }
+        }
+        int start = current.starts()[segmentIndex] + segments.get(segmentIndex).findStride(epochMillis) * STRIDE;
+
+        int[] found = {-1};
+        current.forEachLine(start, current.getLineCount(), (line, text) -> {
+            long time = LogLineParser.parseTime(text);
+            if (time >= epochMillis) {
+                found[0] = line;
+                return false;
+            }
+            return true;
+        });
+        if (found[0] < 0) {
+            return lineCount - 1;
+        }
+        return levelFilter == null ? found[0] : Math.min(levelFilter.toFilteredLine(found[0]), lineCount - 1);
+    }
+
+    @Override
+    public void dispose() {
+        // Not synchronized, an update in progress stops extracting at the next archive
+        disposed = true;
+        Path dir = extractDir;
+        if (dir != null) {
+            FileUtil.delete(dir.toFile());
+        }
+    }
+
+    /**
+     * The files of the log at the time of an update, with the number of lines before each file
+     */
+    private record Snapshot(List<Segment> segments, int[] starts, int filterableLines) {
+
+        int getLineCount() {
+            return starts[segments.size()];
+        }
+
+        /**
+         * Visits the lines from {@code first} to {@code end} (exclusive) through the files
+         */
+        void forEachLine(int first, int end, LineIndex.LineVisitor visitor) throws IOException {
+            boolean[] stopped = {false};
+            for (int i = 0; i < segments.size() && !stopped[0] && first < end; i++) {
+                int segmentStart = starts[i];
+                int segmentEnd = starts[i + 1];
+                if (first >= segmentEnd) {
+                    continue;
+                }
+                segments.get(i).index.forEachLine(Math.max(0, first - segmentStart), (line, text) -> {
+                    int globalLine = segmentStart + line;
+                    if (globalLine >= end || globalLine >= segmentEnd) {
+                        stopped[0] = globalLine >= end;
+                        return false;
+                    }
+                    if (!visitor.visit(globalLine, text)) {
+                        stopped[0] = true;
+                        return false;
+                    }
+                    return true;
+                });
+            }
+        }
+
+        /**
+         * @return true if the lines of this snapshot are the first lines of the next one
+         */
+        boolean isPrefixOf(Snapshot next) {
+            int size = segments.size();
+            if (next.segments.size() < size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (segments.get(i) != next.segments.get(i)) {
+                    return false;
+                }
+                int lineCount = starts[i + 1] - starts[i];
+                int nextLineCount = next.starts[i + 1] - next.starts[i];
+                if (i < size - 1 ? lineCount != nextLineCount : lineCount > nextLineCount) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A file of the log, with the time of the first record of each stride. A stride without a record has the time of
+     * the previous stride, so the times can be searched, -1 before the first record.
+     */
+    private static class Segment {
+        private final LineIndex index;
+        private long[] times = new long[16];
+        private int timedStrides;
+        private long indexedSize;
+
+        Segment(Path file) {
+            this.index = new LineIndex(file);
+        }
+
+        synchronized void update() throws IOException {
+            index.update();
+            int lineCount = index.getLineCount();
+            if (index.getIndexedSize() < indexedSize || lineCount < timedStrides * STRIDE) {
+                timedStrides = 0;
+            }
+            indexedSize = index.getIndexedSize();
+
+            while (timedStrides * STRIDE < lineCount) {
+                int stride = timedStrides;
+                long[] found = {-1};
+                index.forEachLine(stride * STRIDE, (line, text) -> {
+                    if (line >= (stride + 1) * STRIDE) {
+                        return false;
+                    }
+                    found[0] = LogLineParser.parseTime(text);
+                    return found[0] < 0;
+                });
+                if (found[0] < 0 && lineCount < (stride + 1) * STRIDE) {
+                    // The first record of the stride is not written yet
+                    break;
+                }
+                if (stride == times.length) {
+                    times = Arrays.copyOf(times, times.length * 2);
+                }
+                times[stride] = found[0] >= 0 ? found[0] : (stride > 0 ? times[stride - 1] : -1);
+                timedStrides++;
+            }
+        }
+
+        synchronized long getFirstTime() {
+            for (int i = 0; i < timedStrides; i++) {
+                if (times[i] >= 0) {
+                    return times[i];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the latest stride which starts before the time, or the first stride
+         */
+        synchronized int findStride(long epochMillis) {
+            int low = 0;
+            int high = timedStrides - 1;
+            int found = 0;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (times[middle] <= epochMillis) {
+                    found = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * The lines of the records at a level or above, as runs of consecutive lines. A line which does not start a record
+     * has the level of the previous record.
+     */
+    private static class LevelFilter {
+        private final LogLevel minLevel;
+        private int[] runLines = new int[64];
+        private int[] runOffsets = new int[64];
+        private int runCount;
+        private int count;
+        private Snapshot scanned;
+        private int scannedLines;
+        private LogLevel currentLevel;
+
+        LevelFilter(LogLevel minLevel) {
+            this.minLevel = minLevel;
+        }
+
+        /**
+         * Filters the lines added since the previous update, or all the lines again if the files changed otherwise
+         */
+        void update(Snapshot next) throws IOException {
+            synchronized (this) {
+                if (scanned == null || !scanned.isPrefixOf(next)) {
+                    runCount = 0;
+                    count = 0;
+                    scannedLines = 0;
+                    currentLevel = null;
+                }
+                scanned = next;
+            }
+
+            next.forEachLine(getScannedLines(), next.filterableLines(), (line, text) -> {
+                LogLevel level = LogLineParser.parseLevel(text);
+                synchronized (this) {
+                    if (level != null) {
+                        currentLevel = level;
+                    }
+                    if (currentLevel != null && currentLevel.isAtLeast(minLevel)) {
+                        add(line);
+                    }
+                    scannedLines = line + 1;
+                }
+                return true;
+            });
+        }
+
+        private void add(int line) {
+            if (runCount > 0 && runLines[runCount - 1] + (count - runOffsets[runCount - 1]) == line) {
+                count++;
+                return;
+            }
+            if (runCount == runLines.length) {
+                runLines = Arrays.copyOf(runLines, runCount * 2);
+                runOffsets = Arrays.copyOf(runOffsets, runCount * 2);
+            }
+            runLines[runCount] = line;
+            runOffsets[runCount] = count;
+            runCount++;
+            count++;
+        }
+
+        synchronized int getCount() {
+            return count;
+        }
+
+        synchronized int getScannedLines() {
+            return scannedLines;
+        }
+
+        /**
+         * @return the line of a filtered line in the high int, and the number of lines left in its run in the low int
+         */
+        synchronized long getRun(int filteredLine) {
+            int run = findRunByOffset(filteredLine);
+            int runEnd = run + 1 < runCount ? runOffsets[run + 1] : count;
+            int line = runLines[run] + filteredLine - runOffsets[run];
+            return ((long) line << 32) | (runEnd - filteredLine);
+        }
+
+        /**
+         * @return the line of a filtered line, or {@code end} after the last filtered line
+         */
+        synchronized int toLine(int filteredLine, int end) {
+            if (filteredLine < 0) {
+                return -1;
+            }
+            if (filteredLine >= count) {
+                return end;
+            }
+            int run = findRunByOffset(filteredLine);
+            return runLines[run] + filteredLine - runOffsets[run];
+        }
+
+        /**
+         * @return the first filtered line at or after the line
+         */
+        synchronized int toFilteredLine(int line) {
+            int run = findRunByLine(line);
+            if (run < 0) {
+                return 0;
+            }
+            int runLength = (run + 1 < runCount ? runOffsets[run + 1] : count) - runOffsets[run];
+            return runOffsets[run] + Math.min(line - runLines[run], runLength);
+        }
+
+        synchronized boolean accepts(int line) {
+            int run = findRunByLine(line);
+            if (run < 0) {
+                return false;
+            }
+            int runLength = (run + 1 < runCount ? runOffsets[run + 1] : count) - runOffsets[run];
+            return line - runLines[run] < runLength;
+        }
+
+        private int findRunByOffset(int filteredLine) {
+            int index = Arrays.binarySearch(runOffsets, 0, runCount, filteredLine);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private int findRunByLine(int line) {
+            int index = Arrays.binarySearch(runLines, 0, runCount, line);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
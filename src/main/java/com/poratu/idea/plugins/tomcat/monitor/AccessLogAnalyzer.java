@@ -0,0 +1,61 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.poratu.idea.plugins.tomcat.setting.TomcatInfo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Tails the access log of a Tomcat instance and aggregates it per URL pattern
+ */
+class AccessLogAnalyzer {
+    private final AccessLogTailer tailer;
+    private final AccessLogParser parser;
+    private final AccessLogStats stats = new AccessLogStats();
+    private long parsedLines;
+    private long skippedLines;
+
+    AccessLogAnalyzer(TomcatInstance instance) {
+        TomcatInfo tomcatInfo = instance.getConfiguration().getTomcatInfo();
+        boolean micros = tomcatInfo != null && AccessLogFormat.isProcessingTimeInMicros(parseMajorVersion(tomcatInfo.getVersion()));
+        this.tailer = new AccessLogTailer(instance.getLogsDir(), micros);
+        this.parser = new AccessLogParser(micros);
+    }
+
+    private static int parseMajorVersion(String version) {
+        try {
+            return Integer.parseInt(version.split("\\.")[0]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    synchronized List<AccessLogStats.Row> update(int windowSeconds) throws IOException {
+        long now = System.currentTimeMillis() / 1000;
+        tailer.poll(now - AccessLogStats.RETAINED_SECONDS, (buffer, start, end) -> {
+            if (parser.parse(buffer, start, end)) {
+                parsedLines++;
+                stats.record(parser, buffer, now);
+            } else {
+                skippedLines++;
+            }
+        });
+        return stats.snapshot(windowSeconds, now);
+    }
+
+    synchronized Path getFile() {
+        return tailer.getFile();
+    }
+
+    /**
+     * @return the number of lines which do not match the pattern of the plugin, e.g. logged before it was applied
+     */
+    synchronized long getSkippedLines() {
+        return skippedLines;
+    }
+
+    synchronized long getParsedLines() {
+        return parsedLines;
+    }
+}
@@ -0,0 +1,41 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+/**
+ * The pattern of the `localhost_access_log` written by the Tomcats launched by the plugin: the pattern of server.xml,
+ * followed by the processing time (%D), the time to commit the response (%F) and the request thread name (%I), e.g.
+ * <pre>
+ * 127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] "GET /app/users/42 HTTP/1.1" 200 2326 1543 1201 http-nio-8080-exec-1
+ * </pre>
+ */
+public final class AccessLogFormat {
+    public static final String PREFIX = "localhost_access_log";
+    public static final String COMMON_PATTERN = "%h %l %u %t \"%r\" %s %b";
+    public static final String COMBINED_PATTERN = COMMON_PATTERN + " \"%{Referer}i\" \"%{User-Agent}i\"";
+    private static final String TIMING_SUFFIX = " %D %F %I";
+    // %F is not supported before Tomcat 8, a constant keeps the number of fields
+    private static final String TIMING_SUFFIX_WITHOUT_COMMIT_TIME = " %D - %I";
+
+    private AccessLogFormat() {
+    }
+
+    /**
+     * @param pattern the pattern of the AccessLogValve in server.xml
+     * @return the pattern with the timing fields appended, or the pattern itself if it already has them
+     */
+    public static String withTimings(String pattern, int tomcatMajorVersion) {
+        String expanded = "common".equals(pattern) ? COMMON_PATTERN
+                : "combined".equals(pattern) ? COMBINED_PATTERN
+                : pattern.isEmpty() ? COMMON_PATTERN : pattern;
+        if (expanded.endsWith(TIMING_SUFFIX) || expanded.endsWith(TIMING_SUFFIX_WITHOUT_COMMIT_TIME)) {
+            return expanded;
+        }
+        return expanded + (tomcatMajorVersion >= 8 ? TIMING_SUFFIX : TIMING_SUFFIX_WITHOUT_COMMIT_TIME);
+    }
+
+    /**
+     * %D is written in milliseconds before Tomcat 10, in microseconds since. %F is always written in milliseconds.
+     */
+    public static boolean isProcessingTimeInMicros(int tomcatMajorVersion) {
+        return tomcatMajorVersion >= 10;
+    }
+}
@@ -0,0 +1,148 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * The latency percentiles, status codes and bytes per URL pattern of the access log of the selected running Tomcat instance,
+ * over a sliding window
+ */
+public class AccessLogPanel extends JPanel implements Disposable {
+    private static final int REFRESH_MILLIS = 2000;
+
+    private enum Window {
+        ONE_MINUTE("Last minute", 60),
+        FIVE_MINUTES("Last 5 minutes", 5 * 60),
+        FIFTEEN_MINUTES("Last 15 minutes", AccessLogStats.RETAINED_SECONDS);
+
+        private final String label;
+        private final int seconds;
+
+        Window(String label, int seconds) {
+            this.label = label;
+            this.seconds = seconds;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private final InstanceSelector instanceSelector;
+    private final ComboBox<Window> windowSelector = new ComboBox<>(Window.values());
+    private final JBLabel status = new JBLabel();
+    private final ListTableModel<AccessLogStats.Row> model = new ListTableModel<>(
+            column("URL pattern", row -> row.pattern),
+            column("Requests", row -> String.valueOf(row.requests)),
+            column("req/s", row -> format(row.throughput)),
+            column("p50 (ms)", row -> format(row.p50)),
+            column("p95 (ms)", row -> format(row.p95)),
+            column("p99 (ms)", row -> format(row.p99)),
+            column("Commit (ms)", row -> format(row.averageCommit)),
+            column("2xx", row -> String.valueOf(row.statusClasses[2])),
+            column("3xx", row -> String.valueOf(row.statusClasses[3])),
+            column("4xx", row -> String.valueOf(row.statusClasses[4])),
+            column("5xx", row -> String.valueOf(row.statusClasses[5])),
+            column("KB", row -> format(row.bytes / 1024.0))
+    );
+    private final Map<TomcatInstance, AccessLogAnalyzer> analyzers = new HashMap<>();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public AccessLogPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.instanceSelector = new InstanceSelector(project);
+        windowSelector.setSelectedItem(Window.FIVE_MINUTES);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(windowSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+        add(new JBScrollPane(new TableView<>(model)), BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+        analyzers.keySet().removeIf(instance -> instance.getProcessHandler().isProcessTerminated());
+
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        if (instance == null) {
+            status.setText("No running Tomcat");
+            model.setItems(List.of());
+            return;
+        }
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+
+        AccessLogAnalyzer analyzer = analyzers.computeIfAbsent(instance, AccessLogAnalyzer::new);
+        int windowSeconds = ((Window) windowSelector.getSelectedItem()).seconds;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<AccessLogStats.Row> rows;
+            String text;
+            try {
+                rows = analyzer.update(windowSeconds);
+                text = analyzer.getFile() == null
+                        ? "No access log in " + instance.getLogsDir()
+                        : analyzer.getFile().getFileName() + ": " + analyzer.getParsedLines() + " lines"
+                        + (analyzer.getSkippedLines() > 0 ? ", " + analyzer.getSkippedLines() + " without timings skipped" : "");
+            } catch (IOException e) {
+                rows = List.of();
+                text = "Failed to read the access log: " + e.getMessage();
+            } finally {
+                updating.set(false);
+            }
+
+            List<AccessLogStats.Row> result = rows;
+            String statusText = text;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (instance == instanceSelector.getSelectedInstance()) {
+                    model.setItems(result);
+                    status.setText(statusText);
+                }
+            });
+        });
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format("%.1f", value);
+    }
+
+    private static ColumnInfo<AccessLogStats.Row, String> column(String name, Function<AccessLogStats.Row, String> valueFunction) {
+        return new ColumnInfo<>(name) {
+            @Override
+            public @Nullable String valueOf(AccessLogStats.Row row) {
+                return valueFunction.apply(row);
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,178 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+/**
+ * Parses the lines of an access log written with {@link AccessLogFormat} in place, from the bytes of the read buffer.
+ * The fields of the last parsed line are kept in the parser, so parsing does not allocate.
+ */
+class AccessLogParser {
+    private final boolean processingTimeInMicros;
+
+    long epochSecond;
+    int pathStart;
+    int pathEnd;
+    int status;
+    long bytes;
+    long processingMicros;
+    long commitMicros;
+
+    AccessLogParser(boolean processingTimeInMicros) {
+        this.processingTimeInMicros = processingTimeInMicros;
+    }
+
+    /**
+     * @param end the index after the last byte of the line, without the line separator
+     * @return {@code false} if the line does not match the format
+     */
+    boolean parse(byte[] line, int start, int end) {
+        while (end > start && (line[end - 1] == '\r' || line[end - 1] == ' ')) {
+            end--;
+        }
+
+        // %t: [10/Oct/2024:13:55:36 +0200]
+        int i = indexOf(line, start, end, (byte) '[');
+        if (i < 0 || i + 27 > end || line[i + 27] != ']') {
+            return false;
+        }
+        epochSecond = parseTimestamp(line, i + 1);
+        if (epochSecond < 0) {
+            return false;
+        }
+
+        // "%r": "GET /app/users/42?page=2 HTTP/1.1"
+        int requestStart = indexOf(line, i + 28, end, (byte) '"');
+        int requestEnd = requestStart < 0 ? -1 : indexOf(line, requestStart + 1, end, (byte) '"');
+        if (requestEnd < 0) {
+            return false;
+        }
+        int methodEnd = indexOf(line, requestStart + 1, requestEnd, (byte) ' ');
+        if (methodEnd < 0) {
+            return false;
+        }
+        pathStart = methodEnd + 1;
+        pathEnd = pathStart;
+        while (pathEnd < requestEnd && line[pathEnd] != ' ' && line[pathEnd] != '?' && line[pathEnd] != ';') {
+            pathEnd++;
+        }
+
+        // %s %b
+        int statusStart = requestEnd + 2;
+        int statusEnd = indexOf(line, statusStart, end, (byte) ' ');
+        if (statusEnd < 0) {
+            return false;
+        }
+        status = (int) parseLong(line, statusStart, statusEnd);
+        int bytesEnd = indexOf(line, statusEnd + 1, end, (byte) ' ');
+        if (status < 0 || bytesEnd < 0) {
+            return false;
+        }
+        bytes = Math.max(0, parseLong(line, statusEnd + 1, bytesEnd));
+
+        // %D %F %I are the last fields, after the optional fields of the combined pattern
+        int threadStart = lastIndexOf(line, start, end, (byte) ' ');
+        int commitStart = threadStart < 0 ? -1 : lastIndexOf(line, start, threadStart, (byte) ' ');
+        int processingStart = commitStart < 0 ? -1 : lastIndexOf(line, start, commitStart, (byte) ' ');
+        if (processingStart < requestEnd) {
+            return false;
+        }
+        long processing = parseLong(line, processingStart + 1, commitStart);
+        if (processing < 0) {
+            return false;
+        }
+        processingMicros = processingTimeInMicros ? processing : processing * 1000;
+        long commit = parseLong(line, commitStart + 1, threadStart);
+        commitMicros = commit < 0 ? -1 : commit * 1000;
+        return true;
+    }
+
+    private static int indexOf(byte[] line, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] line, int from, int to, byte b) {
+        for (int i = to - 1; i >= from; i--) {
+            if (line[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the non-negative decimal number, or -1 if the field is empty, `-` or not a number
+     */
+    private static long parseLong(byte[] line, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @param i the index of the day in `10/Oct/2024:13:55:36 +0200`
+     * @return the epoch second, or -1 if the timestamp is malformed
+     */
+    static long parseTimestamp(byte[] line, int i) {
+        long day = parseLong(line, i, i + 2);
+        int month = parseMonth(line, i + 3);
+        long year = parseLong(line, i + 7, i + 11);
+        long hour = parseLong(line, i + 12, i + 14);
+        long minute = parseLong(line, i + 15, i + 17);
+        long second = parseLong(line, i + 18, i + 20);
+        long offset = parseLong(line, i + 22, i + 26);
+        if (day < 0 || month < 0 || year < 0 || hour < 0 || minute < 0 || second < 0 || offset < 0) {
+            return -1;
+        }
+
+        long offsetSeconds = (offset / 100 * 60 + offset % 100) * 60;
+        if (line[i + 21] == '-') {
+            offsetSeconds = -offsetSeconds;
+        }
+        return daysFromCivil(year, month, day) * 86400 + hour * 3600 + minute * 60 + second - offsetSeconds;
+    }
+
+    /**
+     * @return the month from 1 to 12, or -1
+     */
+    private static int parseMonth(byte[] line, int i) {
+        switch ((line[i] << 16) | (line[i + 1] << 8) | line[i + 2]) {
+            case ('J' << 16) | ('a' << 8) | 'n': return 1;
+            case ('F' << 16) | ('e' << 8) | 'b': return 2;
+            case ('M' << 16) | ('a' << 8) | 'r': return 3;
+            case ('A' << 16) | ('p' << 8) | 'r': return 4;
+            case ('M' << 16) | ('a' << 8) | 'y': return 5;
+            case ('J' << 16) | ('u' << 8) | 'n': return 6;
+            case ('J' << 16) | ('u' << 8) | 'l': return 7;
+            case ('A' << 16) | ('u' << 8) | 'g': return 8;
+            case ('S' << 16) | ('e' << 8) | 'p': return 9;
+            case ('O' << 16) | ('c' << 8) | 't': return 10;
+            case ('N' << 16) | ('o' << 8) | 'v': return 11;
+            case ('D' << 16) | ('e' << 8) | 'c': return 12;
+            default: return -1;
+        }
+    }
+
+    /**
+     * The number of days since 1970-01-01 of a date of the proleptic Gregorian calendar
+     */
+    private static long daysFromCivil(long year, long month, long day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+}
@@ -0,0 +1,285 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.poratu.idea.plugins.tomcat.shared.LatencyHistogram;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregates the access log per URL pattern over a sliding window of {@link #RETAINED_SECONDS}, in slots of {@link #SLOT_SECONDS}.
+ * The numeric and identifier segments of the paths are replaced with `{id}`, e.g. `/app/users/{id}/orders`.
+ * A new pattern allocates its name and its slots, further requests only update counters.
+ */
+class AccessLogStats {
+    static final int SLOT_SECONDS = 10;
+    static final int RETAINED_SECONDS = 15 * 60;
+    private static final int SLOT_COUNT = RETAINED_SECONDS / SLOT_SECONDS;
+    private static final int MAX_PATTERNS = 200;
+    private static final String OTHER_PATTERN = "(other)";
+    private static final byte[] ID_SEGMENT = "{id}".getBytes(StandardCharsets.US_ASCII);
+    // Latencies are kept with a quarter of the resolution of the histogram of the agent, i.e. within 12%
+    private static final int LATENCY_SHIFT = 2;
+    private static final int LATENCY_BUCKETS = (LatencyHistogram.BUCKET_COUNT >> LATENCY_SHIFT) + 1;
+
+    static class Row {
+        final String pattern;
+        final long requests;
+        final double throughput;
+        final double p50;
+        final double p95;
+        final double p99;
+        final double averageCommit;
+        final long[] statusClasses;
+        final long bytes;
+
+        Row(String pattern, long requests, double throughput, double p50, double p95, double p99, double averageCommit, long[] statusClasses, long bytes) {
+            this.pattern = pattern;
+            this.requests = requests;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.averageCommit = averageCommit;
+            this.statusClasses = statusClasses;
+            this.bytes = bytes;
+        }
+    }
+
+    private static class Slot {
+        long epochSlot = -1;
+        int requests;
+        long bytes;
+        long commitMicros;
+        int commits;
+        final int[] statusClasses = new int[6];
+        final int[] latencies = new int[LATENCY_BUCKETS];
+
+        void reset(long epochSlot) {
+            this.epochSlot = epochSlot;
+            requests = 0;
+            bytes = 0;
+            commitMicros = 0;
+            commits = 0;
+            Arrays.fill(statusClasses, 0);
+            Arrays.fill(latencies, 0);
+        }
+    }
+
+    private static class PatternStats {
+        final byte[] key;
+        final String name;
+        final Slot[] slots = new Slot[SLOT_COUNT];
+
+        PatternStats(byte[] key, String name) {
+            this.key = key;
+            this.name = name;
+        }
+    }
+
+    private final List<PatternStats> patterns = new ArrayList<>();
+    private int[] table = new int[1024];
+    private byte[] scratch = new byte[256];
+    private int scratchLength;
+    private PatternStats other;
+
+    AccessLogStats() {
+        Arrays.fill(table, -1);
+    }
+
+    void record(AccessLogParser line, byte[] buffer, long nowSecond) {
+        if (line.epochSecond <= nowSecond - RETAINED_SECONDS) {
+            return;
+        }
+
+        PatternStats stats = lookup(buffer, line.pathStart, line.pathEnd);
+        long epochSlot = line.epochSecond / SLOT_SECONDS;
+        int index = (int) Math.floorMod(epochSlot, (long) SLOT_COUNT);
+        Slot slot = stats.slots[index];
+        if (slot == null) {
+            slot = new Slot();
+            stats.slots[index] = slot;
+        }
+        if (slot.epochSlot != epochSlot) {
+            if (slot.epochSlot > epochSlot) {
+                // An older line than the slot holds, out of the window
+                return;
+            }
+            slot.reset(epochSlot);
+        }
+
+        slot.requests++;
+        slot.bytes += line.bytes;
+        slot.statusClasses[Math.min(5, Math.max(0, line.status / 100))]++;
+        slot.latencies[LatencyHistogram.bucketIndex(line.processingMicros) >> LATENCY_SHIFT]++;
+        if (line.commitMicros >= 0) {
+            slot.commitMicros += line.commitMicros;
+            slot.commits++;
+        }
+    }
+
+    /**
+     * @return the aggregates of the patterns with requests in the last seconds, the busiest first
+     */
+    List<Row> snapshot(int windowSeconds, long nowSecond) {
+        long firstSlot = (nowSecond - windowSeconds) / SLOT_SECONDS + 1;
+        long lastSlot = nowSecond / SLOT_SECONDS;
+        long[] latencies = new long[LatencyHistogram.BUCKET_COUNT];
+        List<Row> rows = new ArrayList<>();
+        for (PatternStats stats : allPatterns()) {
+            Arrays.fill(latencies, 0);
+            long requests = 0;
+            long bytes = 0;
+            long commitMicros = 0;
+            long commits = 0;
+            long[] statusClasses = new long[6];
+            for (Slot slot : stats.slots) {
+                if (slot == null || slot.epochSlot < firstSlot || slot.epochSlot > lastSlot) {
+                    continue;
+                }
+                requests += slot.requests;
+                bytes += slot.bytes;
+                commitMicros += slot.commitMicros;
+                commits += slot.commits;
+                for (int i = 0; i < statusClasses.length; i++) {
+                    statusClasses[i] += slot.statusClasses[i];
+                }
+                for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                    if (slot.latencies[i] > 0) {
+                        // The upper bound of the coarse bucket
+                        latencies[Math.min(LatencyHistogram.BUCKET_COUNT - 1, (i << LATENCY_SHIFT) + (1 << LATENCY_SHIFT) - 1)] += slot.latencies[i];
+                    }
+                }
+            }
+            if (requests == 0) {
+                continue;
+            }
+
+            rows.add(new Row(stats.name, requests, (double) requests / windowSeconds,
+                    millis(latencies, 50), millis(latencies, 95), millis(latencies, 99),
+                    commits == 0 ? Double.NaN : commitMicros / 1000.0 / commits, statusClasses, bytes));
+        }
+        rows.sort((a, b) -> Long.compare(b.requests, a.requests));
+        return rows;
+    }
+
+    private List<PatternStats> allPatterns() {
+        if (other == null) {
+            return patterns;
+        }
+        List<PatternStats> all = new ArrayList<>(patterns);
+        all.add(other);
+        return all;
+    }
+
+    private static double millis(long[] latencies, double percentile) {
+        long micros = LatencyHistogram.valueAtPercentile(latencies, percentile);
+        return micros < 0 ? Double.NaN : micros / 1000.0;
+    }
+
+    private PatternStats lookup(byte[] buffer, int start, int end) {
+        normalize(buffer, start, end);
+        int hash = 1;
+        for (int i = 0; i < scratchLength; i++) {
+            hash = 31 * hash + scratch[i];
+        }
+
+        int mask = table.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            int id = table[i];
+            if (id < 0) {
+                break;
+            }
+            if (Arrays.equals(patterns.get(id).key, 0, patterns.get(id).key.length, scratch, 0, scratchLength)) {
+                return patterns.get(id);
+            }
+        }
+
+        if (patterns.size() >= MAX_PATTERNS) {
+            if (other == null) {
+                other = new PatternStats(new byte[0], OTHER_PATTERN);
+            }
+            return other;
+        }
+
+        byte[] key = Arrays.copyOf(scratch, scratchLength);
+        PatternStats stats = new PatternStats(key, new String(key, StandardCharsets.UTF_8));
+        patterns.add(stats);
+        insert(hash, patterns.size() - 1);
+        if (patterns.size() * 2 > table.length) {
+            rehash();
+        }
+        return stats;
+    }
+
+    private void insert(int hash, int id) {
+        int mask = table.length - 1;
+        int i = hash & mask;
+        while (table[i] >= 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = id;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        Arrays.fill(table, -1);
+        for (int id = 0; id < patterns.size(); id++) {
+            int hash = 1;
+            for (byte b : patterns.get(id).key) {
+                hash = 31 * hash + b;
+            }
+            insert(hash, id);
+        }
+    }
+
+    /**
+     * Copies the path to the scratch buffer, replacing the identifier segments with `{id}`
+     */
+    private void normalize(byte[] buffer, int start, int end) {
+        scratchLength = 0;
+        int segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer[i] != '/') {
+                continue;
+            }
+            if (i > segmentStart && isIdentifier(buffer, segmentStart, i)) {
+                append(ID_SEGMENT, 0, ID_SEGMENT.length);
+            } else {
+                append(buffer, segmentStart, i - segmentStart);
+            }
+            if (i < end) {
+                append(buffer, i, 1);
+            }
+            segmentStart = i + 1;
+        }
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        if (scratchLength + length > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, scratchLength + length));
+        }
+        System.arraycopy(bytes, offset, scratch, scratchLength, length);
+        scratchLength += length;
+    }
+
+    /**
+     * A segment of digits, or a hexadecimal or UUID segment of at least 8 characters with a digit
+     */
+    private static boolean isIdentifier(byte[] buffer, int start, int end) {
+        boolean digit = false;
+        boolean letter = false;
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= '0' && b <= '9') {
+                digit = true;
+            } else if ((b >= 'a' && b <= 'f') || (b >= 'A' && b <= 'F') || b == '-') {
+                letter = true;
+            } else {
+                return false;
+            }
+        }
+        return digit && (!letter || end - start >= 8);
+    }
+}
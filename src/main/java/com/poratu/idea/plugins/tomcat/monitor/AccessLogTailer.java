@@ -0,0 +1,124 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines appended to the latest `localhost_access_log.*` file of a logs directory since the previous poll.
+ * <p>
+ * The lines are read by an {@link IncrementalLineReader}. When a file is first opened, the offset of the first line
+ * of the retained window is found by bisecting on the timestamps of the lines, so a large log is not read from the start. When Tomcat rotates the log, the rest of the previous file is read before the new one.
+ */
+class AccessLogTailer {
+    private static final int BUFFER_SIZE = IncrementalLineReader.BUFFER_SIZE;
+
+    private final Path logsDir;
+    private final AccessLogParser probe;
+    private final IncrementalLineReader reader = new IncrementalLineReader();
+    // For the bisection of a newly opened file
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private Path file;
+
+    AccessLogTailer(Path logsDir, boolean processingTimeInMicros) {
+        this.logsDir = logsDir;
+        this.probe = new AccessLogParser(processingTimeInMicros);
+    }
+
+    @Nullable
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the new complete lines
+     *
+     * @param fromEpochSecond the start of the window, for a newly opened file
+     */
+    void poll(long fromEpochSecond, IncrementalLineReader.LineConsumer consumer) throws IOException {
+        Path latest = findLatestFile();
+        if (latest == null) {
+            return;
+        }
+
+        if (file != null && !file.equals(latest) && Files.exists(file)) {
+            reader.read(file, consumer);
+            file = latest;
+            reader.setPosition(0);
+        } else if (file == null || !file.equals(latest)) {
+            file = latest;
+            reader.setPosition(seek(fromEpochSecond));
+        }
+        reader.read(file, consumer);
+    }
+
+    @Nullable
+    private Path findLatestFile() throws IOException {
+        if (!Files.isDirectory(logsDir)) {
+            return null;
+        }
+
+        Path latest = null;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(logsDir, AccessLogFormat.PREFIX + ".*")) {
+            for (Path path : stream) {
+                // The date suffix sorts the rotated files chronologically
+                if (latest == null || path.getFileName().toString().compareTo(latest.getFileName().toString()) > 0) {
+                    latest = path;
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @return the offset of a line shortly before the first line logged at the epoch second
+     */
+    private long seek(long epochSecond) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long low = 0;
+            long high = channel.size();
+            while (high - low > BUFFER_SIZE) {
+                long middle = (low + high) >>> 1;
+                long lineStart = nextLineStart(channel, middle);
+                long timestamp = lineStart < 0 ? -1 : timestampAt(channel, lineStart);
+                if (timestamp < 0 || timestamp >= epochSecond) {
+                    high = middle;
+                } else {
+                    low = lineStart;
+                }
+            }
+            // A line start logged before the window, or the start of the file
+            return low;
+        }
+    }
+
+    private long nextLineStart(FileChannel channel, long offset) throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer, offset);
+        byte[] bytes = buffer.array();
+        for (int i = 0; i < read; i++) {
+            if (bytes[i] == '\n') {
+                return offset + i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private long timestampAt(FileChannel channel, long lineStart) throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer, lineStart);
+        byte[] bytes = buffer.array();
+        for (int i = 0; i < read; i++) {
+            if (bytes[i] == '\n') {
+                return probe.parse(bytes, 0, i) ? probe.epochSecond : -1;
+            }
+        }
+        return -1;
+    }
+}
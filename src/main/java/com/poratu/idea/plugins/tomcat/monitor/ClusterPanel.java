@@ -0,0 +1,160 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterNode;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterProxy;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterSupport;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The nodes of the local cluster of the selected running Tomcat instance side by side, with the connections the load
+ * balancer routed to each node and the metrics of each node, and their total
+ */
+public class ClusterPanel extends JPanel implements Disposable {
+    private static final int REFRESH_MILLIS = 2000;
+    private static final double MB = 1024 * 1024;
+
+    private final InstanceSelector instanceSelector;
+    private final JBLabel status = new JBLabel();
+    private final ListTableModel<Row> model = new ListTableModel<>(
+            column("Node", Row::node),
+            column("HTTP port", Row::port),
+            column("Routed connections", row -> String.valueOf(row.connections())),
+            column("Active connections", row -> String.valueOf(row.activeConnections())),
+            column("Failed connects", row -> String.valueOf(row.failedConnects())),
+            column("req/s", row -> format(row.requestRate())),
+            column("errors/s", row -> format(row.errorRate())),
+            column("Busy threads", row -> format(row.busyThreads())),
+            column("Active sessions", row -> format(row.activeSessions())),
+            column("Heap used (MB)", row -> format(row.heapUsed() / MB))
+    );
+    private final TableView<Row> table = new TableView<>(model);
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public ClusterPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.instanceSelector = new InstanceSelector(project);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+        add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        List<TomcatInstance> nodes = instance == null ? List.of() : ClusterSupport.getNodes(instance);
+        ClusterProxy proxy = nodes.isEmpty() ? null : nodes.get(0).getClusterProxy();
+        if (instance == null) {
+            status.setText("No running Tomcat");
+        } else if (nodes.isEmpty()) {
+            status.setText("Set the cluster nodes in the run configuration to launch a local cluster");
+        } else if (proxy == null) {
+            status.setText("The first node of the cluster is not running");
+        } else {
+            status.setText("Load balancer on port " + proxy.getPort() + ", " + proxy.getRouting());
+        }
+
+        List<Row> rows = new ArrayList<>();
+        if (proxy != null) {
+            List<ClusterProxy.Backend> backends = proxy.getBackends();
+            for (int i = 0; i < backends.size(); i++) {
+                rows.add(createRow(backends.get(i), findNode(nodes, i)));
+            }
+            rows.add(total(rows));
+        }
+        model.setItems(rows);
+    }
+
+    @Nullable
+    private static TomcatInstance findNode(List<TomcatInstance> nodes, int index) {
+        for (TomcatInstance node : nodes) {
+            ClusterNode clusterNode = node.getConfiguration().getClusterNode();
+            if (clusterNode != null && clusterNode.index() == index) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static Row createRow(ClusterProxy.Backend backend, @Nullable TomcatInstance node) {
+        double requestRate = Double.NaN;
+        double errorRate = Double.NaN;
+        double busyThreads = Double.NaN;
+        double activeSessions = Double.NaN;
+        double heapUsed = Double.NaN;
+        List<MetricsSample> samples = node == null ? List.of() : node.getHistory().snapshot();
+        if (!samples.isEmpty()) {
+            MetricsSample latest = samples.get(samples.size() - 1);
+            if (samples.size() > 1) {
+                MetricsSample previous = samples.get(samples.size() - 2);
+                requestRate = latest.ratePerSecond(previous, MetricsSample.REQUEST_COUNT);
+                errorRate = latest.ratePerSecond(previous, MetricsSample.ERROR_COUNT);
+            }
+            busyThreads = latest.get(MetricsSample.THREADS_BUSY);
+            activeSessions = latest.get(MetricsSample.ACTIVE_SESSIONS);
+            heapUsed = latest.get(MetricsSample.HEAP_USED);
+        }
+
+        String name = backend.getJvmRoute() + (node == null ? " (not running)" : "");
+        return new Row(name, String.valueOf(backend.getAddress().getPort()), backend.getConnections(),
+                backend.getActiveConnections(), backend.getFailedConnects(),
+                requestRate, errorRate, busyThreads, activeSessions, heapUsed);
+    }
+
+    private static Row total(List<Row> rows) {
+        return new Row("Total", "",
+                rows.stream().mapToLong(Row::connections).sum(),
+                rows.stream().mapToInt(Row::activeConnections).sum(),
+                rows.stream().mapToLong(Row::failedConnects).sum(),
+                sum(rows, Row::requestRate), sum(rows, Row::errorRate), sum(rows, Row::busyThreads),
+                sum(rows, Row::activeSessions), sum(rows, Row::heapUsed));
+    }
+
+    // The nodes without a metric, e.g. without a JMX port, are left out of the total
+    private static double sum(List<Row> rows, Function<Row, Double> metric) {
+        return rows.stream().map(metric).filter(value -> !value.isNaN()).reduce(Double::sum).orElse(Double.NaN);
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format("%.1f", value);
+    }
+
+    private static ColumnInfo<Row, String> column(String name, Function<Row, String> valueFunction) {
+        return new ColumnInfo<>(name) {
+            @Override
+            public @Nullable String valueOf(Row row) {
+                return valueFunction.apply(row);
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+
+    private record Row(String node, String port, long connections, int activeConnections, long failedConnects,
+                       double requestRate, double errorRate, double busyThreads, double activeSessions, double heapUsed) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Paints a flame graph, the root at the bottom. A click on a frame is passed to the frame listener.
+ */
+class FlameGraphComponent extends JComponent {
+    private static final Color[] COLORS = {
+            new JBColor(new Color(0xF2B179), new Color(0x9C6A3C)),
+            new JBColor(new Color(0xF59563), new Color(0xA35A35)),
+            new JBColor(new Color(0xEDCF72), new Color(0x94803A)),
+            new JBColor(new Color(0xEDC850), new Color(0x8C7628)),
+    };
+
+    private final List<Box> boxes = new ArrayList<>();
+    private FlameNode root;
+
+    FlameGraphComponent(Consumer<FlameNode> frameListener) {
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Box box = findBox(e.getPoint());
+                if (box != null) {
+                    frameListener.accept(box.node);
+                }
+            }
+        });
+        setToolTipText("");
+    }
+
+    void setRoot(@Nullable FlameNode root) {
+        this.root = root;
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(JBUI.scale(400), (depth(root) + 1) * rowHeight());
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        Box box = findBox(event.getPoint());
+        if (box == null || root == null || root.getSamples() == 0) {
+            return null;
+        }
+        return String.format("<html>%s<br>%d samples (%.1f%%)</html>", StringUtil.escapeXmlEntities(box.node.getFrame()),
+                box.node.getSamples(), 100.0 * box.node.getSamples() / root.getSamples());
+    }
+
+    @Nullable
+    private Box findBox(Point point) {
+        for (Box box : boxes) {
+            if (box.bounds.contains(point)) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    private int rowHeight() {
+        return getFontMetrics(getFont() != null ? getFont() : UIUtil.getLabelFont()).getHeight() + JBUI.scale(4);
+    }
+
+    private static int depth(@Nullable FlameNode node) {
+        if (node == null) {
+            return 0;
+        }
+        int depth = 0;
+        for (FlameNode child : node.getChildren()) {
+            depth = Math.max(depth, depth(child));
+        }
+        return depth + 1;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(UIUtil.getPanelBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        boxes.clear();
+        if (root == null || root.getSamples() == 0) {
+            return;
+        }
+
+        g.setFont(UIUtil.getLabelFont());
+        paintNode((Graphics2D) g, root, 0, getWidth(), getHeight() - rowHeight());
+    }
+
+    private void paintNode(Graphics2D g, FlameNode node, double x, double width, int y) {
+        int rowHeight = rowHeight();
+        Rectangle bounds = new Rectangle((int) x, y, Math.max(1, (int) width - 1), rowHeight - 1);
+        boxes.add(new Box(node, bounds));
+
+        g.setColor(COLORS[(node.getFrame().hashCode() & 0x7fffffff) % COLORS.length]);
+        g.fill(bounds);
+        if (bounds.width > JBUI.scale(20)) {
+            g.setColor(JBColor.BLACK);
+            FontMetrics metrics = g.getFontMetrics();
+            String label = clip(node.getFrame(), metrics, bounds.width - JBUI.scale(4));
+            g.drawString(label, bounds.x + JBUI.scale(2), bounds.y + metrics.getAscent() + JBUI.scale(2));
+        }
+
+        double childX = x;
+        for (FlameNode child : node.getChildren()) {
+            double childWidth = width * child.getSamples() / node.getSamples();
+            if (childWidth >= 1) {
+                paintNode(g, child, childX, childWidth, y - rowHeight);
+            }
+            childX += childWidth;
+        }
+    }
+
+    private static String clip(String text, FontMetrics metrics, int width) {
+        if (metrics.stringWidth(text) <= width) {
+            return text;
+        }
+        for (int length = text.length() - 1; length > 0; length--) {
+            String clipped = text.substring(0, length) + "...";
+            if (metrics.stringWidth(clipped) <= width) {
+                return clipped;
+            }
+        }
+        return "";
+    }
+
+    private static final class Box {
+        private final FlameNode node;
+        private final Rectangle bounds;
+
+        private Box(FlameNode node, Rectangle bounds) {
+            this.node = node;
+            this.bounds = bounds;
+        }
+    }
+}
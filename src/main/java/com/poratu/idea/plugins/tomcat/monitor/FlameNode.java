@@ -0,0 +1,63 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A frame of a flame graph, with the number of samples in which it appears below its parent frames
+ */
+public class FlameNode {
+    private final String frame;
+    private final Map<String, FlameNode> children = new LinkedHashMap<>();
+    private long samples;
+
+    FlameNode(String frame) {
+        this.frame = frame;
+    }
+
+    /**
+     * @param frames the frames of a stack, root frame first
+     */
+    void add(List<String> frames, long count) {
+        samples += count;
+        FlameNode node = this;
+        for (String frame : frames) {
+            node = node.children.computeIfAbsent(frame, FlameNode::new);
+            node.samples += count;
+        }
+    }
+
+    public String getFrame() {
+        return frame;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public List<FlameNode> getChildren() {
+        return new ArrayList<>(children.values());
+    }
+
+    /**
+     * @return the class name of a {@code class.method:line} frame
+     */
+    @Nullable
+    public String getClassName() {
+        String method = StringUtil.substringBeforeLast(frame, ":");
+        int dot = method.lastIndexOf('.');
+        return dot > 0 ? method.substring(0, dot) : null;
+    }
+
+    /**
+     * @return the line number of a {@code class.method:line} frame, or -1 if unknown
+     */
+    public int getLineNumber() {
+        return StringUtil.parseInt(StringUtil.substringAfterLast(frame, ":"), -1);
+    }
+}
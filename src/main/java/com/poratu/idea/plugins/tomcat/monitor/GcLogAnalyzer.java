@@ -0,0 +1,64 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.poratu.idea.plugins.tomcat.conf.TomcatLogFile;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * Reads the lines appended to the GC log of a Tomcat instance since the previous update.
+ * When the JVM rotates the log, the current file starts over and is read from its start.
+ */
+class GcLogAnalyzer {
+    private final Path file;
+    private final GcLogParser parser = new GcLogParser();
+    private final IncrementalLineReader reader = new IncrementalLineReader();
+    private Object fileKey;
+
+    GcLogAnalyzer(TomcatInstance instance) {
+        this.file = instance.getLogsDir().resolve(TomcatLogFile.GC_LOG_FILE_NAME);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * The pause times in milliseconds, the rates in bytes per second
+     */
+    record Summary(long pauseCount, double totalPauseMillis, double p50, double p95, double p99, double max,
+                   double pauseOverhead, double allocationRate, double promotionRate,
+                   List<MetricsSample> heapSamples, List<MetricsSample> pauseSamples) {
+    }
+
+    /**
+     * @return the summary of the log read so far, or {@code null} if there is no GC log
+     */
+    @Nullable
+    synchronized Summary update() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        // The rotation renames the file, a new file key tells that the log starts over
+        Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        if (key != null && !key.equals(fileKey)) {
+            reader.setPosition(0);
+        }
+        fileKey = key;
+        reader.read(file, (bytes, start, end) -> {
+            int lineEnd = end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+            parser.parse(new String(bytes, start, lineEnd - start, StandardCharsets.UTF_8));
+        });
+
+        return new Summary(parser.getPauseCount(), parser.getTotalPauseMillis(),
+                parser.getPausePercentile(50), parser.getPausePercentile(95), parser.getPausePercentile(99), parser.getMaxPauseMillis(),
+                parser.getPauseOverhead(), parser.getAllocationRate(), parser.getPromotionRate(),
+                parser.getHeapSamples(), parser.getPauseSamples());
+    }
+}
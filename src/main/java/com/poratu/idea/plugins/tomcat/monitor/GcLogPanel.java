@@ -0,0 +1,135 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The GC pauses, the allocation and promotion rates, and the heap occupancy after each collection,
+ * read from the GC log of the selected running Tomcat instance
+ */
+public class GcLogPanel extends JPanel implements Disposable {
+    private static final int REFRESH_MILLIS = 2000;
+    private static final double MB = 1024 * 1024;
+
+    private final InstanceSelector instanceSelector;
+    private final JBLabel status = new JBLabel();
+    private final JBLabel pauses = new JBLabel();
+    private final JBLabel rates = new JBLabel();
+    private final MetricChart heapChart = MetricChart.gauge("Heap after GC", "MB", GcLogParser.HEAP_AFTER_GC, MB);
+    private final MetricChart capacityChart = MetricChart.gauge("Heap capacity", "MB", GcLogParser.HEAP_CAPACITY, MB);
+    private final MetricChart pauseChart = MetricChart.gauge("GC pause", "ms", GcLogParser.PAUSE_MILLIS, 1);
+    private final Map<TomcatInstance, GcLogAnalyzer> analyzers = new HashMap<>();
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public GcLogPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.instanceSelector = new InstanceSelector(project);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+
+        JPanel summary = new JPanel(new GridLayout(0, 1));
+        summary.add(pauses);
+        summary.add(rates);
+
+        JPanel grid = new JPanel(new GridLayout(0, 2, JBUI.scale(8), JBUI.scale(8)));
+        grid.add(pauseChart);
+        grid.add(heapChart);
+        grid.add(capacityChart);
+
+        JPanel content = new JPanel(new BorderLayout(0, JBUI.scale(8)));
+        content.setBorder(JBUI.Borders.empty(8));
+        content.add(summary, BorderLayout.NORTH);
+        content.add(grid, BorderLayout.CENTER);
+        add(new JBScrollPane(content), BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+        analyzers.keySet().removeIf(instance -> instance.getProcessHandler().isProcessTerminated());
+
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        if (instance == null) {
+            status.setText("No running Tomcat");
+            show(null);
+            return;
+        }
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+
+        GcLogAnalyzer analyzer = analyzers.computeIfAbsent(instance, GcLogAnalyzer::new);
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            GcLogAnalyzer.Summary summary = null;
+            String text;
+            try {
+                summary = analyzer.update();
+                text = summary == null
+                        ? "No GC log in " + instance.getLogsDir() + ", enable \"Write a GC log\" in the run configuration"
+                        : analyzer.getFile().getFileName() + ": " + summary.pauseCount() + " pauses";
+            } catch (IOException e) {
+                text = "Failed to read the GC log: " + e.getMessage();
+            } finally {
+                updating.set(false);
+            }
+
+            GcLogAnalyzer.Summary result = summary;
+            String statusText = text;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (instance == instanceSelector.getSelectedInstance()) {
+                    show(result);
+                    status.setText(statusText);
+                }
+            });
+        });
+    }
+
+    private void show(GcLogAnalyzer.Summary summary) {
+        if (summary == null) {
+            pauses.setText("");
+            rates.setText("");
+            heapChart.setSamples(List.of());
+            capacityChart.setSamples(List.of());
+            pauseChart.setSamples(List.of());
+            return;
+        }
+
+        pauses.setText(String.format("Pauses: %d, total %s ms, p50 %s ms, p95 %s ms, p99 %s ms, max %s ms, overhead %s %%",
+                summary.pauseCount(), format(summary.totalPauseMillis()), format(summary.p50()), format(summary.p95()),
+                format(summary.p99()), format(summary.max()), format(summary.pauseOverhead())));
+        rates.setText(String.format("Allocation rate: %s MB/s, promotion rate: %s MB/s",
+                format(summary.allocationRate() / MB), format(summary.promotionRate() / MB)));
+        heapChart.setSamples(summary.heapSamples());
+        capacityChart.setSamples(summary.heapSamples());
+        pauseChart.setSamples(summary.pauseSamples());
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "n/a" : String.format("%.1f", value);
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,243 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the lines of a unified GC log (-Xlog:gc*) decorated with the uptime and the tags, e.g.
+ * <pre>
+ * [2024-10-10T13:55:36.123+0200][12.345s][info][gc,heap] GC(7) Old regions: 12->14
+ * [2024-10-10T13:55:36.123+0200][12.345s][info][gc     ] GC(7) Pause Young (Normal) (G1 Evacuation Pause) 40M->16M(256M) 3.456ms
+ * </pre>
+ * and keeps the pause times, the allocated and promoted bytes, and the heap occupancy after each collection.
+ * G1, Parallel, Serial, Shenandoah and ZGC logs are understood.
+ */
+class GcLogParser {
+    private static final int MAX_PAUSES = 10_000;
+    private static final int MAX_SAMPLES = 2_000;
+    private static final Pattern UPTIME = Pattern.compile("\\[(\\d+[.,]\\d+)s]");
+    private static final Pattern GC_ID = Pattern.compile("GC\\((\\d+)\\)");
+    private static final Pattern PAUSE = Pattern.compile("\\bPause .*?(\\d+[.,]\\d+)ms$");
+    // 40M->16M(256M) for most collectors, 120M(12%)->40M(4%) for ZGC
+    private static final Pattern HEAP_TRANSITION = Pattern.compile("(\\d+)([BKMG])(?:\\(\\d+%\\))?->(\\d+)([BKMG])(?:\\((\\d+)([BKMG])\\)|\\(\\d+%\\))");
+    // ParOldGen: 8192K->10240K(175104K) before Java 17, ParOldGen: 8192K(175104K)->10240K(175104K) since
+    private static final Pattern OLD_GEN = Pattern.compile("^(?:ParOldGen|PSOldGen|Tenured): (\\d+)([BKMG])(?:\\(\\d+[BKMG]\\))?->(\\d+)([BKMG])");
+    private static final Pattern OLD_REGIONS = Pattern.compile("^Old regions: (\\d+)->(\\d+)");
+    private static final Pattern REGION_SIZE = Pattern.compile("(?i)Heap region size: (\\d+)([BKMG])");
+
+    static final String HEAP_AFTER_GC = "heapAfterGc";
+    static final String HEAP_CAPACITY = "heapCapacity";
+    static final String PAUSE_MILLIS = "pauseMillis";
+
+    private final double[] pauses = new double[MAX_PAUSES];
+    private final List<MetricsSample> heapSamples = new ArrayList<>();
+    private final List<MetricsSample> pauseSamples = new ArrayList<>();
+    private long pauseCount;
+    private double totalPauseMillis;
+    private double maxPauseMillis;
+    private double firstUptime = Double.NaN;
+    private double lastUptime = Double.NaN;
+    private long regionBytes;
+    private long previousHeapAfter = -1;
+    private long allocatedBytes;
+    private double firstCollectionUptime = Double.NaN;
+    private double lastCollectionUptime = Double.NaN;
+    private long promotedBytes;
+    private long oldGcId = -1;
+    private long oldBefore;
+    private long oldAfter;
+
+    void parse(String line) {
+        // The decorations are the leading bracketed fields, the tags are the last one
+        int messageStart = 0;
+        int tagsStart = -1;
+        while (messageStart < line.length() && line.charAt(messageStart) == '[') {
+            int end = line.indexOf(']', messageStart);
+            if (end < 0) {
+                return;
+            }
+            tagsStart = messageStart;
+            messageStart = end + 1;
+        }
+        if (tagsStart < 0) {
+            return;
+        }
+        String decorations = line.substring(0, messageStart);
+        String message = line.substring(messageStart).trim();
+        String tags = line.substring(tagsStart + 1, messageStart - 1).trim();
+
+        Matcher uptimeMatcher = UPTIME.matcher(decorations);
+        double uptime = uptimeMatcher.find() ? Double.parseDouble(uptimeMatcher.group(1).replace(',', '.')) : Double.NaN;
+        if (!Double.isNaN(uptime)) {
+            if (Double.isNaN(firstUptime)) {
+                firstUptime = uptime;
+            }
+            lastUptime = uptime;
+        }
+
+        Matcher regionSize = REGION_SIZE.matcher(message);
+        if (regionSize.find()) {
+            regionBytes = bytes(regionSize.group(1), regionSize.group(2));
+            return;
+        }
+
+        Matcher gcId = GC_ID.matcher(message);
+        if (!gcId.find()) {
+            return;
+        }
+        long id = Long.parseLong(gcId.group(1));
+        String event = message.substring(gcId.end()).trim();
+
+        if (tags.equals("gc,heap")) {
+            parseOldGeneration(id, event);
+        } else if (tags.equals("gc") || tags.equals("gc,phases")) {
+            Matcher pause = PAUSE.matcher(event);
+            if (pause.find()) {
+                addPause(Double.parseDouble(pause.group(1).replace(',', '.')), uptime);
+            }
+            if (tags.equals("gc")) {
+                parseHeapTransition(id, event, uptime);
+            }
+        }
+    }
+
+    private void parseOldGeneration(long id, String event) {
+        Matcher oldGen = OLD_GEN.matcher(event);
+        Matcher oldRegions = OLD_REGIONS.matcher(event);
+        if (oldGen.find()) {
+            oldGcId = id;
+            oldBefore = bytes(oldGen.group(1), oldGen.group(2));
+            oldAfter = bytes(oldGen.group(3), oldGen.group(4));
+        } else if (oldRegions.find() && regionBytes > 0) {
+            oldGcId = id;
+            oldBefore = Long.parseLong(oldRegions.group(1)) * regionBytes;
+            oldAfter = Long.parseLong(oldRegions.group(2)) * regionBytes;
+        }
+    }
+
+    private void parseHeapTransition(long id, String event, double uptime) {
+        Matcher transition = HEAP_TRANSITION.matcher(event);
+        if (!transition.find()) {
+            return;
+        }
+
+        long before = bytes(transition.group(1), transition.group(2));
+        long after = bytes(transition.group(3), transition.group(4));
+        long capacity = transition.group(5) != null ? bytes(transition.group(5), transition.group(6)) : -1;
+        if (previousHeapAfter >= 0 && before > previousHeapAfter) {
+            allocatedBytes += before - previousHeapAfter;
+        }
+        previousHeapAfter = after;
+        if (!Double.isNaN(uptime)) {
+            if (Double.isNaN(firstCollectionUptime)) {
+                firstCollectionUptime = uptime;
+            }
+            lastCollectionUptime = uptime;
+            Map<String, Double> values = new HashMap<>();
+            values.put(HEAP_AFTER_GC, (double) after);
+            if (capacity >= 0) {
+                values.put(HEAP_CAPACITY, (double) capacity);
+            }
+            addSample(heapSamples, new MetricsSample((long) (uptime * 1000), values));
+        }
+
+        // Objects promoted by young collections, the old generation shrinks in mixed and full collections
+        if (oldGcId == id && event.contains("Young") && oldAfter > oldBefore) {
+            promotedBytes += oldAfter - oldBefore;
+        }
+    }
+
+    private void addPause(double millis, double uptime) {
+        pauses[(int) (pauseCount % MAX_PAUSES)] = millis;
+        pauseCount++;
+        totalPauseMillis += millis;
+        maxPauseMillis = Math.max(maxPauseMillis, millis);
+        if (!Double.isNaN(uptime)) {
+            addSample(pauseSamples, new MetricsSample((long) (uptime * 1000), Map.of(PAUSE_MILLIS, millis)));
+        }
+    }
+
+    private static void addSample(List<MetricsSample> samples, MetricsSample sample) {
+        if (samples.size() == MAX_SAMPLES) {
+            samples.remove(0);
+        }
+        samples.add(sample);
+    }
+
+    private static long bytes(String value, String unit) {
+        long multiplier;
+        switch (unit) {
+            case "K": multiplier = 1024L; break;
+            case "M": multiplier = 1024L * 1024; break;
+            case "G": multiplier = 1024L * 1024 * 1024; break;
+            default: multiplier = 1;
+        }
+        return Long.parseLong(value) * multiplier;
+    }
+
+    long getPauseCount() {
+        return pauseCount;
+    }
+
+    double getTotalPauseMillis() {
+        return totalPauseMillis;
+    }
+
+    double getMaxPauseMillis() {
+        return maxPauseMillis;
+    }
+
+    /**
+     * @return the percentile of the latest {@link #MAX_PAUSES} pauses, or NaN if there was no pause
+     */
+    double getPausePercentile(double percentile) {
+        int count = (int) Math.min(pauseCount, MAX_PAUSES);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double[] sorted = Arrays.copyOf(pauses, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(count * percentile / 100);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    /**
+     * @return the share of the logged time spent in pauses, in percent
+     */
+    double getPauseOverhead() {
+        double elapsed = lastUptime - firstUptime;
+        return elapsed > 0 ? 100 * totalPauseMillis / 1000 / elapsed : Double.NaN;
+    }
+
+    /**
+     * @return the bytes allocated per second between the first and the last collections
+     */
+    double getAllocationRate() {
+        double elapsed = lastCollectionUptime - firstCollectionUptime;
+        return elapsed > 0 ? allocatedBytes / elapsed : Double.NaN;
+    }
+
+    /**
+     * @return the bytes promoted to the old generation per second between the first and the last collections
+     */
+    double getPromotionRate() {
+        double elapsed = lastCollectionUptime - firstCollectionUptime;
+        return elapsed > 0 ? promotedBytes / elapsed : Double.NaN;
+    }
+
+    /**
+     * @return the heap occupancy after the latest collections, and the heap capacity when it is logged
+     */
+    List<MetricsSample> getHeapSamples() {
+        return new ArrayList<>(heapSamples);
+    }
+
+    List<MetricsSample> getPauseSamples() {
+        return new ArrayList<>(pauseSamples);
+    }
+}
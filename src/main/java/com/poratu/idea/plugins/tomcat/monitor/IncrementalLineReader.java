@@ -0,0 +1,64 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the complete lines appended to a log file since the previous read. The reader keeps the offset of the next
+ * unread line, an incomplete last line is read again by the next read, and a line longer than the buffer is skipped.
+ */
+class IncrementalLineReader {
+    static final int BUFFER_SIZE = 256 * 1024;
+
+    interface LineConsumer {
+        /**
+         * @param end the offset of the line feed
+         */
+        void accept(byte[] buffer, int start, int end);
+    }
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long position;
+
+    /**
+     * @param position the offset of the next line to read, e.g. 0 when the file starts over
+     */
+    void setPosition(long position) {
+        this.position = position;
+    }
+
+    /**
+     * Reads the new complete lines of the file, a file shorter than the offset was truncated and is read from its start
+     */
+    void read(Path file, LineConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < position) {
+                position = 0;
+            }
+
+            byte[] bytes = buffer.array();
+            buffer.clear();
+            while (channel.read(buffer, position + buffer.position()) > 0) {
+                int lineStart = 0;
+                for (int i = 0; i < buffer.position(); i++) {
+                    if (bytes[i] == '\n') {
+                        consumer.accept(bytes, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (lineStart == 0 && !buffer.hasRemaining()) {
+                    // A line longer than the buffer, skip it
+                    lineStart = buffer.position();
+                }
+                position += lineStart;
+                // Keep the incomplete last line for the next read
+                System.arraycopy(bytes, lineStart, bytes, 0, buffer.position() - lineStart);
+                buffer.position(buffer.position() - lineStart);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Selects one of the running Tomcat instances of the project, shared by the tabs of the tool window
+ */
+class InstanceSelector extends ComboBox<TomcatInstance> {
+    private final Project project;
+
+    InstanceSelector(Project project) {
+        this.project = project;
+    }
+
+    @Nullable
+    TomcatInstance getSelectedInstance() {
+        return (TomcatInstance) getSelectedItem();
+    }
+
+    /**
+     * Synchronizes the items with the registered instances, keeps the selection or follows the latest launched instance
+     */
+    void update() {
+        List<TomcatInstance> instances = TomcatInstanceRegistry.getInstance(project).getInstances();
+        DefaultComboBoxModel<TomcatInstance> model = (DefaultComboBoxModel<TomcatInstance>) getModel();
+        boolean changed = model.getSize() != instances.size();
+        for (int i = 0; !changed && i < instances.size(); i++) {
+            changed = !Objects.equals(model.getElementAt(i), instances.get(i));
+        }
+        if (!changed) {
+            return;
+        }
+
+        Object selected = getSelectedItem();
+        model.removeAllElements();
+        instances.forEach(model::addElement);
+        if (selected != null && instances.contains(selected)) {
+            model.setSelectedItem(selected);
+        } else if (!instances.isEmpty()) {
+            model.setSelectedItem(instances.get(instances.size() - 1));
+        }
+    }
+}
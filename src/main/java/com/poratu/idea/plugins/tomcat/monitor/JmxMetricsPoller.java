@@ -0,0 +1,141 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Polls the Tomcat and platform MBeans through the loopback JMX agent of a running Tomcat.
+ * The MBean names are queried once per connection and refreshed periodically, since contexts are deployed after startup.
+ */
+class JmxMetricsPoller implements AutoCloseable {
+    private static final Logger LOG = Logger.getInstance(JmxMetricsPoller.class);
+    private static final int REFRESH_NAMES_EVERY = 15;
+
+    private final int jmxPort;
+    private JMXConnector connector;
+    private MBeanServerConnection connection;
+    private Set<ObjectName> threadPools;
+    private Set<ObjectName> requestProcessors;
+    private Set<ObjectName> managers;
+    private Set<ObjectName> collectors;
+    private ObjectName metaspace;
+    private int polls;
+
+    JmxMetricsPoller(int jmxPort) {
+        this.jmxPort = jmxPort;
+    }
+
+    /**
+     * @return the sample, or {@code null} if the JMX agent is not reachable (yet)
+     */
+    MetricsSample poll() {
+        try {
+            if (connection == null) {
+                connect();
+            }
+            if (polls++ % REFRESH_NAMES_EVERY == 0) {
+                queryNames();
+            }
+            return new MetricsSample(System.currentTimeMillis(), readValues());
+        } catch (IOException e) {
+            // Tomcat is starting or stopping
+            close();
+            return null;
+        } catch (Exception e) {
+            LOG.debug("Failed to poll the MBeans on port " + jmxPort, e);
+            return null;
+        }
+    }
+
+    private void connect() throws IOException {
+        JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + jmxPort + "/jmxrmi");
+        connector = JMXConnectorFactory.connect(url);
+        connection = connector.getMBeanServerConnection();
+        polls = 0;
+    }
+
+    private void queryNames() throws Exception {
+        threadPools = connection.queryNames(new ObjectName("Catalina:type=ThreadPool,*"), null);
+        requestProcessors = connection.queryNames(new ObjectName("Catalina:type=GlobalRequestProcessor,*"), null);
+        managers = connection.queryNames(new ObjectName("Catalina:type=Manager,*"), null);
+        collectors = connection.queryNames(new ObjectName("java.lang:type=GarbageCollector,*"), null);
+        Set<ObjectName> metaspaces = connection.queryNames(new ObjectName("java.lang:type=MemoryPool,name=Metaspace"), null);
+        metaspace = metaspaces.isEmpty() ? null : metaspaces.iterator().next();
+    }
+
+    private Map<String, Double> readValues() throws Exception {
+        Map<String, Double> values = new HashMap<>();
+        sum(values, threadPools, "ThreadPool", "currentThreadsBusy", "maxThreads");
+        sum(values, requestProcessors, "GlobalRequestProcessor", "requestCount", "errorCount", "bytesSent", "bytesReceived", "processingTime");
+        readActiveSessions(values);
+        sum(values, collectors, "GarbageCollector", "CollectionCount", "CollectionTime");
+
+        CompositeData heap = (CompositeData) connection.getAttribute(new ObjectName("java.lang:type=Memory"), "HeapMemoryUsage");
+        values.put(MetricsSample.HEAP_USED, ((Number) heap.get("used")).doubleValue());
+        values.put(MetricsSample.HEAP_MAX, ((Number) heap.get("max")).doubleValue());
+        if (metaspace != null) {
+            CompositeData usage = (CompositeData) connection.getAttribute(metaspace, "Usage");
+            values.put(MetricsSample.METASPACE_USED, ((Number) usage.get("used")).doubleValue());
+        }
+        Number loadedClasses = (Number) connection.getAttribute(new ObjectName("java.lang:type=ClassLoading"), "LoadedClassCount");
+        values.put(MetricsSample.LOADED_CLASSES, loadedClasses.doubleValue());
+        return values;
+    }
+
+    // One round trip per MBean, e.g. `GarbageCollector.CollectionCount` is stored as `GarbageCollector.collectionCount`
+    private void sum(Map<String, Double> values, Set<ObjectName> names, String type, String... attributes) throws Exception {
+        for (ObjectName name : names) {
+            AttributeList list = connection.getAttributes(name, attributes);
+            for (Attribute attribute : list.asList()) {
+                if (attribute.getValue() instanceof Number) {
+                    String key = type + "." + Character.toLowerCase(attribute.getName().charAt(0)) + attribute.getName().substring(1);
+                    values.merge(key, ((Number) attribute.getValue()).doubleValue(), Double::sum);
+                }
+            }
+        }
+    }
+
+    // The total of the node for the cluster table, and the sessions of each context, e.g. `Catalina:type=Manager,host=localhost,context=/shop`
+    private void readActiveSessions(Map<String, Double> values) throws Exception {
+        for (ObjectName name : managers) {
+            Object activeSessions = connection.getAttribute(name, "activeSessions");
+            if (activeSessions instanceof Number) {
+                double sessions = ((Number) activeSessions).doubleValue();
+                values.merge(MetricsSample.ACTIVE_SESSIONS, sessions, Double::sum);
+                String context = name.getKeyProperty("context");
+                if (context == null) {
+                    // Tomcat 6
+                    context = name.getKeyProperty("path");
+                }
+                if (context != null) {
+                    values.merge(MetricsSample.activeSessions(context), sessions, Double::sum);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connector != null) {
+            try {
+                connector.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+        connector = null;
+        connection = null;
+    }
+}
@@ -0,0 +1,170 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import com.poratu.idea.plugins.tomcat.perf.LaunchTrace;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The time spent in each stage of the latest launch on the plugin side, next to the startup time of Tomcat,
+ * with an export of the launch trace for bug reports
+ */
+public class LaunchDiagnosticsPanel extends JPanel implements Disposable {
+    private static final Logger LOG = Logger.getInstance(LaunchDiagnosticsPanel.class);
+    private static final int REFRESH_MILLIS = 5000;
+    private static final int MAX_OUTSIDE_EVENTS = 10;
+
+    private final Project project;
+    private final JBLabel status = new JBLabel();
+    private final ListTableModel<LaunchTrace.Event> model = new ListTableModel<>(
+            column("Stage", LaunchTrace.Event::stage),
+            column("Time (ms)", event -> String.format("%.1f", event.millis())),
+            column("Files", event -> String.valueOf(event.files())),
+            column("KB", event -> String.format("%.1f", event.bytes() / 1024.0))
+    );
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private long loadedModified = -1;
+    private int loadedPendingEvents = -1;
+
+    public LaunchDiagnosticsPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.project = project;
+
+        JButton export = new JButton("Export...");
+        export.addActionListener(e -> export());
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(export);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+        add(new JBScrollPane(new TableView<>(model)), BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        refresh();
+        timer.start();
+    }
+
+    private void refresh() {
+        Path file = LaunchTrace.getLogFile(project);
+        long modified = file == null ? 0 : file.toFile().lastModified();
+        int pendingEvents = LaunchTrace.getPendingEvents(project).size();
+        if (modified == loadedModified && pendingEvents == loadedPendingEvents) {
+            return;
+        }
+        loadedModified = modified;
+        loadedPendingEvents = pendingEvents;
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<LaunchTrace.Event> events;
+            try {
+                events = file != null && Files.exists(file) ? LaunchTrace.read(file) : new ArrayList<>();
+            } catch (IOException e) {
+                LOG.warn("Failed to read " + file, e);
+                events = new ArrayList<>();
+            }
+            events.addAll(LaunchTrace.getPendingEvents(project));
+            List<LaunchTrace.Event> loaded = events;
+            ApplicationManager.getApplication().invokeLater(() -> show(loaded));
+        });
+    }
+
+    private void show(List<LaunchTrace.Event> events) {
+        String launch = null;
+        for (int i = events.size() - 1; i >= 0 && launch == null; i--) {
+            if (!events.get(i).launch().isEmpty()) {
+                launch = events.get(i).launch();
+            }
+        }
+
+        List<LaunchTrace.Event> rows = new ArrayList<>();
+        List<LaunchTrace.Event> outside = new ArrayList<>();
+        long start = Long.MAX_VALUE;
+        double end = 0;
+        double tomcatMillis = Double.NaN;
+        String configuration = null;
+        for (LaunchTrace.Event event : events) {
+            if (event.launch().isEmpty()) {
+                outside.add(event);
+            } else if (event.launch().equals(launch)) {
+                rows.add(event);
+                configuration = event.configuration();
+                if (LaunchTrace.TOMCAT_STARTUP.equals(event.stage())) {
+                    tomcatMillis = event.millis();
+                } else {
+                    start = Math.min(start, event.timestamp());
+                    end = Math.max(end, event.timestamp() + event.millis());
+                }
+            }
+        }
+        // The searches of the web roots by the editor actions, latest first
+        for (int i = outside.size() - 1; i >= Math.max(0, outside.size() - MAX_OUTSIDE_EVENTS); i--) {
+            rows.add(outside.get(i));
+        }
+        model.setItems(rows);
+
+        if (launch == null) {
+            status.setText("No launch recorded yet");
+        } else {
+            status.setText(String.format("%s, launched at %s: plugin %.0f ms, Tomcat %s", configuration,
+                    new SimpleDateFormat("HH:mm:ss").format(new Date(start)), end - start,
+                    Double.isNaN(tomcatMillis) ? "not started" : String.format("%.0f ms", tomcatMillis)));
+        }
+    }
+
+    private void export() {
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Launch Trace",
+                "Save the launch trace of Smart Tomcat, e.g. to attach it to a bug report", "jsonl");
+        VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project)
+                .save(LaunchTrace.FILE_NAME);
+        if (target == null) {
+            return;
+        }
+
+        Path path = target.getFile().toPath();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                LaunchTrace.export(project, path);
+            } catch (IOException e) {
+                ApplicationManager.getApplication().invokeLater(() ->
+                        Messages.showErrorDialog(project, e.getMessage(), "Failed to Export the Launch Trace"));
+            }
+        });
+    }
+
+    private static ColumnInfo<LaunchTrace.Event, String> column(String name, Function<LaunchTrace.Event, String> valueFunction) {
+        return new ColumnInfo<>(name) {
+            @Override
+            public @Nullable String valueOf(LaunchTrace.Event event) {
+                return valueFunction.apply(event);
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
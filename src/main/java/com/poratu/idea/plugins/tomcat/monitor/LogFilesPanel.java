@@ -0,0 +1,188 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.poratu.idea.plugins.tomcat.conf.TomcatLogFile;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.logs.LogLevel;
+import com.poratu.idea.plugins.tomcat.logs.LogPagerPanel;
+import com.poratu.idea.plugins.tomcat.logs.RotatedLogSource;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+
+/**
+ * Pages through the whole history of a log of the selected running Tomcat instance, all its rotated files at once.
+ * The files are memory mapped and indexed in the background, so logs of several gigabytes are never loaded in the heap.
+ */
+public class LogFilesPanel extends JPanel implements Disposable {
+    private static final Logger LOG = Logger.getInstance(LogFilesPanel.class);
+    private static final int REFRESH_MILLIS = 2000;
+    private static final DateTimeFormatter TIME_FORMAT = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd[ HH:mm[:ss]]")
+            .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+            .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+            .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+            .toFormatter();
+
+    private final Project project;
+    private final InstanceSelector instanceSelector;
+    private final ComboBox<TomcatLogFile> logSelector = new ComboBox<>();
+    private final ComboBox<LogLevel> levelSelector = new ComboBox<>();
+    private final JBTextField timeField = new JBTextField(14);
+    private final JBLabel status = new JBLabel();
+    private final JPanel content = new JPanel(new BorderLayout());
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private Path logsDir;
+    private RotatedLogSource source;
+    private LogPagerPanel pager;
+    private Disposable pagerDisposable;
+
+    public LogFilesPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.project = project;
+        this.instanceSelector = new InstanceSelector(project);
+
+        TomcatRunConfiguration.getTomcatLogFiles().forEach(logSelector::addItem);
+        logSelector.setRenderer(SimpleListCellRenderer.create("", TomcatLogFile::getId));
+        logSelector.addActionListener(e -> showLog());
+
+        // The null item shows all the lines
+        levelSelector.addItem(null);
+        for (LogLevel level : LogLevel.values()) {
+            levelSelector.addItem(level);
+        }
+        levelSelector.setRenderer(SimpleListCellRenderer.create("All levels", LogLevel::toString));
+        levelSelector.addActionListener(e -> {
+            if (source != null) {
+                source.setMinLevel((LogLevel) levelSelector.getSelectedItem());
+                pager.reload();
+            }
+        });
+
+        timeField.getEmptyText().setText("yyyy-MM-dd HH:mm:ss");
+        timeField.addActionListener(e -> goToTime());
+        JButton goToTime = new JButton("Go to Time");
+        goToTime.addActionListener(e -> goToTime());
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(new JBLabel("Log:"));
+        header.add(logSelector);
+        header.add(new JBLabel("Level:"));
+        header.add(levelSelector);
+        header.add(timeField);
+        header.add(goToTime);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+        add(content, BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        refresh();
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+        // The log of a stopped Tomcat stays open until another one is selected
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        if (instance != null && !instance.getLogsDir().equals(logsDir)) {
+            logsDir = instance.getLogsDir();
+            showLog();
+        } else if (logsDir == null) {
+            status.setText("No running Tomcat");
+        }
+
+        if (source != null) {
+            int files = source.getFiles().size();
+            status.setText(files == 0 ? "No " + getSelectedLog().getFilename() + ".* file in " + logsDir
+                    : files + (files == 1 ? " file, " : " files, ") + source.getLineCount() + " lines");
+        }
+    }
+
+    private TomcatLogFile getSelectedLog() {
+        return (TomcatLogFile) logSelector.getSelectedItem();
+    }
+
+    private void showLog() {
+        if (pagerDisposable != null) {
+            Disposer.dispose(pagerDisposable);
+        }
+        content.removeAll();
+        source = null;
+        pager = null;
+        pagerDisposable = null;
+
+        TomcatLogFile log = getSelectedLog();
+        if (logsDir != null && log != null) {
+            source = new RotatedLogSource(logsDir, log.getFilename());
+            source.setMinLevel((LogLevel) levelSelector.getSelectedItem());
+            pagerDisposable = Disposer.newDisposable();
+            Disposer.register(this, pagerDisposable);
+            Disposer.register(pagerDisposable, source);
+            pager = new LogPagerPanel(project, source, pagerDisposable);
+            content.add(pager, BorderLayout.CENTER);
+        }
+        content.revalidate();
+        content.repaint();
+    }
+
+    private void goToTime() {
+        if (source == null) {
+            return;
+        }
+        long epochMillis;
+        try {
+            epochMillis = LocalDateTime.parse(timeField.getText().trim(), TIME_FORMAT)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            status.setText("Enter the time as yyyy-MM-dd HH:mm:ss");
+            return;
+        }
+
+        RotatedLogSource logSource = source;
+        LogPagerPanel logPager = pager;
+        new Task.Backgroundable(project, "Seeking the log", true) {
+            private int line = -1;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    line = logSource.findTime(epochMillis);
+                } catch (IOException e) {
+                    LOG.warn("Failed to seek the log", e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (logPager == pager && line >= 0) {
+                    logPager.select(line);
+                }
+            }
+        }.queue();
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,104 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.execution.RunManagerListener;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterNode;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.shared.LoggingControl;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies the logger levels of a run configuration to its running Tomcat instances when the configuration is changed,
+ * through the logging MBean of the agent on the loopback JMX port, so a level change does not need a restart
+ */
+public class LoggingLevelsUpdater implements RunManagerListener {
+    private static final Logger LOG = Logger.getInstance(LoggingLevelsUpdater.class);
+    private static final String NOTIFICATION_GROUP = "com.poratu.idea.plugins.tomcat";
+    private static final String[] SET_LEVEL_SIGNATURE = {String.class.getName(), String.class.getName()};
+
+    private final Project project;
+
+    public LoggingLevelsUpdater(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void runConfigurationChanged(@NotNull RunnerAndConfigurationSettings settings) {
+        if (!(settings.getConfiguration() instanceof TomcatRunConfiguration configuration) || !configuration.isManagedLogging()) {
+            return;
+        }
+
+        Map<String, String> levels = new LinkedHashMap<>(configuration.getLoggingLevels());
+        for (TomcatInstance instance : TomcatInstanceRegistry.getInstance(project).getInstances()) {
+            Map<String, String> applied = instance.getLoggingLevels();
+            if (applied == null || applied.equals(levels) || !isLaunchedFrom(instance, configuration)
+                    || instance.getProcessHandler().isProcessTerminated()) {
+                continue;
+            }
+            ApplicationManager.getApplication().executeOnPooledThread(() -> apply(instance, applied, levels));
+        }
+    }
+
+    // The nodes of a cluster are launched from copies of the run configuration
+    private static boolean isLaunchedFrom(TomcatInstance instance, TomcatRunConfiguration configuration) {
+        ClusterNode clusterNode = instance.getConfiguration().getClusterNode();
+        String name = clusterNode != null ? clusterNode.clusterName() : instance.getConfiguration().getName();
+        return name.equals(configuration.getName());
+    }
+
+    private void apply(TomcatInstance instance, Map<String, String> applied, Map<String, String> levels) {
+        Integer jmxPort = instance.getJmxPort();
+        if (jmxPort == null) {
+            notify("The logger levels of " + instance + " apply on the next launch, set a JMX port to apply them to the running Tomcat",
+                    NotificationType.WARNING);
+            return;
+        }
+
+        JMXServiceURL url;
+        try {
+            url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + jmxPort + "/jmxrmi");
+        } catch (IOException e) {
+            LOG.error(e);
+            return;
+        }
+        try (JMXConnector connector = JMXConnectorFactory.connect(url)) {
+            MBeanServerConnection connection = connector.getMBeanServerConnection();
+            ObjectName name = new ObjectName(LoggingControl.OBJECT_NAME);
+            for (String logger : applied.keySet()) {
+                if (!levels.containsKey(logger)) {
+                    connection.invoke(name, LoggingControl.SET_LEVEL, new Object[]{logger.trim(), ""}, SET_LEVEL_SIGNATURE);
+                }
+            }
+            for (Map.Entry<String, String> entry : levels.entrySet()) {
+                if (!Objects.equals(applied.get(entry.getKey()), entry.getValue())) {
+                    connection.invoke(name, LoggingControl.SET_LEVEL, new Object[]{entry.getKey().trim(), entry.getValue()}, SET_LEVEL_SIGNATURE);
+                }
+            }
+            instance.setLoggingLevels(levels);
+        } catch (IOException | JMException e) {
+            LOG.info("Failed to apply the logger levels to " + instance, e);
+            notify("Failed to apply the logger levels to " + instance + ": " + e.getMessage(), NotificationType.ERROR);
+        }
+    }
+
+    private void notify(String content, NotificationType type) {
+        Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "Smart Tomcat logging", content, type), project);
+    }
+}
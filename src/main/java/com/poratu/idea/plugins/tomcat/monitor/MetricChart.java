@@ -0,0 +1,182 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A minimal line chart of one metric over the samples of a {@link MetricsHistory}, or of one line per instance of
+ * the metric, e.g. the sessions of each context
+ */
+class MetricChart extends JComponent {
+
+    /**
+     * Computes the charted value from a sample and its predecessor, the predecessor is {@code null} for the first sample
+     */
+    interface ValueFunction {
+        double apply(MetricsSample previous, MetricsSample current);
+    }
+
+    /**
+     * The lines of the chart by name, from the keys of the samples
+     */
+    interface SeriesFunction {
+        Map<String, ValueFunction> apply(List<MetricsSample> samples);
+    }
+
+    private static final Color[] SERIES_COLORS = {JBColor.BLUE, JBColor.ORANGE, JBColor.GREEN, JBColor.MAGENTA, JBColor.CYAN, JBColor.RED};
+
+    private final String title;
+    private final String unit;
+    private final SeriesFunction series;
+    private List<MetricsSample> samples = Collections.emptyList();
+
+    MetricChart(String title, String unit, ValueFunction function) {
+        this(title, unit, samples -> Map.of("", function));
+    }
+
+    private MetricChart(String title, String unit, SeriesFunction series) {
+        this.title = title;
+        this.unit = unit;
+        this.series = series;
+        setPreferredSize(JBUI.size(320, 140));
+    }
+
+    static MetricChart gauge(String title, String unit, String key, double scale) {
+        return new MetricChart(title, unit, (previous, current) -> current.get(key) / scale);
+    }
+
+    static MetricChart rate(String title, String unit, String key, double scale) {
+        return new MetricChart(title, unit, (previous, current) ->
+                previous == null ? Double.NaN : current.ratePerSecond(previous, key) / scale);
+    }
+
+    /**
+     * One line per key starting with the prefix, named by the rest of the key
+     */
+    static MetricChart gauges(String title, String unit, String keyPrefix, double scale) {
+        return new MetricChart(title, unit, samples -> {
+            Map<String, ValueFunction> series = new TreeMap<>();
+            for (MetricsSample sample : samples) {
+                for (String key : sample.keys()) {
+                    if (key.startsWith(keyPrefix)) {
+                        series.computeIfAbsent(key.substring(keyPrefix.length()),
+                                name -> (previous, current) -> current.get(key) / scale);
+                    }
+                }
+            }
+            return series;
+        });
+    }
+
+    void setSamples(List<MetricsSample> samples) {
+        this.samples = samples;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            paintChart(g2);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void paintChart(Graphics2D g) {
+        int width = getWidth();
+        int height = getHeight();
+        g.setColor(UIUtil.getPanelBackground());
+        g.fillRect(0, 0, width, height);
+
+        Map<String, ValueFunction> functions = series.apply(samples);
+        List<double[]> lines = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        double max = 0;
+        for (Map.Entry<String, ValueFunction> entry : functions.entrySet()) {
+            double[] values = new double[samples.size()];
+            double last = Double.NaN;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = entry.getValue().apply(i == 0 ? null : samples.get(i - 1), samples.get(i));
+                if (!Double.isNaN(values[i])) {
+                    max = Math.max(max, values[i]);
+                    last = values[i];
+                }
+            }
+            lines.add(values);
+            String value = Double.isNaN(last) ? "n/a" : format(last) + " " + unit;
+            labels.add(entry.getKey().isEmpty() ? value : entry.getKey() + " " + value);
+        }
+
+        FontMetrics metrics = g.getFontMetrics();
+        int top = metrics.getHeight() + JBUI.scale(4);
+        int bottom = height - JBUI.scale(4);
+        int left = JBUI.scale(4);
+        int right = width - JBUI.scale(4);
+
+        // With several lines, each label has the color of its line
+        g.setColor(UIUtil.getLabelForeground());
+        String header = title + ":";
+        g.drawString(labels.isEmpty() ? header + " n/a" : header, left, metrics.getAscent());
+        int x = left + metrics.stringWidth(header);
+        for (int i = 0; i < labels.size(); i++) {
+            if (lines.size() > 1) {
+                g.setColor(seriesColor(i));
+            }
+            String label = " " + labels.get(i);
+            g.drawString(label, x, metrics.getAscent());
+            x += metrics.stringWidth(label);
+        }
+        g.setColor(UIUtil.getContextHelpForeground());
+        String scale = "max " + format(max);
+        g.drawString(scale, right - metrics.stringWidth(scale), metrics.getAscent());
+
+        g.setColor(JBColor.border());
+        g.drawRect(left, top, right - left, bottom - top);
+        if (samples.size() < 2 || max <= 0) {
+            return;
+        }
+
+        double step = (double) (right - left) / (samples.size() - 1);
+        for (int line = 0; line < lines.size(); line++) {
+            double[] values = lines.get(line);
+            Path2D path = new Path2D.Double();
+            boolean started = false;
+            for (int i = 0; i < values.length; i++) {
+                if (Double.isNaN(values[i])) {
+                    started = false;
+                    continue;
+                }
+                double px = left + i * step;
+                double py = bottom - (bottom - top) * values[i] / max;
+                if (started) {
+                    path.lineTo(px, py);
+                } else {
+                    path.moveTo(px, py);
+                    started = true;
+                }
+            }
+            g.setColor(seriesColor(line));
+            g.draw(path);
+        }
+    }
+
+    private static Color seriesColor(int line) {
+        return SERIES_COLORS[line % SERIES_COLORS.length];
+    }
+
+    private static String format(double value) {
+        return value >= 100 || value == Math.rint(value) ? String.format("%.0f", value) : String.format("%.2f", value);
+    }
+}
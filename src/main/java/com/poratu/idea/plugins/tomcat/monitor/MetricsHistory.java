@@ -0,0 +1,39 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounded ring buffer of the metrics samples of one run, the oldest samples are overwritten
+ */
+public class MetricsHistory {
+    private final MetricsSample[] samples;
+    private int next;
+    private int size;
+
+    public MetricsHistory(int capacity) {
+        this.samples = new MetricsSample[Math.max(2, capacity)];
+    }
+
+    public synchronized void add(MetricsSample sample) {
+        samples[next] = sample;
+        next = (next + 1) % samples.length;
+        size = Math.min(size + 1, samples.length);
+    }
+
+    /**
+     * @return the samples from the oldest to the latest
+     */
+    public synchronized List<MetricsSample> snapshot() {
+        List<MetricsSample> result = new ArrayList<>(size);
+        int first = (next - size + samples.length) % samples.length;
+        for (int i = 0; i < size; i++) {
+            result.add(samples[(first + i) % samples.length]);
+        }
+        return result;
+    }
+
+    public synchronized MetricsSample latest() {
+        return size == 0 ? null : samples[(next - 1 + samples.length) % samples.length];
+    }
+}
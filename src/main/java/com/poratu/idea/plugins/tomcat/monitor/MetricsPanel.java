@@ -0,0 +1,89 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Charts the JMX metrics of the selected running Tomcat instance
+ */
+public class MetricsPanel extends JPanel implements Disposable {
+    private static final double MB = 1024 * 1024;
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final InstanceSelector instanceSelector;
+    private final JBLabel status = new JBLabel();
+    private final List<MetricChart> charts = Arrays.asList(
+            MetricChart.gauge("Busy threads", "", MetricsSample.THREADS_BUSY, 1),
+            MetricChart.gauge("Max threads", "", MetricsSample.THREADS_MAX, 1),
+            MetricChart.rate("Requests", "/s", MetricsSample.REQUEST_COUNT, 1),
+            MetricChart.rate("Errors", "/s", MetricsSample.ERROR_COUNT, 1),
+            new MetricChart("Avg processing time", "ms", MetricsPanel::averageProcessingTime),
+            MetricChart.rate("Bytes sent", "KB/s", MetricsSample.BYTES_SENT, 1024),
+            MetricChart.rate("Bytes received", "KB/s", MetricsSample.BYTES_RECEIVED, 1024),
+            MetricChart.gauges("Active sessions", "", MetricsSample.CONTEXT_ACTIVE_SESSIONS, 1),
+            MetricChart.gauge("Heap used", "MB", MetricsSample.HEAP_USED, MB),
+            MetricChart.gauge("Metaspace used", "MB", MetricsSample.METASPACE_USED, MB),
+            MetricChart.rate("GC time", "ms/s", MetricsSample.GC_TIME, 1),
+            MetricChart.gauge("Loaded classes", "", MetricsSample.LOADED_CLASSES, 1)
+    );
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public MetricsPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.instanceSelector = new InstanceSelector(project);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+
+        JPanel grid = new JPanel(new GridLayout(0, 3, JBUI.scale(8), JBUI.scale(8)));
+        grid.setBorder(JBUI.Borders.empty(8));
+        charts.forEach(grid::add);
+        add(new JBScrollPane(grid), BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        List<MetricsSample> samples = instance == null ? List.of() : instance.getHistory().snapshot();
+        if (instance == null) {
+            status.setText("No running Tomcat");
+        } else if (instance.getJmxPort() == null) {
+            status.setText("Set a JMX port in the run configuration to collect metrics");
+        } else if (samples.isEmpty()) {
+            status.setText("Connecting to JMX port " + instance.getJmxPort() + "...");
+        } else {
+            status.setText(samples.size() + " samples");
+        }
+        charts.forEach(chart -> chart.setSamples(samples));
+    }
+
+    private static double averageProcessingTime(MetricsSample previous, MetricsSample current) {
+        if (previous == null) {
+            return Double.NaN;
+        }
+        double requests = current.get(MetricsSample.REQUEST_COUNT) - previous.get(MetricsSample.REQUEST_COUNT);
+        double time = current.get(MetricsSample.PROCESSING_TIME) - previous.get(MetricsSample.PROCESSING_TIME);
+        return requests > 0 ? time / requests : 0;
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
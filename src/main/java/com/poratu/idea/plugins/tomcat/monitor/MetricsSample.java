@@ -0,0 +1,64 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The values of the polled MBean attributes at one point in time, keyed by e.g. `GlobalRequestProcessor.requestCount`.
+ * Values of MBeans with several instances (connectors, contexts, collectors) are summed up, the active sessions are also
+ * kept per context.
+ */
+public class MetricsSample {
+    public static final String THREADS_BUSY = "ThreadPool.currentThreadsBusy";
+    public static final String THREADS_MAX = "ThreadPool.maxThreads";
+    public static final String REQUEST_COUNT = "GlobalRequestProcessor.requestCount";
+    public static final String ERROR_COUNT = "GlobalRequestProcessor.errorCount";
+    public static final String BYTES_SENT = "GlobalRequestProcessor.bytesSent";
+    public static final String BYTES_RECEIVED = "GlobalRequestProcessor.bytesReceived";
+    public static final String PROCESSING_TIME = "GlobalRequestProcessor.processingTime";
+    public static final String ACTIVE_SESSIONS = "Manager.activeSessions";
+    public static final String CONTEXT_ACTIVE_SESSIONS = ACTIVE_SESSIONS + ".";
+    public static final String HEAP_USED = "Memory.heapUsed";
+    public static final String HEAP_MAX = "Memory.heapMax";
+    public static final String METASPACE_USED = "MemoryPool.metaspaceUsed";
+    public static final String GC_COUNT = "GarbageCollector.collectionCount";
+    public static final String GC_TIME = "GarbageCollector.collectionTime";
+    public static final String LOADED_CLASSES = "ClassLoading.loadedClassCount";
+
+    private final long timestamp;
+    private final Map<String, Double> values;
+
+    public MetricsSample(long timestamp, Map<String, Double> values) {
+        this.timestamp = timestamp;
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @return the key of the active sessions of one context, e.g. `Manager.activeSessions./shop`
+     */
+    public static String activeSessions(String context) {
+        return CONTEXT_ACTIVE_SESSIONS + context;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double get(String key) {
+        Double value = values.get(key);
+        return value == null ? Double.NaN : value;
+    }
+
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    /**
+     * @return the change per second of a counter since the previous sample
+     */
+    public double ratePerSecond(MetricsSample previous, String key) {
+        double seconds = (timestamp - previous.timestamp) / 1000.0;
+        return seconds <= 0 ? Double.NaN : (get(key) - previous.get(key)) / seconds;
+    }
+}
@@ -0,0 +1,163 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.configurations.ConfigurationTypeUtil;
+import com.intellij.execution.configurations.RunConfiguration;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfigurationType;
+import com.poratu.idea.plugins.tomcat.perf.PerfHistory;
+import com.poratu.idea.plugins.tomcat.perf.PerfRecorder;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Charts the performance history of a run configuration, one point per recorded run
+ */
+public class PerfHistoryPanel extends JPanel implements Disposable {
+    private static final Logger LOG = Logger.getInstance(PerfHistoryPanel.class);
+    private static final int REFRESH_MILLIS = 5000;
+
+    private final Project project;
+    private final ComboBox<TomcatRunConfiguration> configurationSelector = new ComboBox<>();
+    private final JBLabel status = new JBLabel();
+    private final Map<String, MetricChart> charts = new LinkedHashMap<>();
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+    private Path loadedFile;
+    private long loadedModified;
+
+    public PerfHistoryPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.project = project;
+        charts.put(PerfHistory.STARTUP_MILLIS, MetricChart.gauge("Startup time", "ms", PerfHistory.STARTUP_MILLIS, 1));
+        charts.put(PerfHistory.LOAD_P95_MILLIS, MetricChart.gauge("Load test p95", "ms", PerfHistory.LOAD_P95_MILLIS, 1));
+        charts.put(PerfHistory.LOAD_THROUGHPUT, MetricChart.gauge("Load test throughput", "req/s", PerfHistory.LOAD_THROUGHPUT, 1));
+        charts.put(PerfHistory.LOAD_ERROR_RATE, MetricChart.gauge("Load test errors", "%", PerfHistory.LOAD_ERROR_RATE, 0.01));
+
+        configurationSelector.setRenderer(SimpleListCellRenderer.create("", RunConfiguration::getName));
+        configurationSelector.addActionListener(e -> {
+            loadedFile = null;
+            refresh();
+        });
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Run configuration:"));
+        header.add(configurationSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+
+        JPanel grid = new JPanel(new GridLayout(0, 2, JBUI.scale(8), JBUI.scale(8)));
+        grid.setBorder(JBUI.Borders.empty(8));
+        charts.values().forEach(grid::add);
+        add(new JBScrollPane(grid), BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        updateConfigurations();
+        timer.start();
+    }
+
+    private void updateConfigurations() {
+        List<TomcatRunConfiguration> configurations = new ArrayList<>();
+        for (RunConfiguration configuration : RunManager.getInstance(project)
+                .getConfigurationsList(ConfigurationTypeUtil.findConfigurationType(TomcatRunConfigurationType.class))) {
+            configurations.add((TomcatRunConfiguration) configuration);
+        }
+
+        DefaultComboBoxModel<TomcatRunConfiguration> model = (DefaultComboBoxModel<TomcatRunConfiguration>) configurationSelector.getModel();
+        boolean changed = model.getSize() != configurations.size();
+        for (int i = 0; !changed && i < configurations.size(); i++) {
+            changed = !Objects.equals(model.getElementAt(i), configurations.get(i));
+        }
+        if (changed) {
+            Object selected = configurationSelector.getSelectedItem();
+            model.removeAllElements();
+            configurations.forEach(model::addElement);
+            if (selected != null && configurations.contains(selected)) {
+                model.setSelectedItem(selected);
+            } else if (!configurations.isEmpty()) {
+                model.setSelectedItem(configurations.get(0));
+            }
+        }
+    }
+
+    private void refresh() {
+        updateConfigurations();
+
+        TomcatRunConfiguration configuration = (TomcatRunConfiguration) configurationSelector.getSelectedItem();
+        PerfHistory history = configuration == null ? null : PerfRecorder.getHistory(configuration);
+        if (history == null) {
+            status.setText("No run configuration");
+            showEntries(List.of());
+            return;
+        }
+
+        Path file = history.getFile();
+        long modified = file.toFile().lastModified();
+        if (file.equals(loadedFile) && modified == loadedModified) {
+            return;
+        }
+        loadedFile = file;
+        loadedModified = modified;
+
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<PerfHistory.Entry> entries;
+            try {
+                entries = Files.exists(file) ? history.read() : List.of();
+            } catch (IOException e) {
+                LOG.warn("Failed to read " + file, e);
+                entries = List.of();
+            }
+            List<PerfHistory.Entry> loaded = entries;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (file.equals(loadedFile)) {
+                    showEntries(loaded);
+                }
+            });
+        });
+    }
+
+    private void showEntries(List<PerfHistory.Entry> entries) {
+        Map<String, List<MetricsSample>> samples = new LinkedHashMap<>();
+        charts.keySet().forEach(metric -> samples.put(metric, new ArrayList<>()));
+        for (PerfHistory.Entry entry : entries) {
+            List<MetricsSample> metricSamples = samples.get(entry.metric());
+            if (metricSamples != null) {
+                metricSamples.add(new MetricsSample(entry.timestamp(), Map.of(entry.metric(), entry.value())));
+            }
+        }
+        charts.forEach((metric, chart) -> chart.setSamples(samples.get(metric)));
+
+        if (entries.isEmpty()) {
+            status.setText("No recorded run");
+        } else {
+            PerfHistory.Entry latest = entries.get(entries.size() - 1);
+            status.setText(entries.size() + " measurements, latest at revision "
+                    + (latest.revision().isEmpty() ? "n/a" : latest.revision())
+                    + ", Tomcat " + latest.tomcatVersion() + ", JDK " + latest.jdk()
+                    + (latest.options().isEmpty() ? "" : ", " + latest.options()));
+        }
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,135 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The latency percentiles and the throughput of each servlet of the selected running Tomcat instance.
+ * A double click navigates to the servlet class.
+ */
+public class RequestMetricsPanel extends JPanel implements Disposable {
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final Project project;
+    private final InstanceSelector instanceSelector;
+    private final JBLabel status = new JBLabel();
+    private final ListTableModel<Row> model = new ListTableModel<>(
+            column("Context", row -> row.metrics.getContextPath()),
+            column("Servlet", row -> row.metrics.getServletName()),
+            column("Mappings", row -> String.join(", ", row.metrics.getMappings())),
+            column("Requests", row -> String.valueOf(row.metrics.getCount())),
+            column("req/s", row -> format(row.throughput)),
+            column("Mean (ms)", row -> format(row.metrics.getMeanMillis())),
+            column("p50 (ms)", row -> format(row.metrics.getPercentileMillis(50))),
+            column("p95 (ms)", row -> format(row.metrics.getPercentileMillis(95))),
+            column("p99 (ms)", row -> format(row.metrics.getPercentileMillis(99)))
+    );
+    private final TableView<Row> table = new TableView<>(model);
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public RequestMetricsPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.project = project;
+        this.instanceSelector = new InstanceSelector(project);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+        add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        new DoubleClickListener() {
+            @Override
+            protected boolean onDoubleClick(@NotNull MouseEvent event) {
+                Row row = table.getSelectedObject();
+                if (row == null || row.metrics.getServletClass() == null) {
+                    return false;
+                }
+                SourceNavigator.navigate(project, row.metrics.getServletClass(), -1, status::setText);
+                return true;
+            }
+        }.installOn(table);
+
+        Disposer.register(parent, this);
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        RequestMetricsServer server = instance == null ? null : instance.getRequestMetrics();
+        if (instance == null) {
+            status.setText("No running Tomcat");
+        } else if (server == null) {
+            status.setText("Enable the request metrics in the run configuration to record the latency per servlet");
+        } else {
+            status.setText("Double-click a row to open the servlet class");
+        }
+
+        List<Row> rows = new ArrayList<>();
+        if (server != null) {
+            RequestMetricsServer.Snapshot latest = server.getLatest();
+            RequestMetricsServer.Snapshot previous = server.getPrevious();
+            for (ServletRequestMetrics metrics : latest.getServlets().values()) {
+                rows.add(new Row(metrics, latest.getThroughput(previous, metrics)));
+            }
+            rows.sort(Comparator.comparingLong((Row row) -> row.metrics.getCount()).reversed());
+        }
+
+        Row selected = table.getSelectedObject();
+        model.setItems(rows);
+        if (selected != null) {
+            rows.stream()
+                    .filter(row -> row.metrics.getKey().equals(selected.metrics.getKey()))
+                    .findFirst()
+                    .ifPresent(row -> table.setSelection(List.of(row)));
+        }
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "" : String.format("%.1f", value);
+    }
+
+    private static ColumnInfo<Row, String> column(String name, Function<Row, String> valueFunction) {
+        return new ColumnInfo<>(name) {
+            @Override
+            public @Nullable String valueOf(Row row) {
+                return valueFunction.apply(row);
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+
+    private static final class Row {
+        private final ServletRequestMetrics metrics;
+        private final double throughput;
+
+        private Row(ServletRequestMetrics metrics, double throughput) {
+            this.metrics = metrics;
+            this.throughput = throughput;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.poratu.idea.plugins.tomcat.shared.MetricsProtocol;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the request latency histograms and the slow requests sent by the agent of one Tomcat, on a loopback port
+ */
+public class RequestMetricsServer implements Closeable {
+    private static final Logger LOG = Logger.getInstance(RequestMetricsServer.class);
+    private static final int MAX_SLOW_REQUESTS = 100;
+
+    private final ServerSocket serverSocket;
+    private final Deque<SlowRequest> slowRequests = new ArrayDeque<>();
+    private volatile Snapshot latest = new Snapshot(0, Collections.emptyMap());
+    private volatile Snapshot previous = latest;
+
+    public RequestMetricsServer() throws IOException {
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        ApplicationManager.getApplication().executeOnPooledThread(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                read(socket);
+            } catch (SocketException e) {
+                // closed
+            } catch (IOException e) {
+                LOG.debug("Failed to read the request metrics", e);
+            }
+        }
+    }
+
+    private void read(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Map<String, ServletRequestMetrics> servlets = new LinkedHashMap<>();
+        SlowRequest slowRequest = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (slowRequest != null && slowRequest.addStack(line)) {
+                continue;
+            }
+            if (slowRequest != null) {
+                addSlowRequest(slowRequest);
+                slowRequest = null;
+            }
+            if (line.startsWith(MetricsProtocol.SLOW_REQUEST)) {
+                slowRequest = SlowRequest.parse(line);
+                continue;
+            }
+
+            if (MetricsProtocol.END_OF_SNAPSHOT.equals(line)) {
+                previous = latest;
+                latest = new Snapshot(System.currentTimeMillis(), servlets);
+                servlets = new LinkedHashMap<>();
+                continue;
+            }
+
+            ServletRequestMetrics metrics = ServletRequestMetrics.parse(line);
+            if (metrics != null) {
+                servlets.put(metrics.getKey(), metrics);
+            }
+        }
+    }
+
+    private void addSlowRequest(SlowRequest slowRequest) {
+        synchronized (slowRequests) {
+            if (slowRequests.size() == MAX_SLOW_REQUESTS) {
+                slowRequests.removeFirst();
+            }
+            slowRequests.addLast(slowRequest);
+        }
+    }
+
+    /**
+     * @return the latest slow requests, the most recent first
+     */
+    public List<SlowRequest> getSlowRequests() {
+        synchronized (slowRequests) {
+            List<SlowRequest> result = new ArrayList<>(slowRequests);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    public Snapshot getLatest() {
+        return latest;
+    }
+
+    public Snapshot getPrevious() {
+        return previous;
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    public static class Snapshot {
+        private final long timestamp;
+        private final Map<String, ServletRequestMetrics> servlets;
+
+        Snapshot(long timestamp, Map<String, ServletRequestMetrics> servlets) {
+            this.timestamp = timestamp;
+            this.servlets = servlets;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public Map<String, ServletRequestMetrics> getServlets() {
+            return servlets;
+        }
+
+        /**
+         * @return the requests per second of the servlet since the previous snapshot
+         */
+        public double getThroughput(Snapshot previous, ServletRequestMetrics metrics) {
+            ServletRequestMetrics before = previous.servlets.get(metrics.getKey());
+            double seconds = (timestamp - previous.timestamp) / 1000.0;
+            if (before == null || previous.timestamp == 0 || seconds <= 0) {
+                return Double.NaN;
+            }
+            return (metrics.getCount() - before.getCount()) / seconds;
+        }
+    }
+}
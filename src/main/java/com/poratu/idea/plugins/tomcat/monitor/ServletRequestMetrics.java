@@ -0,0 +1,96 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.shared.LatencyHistogram;
+import com.poratu.idea.plugins.tomcat.shared.MetricsProtocol;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The cumulative latency histogram of one servlet, as received from the Tomcat agent
+ */
+public class ServletRequestMetrics {
+    private final String contextPath;
+    private final String servletName;
+    private final String servletClass;
+    private final List<String> mappings;
+    private final long count;
+    private final long totalMicros;
+    private final long[] buckets;
+
+    private ServletRequestMetrics(String contextPath, String servletName, String servletClass, List<String> mappings,
+                                  long count, long totalMicros, long[] buckets) {
+        this.contextPath = contextPath;
+        this.servletName = servletName;
+        this.servletClass = servletClass;
+        this.mappings = mappings;
+        this.count = count;
+        this.totalMicros = totalMicros;
+        this.buckets = buckets;
+    }
+
+    /**
+     * @return the metrics of a {@link MetricsProtocol#RECORD} line, or {@code null} if the line is malformed
+     */
+    @Nullable
+    static ServletRequestMetrics parse(String line) {
+        List<String> fields = StringUtil.split(line, String.valueOf(MetricsProtocol.SEPARATOR), true, false);
+        if (fields.size() != 8 || !MetricsProtocol.RECORD.equals(fields.get(0))) {
+            return null;
+        }
+
+        try {
+            long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+            for (String bucket : StringUtil.split(fields.get(7), ",")) {
+                int colon = bucket.indexOf(':');
+                int index = Integer.parseInt(bucket.substring(0, colon));
+                if (index >= 0 && index < buckets.length) {
+                    buckets[index] = Long.parseLong(bucket.substring(colon + 1));
+                }
+            }
+            return new ServletRequestMetrics(fields.get(1), fields.get(2), StringUtil.nullize(fields.get(3)),
+                    StringUtil.split(fields.get(4), MetricsProtocol.MAPPING_SEPARATOR),
+                    Long.parseLong(fields.get(5)), Long.parseLong(fields.get(6)), buckets);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public String getKey() {
+        return contextPath + '\t' + servletName;
+    }
+
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    public String getServletName() {
+        return servletName;
+    }
+
+    @Nullable
+    public String getServletClass() {
+        return servletClass;
+    }
+
+    public List<String> getMappings() {
+        return mappings;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return count == 0 ? Double.NaN : totalMicros / 1000.0 / count;
+    }
+
+    /**
+     * @return the percentile in milliseconds, or NaN if there are no requests
+     */
+    public double getPercentileMillis(double percentile) {
+        long micros = LatencyHistogram.valueAtPercentile(buckets, percentile);
+        return micros < 0 ? Double.NaN : micros / 1000.0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.shared.MetricsProtocol;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A request which exceeded the slow request threshold, with the stacks sampled until it completed
+ */
+public class SlowRequest {
+    private final long receivedAt = System.currentTimeMillis();
+    private final String contextPath;
+    private final String method;
+    private final String uri;
+    private final String threadName;
+    private final long durationMicros;
+    private final FlameNode root = new FlameNode("all");
+
+    private SlowRequest(String contextPath, String method, String uri, String threadName, long durationMicros) {
+        this.contextPath = contextPath;
+        this.method = method;
+        this.uri = uri;
+        this.threadName = threadName;
+        this.durationMicros = durationMicros;
+    }
+
+    /**
+     * @return the request of a {@link MetricsProtocol#SLOW_REQUEST} line, or {@code null} if the line is malformed
+     */
+    @Nullable
+    static SlowRequest parse(String line) {
+        List<String> fields = StringUtil.split(line, String.valueOf(MetricsProtocol.SEPARATOR), true, false);
+        if (fields.size() != 7 || !MetricsProtocol.SLOW_REQUEST.equals(fields.get(0))) {
+            return null;
+        }
+
+        try {
+            return new SlowRequest(fields.get(1), fields.get(2), fields.get(3), fields.get(4), Long.parseLong(fields.get(5)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds the folded stack of a {@link MetricsProtocol#STACK} line
+     */
+    boolean addStack(String line) {
+        List<String> fields = StringUtil.split(line, String.valueOf(MetricsProtocol.SEPARATOR), true, false);
+        if (fields.size() != 3 || !MetricsProtocol.STACK.equals(fields.get(0))) {
+            return false;
+        }
+
+        long count = StringUtil.parseLong(fields.get(1), 0);
+        root.add(StringUtil.split(fields.get(2), MetricsProtocol.FRAME_SEPARATOR), count);
+        return true;
+    }
+
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getDurationMillis() {
+        return durationMicros / 1000;
+    }
+
+    public FlameNode getFlameGraph() {
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + uri + " (" + getDurationMillis() + " ms, " + root.getSamples() + " samples)";
+    }
+}
@@ -0,0 +1,92 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Splitter;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.ui.CollectionListModel;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * The slow requests of the selected running Tomcat instance, and the flame graph of the stacks sampled during the selected one.
+ * A click on a frame navigates to its source line.
+ */
+public class SlowRequestsPanel extends JPanel implements Disposable {
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final Project project;
+    private final InstanceSelector instanceSelector;
+    private final JBLabel status = new JBLabel();
+    private final CollectionListModel<SlowRequest> requestsModel = new CollectionListModel<>();
+    private final JBList<SlowRequest> requestsList = new JBList<>(requestsModel);
+    private final FlameGraphComponent flameGraph = new FlameGraphComponent(this::navigateToFrame);
+    private final Timer timer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    public SlowRequestsPanel(Project project, Disposable parent) {
+        super(new BorderLayout());
+        this.project = project;
+        this.instanceSelector = new InstanceSelector(project);
+
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JBLabel("Tomcat:"));
+        header.add(instanceSelector);
+        header.add(status);
+        add(header, BorderLayout.NORTH);
+
+        requestsList.getEmptyText().setText("No slow requests");
+        requestsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        requestsList.addListSelectionListener(e -> flameGraph.setRoot(
+                requestsList.getSelectedValue() == null ? null : requestsList.getSelectedValue().getFlameGraph()));
+
+        Splitter splitter = new Splitter(false, 0.3f);
+        splitter.setFirstComponent(new JBScrollPane(requestsList));
+        splitter.setSecondComponent(new JBScrollPane(flameGraph));
+        add(splitter, BorderLayout.CENTER);
+
+        Disposer.register(parent, this);
+        timer.start();
+    }
+
+    private void refresh() {
+        instanceSelector.update();
+
+        TomcatInstance instance = instanceSelector.getSelectedInstance();
+        RequestMetricsServer server = instance == null ? null : instance.getRequestMetrics();
+        if (instance == null) {
+            status.setText("No running Tomcat");
+        } else if (server == null || instance.getConfiguration().getSlowRequestThreshold() == null) {
+            status.setText("Set a slow request threshold in the run configuration to sample the slow requests");
+        } else {
+            status.setText("Requests slower than " + instance.getConfiguration().getSlowRequestThreshold() + " ms");
+        }
+
+        List<SlowRequest> requests = server == null ? List.of() : server.getSlowRequests();
+        if (!requests.equals(requestsModel.getItems())) {
+            SlowRequest selected = requestsList.getSelectedValue();
+            requestsModel.replaceAll(requests);
+            if (selected != null && requests.contains(selected)) {
+                requestsList.setSelectedValue(selected, false);
+            } else {
+                flameGraph.setRoot(null);
+            }
+        }
+    }
+
+    private void navigateToFrame(FlameNode node) {
+        String className = node.getClassName();
+        if (className != null) {
+            SourceNavigator.navigate(project, className, node.getLineNumber(), status::setText);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
@@ -0,0 +1,59 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * Navigates from the class names reported by the running Tomcat (binary names, as in stack traces) to the sources
+ */
+final class SourceNavigator {
+
+    private SourceNavigator() {
+    }
+
+    /**
+     * @param line the 1-based line number, or a value below 1 to open the class declaration
+     * @param notFound called on the UI thread when the class is not in the project or its libraries
+     */
+    static void navigate(Project project, String binaryClassName, int line, Consumer<String> notFound) {
+        ReadAction.nonBlocking(() -> findNavigationElement(project, binaryClassName))
+                .finishOnUiThread(ModalityState.nonModal(), element -> {
+                    if (element == null) {
+                        notFound.accept("Class " + binaryClassName + " not found in the project");
+                        return;
+                    }
+
+                    VirtualFile file = element.getContainingFile() == null ? null : element.getContainingFile().getVirtualFile();
+                    if (line > 0 && file != null) {
+                        new OpenFileDescriptor(project, file, line - 1, 0).navigate(true);
+                    } else if (element instanceof PsiClass && ((PsiClass) element).canNavigate()) {
+                        ((PsiClass) element).navigate(true);
+                    }
+                })
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    @Nullable
+    private static PsiElement findNavigationElement(Project project, String binaryClassName) {
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        PsiClass psiClass = facade.findClass(binaryClassName.replace('$', '.'), scope);
+        if (psiClass == null && binaryClassName.indexOf('$') > 0) {
+            // Anonymous classes and lambdas, the lines are still those of the top level class file
+            psiClass = facade.findClass(binaryClassName.substring(0, binaryClassName.indexOf('$')), scope);
+        }
+        // The source of library classes when available, instead of the decompiled class
+        return psiClass == null ? null : psiClass.getNavigationElement();
+    }
+}
@@ -0,0 +1,153 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.poratu.idea.plugins.tomcat.cluster.ClusterProxy;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.perf.ProcessMetrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A running Tomcat launched from a run configuration
+ */
+public class TomcatInstance {
+    private final TomcatRunConfiguration configuration;
+    private final ProcessHandler processHandler;
+    private final Path catalinaBase;
+    private final Integer jmxPort;
+    private final long startedAt = System.currentTimeMillis();
+    private final MetricsHistory history = new MetricsHistory(Registry.intValue("smartTomcat.metrics.historySize", 900));
+    private RequestMetricsServer requestMetrics;
+    private volatile Path jfrRecording;
+    private ClusterProxy clusterProxy;
+    private volatile Map<String, String> loggingLevels;
+    private JmxMetricsPoller poller;
+    private ScheduledFuture<?> pollTask;
+
+    public TomcatInstance(TomcatRunConfiguration configuration, ProcessHandler processHandler, Path catalinaBase, @Nullable Integer jmxPort) {
+        this.configuration = configuration;
+        this.processHandler = processHandler;
+        this.catalinaBase = catalinaBase;
+        this.jmxPort = jmxPort;
+    }
+
+    public TomcatRunConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public ProcessHandler getProcessHandler() {
+        return processHandler;
+    }
+
+    public Path getCatalinaBase() {
+        return catalinaBase;
+    }
+
+    public Path getLogsDir() {
+        return catalinaBase.resolve("logs");
+    }
+
+    @Nullable
+    public Integer getJmxPort() {
+        return jmxPort;
+    }
+
+    public long getPid() {
+        return ProcessMetrics.getPid(processHandler);
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public MetricsHistory getHistory() {
+        return history;
+    }
+
+    @Nullable
+    public RequestMetricsServer getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    public void setRequestMetrics(@Nullable RequestMetricsServer requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    /**
+     * @return the file of the running JFR recording, or {@code null} if Tomcat is not being recorded
+     */
+    @Nullable
+    public Path getJfrRecording() {
+        return jfrRecording;
+    }
+
+    public void setJfrRecording(@Nullable Path jfrRecording) {
+        this.jfrRecording = jfrRecording;
+    }
+
+    /**
+     * @return the load balancer in front of the cluster, on the first node of a cluster only
+     */
+    @Nullable
+    public ClusterProxy getClusterProxy() {
+        return clusterProxy;
+    }
+
+    public void setClusterProxy(@Nullable ClusterProxy clusterProxy) {
+        this.clusterProxy = clusterProxy;
+    }
+
+    /**
+     * @return the logger levels applied to the process, null if the run configuration does not own the logging
+     */
+    @Nullable
+    public Map<String, String> getLoggingLevels() {
+        return loggingLevels;
+    }
+
+    public void setLoggingLevels(Map<String, String> loggingLevels) {
+        this.loggingLevels = new LinkedHashMap<>(loggingLevels);
+    }
+
+    void startPolling() {
+        if (jmxPort == null) {
+            return;
+        }
+
+        int interval = Math.max(1, Registry.intValue("smartTomcat.metrics.pollSeconds", 2));
+        poller = new JmxMetricsPoller(jmxPort);
+        pollTask = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(() -> {
+            MetricsSample sample = poller.poll();
+            if (sample != null) {
+                history.add(sample);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the collection of the metrics once the process terminated, the collected history is kept
+     */
+    void stopCollecting() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+            // A poll may still be running, close the connection on the executor
+            AppExecutorUtil.getAppScheduledExecutorService().execute(poller::close);
+        }
+        if (requestMetrics != null) {
+            requestMetrics.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        long pid = getPid();
+        return configuration.getName() + (pid > 0 ? " (pid " + pid + ")" : "");
+    }
+}
@@ -0,0 +1,67 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of the Tomcat instances running in a project, for the Smart Tomcat tool window
+ */
+public final class TomcatInstanceRegistry {
+    private final Project project;
+    private final List<TomcatInstance> instances = new CopyOnWriteArrayList<>();
+
+    public TomcatInstanceRegistry(Project project) {
+        this.project = project;
+    }
+
+    public static TomcatInstanceRegistry getInstance(@NotNull Project project) {
+        return project.getService(TomcatInstanceRegistry.class);
+    }
+
+    /**
+     * Registers the instance until its process terminates, and starts polling its metrics
+     */
+    public void register(TomcatInstance instance) {
+        instances.add(instance);
+        instance.startPolling();
+        instance.getProcessHandler().addProcessListener(new ProcessAdapter() {
+            @Override
+            public void processTerminated(@NotNull ProcessEvent event) {
+                instance.stopCollecting();
+                instances.remove(instance);
+            }
+        });
+    }
+
+    public List<TomcatInstance> getInstances() {
+        return new ArrayList<>(instances);
+    }
+
+    /**
+     * @return the latest launched instance of the selected run configuration, or the latest launched instance
+     */
+    @Nullable
+    public TomcatInstance getSelectedInstance() {
+        List<TomcatInstance> snapshot = getInstances();
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+
+        RunnerAndConfigurationSettings selected = RunManager.getInstance(project).getSelectedConfiguration();
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            if (selected != null && snapshot.get(i).getConfiguration() == selected.getConfiguration()) {
+                return snapshot.get(i);
+            }
+        }
+        return snapshot.get(snapshot.size() - 1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The Smart Tomcat tool window, with a tab per monitoring view of the running Tomcat instances
+ */
+public class TomcatToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        Content metrics = ContentFactory.getInstance().createContent(null, "Metrics", false);
+        metrics.setComponent(new MetricsPanel(project, metrics));
+        toolWindow.getContentManager().addContent(metrics);
+
+        Content requests = ContentFactory.getInstance().createContent(null, "Requests", false);
+        requests.setComponent(new RequestMetricsPanel(project, requests));
+        toolWindow.getContentManager().addContent(requests);
+
+        Content slowRequests = ContentFactory.getInstance().createContent(null, "Slow Requests", false);
+        slowRequests.setComponent(new SlowRequestsPanel(project, slowRequests));
+        toolWindow.getContentManager().addContent(slowRequests);
+
+        Content accessLog = ContentFactory.getInstance().createContent(null, "Access Log", false);
+        accessLog.setComponent(new AccessLogPanel(project, accessLog));
+        toolWindow.getContentManager().addContent(accessLog);
+
+        Content gc = ContentFactory.getInstance().createContent(null, "GC", false);
+        gc.setComponent(new GcLogPanel(project, gc));
+        toolWindow.getContentManager().addContent(gc);
+
+        Content logs = ContentFactory.getInstance().createContent(null, "Logs", false);
+        logs.setComponent(new LogFilesPanel(project, logs));
+        toolWindow.getContentManager().addContent(logs);
+
+        Content history = ContentFactory.getInstance().createContent(null, "Perf History", false);
+        history.setComponent(new PerfHistoryPanel(project, history));
+        toolWindow.getContentManager().addContent(history);
+
+        Content diagnostics = ContentFactory.getInstance().createContent(null, "Diagnostics", false);
+        diagnostics.setComponent(new LaunchDiagnosticsPanel(project, diagnostics));
+        toolWindow.getContentManager().addContent(diagnostics);
+
+        Content cluster = ContentFactory.getInstance().createContent(null, "Cluster", false);
+        cluster.setComponent(new ClusterPanel(project, cluster));
+        toolWindow.getContentManager().addContent(cluster);
+    }
+}
@@ -0,0 +1,101 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the requests recorded in the `localhost_access_log.*` files of a Catalina base, in the recorded order, starting
+ * with the files compressed to logs/archive by the log housekeeping.
+ * Only the safe methods are replayed, so a replay does not modify the data of the application.
+ */
+public final class AccessLogReplay {
+    private static final String ACCESS_LOG_GLOB = "localhost_access_log.*";
+    private static final String ARCHIVE_DIR = "archive";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final Set<String> REPLAYED_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private AccessLogReplay() {
+    }
+
+    /**
+     * @param baseUri the scheme, host and port of the target Tomcat
+     * @param limit the maximum number of requests to read
+     */
+    public static List<LoadGenerator.Target> read(Path logsDir, URI baseUri, int limit) throws IOException {
+        List<Path> logFiles = new ArrayList<>();
+        for (Path dir : List.of(logsDir.resolve(ARCHIVE_DIR), logsDir)) {
+            if (Files.isDirectory(dir)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, ACCESS_LOG_GLOB)) {
+                    for (Path file : stream) {
+                        // The file is deleted once its archive is complete
+                        if (dir == logsDir || !Files.exists(logsDir.resolve(StringUtil.trimEnd(file.getFileName().toString(), GZIP_SUFFIX)))) {
+                            logFiles.add(file);
+                        }
+                    }
+                }
+            }
+        }
+        // The date suffix sorts the rotated files chronologically, an archive keeps the name of its file
+        logFiles.sort(Comparator.comparing(file -> file.getFileName().toString()));
+
+        List<LoadGenerator.Target> targets = new ArrayList<>();
+        for (Path logFile : logFiles) {
+            try (BufferedReader reader = newReader(logFile)) {
+                String line;
+                while ((line = reader.readLine()) != null && targets.size() < limit) {
+                    LoadGenerator.Target target = parse(line, baseUri);
+                    if (target != null) {
+                        targets.add(target);
+                    }
+                }
+            }
+        }
+        return targets;
+    }
+
+    private static BufferedReader newReader(Path logFile) throws IOException {
+        InputStream in = Files.newInputStream(logFile);
+        if (logFile.getFileName().toString().endsWith(GZIP_SUFFIX)) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Extracts the request line, the first quoted field of the common and combined log formats, e.g. `"GET /app/ HTTP/1.1"`
+     */
+    @Nullable
+    static LoadGenerator.Target parse(String line, URI baseUri) {
+        int start = line.indexOf('"');
+        int end = start < 0 ? -1 : line.indexOf('"', start + 1);
+        if (end < 0) {
+            return null;
+        }
+
+        List<String> requestLine = StringUtil.split(line.substring(start + 1, end), " ");
+        if (requestLine.size() < 2 || !REPLAYED_METHODS.contains(requestLine.get(0)) || !requestLine.get(1).startsWith("/")) {
+            return null;
+        }
+
+        try {
+            return new LoadGenerator.Target(requestLine.get(0), baseUri.resolve(requestLine.get(1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
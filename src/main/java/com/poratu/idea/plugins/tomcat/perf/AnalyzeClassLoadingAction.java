@@ -0,0 +1,145 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.util.ui.FormBuilder;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.WebappConfig;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Launches the selected run configuration with a log of the loaded and initialized classes, warms up each context,
+ * and reports the classes, bytes and load time per jar of each web application. The jars whose classes are loaded
+ * but never initialized during the run are flagged. The analysis runs on an isolated copy of the configuration,
+ * see {@link TomcatInstanceLauncher#createIsolatedCopy}.
+ */
+public class AnalyzeClassLoadingAction extends DumbAwareAction {
+    private static final int WARM_UP_CONCURRENCY = 4;
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(CompareJvmPresetsAction.getSelectedConfiguration(e.getProject()) != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        TomcatRunConfiguration configuration = CompareJvmPresetsAction.getSelectedConfiguration(project);
+        if (configuration == null) {
+            return;
+        }
+
+        int javaVersion = PluginUtils.getJavaFeatureVersion(configuration.getJdk());
+        if (javaVersion > 0 && javaVersion < ClassLoadLog.MIN_JAVA_VERSION) {
+            Messages.showErrorDialog(project, "The class loading log requires Java " + ClassLoadLog.MIN_JAVA_VERSION
+                    + " or later, the JDK is Java " + javaVersion, "Class Loading Analysis");
+            return;
+        }
+
+        AnalysisDialog dialog = new AnalysisDialog(project);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        Duration warmUp = Duration.ofSeconds(dialog.getWarmUpSeconds());
+        new Task.Backgroundable(project, "Analyzing the class loading of " + configuration.getName(), true) {
+            private List<List<String>> rows;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                TomcatRunConfiguration run;
+                try {
+                    run = TomcatInstanceLauncher.createIsolatedCopy(configuration, "classloading", "log");
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+                run.setSynthetic(true);
+                run.setClassLoadLogEnabled(true);
+
+                TomcatInstanceLauncher launcher = new TomcatInstanceLauncher(run);
+                try {
+                    indicator.setText("Starting Tomcat with the class loading log");
+                    launcher.launch(indicator);
+                    for (WebappConfig webappConfig : run.getWebappConfigs()) {
+                        URI uri = PluginUtils.getContextUri(run, webappConfig);
+                        indicator.setText("Warming up " + uri);
+                        new WarmUp(uri, WARM_UP_CONCURRENCY, warmUp).run(indicator);
+                    }
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } finally {
+                    indicator.setText("Stopping Tomcat");
+                    launcher.stop();
+                }
+
+                indicator.setText("Reading the class loading log");
+                try {
+                    Path log = ClassLoadLog.getLogFile(run);
+                    if (!Files.exists(log)) {
+                        throw new IllegalStateException("Tomcat did not write " + log);
+                    }
+                    rows = new ClassLoadReport(run, PluginUtils.getCatalinaBase(run)).build(ClassLoadLog.read(log));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to read the class loading log: " + e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                new PerfResultsDialog(project, "Class Loading: " + configuration.getName(), ClassLoadReport.COLUMNS, rows).show();
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "Class Loading Analysis Failed");
+            }
+        }.queue();
+    }
+
+    private static class AnalysisDialog extends DialogWrapper {
+        private final JBIntSpinner warmUpSeconds = new JBIntSpinner(30, 5, 600);
+
+        AnalysisDialog(Project project) {
+            super(project, true);
+            setTitle("Analyze Class Loading");
+            init();
+        }
+
+        int getWarmUpSeconds() {
+            return warmUpSeconds.getNumber();
+        }
+
+        @Override
+        protected @Nullable JComponent createCenterPanel() {
+            return FormBuilder.createFormBuilder()
+                    .addLabeledComponent("Warm-up duration per context (seconds):", warmUpSeconds)
+                    .getPanel();
+        }
+    }
+}
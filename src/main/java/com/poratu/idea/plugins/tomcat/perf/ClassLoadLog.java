@@ -0,0 +1,180 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The unified JVM log of the loaded and initialized classes, e.g.
+ * <pre>
+ * [1234567890ns][4711][info ][class,load] org.example.Foo source: file:/home/me/.m2/repository/org/example/foo/1.0/foo-1.0.jar
+ * [1234570000ns][4711][debug][class,load]  klass: 0x0000000801234567 super: 0x0000000800001234 loader: [...] bytes: 2345 checksum: 1a2b3c4d
+ * [1234590000ns][4711][info ][class,init] 1234 Initializing 'org/example/Foo' (0x0000000801234567)
+ * </pre>
+ * A class is initialized on its first active use, a class which is loaded but never initialized was only resolved,
+ * e.g. as the type of a field or by an annotation scan.
+ */
+public final class ClassLoadLog {
+    public static final String FILE_NAME = "classload.log";
+    /**
+     * The class+load and class+init tags of the unified JVM logging (-Xlog) are available since Java 9
+     */
+    public static final int MIN_JAVA_VERSION = 9;
+    // The time attributed to a class is the gap since the previous class event of the thread, capped to leave out the application code run in between
+    private static final long MAX_LOAD_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Pattern UPTIME = Pattern.compile("\\[(\\d+)ns]");
+    private static final Pattern LOADED = Pattern.compile("^(\\S+) source: (.+)$");
+    private static final Pattern BYTES = Pattern.compile("\\bbytes: (\\d+)");
+    private static final Pattern INITIALIZED = Pattern.compile("^\\d+ Initializing '([^']+)'");
+
+    public static final class LoadedClass {
+        private final String name;
+        private final String source;
+        private long bytes = -1;
+        private long loadNanos;
+        private boolean initialized;
+
+        LoadedClass(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the code source, e.g. `file:/path/to/foo.jar`, `jrt:/java.base` or `shared objects file`
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return the size of the class file, or -1 if it was mapped from the CDS archive
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+
+        public boolean isInitialized() {
+            return initialized;
+        }
+    }
+
+    private ClassLoadLog() {
+    }
+
+    /**
+     * @return the log file of the launch, in the performance directory of the configuration, deleting the previous one
+     */
+    public static Path newLogFile(TomcatRunConfiguration configuration) throws IOException {
+        Path file = getLogFile(configuration);
+        Files.createDirectories(file.getParent());
+        Files.deleteIfExists(file);
+        return file;
+    }
+
+    public static Path getLogFile(TomcatRunConfiguration configuration) throws IOException {
+        Path perfDir = PluginUtils.getPerfDir(configuration);
+        if (perfDir == null) {
+            throw new IOException("The project of " + configuration.getName() + " has no base directory");
+        }
+        return perfDir.resolve(FILE_NAME);
+    }
+
+    /**
+     * @return the VM option logging the loaded classes with their size, and the class initializations, without rotation
+     */
+    public static String getLogOption(Path file) {
+        return "-Xlog:class+load=debug,class+init=info:file=\"" + file + "\":uptimenanos,tid,level,tags:filecount=0";
+    }
+
+    /**
+     * @return the loaded classes in the order of the log
+     */
+    public static List<LoadedClass> read(Path file) throws IOException {
+        List<LoadedClass> classes = new ArrayList<>();
+        // The classes of the same name defined by several class loaders, the oldest not yet initialized first
+        Map<String, Deque<LoadedClass>> uninitialized = new HashMap<>();
+        Map<String, LoadedClass> lastLoadedByThread = new HashMap<>();
+        Map<String, Long> lastEventByThread = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> decorations = new ArrayList<>(4);
+                int messageStart = 0;
+                while (messageStart < line.length() && line.charAt(messageStart) == '[') {
+                    int end = line.indexOf(']', messageStart);
+                    if (end < 0) {
+                        break;
+                    }
+                    decorations.add(line.substring(messageStart + 1, end).trim());
+                    messageStart = end + 1;
+                }
+                if (decorations.size() < 4) {
+                    continue;
+                }
+
+                Matcher uptimeMatcher = UPTIME.matcher(line);
+                long uptime = uptimeMatcher.lookingAt() ? Long.parseLong(uptimeMatcher.group(1)) : -1;
+                String thread = decorations.get(1);
+                String level = decorations.get(2);
+                String tags = decorations.get(3);
+                String message = line.substring(messageStart).trim();
+
+                if (tags.equals("class,load") && level.equals("debug")) {
+                    LoadedClass loaded = lastLoadedByThread.remove(thread);
+                    Matcher bytes = BYTES.matcher(message);
+                    if (loaded != null && bytes.find()) {
+                        loaded.bytes = Long.parseLong(bytes.group(1));
+                    }
+                    continue;
+                }
+
+                Long previous = lastEventByThread.put(thread, uptime);
+                long gap = previous == null || previous < 0 || uptime < 0 ? 0 : Math.min(uptime - previous, MAX_LOAD_NANOS);
+                if (tags.equals("class,load")) {
+                    Matcher matcher = LOADED.matcher(message);
+                    if (matcher.find()) {
+                        LoadedClass loaded = new LoadedClass(matcher.group(1), matcher.group(2).trim());
+                        loaded.loadNanos = Math.max(0, gap);
+                        classes.add(loaded);
+                        uninitialized.computeIfAbsent(loaded.name, name -> new ArrayDeque<>(1)).add(loaded);
+                        lastLoadedByThread.put(thread, loaded);
+                    }
+                } else if (tags.equals("class,init")) {
+                    Matcher matcher = INITIALIZED.matcher(message);
+                    if (matcher.find()) {
+                        String name = matcher.group(1).replace('/', '.');
+                        Deque<LoadedClass> candidates = uninitialized.get(name);
+                        LoadedClass initialized = candidates == null ? null : candidates.poll();
+                        if (initialized != null) {
+                            initialized.initialized = true;
+                        }
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,179 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.WebappConfig;
+import com.poratu.idea.plugins.tomcat.setting.TomcatInfo;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attributes the loaded classes to the web applications and the jars or class directories of a run configuration,
+ * using the same runtime class path as the resources of the generated context files.
+ */
+class ClassLoadReport {
+    static final List<String> COLUMNS = Arrays.asList(
+            "Context", "Jar or directory", "Classes", "Initialized", "KB", "Load time (ms, est.)", "Note");
+    private static final String TOMCAT = "Tomcat";
+    private static final String JDK = "JDK";
+    private static final String OTHER = "Other";
+
+    private static final class Row {
+        final String owner;
+        final String location;
+        final boolean webapp;
+        long classes;
+        long initialized;
+        long bytes;
+        long loadNanos;
+
+        Row(String owner, String location, boolean webapp) {
+            this.owner = owner;
+            this.location = location;
+            this.webapp = webapp;
+        }
+    }
+
+    // The class path entries of the web applications, with the context paths using them
+    private final Map<Path, String> roots = new LinkedHashMap<>();
+    private final List<Path> tomcatRoots = new ArrayList<>();
+
+    ClassLoadReport(TomcatRunConfiguration configuration, @Nullable Path catalinaBase) {
+        for (WebappConfig webappConfig : configuration.getWebappConfigs()) {
+            String context = StringUtil.defaultIfEmpty(webappConfig.getContextPath(), "/");
+            Module module = webappConfig.resolveModule(configuration.getProject());
+            if (module != null) {
+                List<String> paths = ReadAction.compute(() -> OrderEnumerator.orderEntries(module)
+                        .withoutSdk().runtimeOnly().productionOnly().getPathsList().getPathList());
+                paths.forEach(path -> addRoot(Paths.get(path), context));
+            }
+            if (webappConfig.getDocBase() != null) {
+                Path webInf = Paths.get(webappConfig.getDocBase(), "WEB-INF");
+                addRoot(webInf.resolve("classes"), context);
+                addRoot(webInf.resolve("lib"), context);
+            }
+        }
+
+        TomcatInfo tomcatInfo = configuration.getTomcatInfo();
+        if (tomcatInfo != null) {
+            tomcatRoots.add(Paths.get(tomcatInfo.getPath()).normalize());
+        }
+        if (catalinaBase != null) {
+            tomcatRoots.add(catalinaBase.normalize());
+        }
+    }
+
+    private void addRoot(Path path, String context) {
+        roots.merge(path.normalize(), context, (contexts, added) ->
+                Arrays.asList(contexts.split(", ")).contains(added) ? contexts : contexts + ", " + added);
+    }
+
+    /**
+     * @return a row per jar or class directory, the web applications first
+     */
+    List<List<String>> build(List<ClassLoadLog.LoadedClass> classes) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        for (ClassLoadLog.LoadedClass loaded : classes) {
+            Row row = rows.computeIfAbsent(rowKey(loaded.getSource()), key -> createRow(loaded.getSource()));
+            row.classes++;
+            if (loaded.isInitialized()) {
+                row.initialized++;
+            }
+            row.bytes += Math.max(0, loaded.getBytes());
+            row.loadNanos += loaded.getLoadNanos();
+        }
+
+        return rows.values().stream()
+                .sorted(Comparator.<Row, Boolean>comparing(row -> !row.webapp)
+                        .thenComparing(row -> row.owner)
+                        .thenComparing(row -> -row.classes))
+                .map(row -> Arrays.asList(row.owner, row.location, String.valueOf(row.classes), String.valueOf(row.initialized),
+                        String.format("%.1f", row.bytes / 1024.0), String.format("%.1f", row.loadNanos / 1e6),
+                        row.webapp && row.initialized == 0 ? "Loaded but never used, a candidate for removal" : ""))
+                .toList();
+    }
+
+    private String rowKey(String source) {
+        Path path = toPath(source);
+        if (path == null) {
+            return source;
+        }
+        Path root = findRoot(path);
+        return (root != null ? root : path).toString();
+    }
+
+    private Row createRow(String source) {
+        Path path = toPath(source);
+        if (path == null) {
+            if (source.startsWith("jrt:/")) {
+                return new Row(JDK, source.substring("jrt:/".length()), false);
+            } else if (source.startsWith("shared objects file")) {
+                return new Row(JDK, "CDS archive", false);
+            }
+            return new Row(OTHER, source, false);
+        }
+
+        Path root = findRoot(path);
+        if (root != null) {
+            return new Row(roots.get(root), root.equals(path) ? path.getFileName().toString() : root.toString(), true);
+        }
+        for (Path tomcatRoot : tomcatRoots) {
+            if (path.startsWith(tomcatRoot)) {
+                return new Row(TOMCAT, path.getFileName().toString(), false);
+            }
+        }
+        return new Row(OTHER, path.toString(), false);
+    }
+
+    /**
+     * @return the class path entry of a web application containing the code source, a jar or a directory
+     */
+    @Nullable
+    private Path findRoot(Path path) {
+        if (roots.containsKey(path)) {
+            return path;
+        }
+        Path root = null;
+        for (Path candidate : roots.keySet()) {
+            if (path.startsWith(candidate) && (root == null || candidate.getNameCount() > root.getNameCount())) {
+                root = candidate;
+            }
+        }
+        // The jars of WEB-INF/lib are reported one by one
+        if (root != null && root.endsWith(Paths.get("WEB-INF", "lib")) && !path.equals(root)) {
+            Path jar = root.resolve(root.relativize(path).getName(0));
+            roots.putIfAbsent(jar, roots.get(root));
+            return jar;
+        }
+        return root;
+    }
+
+    @Nullable
+    private static Path toPath(String source) {
+        String url = source;
+        if (url.startsWith("jar:")) {
+            int separator = url.indexOf("!/");
+            url = url.substring("jar:".length(), separator < 0 ? url.length() : separator);
+        }
+        if (!url.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return Paths.get(URI.create(url)).normalize();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
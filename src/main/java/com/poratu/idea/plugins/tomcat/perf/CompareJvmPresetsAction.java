@@ -0,0 +1,172 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.util.ui.FormBuilder;
+import com.poratu.idea.plugins.tomcat.conf.JvmPreset;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A/B comparison of two JVM presets: the selected run configuration is launched with each preset in turn,
+ * and the startup time, the resident set size and the warm-up throughput are compared in a table.
+ * Each preset runs on an isolated copy of the configuration, see {@link TomcatInstanceLauncher#createIsolatedCopy}.
+ */
+public class CompareJvmPresetsAction extends DumbAwareAction {
+    private static final int WARM_UP_CONCURRENCY = 4;
+    private static final List<String> COLUMNS = Arrays.asList(
+            "JVM preset", "Startup (ms)", "RSS after startup (MB)", "RSS after warm-up (MB)", "Warm-up throughput (req/s)", "Warm-up errors");
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(getSelectedConfiguration(e.getProject()) != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        TomcatRunConfiguration configuration = getSelectedConfiguration(project);
+        if (configuration == null) {
+            return;
+        }
+
+        ComparisonDialog dialog = new ComparisonDialog(project, configuration.getJvmPreset());
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        List<JvmPreset> presets = Arrays.asList(dialog.getPresetA(), dialog.getPresetB());
+        Duration warmUp = Duration.ofSeconds(dialog.getWarmUpSeconds());
+        new Task.Backgroundable(project, "Comparing JVM presets", true) {
+            private final List<List<String>> rows = new ArrayList<>();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                for (JvmPreset preset : presets) {
+                    rows.add(measure(configuration, preset, warmUp, indicator));
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                new PerfResultsDialog(project, "JVM Presets: " + configuration.getName(), COLUMNS, rows).show();
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "JVM Preset Comparison Failed");
+            }
+        }.queue();
+    }
+
+    private static List<String> measure(TomcatRunConfiguration configuration, JvmPreset preset, Duration warmUp, ProgressIndicator indicator) {
+        TomcatInstanceLauncher launcher = null;
+        try {
+            TomcatRunConfiguration run = TomcatInstanceLauncher.createIsolatedCopy(configuration, "presets", preset.name());
+            run.setSynthetic(true);
+            run.setJvmPreset(preset);
+            URI uri = PluginUtils.getContextUri(run, run.getWebappConfigs().get(0));
+            launcher = new TomcatInstanceLauncher(run);
+
+            indicator.setText("Starting Tomcat with " + preset);
+            long startupMillis = launcher.launch(indicator);
+            long startedRss = ProcessMetrics.getRssKb(launcher.getPid());
+
+            indicator.setText("Warming up " + uri + " with " + preset);
+            WarmUp.Result warmUpResult = new WarmUp(uri, WARM_UP_CONCURRENCY, warmUp).run(indicator);
+            long warmRss = ProcessMetrics.getRssKb(launcher.getPid());
+
+            return Arrays.asList(preset.toString(), String.valueOf(startupMillis), formatMegabytes(startedRss),
+                    formatMegabytes(warmRss), String.format("%.1f", warmUpResult.throughput()), String.valueOf(warmUpResult.errors()));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(preset + ": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            if (launcher != null) {
+                indicator.setText("Stopping Tomcat");
+                launcher.stop();
+            }
+        }
+    }
+
+    static String formatMegabytes(long kilobytes) {
+        return kilobytes < 0 ? "n/a" : String.format("%.1f", kilobytes / 1024.0);
+    }
+
+    @Nullable
+    static TomcatRunConfiguration getSelectedConfiguration(@Nullable Project project) {
+        if (project == null) {
+            return null;
+        }
+
+        RunnerAndConfigurationSettings settings = RunManager.getInstance(project).getSelectedConfiguration();
+        if (settings != null && settings.getConfiguration() instanceof TomcatRunConfiguration) {
+            TomcatRunConfiguration configuration = (TomcatRunConfiguration) settings.getConfiguration();
+            return configuration.getWebappConfigs().isEmpty() ? null : configuration;
+        }
+        return null;
+    }
+
+    private static class ComparisonDialog extends DialogWrapper {
+        private final ComboBox<JvmPreset> presetA = new ComboBox<>(JvmPreset.values());
+        private final ComboBox<JvmPreset> presetB = new ComboBox<>(JvmPreset.values());
+        private final JBIntSpinner warmUpSeconds = new JBIntSpinner(30, 5, 600);
+
+        ComparisonDialog(Project project, JvmPreset current) {
+            super(project, true);
+            presetA.setSelectedItem(current);
+            presetB.setSelectedItem(current == JvmPreset.FAST_DEV_STARTUP ? JvmPreset.PRODUCTION_G1 : JvmPreset.FAST_DEV_STARTUP);
+            setTitle("Compare JVM Presets");
+            init();
+        }
+
+        JvmPreset getPresetA() {
+            return (JvmPreset) presetA.getSelectedItem();
+        }
+
+        JvmPreset getPresetB() {
+            return (JvmPreset) presetB.getSelectedItem();
+        }
+
+        int getWarmUpSeconds() {
+            return warmUpSeconds.getNumber();
+        }
+
+        @Override
+        protected @Nullable JComponent createCenterPanel() {
+            return FormBuilder.createFormBuilder()
+                    .addLabeledComponent("Preset A:", presetA)
+                    .addLabeledComponent("Preset B:", presetB)
+                    .addLabeledComponent("Warm-up duration (seconds):", warmUpSeconds)
+                    .getPanel();
+        }
+    }
+}
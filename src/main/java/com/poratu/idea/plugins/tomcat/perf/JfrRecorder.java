@@ -0,0 +1,166 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.util.ExecUtil;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.poratu.idea.plugins.tomcat.conf.JfrProfile;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstance;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Starts and stops the JFR recordings of the running Tomcat instances, and summarizes the stopped recordings.
+ * The recordings are written to `CATALINA_BASE/jfr` on disk, also when the Catalina base is on a RAM disk.
+ */
+public final class JfrRecorder {
+    public static final String RECORDING_NAME = "smarttomcat";
+    private static final String NOTIFICATION_GROUP = "com.poratu.idea.plugins.tomcat";
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private JfrRecorder() {
+    }
+
+    public static Path newRecordingFile(TomcatRunConfiguration configuration) throws IOException {
+        Path catalinaBase = PluginUtils.getDiskCatalinaBase(configuration);
+        if (catalinaBase == null) {
+            throw new IOException("The Catalina base of " + configuration.getName() + " is unknown");
+        }
+
+        Path dir = catalinaBase.resolve("jfr");
+        Files.createDirectories(dir);
+        return dir.resolve(RECORDING_NAME + "-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".jfr");
+    }
+
+    /**
+     * @return the VM option starting a recording at launch, which is dumped when Tomcat stops
+     */
+    public static String getStartFlightRecordingOption(JfrProfile profile, Path file) {
+        return "-XX:StartFlightRecording=name=" + RECORDING_NAME + ",settings=" + profile.getSettings()
+                + ",filename=" + file + ",dumponexit=true";
+    }
+
+    /**
+     * Summarizes the recording started at launch when Tomcat stops, unless it was stopped before
+     */
+    public static void summarizeOnExit(TomcatInstance instance) {
+        instance.getProcessHandler().addProcessListener(new ProcessAdapter() {
+            @Override
+            public void processTerminated(@NotNull ProcessEvent event) {
+                Path recording = instance.getJfrRecording();
+                instance.setJfrRecording(null);
+                if (recording != null) {
+                    summarize(instance.getConfiguration().getProject(), recording);
+                }
+            }
+        });
+    }
+
+    public static void start(TomcatInstance instance, JfrProfile profile) throws ExecutionException, IOException {
+        Path file = newRecordingFile(instance.getConfiguration());
+        jcmd(instance, "JFR.start", "name=" + RECORDING_NAME, "settings=" + profile.getSettings(), "filename=" + file);
+        instance.setJfrRecording(file);
+    }
+
+    public static void stop(TomcatInstance instance) throws ExecutionException {
+        Path file = instance.getJfrRecording();
+        if (file == null) {
+            return;
+        }
+
+        jcmd(instance, "JFR.stop", "name=" + RECORDING_NAME, "filename=" + file);
+        instance.setJfrRecording(null);
+        summarize(instance.getConfiguration().getProject(), file);
+    }
+
+    private static void jcmd(TomcatInstance instance, String... command) throws ExecutionException {
+        Sdk jdk = instance.getConfiguration().getJdk();
+        if (jdk == null || jdk.getHomePath() == null) {
+            throw new ExecutionException("The project SDK is not configured");
+        }
+
+        Path jcmd = Paths.get(jdk.getHomePath(), "bin", SystemInfo.isWindows ? "jcmd.exe" : "jcmd");
+        GeneralCommandLine commandLine = new GeneralCommandLine(jcmd.toString(), String.valueOf(instance.getPid()))
+                .withParameters(command);
+        ProcessOutput output = ExecUtil.execAndGetOutput(commandLine);
+        // jcmd reports most errors on stdout with a zero exit code
+        if (output.getExitCode() != 0 || output.getStdout().contains("Could not") || output.getStdout().contains("Exception")) {
+            throw new ExecutionException(command[0] + " failed: " + output.getStdout() + output.getStderr());
+        }
+    }
+
+    public static void summarize(Project project, Path recording) {
+        new Task.Backgroundable(project, "Summarizing JFR recording", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                if (!Files.isRegularFile(recording)) {
+                    showNotification(project, "No JFR recording was written to " + recording, NotificationType.WARNING);
+                    return;
+                }
+
+                try {
+                    String report = new JfrSummary(projectClassPredicate(project)).read(recording)
+                            .toMarkdown("JFR summary of " + recording.getFileName());
+                    Path reportFile = recording.resolveSibling(FileUtil.getNameWithoutExtension(recording.toFile()) + ".summary.md");
+                    Files.writeString(reportFile, report);
+                    openInEditor(project, reportFile);
+                } catch (IOException e) {
+                    showNotification(project, "Failed to read " + recording + ": " + e.getMessage(), NotificationType.ERROR);
+                }
+            }
+        }.queue();
+    }
+
+    private static Predicate<String> projectClassPredicate(Project project) {
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        Map<String, Boolean> cache = new ConcurrentHashMap<>();
+        return className -> cache.computeIfAbsent(className, name -> {
+            int dollar = name.indexOf('$');
+            String topLevel = dollar > 0 ? name.substring(0, dollar) : name;
+            return ReadAction.compute(() -> facade.findClass(topLevel, scope) != null);
+        });
+    }
+
+    private static void openInEditor(Project project, Path file) {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            VirtualFile virtualFile = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(file);
+            if (virtualFile != null && !project.isDisposed()) {
+                FileEditorManager.getInstance(project).openFile(virtualFile, true);
+            }
+        });
+    }
+
+    static void showNotification(Project project, String content, NotificationType type) {
+        Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "JFR recording", content, type), project);
+    }
+}
@@ -0,0 +1,200 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Summarizes a JFR recording: hot methods, allocation pressure, lock contention and GC pauses.
+ * The samples are attributed to the first frame of a project class, so the time spent in libraries is charged to the project code calling them.
+ */
+public class JfrSummary {
+    private static final int TOP = 15;
+
+    private final Predicate<String> isProjectClass;
+    private final Map<String, Long> hotMethods = new HashMap<>();
+    private final Map<String, Long> hotProjectMethods = new HashMap<>();
+    private final Map<String, Long> allocationsByClass = new HashMap<>();
+    private final Map<String, Long> allocationsByProjectMethod = new HashMap<>();
+    private final Map<String, Long> tlabAllocationsByClass = new HashMap<>();
+    private final Map<String, Long> tlabAllocationsByProjectMethod = new HashMap<>();
+    private final Map<String, Long> contentionByMonitor = new HashMap<>();
+    private final Map<String, Long> contentionByProjectMethod = new HashMap<>();
+    private final Map<String, Long> gcPausesByCollector = new HashMap<>();
+    private long executionSamples;
+    private long gcCount;
+    private Duration gcPauses = Duration.ZERO;
+    private Duration longestGcPause = Duration.ZERO;
+    private Instant first;
+    private Instant last;
+
+    /**
+     * @param isProjectClass tells if a class, given by its binary name, belongs to the project sources
+     */
+    public JfrSummary(Predicate<String> isProjectClass) {
+        this.isProjectClass = isProjectClass;
+    }
+
+    public JfrSummary read(Path recording) throws IOException {
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                accept(file.readEvent());
+            }
+        }
+        return this;
+    }
+
+    private void accept(RecordedEvent event) {
+        if (first == null || event.getStartTime().isBefore(first)) {
+            first = event.getStartTime();
+        }
+        if (last == null || event.getEndTime().isAfter(last)) {
+            last = event.getEndTime();
+        }
+
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample":
+                executionSamples++;
+                add(hotMethods, topFrame(event.getStackTrace()), 1);
+                add(hotProjectMethods, projectFrame(event.getStackTrace()), 1);
+                break;
+            case "jdk.ObjectAllocationSample":
+                long weight = event.getLong("weight");
+                add(allocationsByClass, className(event.getClass("objectClass")), weight);
+                add(allocationsByProjectMethod, projectFrame(event.getStackTrace()), weight);
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                long tlabSize = event.getLong("tlabSize");
+                add(tlabAllocationsByClass, className(event.getClass("objectClass")), tlabSize);
+                add(tlabAllocationsByProjectMethod, projectFrame(event.getStackTrace()), tlabSize);
+                break;
+            case "jdk.JavaMonitorEnter":
+                long nanos = event.getDuration().toNanos();
+                add(contentionByMonitor, className(event.getClass("monitorClass")), nanos);
+                add(contentionByProjectMethod, projectFrame(event.getStackTrace()), nanos);
+                break;
+            case "jdk.GarbageCollection":
+                Duration pauses = event.getDuration("sumOfPauses");
+                gcCount++;
+                gcPauses = gcPauses.plus(pauses);
+                if (event.getDuration("longestPause").compareTo(longestGcPause) > 0) {
+                    longestGcPause = event.getDuration("longestPause");
+                }
+                add(gcPausesByCollector, event.getString("name"), pauses.toNanos());
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Nullable
+    private static String topFrame(@Nullable RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        return format(stackTrace.getFrames().get(0));
+    }
+
+    @Nullable
+    private String projectFrame(@Nullable RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            RecordedMethod method = frame.getMethod();
+            if (method != null && method.getType() != null && isProjectClass.test(method.getType().getName())) {
+                return format(frame);
+            }
+        }
+        return null;
+    }
+
+    private static String format(RecordedFrame frame) {
+        RecordedMethod method = frame.getMethod();
+        return method.getType().getName() + "." + method.getName() + ":" + frame.getLineNumber();
+    }
+
+    private static String className(@Nullable RecordedClass recordedClass) {
+        return recordedClass == null ? null : recordedClass.getName();
+    }
+
+    private static void add(Map<String, Long> map, @Nullable String key, long value) {
+        if (key != null) {
+            map.merge(key, value, Long::sum);
+        }
+    }
+
+    /**
+     * @return the summary in Markdown, the frames are written as `class.method:line`
+     */
+    public String toMarkdown(String title) {
+        StringBuilder report = new StringBuilder();
+        report.append("# ").append(title).append("\n\n");
+        if (first != null) {
+            report.append("Recorded ").append(Duration.between(first, last).toSeconds()).append(" s, from ").append(first).append("\n\n");
+        }
+
+        report.append("## Hot methods in project code\n\n");
+        report.append("CPU samples attributed to the first project frame of the stack, out of ").append(executionSamples).append(" samples.\n\n");
+        appendTable(report, "Project frame", "Samples", hotProjectMethods, executionSamples, 1);
+        report.append("## Hot methods (top frame)\n\n");
+        appendTable(report, "Top frame", "Samples", hotMethods, executionSamples, 1);
+
+        // Sampled allocations since Java 16, TLAB allocations before
+        boolean sampled = !allocationsByClass.isEmpty();
+        Map<String, Long> byClass = sampled ? allocationsByClass : tlabAllocationsByClass;
+        Map<String, Long> byMethod = sampled ? allocationsByProjectMethod : tlabAllocationsByProjectMethod;
+        long allocated = byClass.values().stream().mapToLong(Long::longValue).sum();
+        report.append("## Allocation pressure\n\n");
+        report.append("About ").append(allocated / (1024 * 1024)).append(" MB ")
+                .append(sampled ? "sampled" : "allocated in new TLABs").append(".\n\n");
+        appendTable(report, "Project frame", "MB", byMethod, allocated, 1024 * 1024);
+        appendTable(report, "Allocated class", "MB", byClass, allocated, 1024 * 1024);
+
+        long contended = contentionByMonitor.values().stream().mapToLong(Long::longValue).sum();
+        report.append("## Lock contention\n\n");
+        report.append("Threads were blocked on monitors for ").append(contended / 1_000_000).append(" ms in total (events above the JFR threshold only).\n\n");
+        appendTable(report, "Project frame", "ms", contentionByProjectMethod, contended, 1_000_000);
+        appendTable(report, "Monitor class", "ms", contentionByMonitor, contended, 1_000_000);
+
+        report.append("## GC pauses\n\n");
+        report.append(gcCount).append(" collections, ").append(gcPauses.toMillis()).append(" ms paused in total, longest pause ")
+                .append(longestGcPause.toMillis()).append(" ms.\n\n");
+        appendTable(report, "Collector", "Paused ms", gcPausesByCollector, gcPauses.toNanos(), 1_000_000);
+        return report.toString();
+    }
+
+    private static void appendTable(StringBuilder report, String keyColumn, String valueColumn, Map<String, Long> values, long total, long unit) {
+        if (values.isEmpty()) {
+            report.append("_No events._\n\n");
+            return;
+        }
+
+        report.append("| ").append(keyColumn).append(" | ").append(valueColumn).append(" | % |\n|---|---:|---:|\n");
+        List<Map.Entry<String, Long>> top = values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP)
+                .toList();
+        for (Map.Entry<String, Long> entry : top) {
+            report.append("| `").append(entry.getKey()).append("` | ")
+                    .append(unit == 1 ? String.valueOf(entry.getValue()) : String.format("%.1f", (double) entry.getValue() / unit))
+                    .append(" | ")
+                    .append(total > 0 ? String.format("%.1f", 100.0 * entry.getValue() / total) : "")
+                    .append(" |\n");
+        }
+        report.append('\n');
+    }
+}
@@ -0,0 +1,221 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.openapi.application.ApplicationInfo;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.SystemInfo;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Times the stages of a launch of a run configuration on the plugin side, with the files and bytes written by each
+ * stage, so a slow start can be told apart from a slow Tomcat. The events are appended to
+ * `.smarttomcat/diagnostics/launch-trace.jsonl` in the project, one JSON object per line.
+ * <p>
+ * The events recorded outside a launch, e.g. by the search of the web roots, are kept in memory by the
+ * {@link PendingLaunchEvents} of their project and written with its next launch, so the editor actions calling them
+ * never write to the disk.
+ */
+public class LaunchTrace {
+    private static final Logger LOG = Logger.getInstance(LaunchTrace.class);
+    private static final String PLUGIN_ID = "com.poratu.idea.plugins.tomcat";
+    public static final String FILE_NAME = "launch-trace.jsonl";
+    public static final String TOMCAT_STARTUP = "Tomcat startup";
+    private static final long MAX_FILE_SIZE = 2 * 1024 * 1024;
+    private static final Gson GSON = new Gson();
+
+    /**
+     * @param launch the id of the launch, empty for the events recorded outside a launch
+     * @param files  the files written by the stage, or visited by a search
+     * @param bytes  the bytes written by the stage
+     */
+    public record Event(long timestamp, String launch, String configuration, String stage, double millis, long files, long bytes) {
+    }
+
+    public class Stage implements AutoCloseable {
+        private final String name;
+        private final long timestamp = System.currentTimeMillis();
+        private final long start = System.nanoTime();
+        private long files;
+        private long bytes;
+
+        private Stage(String name) {
+            this.name = name;
+        }
+
+        public void addFile(Path file) {
+            files++;
+            bytes += file.toFile().length();
+        }
+
+        /**
+         * Counts the files of a directory tree
+         */
+        public void addFiles(Path dir) {
+            if (!Files.isDirectory(dir)) {
+                return;
+            }
+            try (Stream<Path> stream = Files.walk(dir)) {
+                stream.filter(Files::isRegularFile).forEach(this::addFile);
+            } catch (IOException | UncheckedIOException e) {
+                LOG.debug("Failed to count the files of " + dir, e);
+            }
+        }
+
+        public void add(long files, long bytes) {
+            this.files += files;
+            this.bytes += bytes;
+        }
+
+        @Override
+        public void close() {
+            events.add(new Event(timestamp, id, configuration, name, (System.nanoTime() - start) / 1e6, files, bytes));
+        }
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Project project;
+    private final String configuration;
+    private final List<Event> events = new ArrayList<>();
+
+    public LaunchTrace(Project project, String configuration) {
+        this.project = project;
+        this.configuration = configuration;
+    }
+
+    public Stage stage(String name) {
+        return new Stage(name);
+    }
+
+    /**
+     * Appends the stages of the launch to the event log, with the events recorded since the previous launch
+     */
+    public void finish() {
+        List<Event> written = PendingLaunchEvents.getInstance(project).drain();
+        written.addAll(events);
+        events.clear();
+        append(project, written);
+    }
+
+    /**
+     * Appends the startup time reported by Tomcat, which completes after the launch
+     */
+    public void recordTomcatStartup(long millis) {
+        append(project, List.of(new Event(System.currentTimeMillis(), id, configuration, TOMCAT_STARTUP, millis, 0, 0)));
+    }
+
+    /**
+     * Records an event outside a launch, written with the next launch in the project
+     */
+    public static void record(Project project, String stage, long startNanos, long files) {
+        PendingLaunchEvents.getInstance(project)
+                .add(new Event(System.currentTimeMillis(), "", "", stage, (System.nanoTime() - startNanos) / 1e6, files, 0));
+    }
+
+    /**
+     * @return the events recorded outside a launch in the project and not written yet
+     */
+    public static List<Event> getPendingEvents(Project project) {
+        return PendingLaunchEvents.getInstance(project).getEvents();
+    }
+
+    @Nullable
+    public static Path getLogFile(Project project) {
+        String basePath = project.getBasePath();
+        return basePath == null ? null : Paths.get(basePath, ".smarttomcat", "diagnostics", FILE_NAME);
+    }
+
+    private static synchronized void append(Project project, List<Event> events) {
+        Path file = getLogFile(project);
+        if (file == null || events.isEmpty()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(file.getParent());
+            // Keep the previous generation only
+            if (Files.exists(file) && Files.size(file) > MAX_FILE_SIZE) {
+                Files.move(file, file.resolveSibling(FILE_NAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Event event : events) {
+                    writer.write(GSON.toJson(event));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to write the launch trace to " + file, e);
+        }
+    }
+
+    /**
+     * Writes the IDE, plugin and JVM versions, then the events of the log and the events not written yet, for a bug report
+     */
+    public static void export(Project project, Path target) throws IOException {
+        IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("ide", ApplicationInfo.getInstance().getFullApplicationName());
+        environment.put("plugin", plugin == null ? "unknown" : plugin.getVersion());
+        environment.put("os", SystemInfo.getOsNameAndVersion());
+        environment.put("java", System.getProperty("java.runtime.version"));
+
+        Path file = getLogFile(project);
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(GSON.toJson(Map.of("environment", environment)));
+            writer.newLine();
+            if (file != null) {
+                for (Path generation : List.of(file.resolveSibling(FILE_NAME + ".1"), file)) {
+                    if (Files.exists(generation)) {
+                        for (String line : Files.readAllLines(generation, StandardCharsets.UTF_8)) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                }
+            }
+            for (Event event : getPendingEvents(project)) {
+                writer.write(GSON.toJson(event));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return the events of the log, skipping the malformed lines
+     */
+    public static List<Event> read(Path file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            try {
+                Event event = GSON.fromJson(line, Event.class);
+                if (event != null && event.stage() != null) {
+                    events.add(event);
+                }
+            } catch (JsonParseException e) {
+                // A line cut by a crash
+            }
+        }
+        return events;
+    }
+}
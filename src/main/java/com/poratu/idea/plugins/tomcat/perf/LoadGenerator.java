@@ -0,0 +1,165 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.poratu.idea.plugins.tomcat.shared.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends HTTP load to a running Tomcat, from virtual threads.
+ * <p>
+ * In the closed model a fixed number of users send their next request as soon as the previous one completed.
+ * In the open model the requests arrive at a fixed rate, whatever the response times, and the latency is measured from the
+ * time a request was due: a stalled server is charged with the time the requests waited to be sent.
+ */
+public class LoadGenerator {
+    public enum Model {
+        CLOSED("Closed (fixed concurrency)"),
+        OPEN("Open (fixed arrival rate)");
+
+        private final String label;
+
+        Model(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * A request to send, the targets are sent in turn
+     */
+    public record Target(String method, URI uri) {
+    }
+
+    private final List<Target> targets;
+    private final Model model;
+    private final int concurrency;
+    private final int ratePerSecond;
+    private final Duration duration;
+    private final AtomicLong next = new AtomicLong();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private HttpClient client;
+
+    /**
+     * @param concurrency the number of users in the closed model, the maximum number of requests in flight in the open model
+     * @param ratePerSecond the arrival rate of the open model
+     */
+    public LoadGenerator(List<Target> targets, Model model, int concurrency, int ratePerSecond, Duration duration) {
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("No request to send");
+        }
+        this.targets = new ArrayList<>(targets);
+        this.model = model;
+        this.concurrency = concurrency;
+        this.ratePerSecond = ratePerSecond;
+        this.duration = duration;
+    }
+
+    public LoadTestResult run(ProgressIndicator indicator) throws InterruptedException {
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (model == Model.CLOSED) {
+                runClosed(executor, end, indicator);
+            } else {
+                runOpen(executor, start, end, indicator);
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } finally {
+            client = null;
+        }
+
+        long[] buckets = new long[LatencyHistogram.BUCKET_COUNT];
+        histogram.forEachBucket((index, count) -> buckets[index] = count);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new LoadTestResult(histogram.getTotalCount(), errors.sum(), clientErrors.sum(), seconds, buckets);
+    }
+
+    private void runClosed(ExecutorService executor, long end, ProgressIndicator indicator) {
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < end && !indicator.isCanceled()) {
+                    send(System.nanoTime());
+                }
+            });
+        }
+        waitUntil(end, indicator);
+    }
+
+    private void runOpen(ExecutorService executor, long start, long end, ProgressIndicator indicator) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        for (long due = start; due < end && !indicator.isCanceled(); due += interval) {
+            LockSupport.parkNanos(due - System.nanoTime());
+            // Requests which could not be sent in time wait here, and their latency includes the wait
+            if (!inFlight.tryAcquire(Math.max(0, end - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                break;
+            }
+            long intended = due;
+            executor.execute(() -> {
+                try {
+                    send(intended);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private static void waitUntil(long end, ProgressIndicator indicator) {
+        long remaining;
+        while ((remaining = end - System.nanoTime()) > 0 && !indicator.isCanceled()) {
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+        }
+    }
+
+    private void send(long intendedNanos) {
+        Target target = targets.get((int) (next.getAndIncrement() % targets.size()));
+        HttpRequest request = HttpRequest.newBuilder(target.uri())
+                .timeout(Duration.ofSeconds(30))
+                .method(target.method(), HttpRequest.BodyPublishers.noBody())
+                .build();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status >= 500) {
+                errors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        } catch (IOException e) {
+            errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos));
+    }
+}
@@ -0,0 +1,148 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.poratu.idea.plugins.tomcat.shared.LatencyHistogram;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The outcome of a load test, it can be saved as the baseline of a run configuration
+ */
+public class LoadTestResult {
+    private static final List<String> KEYS = Arrays.asList(
+            "requests", "errors", "clientErrors", "seconds", "throughput", "p50", "p90", "p95", "p99", "max");
+
+    private final long requests;
+    private final long errors;
+    private final long clientErrors;
+    private final double seconds;
+    private final double p50;
+    private final double p90;
+    private final double p95;
+    private final double p99;
+    private final double max;
+
+    LoadTestResult(long requests, long errors, long clientErrors, double seconds, long[] buckets) {
+        this(requests, errors, clientErrors, seconds,
+                millis(buckets, 50), millis(buckets, 90), millis(buckets, 95), millis(buckets, 99), millis(buckets, 100));
+    }
+
+    private LoadTestResult(long requests, long errors, long clientErrors, double seconds,
+                           double p50, double p90, double p95, double p99, double max) {
+        this.requests = requests;
+        this.errors = errors;
+        this.clientErrors = clientErrors;
+        this.seconds = seconds;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    private static double millis(long[] buckets, double percentile) {
+        long micros = LatencyHistogram.valueAtPercentile(buckets, percentile);
+        return micros < 0 ? Double.NaN : micros / 1000.0;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public double getThroughput() {
+        return seconds > 0 ? requests / seconds : 0;
+    }
+
+    /**
+     * @return the ratio of the requests which failed or were answered with a 5xx status
+     */
+    public double getErrorRate() {
+        return requests > 0 ? (double) errors / requests : 0;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP95() {
+        return p95;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    /**
+     * @return the rows of a comparison table: metric, this run, the baseline and the change
+     */
+    public List<List<String>> compareTo(@Nullable LoadTestResult baseline) {
+        List<List<String>> rows = new ArrayList<>();
+        addRow(rows, "Requests", requests, baseline == null ? Double.NaN : baseline.requests, "%.0f");
+        addRow(rows, "Throughput (req/s)", getThroughput(), baseline == null ? Double.NaN : baseline.getThroughput(), "%.1f");
+        addRow(rows, "Error rate (%)", 100 * getErrorRate(), baseline == null ? Double.NaN : 100 * baseline.getErrorRate(), "%.2f");
+        addRow(rows, "4xx responses", clientErrors, baseline == null ? Double.NaN : baseline.clientErrors, "%.0f");
+        addRow(rows, "p50 (ms)", p50, baseline == null ? Double.NaN : baseline.p50, "%.1f");
+        addRow(rows, "p90 (ms)", p90, baseline == null ? Double.NaN : baseline.p90, "%.1f");
+        addRow(rows, "p95 (ms)", p95, baseline == null ? Double.NaN : baseline.p95, "%.1f");
+        addRow(rows, "p99 (ms)", p99, baseline == null ? Double.NaN : baseline.p99, "%.1f");
+        addRow(rows, "max (ms)", max, baseline == null ? Double.NaN : baseline.max, "%.1f");
+        return rows;
+    }
+
+    private static void addRow(List<List<String>> rows, String metric, double value, double baseline, String format) {
+        String change = Double.isNaN(baseline) || baseline == 0 || Double.isNaN(value)
+                ? "" : String.format("%+.1f%%", 100 * (value - baseline) / baseline);
+        rows.add(Arrays.asList(metric, format(format, value), format(format, baseline), change));
+    }
+
+    private static String format(String format, double value) {
+        return Double.isNaN(value) ? "" : String.format(format, value);
+    }
+
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        double[] values = {requests, errors, clientErrors, seconds, getThroughput(), p50, p90, p95, p99, max};
+        for (int i = 0; i < KEYS.size(); i++) {
+            properties.setProperty(KEYS.get(i), String.valueOf(values[i]));
+        }
+
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Smart Tomcat load test baseline");
+        }
+    }
+
+    /**
+     * @return the saved result, or {@code null} if there is none
+     */
+    @Nullable
+    public static LoadTestResult load(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            double[] values = new double[KEYS.size()];
+            for (int i = 0; i < KEYS.size(); i++) {
+                values[i] = Double.parseDouble(properties.getProperty(KEYS.get(i), "NaN"));
+            }
+            return new LoadTestResult((long) values[0], (long) values[1], (long) values[2], values[3],
+                    values[5], values[6], values[7], values[8], values[9]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid load test baseline " + file, e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The launch trace events recorded outside a launch in a project, e.g. by the search of the web roots,
+ * until the next launch in the same project writes them to its trace
+ */
+public final class PendingLaunchEvents {
+    private static final int MAX_EVENTS = 100;
+
+    private final Deque<LaunchTrace.Event> events = new ConcurrentLinkedDeque<>();
+
+    public static PendingLaunchEvents getInstance(@NotNull Project project) {
+        return project.getService(PendingLaunchEvents.class);
+    }
+
+    void add(LaunchTrace.Event event) {
+        events.add(event);
+        while (events.size() > MAX_EVENTS) {
+            events.poll();
+        }
+    }
+
+    /**
+     * @return the events, which are no longer pending
+     */
+    List<LaunchTrace.Event> drain() {
+        List<LaunchTrace.Event> drained = new ArrayList<>();
+        LaunchTrace.Event event;
+        while ((event = events.poll()) != null) {
+            drained.add(event);
+        }
+        return drained;
+    }
+
+    public List<LaunchTrace.Event> getEvents() {
+        return new ArrayList<>(events);
+    }
+}
@@ -0,0 +1,170 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.google.gson.Gson;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The performance measurements of the runs of a run configuration, stored as a CSV file with one metric per line:
+ * <pre>
+ * timestamp,revision,tomcat,jdk,options,metric,value
+ * 1718000000000,3f2a9c1e07,9.0.98,21.0.5,LOW_PAUSE_ZGC+gc-log,startupMillis,1012.0
+ * </pre>
+ * The options are the JVM preset and the diagnostics which change the measurements. The lines recorded before the
+ * options column have no options.
+ * <p>
+ * With a regression budget, the result of the latest check is written to {@value #GATE_FILE_NAME} next to the history,
+ * for a build running the IDE headless to fail on, e.g. {@code "passed":false}.
+ */
+public class PerfHistory {
+    public static final String STARTUP_MILLIS = "startupMillis";
+    public static final String LOAD_THROUGHPUT = "loadThroughput";
+    public static final String LOAD_P95_MILLIS = "loadP95Millis";
+    public static final String LOAD_ERROR_RATE = "loadErrorRate";
+    public static final String FILE_NAME = "history.csv";
+    public static final String GATE_FILE_NAME = "gate.json";
+    private static final Gson GSON = new Gson();
+    private static final String HEADER = "timestamp,revision,tomcat,jdk,options,metric,value";
+    private static final int BASELINE_RUNS = 5;
+
+    /**
+     * One measured value, tagged with the environment it was measured in
+     */
+    public record Entry(long timestamp, String revision, String tomcatVersion, String jdk, String options, String metric,
+                        double value) {
+
+        boolean isSameEnvironment(Entry other) {
+            return tomcatVersion.equals(other.tomcatVersion) && jdk.equals(other.jdk) && options.equals(other.options);
+        }
+
+        String toCsv() {
+            return timestamp + "," + sanitize(revision) + "," + sanitize(tomcatVersion) + "," + sanitize(jdk) + ","
+                    + sanitize(options) + "," + metric + "," + value;
+        }
+
+        @Nullable
+        static Entry parse(String line) {
+            List<String> fields = StringUtil.split(line, ",", true, false);
+            if (fields.size() == 6) {
+                // Recorded before the options column
+                fields.add(4, "");
+            }
+            if (fields.size() != 7) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(fields.get(0)), fields.get(1), fields.get(2), fields.get(3), fields.get(4),
+                        fields.get(5), Double.parseDouble(fields.get(6)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String sanitize(@Nullable String value) {
+            return value == null ? "" : value.replace(',', ' ').replace('\n', ' ').trim();
+        }
+    }
+
+    /**
+     * The check of the gated metrics of one run against the regression budget
+     *
+     * @param metrics the metrics recorded by the run, the gated ones among them are checked
+     */
+    public record GateResult(long timestamp, String configuration, String revision, boolean passed, List<String> metrics,
+                             List<String> regressions) {
+    }
+
+    private final Path file;
+
+    public PerfHistory(Path dir) {
+        this.file = dir.resolve(FILE_NAME);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void append(List<Entry> entries) throws IOException {
+        Files.createDirectories(file.getParent());
+        boolean created = !Files.exists(file);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (created) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+            for (Entry entry : entries) {
+                writer.write(entry.toCsv());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Replaces the result of the previous check, the file is never read half written
+     */
+    public synchronized void writeGateResult(GateResult result) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path gate = file.resolveSibling(GATE_FILE_NAME);
+        Path temp = file.resolveSibling(GATE_FILE_NAME + ".tmp");
+        Files.writeString(temp, GSON.toJson(result), StandardCharsets.UTF_8);
+        Files.move(temp, gate, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the entries in the recorded order, malformed lines are skipped
+     */
+    public synchronized List<Entry> read() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            Entry entry = Entry.parse(line);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Compares a value where lower is better with the median of the latest runs in the same environment,
+     * so that a change of Tomcat, JDK, JVM preset or diagnostics does not count as a regression.
+     *
+     * @return a description of the regression, or {@code null} if the value is within the budget or there is no previous run
+     */
+    @Nullable
+    public static String checkRegression(List<Entry> previous, Entry current, int budgetPercent) {
+        List<Double> values = new ArrayList<>();
+        for (int i = previous.size() - 1; i >= 0 && values.size() < BASELINE_RUNS; i--) {
+            Entry entry = previous.get(i);
+            if (entry.metric().equals(current.metric()) && entry.isSameEnvironment(current)) {
+                values.add(entry.value());
+            }
+        }
+        if (values.isEmpty()) {
+            return null;
+        }
+
+        values.sort(null);
+        int middle = values.size() / 2;
+        double median = values.size() % 2 == 1 ? values.get(middle) : (values.get(middle - 1) + values.get(middle)) / 2;
+        if (median <= 0 || current.value() <= median * (1 + budgetPercent / 100.0)) {
+            return null;
+        }
+        return String.format("%s regressed to %.1f from a median of %.1f over the last %d runs (+%.0f%%, budget %d%%)",
+                current.metric(), current.value(), median, values.size(), 100 * (current.value() - median) / median, budgetPercent);
+    }
+}
@@ -0,0 +1,157 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.dvcs.repo.Repository;
+import com.intellij.dvcs.repo.VcsRepositoryManager;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.poratu.idea.plugins.tomcat.conf.JfrProfile;
+import com.poratu.idea.plugins.tomcat.conf.JvmPreset;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the performance measurements of a run configuration in its {@link PerfHistory}, tagged with the VCS revision,
+ * the Tomcat version, the JDK and the options which change the measurements, and checks them against the regression budget of the run configuration.
+ */
+public final class PerfRecorder {
+    private static final Logger LOG = Logger.getInstance(PerfRecorder.class);
+    private static final String NOTIFICATION_GROUP = "com.poratu.idea.plugins.tomcat";
+    private static final int REVISION_LENGTH = 10;
+
+    private PerfRecorder() {
+    }
+
+    @Nullable
+    public static PerfHistory getHistory(TomcatRunConfiguration configuration) {
+        Path dir = PluginUtils.getPerfDir(configuration);
+        return dir == null ? null : new PerfHistory(dir);
+    }
+
+    /**
+     * Appends the metrics to the history
+     *
+     * @return the regressions of the gated metrics, startup time and p95 latency, beyond the budget
+     */
+    public static List<String> record(TomcatRunConfiguration configuration, Map<String, Double> metrics) throws IOException {
+        PerfHistory history = getHistory(configuration);
+        if (history == null) {
+            return List.of();
+        }
+
+        long timestamp = System.currentTimeMillis();
+        String revision = getRevision(configuration.getProject());
+        String tomcatVersion = configuration.getTomcatInfo() == null ? "" : configuration.getTomcatInfo().getVersion();
+        String jdk = getJdk(configuration);
+        String options = getOptions(configuration);
+        List<PerfHistory.Entry> entries = new ArrayList<>();
+        metrics.forEach((metric, value) -> {
+            if (!Double.isNaN(value)) {
+                entries.add(new PerfHistory.Entry(timestamp, revision, tomcatVersion, jdk, options, metric, value));
+            }
+        });
+
+        List<PerfHistory.Entry> previous = history.read();
+        history.append(entries);
+
+        List<String> regressions = new ArrayList<>();
+        Integer budget = configuration.getRegressionBudget();
+        if (budget != null) {
+            for (PerfHistory.Entry entry : entries) {
+                if (entry.metric().equals(PerfHistory.STARTUP_MILLIS) || entry.metric().equals(PerfHistory.LOAD_P95_MILLIS)) {
+                    String regression = PerfHistory.checkRegression(previous, entry, budget);
+                    if (regression != null) {
+                        regressions.add(regression);
+                    }
+                }
+            }
+            history.writeGateResult(new PerfHistory.GateResult(timestamp, configuration.getName(), revision,
+                    regressions.isEmpty(), new ArrayList<>(metrics.keySet()), regressions));
+        }
+        return regressions;
+    }
+
+    /**
+     * Records the server startup time of a run. A regression is notified, or printed to the console when the IDE is
+     * headless, where the build checks the result of the gate in {@link PerfHistory#GATE_FILE_NAME}.
+     */
+    public static void recordStartup(TomcatRunConfiguration configuration, ProcessHandler processHandler, long startupMillis) {
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                List<String> regressions = record(configuration, Map.of(PerfHistory.STARTUP_MILLIS, (double) startupMillis));
+                if (regressions.isEmpty()) {
+                    return;
+                }
+
+                if (ApplicationManager.getApplication().isHeadlessEnvironment()) {
+                    String message = "Performance budget exceeded: " + String.join("; ", regressions);
+                    processHandler.notifyTextAvailable(message + "\n", ProcessOutputTypes.STDERR);
+                    LOG.warn(configuration.getName() + ": " + message);
+                } else {
+                    showRegressions(configuration, regressions);
+                }
+            } catch (IOException e) {
+                LOG.warn("Failed to record the startup time of " + configuration.getName(), e);
+            }
+        });
+    }
+
+    public static void showRegressions(TomcatRunConfiguration configuration, List<String> regressions) {
+        Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "Performance regression in " + configuration.getName(),
+                StringUtil.join(regressions, "<br>"), NotificationType.WARNING), configuration.getProject());
+    }
+
+    /**
+     * @return the abbreviated revision checked out in the project directory, or an empty string outside a DVCS repository
+     */
+    private static String getRevision(Project project) {
+        VirtualFile projectDir = ProjectUtil.guessProjectDir(project);
+        Repository repository = projectDir == null ? null : VcsRepositoryManager.getInstance(project).getRepositoryForFileQuick(projectDir);
+        String revision = repository == null ? null : repository.getCurrentRevision();
+        return revision == null ? "" : StringUtil.first(revision, REVISION_LENGTH, false);
+    }
+
+    /**
+     * @return the JVM preset and the diagnostics of the launch, e.g. LOW_PAUSE_ZGC+jfr-PROFILE+gc-log, empty without any
+     */
+    static String getOptions(TomcatRunConfiguration configuration) {
+        List<String> options = new ArrayList<>();
+        if (configuration.getJvmPreset() != JvmPreset.NONE) {
+            options.add(configuration.getJvmPreset().name());
+        }
+        if (configuration.getJfrProfile() != JfrProfile.NONE) {
+            options.add("jfr-" + configuration.getJfrProfile().name());
+        }
+        if (configuration.isGcLogEnabled()) {
+            options.add("gc-log");
+        }
+        if (configuration.isClassLoadLogEnabled()) {
+            options.add("class-load-log");
+        }
+        return String.join("+", options);
+    }
+
+    private static String getJdk(TomcatRunConfiguration configuration) {
+        Sdk jdk = configuration.getJdk();
+        if (jdk == null) {
+            return "";
+        }
+        return jdk.getVersionString() != null ? jdk.getVersionString() : jdk.getName();
+    }
+}
@@ -0,0 +1,53 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Shows performance measurements side by side, one row per measured run
+ */
+public class PerfResultsDialog extends DialogWrapper {
+    private final List<String> columns;
+    private final List<List<String>> rows;
+
+    public PerfResultsDialog(@Nullable Project project, @NotNull String title, List<String> columns, List<List<String>> rows) {
+        super(project, false);
+        this.columns = columns;
+        this.rows = rows;
+        setTitle(title);
+        setModal(false);
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        DefaultTableModel model = new DefaultTableModel(columns.toArray(), 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (List<String> row : rows) {
+            model.addRow(row.toArray());
+        }
+
+        JBTable table = new JBTable(model);
+        JBScrollPane scrollPane = new JBScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(720, 200));
+        return scrollPane;
+    }
+
+    @Override
+    protected Action @NotNull [] createActions() {
+        return new Action[]{getOKAction()};
+    }
+}
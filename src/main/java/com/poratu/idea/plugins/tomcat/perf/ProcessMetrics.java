@@ -0,0 +1,46 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.BaseProcessHandler;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.util.ExecUtil;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.text.StringUtil;
+
+/**
+ * Measurements of the operating system process of a running Tomcat
+ */
+public final class ProcessMetrics {
+
+    private ProcessMetrics() {
+    }
+
+    /**
+     * @return the process id, or -1 if the process is not an operating system process
+     */
+    public static long getPid(ProcessHandler processHandler) {
+        if (processHandler instanceof BaseProcessHandler) {
+            return ((BaseProcessHandler<?>) processHandler).getProcess().pid();
+        }
+        return -1;
+    }
+
+    /**
+     * @return the resident set size in kilobytes, or -1 if it cannot be measured on this platform
+     */
+    public static long getRssKb(long pid) {
+        if (pid < 0 || SystemInfo.isWindows) {
+            return -1;
+        }
+
+        try {
+            ProcessOutput output = ExecUtil.execAndGetOutput(new GeneralCommandLine("ps", "-o", "rss=", "-p", String.valueOf(pid)));
+            String rss = output.getStdout().trim();
+            return output.getExitCode() == 0 && StringUtil.isNotEmpty(rss) ? Long.parseLong(rss) : -1;
+        } catch (ExecutionException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBRadioButton;
+import com.intellij.util.ui.FormBuilder;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.WebappConfig;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstance;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstanceRegistry;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends HTTP load to the running Tomcat of the selected run configuration, either to the roots of its contexts or
+ * replaying the requests of its access logs, and compares the result with the saved baseline.
+ */
+public class RunLoadTestAction extends DumbAwareAction {
+    private static final String BASELINE_FILE = "loadtest-baseline.properties";
+    private static final int MAX_REPLAYED_REQUESTS = 100_000;
+    private static final List<String> COLUMNS = Arrays.asList("Metric", "Current", "Baseline", "Change");
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        e.getPresentation().setEnabledAndVisible(project != null
+                && TomcatInstanceRegistry.getInstance(project).getSelectedInstance() != null);
+    }
+
+    @Override
+    @SuppressWarnings("HttpUrlsUsage")
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        TomcatInstance instance = project == null ? null : TomcatInstanceRegistry.getInstance(project).getSelectedInstance();
+        if (instance == null) {
+            return;
+        }
+
+        TomcatRunConfiguration configuration = instance.getConfiguration();
+        LoadTestDialog dialog = new LoadTestDialog(project);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        Path perfDir = PluginUtils.getPerfDir(configuration);
+        Path baselineFile = perfDir == null ? null : perfDir.resolve(BASELINE_FILE);
+        new Task.Backgroundable(project, "Load testing " + configuration.getName(), true) {
+            private List<List<String>> rows;
+            private List<String> regressions;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    List<LoadGenerator.Target> targets = dialog.isReplay()
+                            ? AccessLogReplay.read(instance.getLogsDir(), URI.create("http://localhost:" + configuration.getPort() + "/"), MAX_REPLAYED_REQUESTS)
+                            : getContextRoots(configuration);
+                    if (targets.isEmpty()) {
+                        throw new IllegalStateException(dialog.isReplay()
+                                ? "No GET, HEAD or OPTIONS request was found in the access logs of " + instance.getLogsDir()
+                                : "No web application is configured");
+                    }
+
+                    indicator.setText("Sending " + dialog.getModel() + " load to " + configuration.getName());
+                    LoadTestResult result = new LoadGenerator(targets, dialog.getModel(), dialog.getConcurrency(),
+                            dialog.getRate(), Duration.ofSeconds(dialog.getDurationSeconds())).run(indicator);
+
+                    LoadTestResult baseline = baselineFile == null ? null : LoadTestResult.load(baselineFile);
+                    rows = result.compareTo(baseline);
+                    if (dialog.isSaveBaseline() && baselineFile != null) {
+                        result.save(baselineFile);
+                    }
+
+                    regressions = PerfRecorder.record(configuration, Map.of(
+                            PerfHistory.LOAD_THROUGHPUT, result.getThroughput(),
+                            PerfHistory.LOAD_P95_MILLIS, result.getP95(),
+                            PerfHistory.LOAD_ERROR_RATE, result.getErrorRate()));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                new PerfResultsDialog(project, "Load Test: " + configuration.getName(), COLUMNS, rows).show();
+                if (!regressions.isEmpty()) {
+                    PerfRecorder.showRegressions(configuration, regressions);
+                }
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "Load Test Failed");
+            }
+        }.queue();
+    }
+
+    private static List<LoadGenerator.Target> getContextRoots(TomcatRunConfiguration configuration) {
+        List<LoadGenerator.Target> targets = new ArrayList<>();
+        for (WebappConfig webappConfig : configuration.getWebappConfigs()) {
+            targets.add(new LoadGenerator.Target("GET", PluginUtils.getContextUri(configuration, webappConfig)));
+        }
+        return targets;
+    }
+
+    private static class LoadTestDialog extends DialogWrapper {
+        private final ComboBox<LoadGenerator.Model> model = new ComboBox<>(LoadGenerator.Model.values());
+        private final JBIntSpinner concurrency = new JBIntSpinner(16, 1, 10_000);
+        private final JBIntSpinner rate = new JBIntSpinner(100, 1, 100_000);
+        private final JBIntSpinner durationSeconds = new JBIntSpinner(30, 1, 3600);
+        private final JBRadioButton contextRoots = new JBRadioButton("Context roots", true);
+        private final JBRadioButton replay = new JBRadioButton("Replay the access logs (GET, HEAD and OPTIONS requests)");
+        private final JBCheckBox saveBaseline = new JBCheckBox("Save the result as the baseline");
+
+        LoadTestDialog(Project project) {
+            super(project, true);
+            ButtonGroup source = new ButtonGroup();
+            source.add(contextRoots);
+            source.add(replay);
+            model.addActionListener(e -> rate.setEnabled(getModel() == LoadGenerator.Model.OPEN));
+            rate.setEnabled(false);
+            setTitle("Run Load Test");
+            init();
+        }
+
+        LoadGenerator.Model getModel() {
+            return (LoadGenerator.Model) model.getSelectedItem();
+        }
+
+        int getConcurrency() {
+            return concurrency.getNumber();
+        }
+
+        int getRate() {
+            return rate.getNumber();
+        }
+
+        int getDurationSeconds() {
+            return durationSeconds.getNumber();
+        }
+
+        boolean isReplay() {
+            return replay.isSelected();
+        }
+
+        boolean isSaveBaseline() {
+            return saveBaseline.isSelected();
+        }
+
+        @Override
+        protected @Nullable JComponent createCenterPanel() {
+            return FormBuilder.createFormBuilder()
+                    .addLabeledComponent("Load model:", model)
+                    .addLabeledComponent("Concurrency (users or max in flight):", concurrency)
+                    .addLabeledComponent("Arrival rate (req/s):", rate)
+                    .addLabeledComponent("Duration (seconds):", durationSeconds)
+                    .addLabeledComponent("Requests:", contextRoots)
+                    .addComponentToRightColumn(replay)
+                    .addComponent(saveBaseline)
+                    .getPanel();
+        }
+    }
+}
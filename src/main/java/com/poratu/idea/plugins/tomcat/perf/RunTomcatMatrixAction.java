@@ -0,0 +1,216 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.JavaSdk;
+import com.intellij.openapi.projectRoots.ProjectJdkTable;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.CheckBoxList;
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.FormBuilder;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.WebappConfig;
+import com.poratu.idea.plugins.tomcat.setting.TomcatInfo;
+import com.poratu.idea.plugins.tomcat.setting.TomcatServerManagerState;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Launches the web applications of the selected run configuration on each selected Tomcat installation and JDK in turn,
+ * runs the same warm-up and load on each combination, and compares startup, memory and latency side by side.
+ * Each combination runs on an isolated copy of the configuration, see {@link TomcatInstanceLauncher#createIsolatedCopy}.
+ */
+public class RunTomcatMatrixAction extends DumbAwareAction {
+    private static final int WARM_UP_CONCURRENCY = 4;
+    private static final List<String> COLUMNS = Arrays.asList(
+            "Tomcat", "JDK", "Startup (ms)", "RSS after startup (MB)", "RSS after load (MB)",
+            "Throughput (req/s)", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Errors (%)");
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(CompareJvmPresetsAction.getSelectedConfiguration(e.getProject()) != null);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        TomcatRunConfiguration configuration = CompareJvmPresetsAction.getSelectedConfiguration(project);
+        if (configuration == null) {
+            return;
+        }
+
+        MatrixDialog dialog = new MatrixDialog(project, configuration);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        List<TomcatInfo> tomcatInfos = dialog.getTomcatInfos();
+        List<Sdk> jdks = dialog.getJdks();
+        Duration warmUp = Duration.ofSeconds(dialog.getWarmUpSeconds());
+        Duration load = Duration.ofSeconds(dialog.getLoadSeconds());
+        int concurrency = dialog.getConcurrency();
+        new Task.Backgroundable(project, "Running the Tomcat matrix", true) {
+            private final List<List<String>> rows = new ArrayList<>();
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                int total = tomcatInfos.size() * jdks.size();
+                for (TomcatInfo tomcatInfo : tomcatInfos) {
+                    for (Sdk jdk : jdks) {
+                        indicator.setFraction((double) rows.size() / total);
+                        rows.add(measure(configuration, tomcatInfo, jdk, warmUp, load, concurrency, indicator));
+                    }
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                new PerfResultsDialog(project, "Tomcat Matrix: " + configuration.getName(), COLUMNS, rows).show();
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                Messages.showErrorDialog(project, error.getMessage(), "Tomcat Matrix Failed");
+            }
+        }.queue();
+    }
+
+    /**
+     * A combination which fails, e.g. a javax webapp on Tomcat 10, is reported in its row and the matrix goes on
+     */
+    private static List<String> measure(TomcatRunConfiguration configuration, TomcatInfo tomcatInfo, Sdk jdk,
+                                        Duration warmUp, Duration load, int concurrency, ProgressIndicator indicator) {
+        String combination = tomcatInfo.getName() + " on " + jdk.getName();
+        TomcatInstanceLauncher launcher = null;
+        try {
+            TomcatRunConfiguration run = TomcatInstanceLauncher.createIsolatedCopy(configuration, "matrix", combination);
+            run.setSynthetic(true);
+            run.setTomcatInfo(tomcatInfo);
+            run.setAlternativeJdk(jdk);
+            launcher = new TomcatInstanceLauncher(run);
+
+            indicator.setText("Starting " + combination);
+            long startupMillis = launcher.launch(indicator);
+            long startedRss = ProcessMetrics.getRssKb(launcher.getPid());
+
+            URI uri = PluginUtils.getContextUri(run, run.getWebappConfigs().get(0));
+            indicator.setText("Warming up " + uri + " on " + combination);
+            new WarmUp(uri, WARM_UP_CONCURRENCY, warmUp).run(indicator);
+
+            List<LoadGenerator.Target> targets = new ArrayList<>();
+            for (WebappConfig webappConfig : run.getWebappConfigs()) {
+                targets.add(new LoadGenerator.Target("GET", PluginUtils.getContextUri(run, webappConfig)));
+            }
+            indicator.setText("Sending load to " + combination);
+            LoadTestResult result = new LoadGenerator(targets, LoadGenerator.Model.CLOSED, concurrency, 0, load).run(indicator);
+            long loadedRss = ProcessMetrics.getRssKb(launcher.getPid());
+
+            return Arrays.asList(tomcatInfo.getName(), jdk.getName(), String.valueOf(startupMillis),
+                    CompareJvmPresetsAction.formatMegabytes(startedRss), CompareJvmPresetsAction.formatMegabytes(loadedRss),
+                    String.format("%.1f", result.getThroughput()), String.format("%.1f", result.getP50()),
+                    String.format("%.1f", result.getP95()), String.format("%.1f", result.getP99()),
+                    String.format("%.2f", result.getErrorRate() * 100));
+        } catch (ExecutionException | IOException e) {
+            return Arrays.asList(tomcatInfo.getName(), jdk.getName(), "failed: " + e.getMessage(), "", "", "", "", "", "", "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } finally {
+            if (launcher != null) {
+                indicator.setText("Stopping " + combination);
+                launcher.stop();
+            }
+        }
+    }
+
+    private static class MatrixDialog extends DialogWrapper {
+        private final CheckBoxList<TomcatInfo> tomcatInfos = new CheckBoxList<>();
+        private final CheckBoxList<Sdk> jdks = new CheckBoxList<>();
+        private final JBIntSpinner warmUpSeconds = new JBIntSpinner(30, 5, 600);
+        private final JBIntSpinner loadSeconds = new JBIntSpinner(30, 5, 3600);
+        private final JBIntSpinner concurrency = new JBIntSpinner(16, 1, 10_000);
+
+        MatrixDialog(Project project, TomcatRunConfiguration configuration) {
+            super(project, true);
+            for (TomcatInfo tomcatInfo : TomcatServerManagerState.getInstance().getTomcatInfos()) {
+                tomcatInfos.addItem(tomcatInfo, tomcatInfo.getName() + " (" + tomcatInfo.getPath() + ")",
+                        Objects.equals(tomcatInfo, configuration.getTomcatInfo()));
+            }
+            Sdk projectJdk = configuration.getJdk();
+            for (Sdk jdk : ProjectJdkTable.getInstance().getSdksOfType(JavaSdk.getInstance())) {
+                String version = jdk.getVersionString();
+                jdks.addItem(jdk, version == null ? jdk.getName() : jdk.getName() + " (" + version + ")",
+                        projectJdk != null && jdk.getName().equals(projectJdk.getName()));
+            }
+            setTitle("Run Tomcat Matrix");
+            init();
+        }
+
+        List<TomcatInfo> getTomcatInfos() {
+            return tomcatInfos.getCheckedItems();
+        }
+
+        List<Sdk> getJdks() {
+            return jdks.getCheckedItems();
+        }
+
+        int getWarmUpSeconds() {
+            return warmUpSeconds.getNumber();
+        }
+
+        int getLoadSeconds() {
+            return loadSeconds.getNumber();
+        }
+
+        int getConcurrency() {
+            return concurrency.getNumber();
+        }
+
+        @Override
+        protected @Nullable ValidationInfo doValidate() {
+            if (getTomcatInfos().isEmpty()) {
+                return new ValidationInfo("Select at least one Tomcat installation", tomcatInfos);
+            }
+            if (getJdks().isEmpty()) {
+                return new ValidationInfo("Select at least one JDK", jdks);
+            }
+            return null;
+        }
+
+        @Override
+        protected @Nullable JComponent createCenterPanel() {
+            return FormBuilder.createFormBuilder()
+                    .addLabeledComponent("Tomcat installations:", new JBScrollPane(tomcatInfos), true)
+                    .addLabeledComponent("JDKs:", new JBScrollPane(jdks), true)
+                    .addLabeledComponent("Warm-up duration (seconds):", warmUpSeconds)
+                    .addLabeledComponent("Load duration (seconds):", loadSeconds)
+                    .addLabeledComponent("Concurrent users:", concurrency)
+                    .getPanel();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.poratu.idea.plugins.tomcat.conf.JfrProfile;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstance;
+import com.poratu.idea.plugins.tomcat.monitor.TomcatInstanceRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Starts or stops a JFR recording of the running Tomcat of the selected run configuration, through `jcmd`.
+ * A stopped recording is summarized and the summary is opened in the editor.
+ */
+public class ToggleJfrRecordingAction extends DumbAwareAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        TomcatInstance instance = getTargetInstance(e.getProject());
+        e.getPresentation().setEnabledAndVisible(instance != null);
+        if (instance != null) {
+            e.getPresentation().setText(instance.getJfrRecording() == null
+                    ? "Start JFR Recording of " + instance.getConfiguration().getName()
+                    : "Stop JFR Recording of " + instance.getConfiguration().getName());
+        }
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        TomcatInstance instance = getTargetInstance(project);
+        if (instance == null) {
+            return;
+        }
+
+        boolean start = instance.getJfrRecording() == null;
+        new Task.Backgroundable(project, start ? "Starting JFR recording" : "Stopping JFR recording", false) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    if (start) {
+                        JfrProfile profile = instance.getConfiguration().getJfrProfile();
+                        JfrRecorder.start(instance, profile == JfrProfile.NONE ? JfrProfile.PROFILE : profile);
+                        JfrRecorder.showNotification(project, "Recording " + instance + " to " + instance.getJfrRecording(), NotificationType.INFORMATION);
+                    } else {
+                        JfrRecorder.stop(instance);
+                    }
+                } catch (ExecutionException | IOException ex) {
+                    JfrRecorder.showNotification(project, ex.getMessage(), NotificationType.ERROR);
+                }
+            }
+        }.queue();
+    }
+
+    @Nullable
+    private static TomcatInstance getTargetInstance(@Nullable Project project) {
+        return project == null ? null : TomcatInstanceRegistry.getInstance(project).getSelectedInstance();
+    }
+}
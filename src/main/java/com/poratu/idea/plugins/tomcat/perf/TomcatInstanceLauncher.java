@@ -0,0 +1,131 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ExecutionEnvironmentBuilder;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.net.NetUtils;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.utils.PluginUtils;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Launches a run configuration from a background task and waits until Tomcat has started
+ */
+public class TomcatInstanceLauncher {
+    private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final TomcatRunConfiguration configuration;
+    private ProcessHandler processHandler;
+    private TomcatStartupListener startupListener;
+
+    public TomcatInstanceLauncher(TomcatRunConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @return the server startup time in milliseconds reported by Tomcat
+     */
+    public long launch(ProgressIndicator indicator) throws ExecutionException {
+        CompletableFuture<ProcessHandler> started = new CompletableFuture<>();
+        startupListener = new TomcatStartupListener();
+
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            try {
+                ExecutionEnvironment environment = ExecutionEnvironmentBuilder
+                        .create(configuration.getProject(), DefaultRunExecutor.getRunExecutorInstance(), configuration)
+                        .build(descriptor -> {
+                            ProcessHandler handler = descriptor.getProcessHandler();
+                            if (handler == null) {
+                                started.completeExceptionally(new ExecutionException("Tomcat process was not started"));
+                            } else {
+                                handler.addProcessListener(startupListener);
+                                started.complete(handler);
+                            }
+                        });
+                environment.getRunner().execute(environment);
+            } catch (ExecutionException e) {
+                started.completeExceptionally(e);
+            }
+        });
+
+        processHandler = await(started, indicator);
+        return await(startupListener.getStartupMillis(), indicator);
+    }
+
+    /**
+     * A copy of the run configuration which can run while the configuration itself is running. The copy has its own
+     * name, so the conf copied from the Tomcat installation, the RAM disk base and the performance history are its own,
+     * its own Catalina base next to the base of the configuration, and free ports.
+     *
+     * @param purpose the folder of the copies in the Catalina base of the configuration, e.g. "matrix"
+     * @param variant what the copy runs, e.g. the Tomcat installation and JDK of a matrix combination
+     */
+    public static TomcatRunConfiguration createIsolatedCopy(TomcatRunConfiguration configuration, String purpose, String variant)
+            throws ExecutionException {
+        Path diskBase = PluginUtils.getDiskCatalinaBase(configuration);
+        if (diskBase == null) {
+            throw new ExecutionException("The Catalina base of " + configuration.getName() + " cannot be created");
+        }
+
+        String dirName = FileUtil.sanitizeFileName(variant);
+        TomcatRunConfiguration run = (TomcatRunConfiguration) configuration.clone();
+        run.setName(configuration.getName() + " " + purpose + " " + dirName);
+        run.setCatalinaBase(diskBase.resolve(purpose).resolve(dirName).toString());
+        run.setPort(NetUtils.findAvailableSocketPort());
+        run.setAdminPort(NetUtils.findAvailableSocketPort());
+        if (run.getSslPort() != null) {
+            run.setSslPort(NetUtils.findAvailableSocketPort());
+        }
+        if (run.getJmxPort() != null) {
+            run.setJmxPort(NetUtils.findAvailableSocketPort());
+        }
+        return run;
+    }
+
+    public ProcessHandler getProcessHandler() {
+        return processHandler;
+    }
+
+    public long getPid() {
+        return processHandler == null ? -1 : ProcessMetrics.getPid(processHandler);
+    }
+
+    public void stop() {
+        if (processHandler != null && !processHandler.isProcessTerminated()) {
+            processHandler.destroyProcess();
+            processHandler.waitFor(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future, ProgressIndicator indicator) throws ExecutionException {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (true) {
+            if (indicator.isCanceled()) {
+                throw new ProcessCanceledException();
+            }
+            try {
+                return future.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new ExecutionException("Tomcat did not start within " + TimeUnit.MILLISECONDS.toMinutes(STARTUP_TIMEOUT_MILLIS) + " minutes");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException();
+            } catch (java.util.concurrent.ExecutionException e) {
+                throw new ExecutionException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Completes when Tomcat logs the server startup time, e.g.
+ * <pre>
+ * 21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1,012] milliseconds
+ * </pre>
+ * It completes exceptionally if the process terminates before.
+ */
+public class TomcatStartupListener extends ProcessAdapter {
+    private static final Pattern SERVER_STARTUP = Pattern.compile("Server startup in \\[?([\\d,.\\s]+)]? (?:ms|milliseconds)");
+
+    private final CompletableFuture<Long> startupMillis = new CompletableFuture<>();
+
+    /**
+     * @return the startup time in milliseconds, or -1 if the line is not the server startup log
+     */
+    public static long parseServerStartupMillis(String s) {
+        Matcher matcher = SERVER_STARTUP.matcher(s);
+        if (!matcher.find()) {
+            return -1;
+        }
+        String digits = matcher.group(1).replaceAll("[^\\d]", "");
+        return digits.isEmpty() ? -1 : Long.parseLong(digits);
+    }
+
+    public CompletableFuture<Long> getStartupMillis() {
+        return startupMillis;
+    }
+
+    @Override
+    public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
+        if (startupMillis.isDone()) {
+            return;
+        }
+
+        long millis = parseServerStartupMillis(event.getText());
+        if (millis >= 0) {
+            startupMillis.complete(millis);
+        }
+    }
+
+    @Override
+    public void processTerminated(@NotNull ProcessEvent event) {
+        startupMillis.completeExceptionally(new IllegalStateException("Tomcat terminated with exit code " + event.getExitCode()));
+    }
+}
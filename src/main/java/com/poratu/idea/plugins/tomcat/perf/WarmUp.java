@@ -0,0 +1,83 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends requests to a URL from a fixed number of clients for a while, to warm up the JIT and measure the throughput
+ */
+public class WarmUp {
+    private final URI uri;
+    private final int concurrency;
+    private final Duration duration;
+
+    public WarmUp(URI uri, int concurrency, Duration duration) {
+        this.uri = uri;
+        this.concurrency = concurrency;
+        this.duration = duration;
+    }
+
+    /**
+     * @return the successful requests per second, and the failed requests (an I/O error or a 4xx/5xx status)
+     */
+    public Result run(ProgressIndicator indicator) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                clients.add(executor.submit(() -> {
+                    while (System.nanoTime() < end && !indicator.isCanceled()) {
+                        try {
+                            // An error page is often much cheaper than the page, it would inflate the throughput
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400) {
+                                completed.increment();
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (IOException e) {
+                            errors.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                try {
+                    future.get();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(completed.sum() / seconds, errors.sum());
+    }
+
+    public record Result(double throughput, long errors) {
+    }
+}
@@ -9,14 +9,20 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.options.ConfigurationException;
 import com.intellij.openapi.options.ShowSettingsUtil;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.JavaSdk;
+import com.intellij.openapi.projectRoots.JavaSdkVersion;
+import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ModuleFileIndex;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.ArrayUtil;
 import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.WebappConfig;
+import com.poratu.idea.plugins.tomcat.perf.LaunchTrace;
 import com.poratu.idea.plugins.tomcat.setting.TomcatInfo;
 import com.poratu.idea.plugins.tomcat.setting.TomcatServerManagerState;
 import com.poratu.idea.plugins.tomcat.setting.TomcatServersConfigurable;
@@ -33,6 +39,7 @@ import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -100,9 +107,15 @@ public final class PluginUtils {
                 .ifPresent(callback));
     }
 
+    /**
+     * The folder of the default Catalina bases, one per project, e.g. ~/.SmartTomcat/project
+     */
+    public static Path getDefaultCatalinaBasesRoot() {
+        return Paths.get(System.getProperty("user.home"), ".SmartTomcat");
+    }
+
     @Nullable
     private static Path defaultCatalinaBase(TomcatRunConfiguration configuration) {
-        String userHome = System.getProperty("user.home");
         Project project = configuration.getProject();
        /* Module module = configuration.getModule();
 
@@ -110,7 +123,7 @@ public final class PluginUtils {
             return null;
         } */
 
-        Path path = Paths.get(userHome, ".SmartTomcat", project.getName()); //, module.getName());
+        Path path = getDefaultCatalinaBasesRoot().resolve(project.getName()); //, module.getName());
         if (!Files.exists(path)) {
             try {
                 Files.createDirectories(path);
@@ -124,6 +137,21 @@ public final class PluginUtils {
 
     @Nullable
     public static Path getCatalinaBase(TomcatRunConfiguration configuration) {
+        if (configuration.isRamDiskEnabled()) {
+            Path ramDiskBase = RamDiskSupport.getCatalinaBase(configuration);
+            if (ramDiskBase != null) {
+                return ramDiskBase;
+            }
+        }
+
+        return getDiskCatalinaBase(configuration);
+    }
+
+    /**
+     * The Catalina base on disk, it keeps the persistent files when the Catalina base is on a RAM disk
+     */
+    @Nullable
+    public static Path getDiskCatalinaBase(TomcatRunConfiguration configuration) {
         if(!StringUtil.isEmptyOrSpaces(configuration.getCatalinaBase())) {
             /* CATALINA_BASE override from intellij run configuration */
             return Paths.get(configuration.getCatalinaBase());
@@ -140,6 +168,25 @@ public final class PluginUtils {
         return null;
     }
 
+    /**
+     * The directory of the performance measurements of a run configuration, e.g. .smarttomcat/Tomcat/perf in the project
+     */
+    @Nullable
+    public static Path getPerfDir(TomcatRunConfiguration configuration) {
+        String basePath = configuration.getProject().getBasePath();
+        return basePath == null ? null : Paths.get(basePath, ".smarttomcat", FileUtil.sanitizeFileName(configuration.getName()), "perf");
+    }
+
+    /**
+     * The URI of a web application on the HTTP port, e.g. http://localhost:8080/app/
+     */
+    @SuppressWarnings("HttpUrlsUsage")
+    public static URI getContextUri(TomcatRunConfiguration configuration, WebappConfig webappConfig) {
+        String contextPath = StringUtil.trimEnd(StringUtil.trimStart(webappConfig.getContextPath(), "/"), "/");
+        String path = contextPath.isEmpty() ? "/" : "/" + contextPath + "/";
+        return URI.create("http://localhost:" + configuration.getPort() + path);
+    }
+
     @SuppressWarnings("HttpUrlsUsage")
     public static DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
         DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
@@ -209,6 +256,8 @@ public final class PluginUtils {
             return webRoots;
         }
 
+        long start = System.nanoTime();
+        int[] visited = new int[1];
         ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(module);
         ModuleFileIndex fileIndex = moduleRootManager.getFileIndex();
         VirtualFile[] sourceRoots = moduleRootManager.getSourceRoots(false);
@@ -217,25 +266,36 @@ public final class PluginUtils {
                 .distinct()
                 .collect(Collectors.toList());
 
+        List<String> webRootPaths = new ArrayList<>();
         for (VirtualFile parentRoot : parentRoots) {
             fileIndex.iterateContentUnderDirectory(parentRoot, file -> {
-                Path path = Paths.get(file.getPath(), "WEB-INF" + File.separator + "web.xml");
-                if (Files.exists(path)) {
+                visited[0]++;
+                if (isWebRoot(file.getPath())) {
                     webRoots.add(file);
+                    webRootPaths.add(file.getPath());
                 }
                 return true;
-            }, file -> {
-                if (file.isDirectory()) {
-                    String path = file.getPath();
-                    return webRoots.stream().noneMatch(root -> file.getPath().startsWith(root.getPath())) && !path.contains("node_modules");
-                }
-                return false;
-            });
+            }, file -> file.isDirectory() && isWebRootCandidate(file.getPath(), webRootPaths));
         }
 
+        LaunchTrace.record(module.getProject(), "findWebRoots(" + module.getName() + ")", start, visited[0]);
         return webRoots;
     }
 
+    /**
+     * A web root has WEB-INF/web.xml
+     */
+    static boolean isWebRoot(String path) {
+        return Files.exists(Paths.get(path, "WEB-INF" + File.separator + "web.xml"));
+    }
+
+    /**
+     * The directories under a web root and node_modules are not searched
+     */
+    static boolean isWebRootCandidate(String directoryPath, List<String> webRootPaths) {
+        return webRootPaths.stream().noneMatch(directoryPath::startsWith) && !directoryPath.contains("node_modules");
+    }
+
     public static List<VirtualFile> findWebRoots(Project project) {
         Module[] modules = ModuleManager.getInstance(project).getModules();
         List<VirtualFile> webRoots = new ArrayList<>();
@@ -321,6 +381,18 @@ public final class PluginUtils {
         return ModuleUtilCore.findModuleForFile(virtualFile, project);
     }
 
+    /**
+     * @return the feature version of the JDK, e.g. 17, or -1 if it is unknown
+     */
+    public static int getJavaFeatureVersion(@Nullable Sdk sdk) {
+        if (sdk == null || !(sdk.getSdkType() instanceof JavaSdk)) {
+            return -1;
+        }
+
+        JavaSdkVersion version = JavaSdk.getInstance().getVersion(sdk);
+        return version == null ? -1 : version.getMaxLanguageLevel().toJavaVersion().feature;
+    }
+
     /**
      * Checks if the given folder is empty.
      *
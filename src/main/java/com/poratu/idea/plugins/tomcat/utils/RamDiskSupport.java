@@ -0,0 +1,199 @@
+package com.poratu.idea.plugins.tomcat.utils;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.configurations.ConfigurationTypeUtil;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfiguration;
+import com.poratu.idea.plugins.tomcat.conf.TomcatRunConfigurationType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Places the Catalina base of a run configuration on a RAM disk, e.g. `/dev/shm/SmartTomcat-user/project/config`.
+ * The work folder (session persistence files and the JSP cache) is restored from the Catalina base on disk
+ * before the launch, and synced back when Tomcat stops.
+ */
+public final class RamDiskSupport {
+    private static final Logger LOG = Logger.getInstance(RamDiskSupport.class);
+    private static final String WORK_DIR = "work";
+    private static final long STALE_PROJECT_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private RamDiskSupport() {
+    }
+
+    /**
+     * @return the root of all RAM disk bases, or {@code null} if the RAM disk is not available
+     */
+    @Nullable
+    public static Path getRamDiskRoot() {
+        String ramDiskPath = Registry.stringValue("smartTomcat.ramDisk.path");
+        if (StringUtil.isEmptyOrSpaces(ramDiskPath)) {
+            return null;
+        }
+
+        Path path = Paths.get(ramDiskPath);
+        if (!Files.isDirectory(path) || !Files.isWritable(path)) {
+            return null;
+        }
+
+        return path.resolve("SmartTomcat-" + FileUtil.sanitizeFileName(System.getProperty("user.name")));
+    }
+
+    /**
+     * @return the RAM disk base of the run configuration, which is only created by {@link #prepare}
+     */
+    @Nullable
+    public static Path getCatalinaBase(TomcatRunConfiguration configuration) {
+        Path root = getRamDiskRoot();
+        if (root == null) {
+            return null;
+        }
+
+        return root.resolve(FileUtil.sanitizeFileName(configuration.getProject().getName()))
+                .resolve(FileUtil.sanitizeFileName(configuration.getName()));
+    }
+
+    /**
+     * Create the base, clean up the stale bases and restore the work folder before the launch
+     *
+     * @throws IOException if the RAM disk bases still exceed the size cap after the clean-up
+     */
+    public static void prepare(TomcatRunConfiguration configuration, Path ramDiskBase, Path diskBase) throws IOException {
+        Files.createDirectories(ramDiskBase);
+        Path root = ramDiskBase.getParent().getParent();
+        cleanupStaleBases(configuration.getProject(), root);
+        enforceSizeCap(root, ramDiskBase);
+
+        Path ramDiskWork = ramDiskBase.resolve(WORK_DIR);
+        Path diskWork = diskBase.resolve(WORK_DIR);
+        if (!Files.exists(ramDiskWork) && Files.isDirectory(diskWork)) {
+            FileUtil.copyDir(diskWork.toFile(), ramDiskWork.toFile());
+        }
+    }
+
+    /**
+     * Copy the session persistence files and the JSP cache back to the disk. The copy is written next to the work
+     * folder on disk and swapped in once complete, so a failed copy leaves the previous work folder in place.
+     */
+    public static void syncBack(Path ramDiskBase, Path diskBase) {
+        Path ramDiskWork = ramDiskBase.resolve(WORK_DIR);
+        if (!Files.isDirectory(ramDiskWork)) {
+            return;
+        }
+
+        Path diskWork = diskBase.resolve(WORK_DIR);
+        Path copy = diskBase.resolve(WORK_DIR + ".sync");
+        Path previous = diskBase.resolve(WORK_DIR + ".old");
+        try {
+            // Left over by an interrupted sync, the work folder is only missing if it was interrupted in the swap
+            FileUtil.delete(copy);
+            if (!Files.exists(diskWork) && Files.isDirectory(previous)) {
+                Files.move(previous, diskWork);
+            }
+            FileUtil.delete(previous);
+
+            FileUtil.copyDir(ramDiskWork.toFile(), copy.toFile());
+            if (Files.exists(diskWork)) {
+                Files.move(diskWork, previous);
+            }
+            Files.move(copy, diskWork);
+            FileUtil.delete(previous);
+        } catch (IOException e) {
+            LOG.warn("Failed to sync " + ramDiskWork + " to " + diskWork, e);
+            FileUtil.delete(copy.toFile());
+        }
+    }
+
+    /**
+     * Delete the bases of removed run configurations of the project,
+     * and the bases of other projects which have not been used for a week.
+     * The nodes of a cluster have the base of the run configuration name and their route, e.g. "Tomcat node2".
+     */
+    private static void cleanupStaleBases(Project project, Path root) throws IOException {
+        String projectDirName = FileUtil.sanitizeFileName(project.getName());
+        List<String> configurationDirNames = RunManager.getInstance(project)
+                .getConfigurationsList(ConfigurationTypeUtil.findConfigurationType(TomcatRunConfigurationType.class))
+                .stream()
+                .map(configuration -> FileUtil.sanitizeFileName(configuration.getName()))
+                .collect(Collectors.toList());
+
+        for (Path projectDir : listDirectories(root)) {
+            if (projectDirName.equals(projectDir.getFileName().toString())) {
+                for (Path configurationDir : listDirectories(projectDir)) {
+                    if (!isConfigurationDir(configurationDir.getFileName().toString(), configurationDirNames)) {
+                        FileUtil.delete(configurationDir);
+                    }
+                }
+            } else if (System.currentTimeMillis() - Files.getLastModifiedTime(projectDir).toMillis() > STALE_PROJECT_MILLIS) {
+                FileUtil.delete(projectDir);
+            }
+        }
+    }
+
+    private static boolean isConfigurationDir(String dirName, List<String> configurationDirNames) {
+        for (String name : configurationDirNames) {
+            if (dirName.equals(name) || dirName.startsWith(FileUtil.sanitizeFileName(name + " node"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void enforceSizeCap(Path root, Path ramDiskBase) throws IOException {
+        long maxSize = Registry.intValue("smartTomcat.ramDisk.maxSizeMb", 512) * 1024L * 1024L;
+        if (maxSize <= 0 || directorySize(root) <= maxSize) {
+            return;
+        }
+
+        // The logs of the previous days are the only files which grow without bounds
+        long startOfToday = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        File[] logFiles = ramDiskBase.resolve("logs").toFile().listFiles(file -> file.isFile() && file.lastModified() < startOfToday);
+        if (logFiles != null) {
+            for (File logFile : logFiles) {
+                FileUtil.delete(logFile);
+            }
+        }
+
+        long size = directorySize(root);
+        if (size > maxSize) {
+            throw new IOException("The Catalina bases in " + root + " use " + StringUtil.formatFileSize(size)
+                    + ", which exceeds the RAM disk cap of " + StringUtil.formatFileSize(maxSize)
+                    + " (registry key smartTomcat.ramDisk.maxSizeMb)");
+        }
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.map(Path::toFile).filter(File::isFile).mapToLong(File::length).sum();
+        }
+    }
+
+    @NotNull
+    private static List<Path> listDirectories(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(Files::isDirectory).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.poratu.idea.plugins.tomcat.shared;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear latency histogram in microseconds, in the spirit of HdrHistogram:
+ * each power of two is split in {@link #SUB_BUCKETS} linear buckets, so the relative error is below 1 / {@link #SUB_BUCKETS}.
+ * Recording is lock-free and allocation-free, it is safe to call from request threads.
+ * <p>
+ * Shared by the Tomcat agent, which records, and the IDE, which computes the percentiles of the received bucket counts.
+ * It must stay compatible with Java 8.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // About 12.7 days, longer requests are recorded in the last bucket
+    private static final int MAX_EXPONENT = 40;
+    public static final int BUCKET_COUNT = bucketIndex((1L << (MAX_EXPONENT + 1)) - 1) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+
+    public void record(long micros) {
+        counts.incrementAndGet(bucketIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getTotalMicros() {
+        return totalMicros.get();
+    }
+
+    /**
+     * Calls the consumer for each non-empty bucket, the counts are read without locking and may be slightly inconsistent
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                consumer.accept(i, count);
+            }
+        }
+    }
+
+    public interface BucketConsumer {
+        void accept(int index, long count);
+    }
+
+    public static int bucketIndex(long micros) {
+        long value = Math.max(0, Math.min(micros, (1L << (MAX_EXPONENT + 1)) - 1));
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value recorded in the bucket
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * @param counts the bucket counts, indexed like {@link #bucketIndex(long)}
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the percentile, or -1 if there are no values
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return -1;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(counts.length - 1);
+    }
+}
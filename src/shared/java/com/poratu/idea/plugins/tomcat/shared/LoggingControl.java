@@ -0,0 +1,18 @@
+package com.poratu.idea.plugins.tomcat.shared;
+
+/**
+ * The names shared by the generated logging.properties, the logging MBean of the Tomcat agent and the IDE.
+ * The MBean {@link #OBJECT_NAME} has the operation {@code setLevel(String logger, String level)}, where an empty level
+ * makes the logger inherit the level of its parent again, and the attribute {@code DroppedRecords}.
+ * It must stay compatible with Java 8.
+ */
+public final class LoggingControl {
+    public static final String OBJECT_NAME = "SmartTomcat:type=Logging";
+    public static final String SET_LEVEL = "setLevel";
+    public static final String DROPPED_RECORDS = "DroppedRecords";
+    public static final String RATE_LIMIT_FILTER_CLASS = "com.poratu.idea.plugins.tomcat.juli.RateLimitFilter";
+    public static final String RATE_LIMIT_PROPERTY = "smarttomcat.logging.recordsPerSecond";
+
+    private LoggingControl() {
+    }
+}
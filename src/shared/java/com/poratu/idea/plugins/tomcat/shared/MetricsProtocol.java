@@ -0,0 +1,39 @@
+package com.poratu.idea.plugins.tomcat.shared;
+
+/**
+ * The line based protocol between the Tomcat agent and the IDE.
+ * The agent connects to the loopback port given by {@link #PORT_PROPERTY} and sends one snapshot per interval:
+ * <pre>
+ * R &lt;tab&gt; context &lt;tab&gt; servlet name &lt;tab&gt; servlet class &lt;tab&gt; mappings &lt;tab&gt; count &lt;tab&gt; total micros &lt;tab&gt; index:count,index:count...
+ * E
+ * </pre>
+ * The counts are cumulative since the context started, the receiver computes rates from consecutive snapshots.
+ * A completed slow request is sent before a snapshot, with its folded stacks (root frame first, frames as {@code class.method:line}):
+ * <pre>
+ * S &lt;tab&gt; context &lt;tab&gt; method &lt;tab&gt; uri &lt;tab&gt; thread &lt;tab&gt; duration micros &lt;tab&gt; sample count
+ * F &lt;tab&gt; count &lt;tab&gt; frame;frame;frame...
+ * </pre>
+ * It must stay compatible with Java 8.
+ */
+public final class MetricsProtocol {
+    public static final String PORT_PROPERTY = "smarttomcat.metrics.port";
+    public static final String INTERVAL_PROPERTY = "smarttomcat.metrics.intervalMillis";
+    public static final String SAMPLER_INTERVAL_PROPERTY = "smarttomcat.sampler.intervalMillis";
+    public static final String RECORD = "R";
+    public static final String END_OF_SNAPSHOT = "E";
+    public static final String SLOW_REQUEST = "S";
+    public static final String STACK = "F";
+    public static final String FRAME_SEPARATOR = ";";
+    public static final char SEPARATOR = '\t';
+    public static final String MAPPING_SEPARATOR = ",";
+
+    private MetricsProtocol() {
+    }
+
+    /**
+     * Replaces the characters which would break the framing of a line
+     */
+    public static String sanitize(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
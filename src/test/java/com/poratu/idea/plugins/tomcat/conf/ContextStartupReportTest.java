@@ -0,0 +1,55 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContextStartupReportTest {
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    public void collectsTheTimeOfEachDescriptor() {
+        ContextStartupReport report = new ContextStartupReport(List.of());
+        assertTrue(report.isEmpty());
+
+        report.parse("21-Jun-2023 13:27:16.385 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deployment of deployment descriptor [/home/user/.SmartTomcat/project/conf/Catalina/localhost/app#api.xml] has finished in [1,000] ms\n", 0);
+        report.parse("21-Jun-2023 13:27:16.386 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deployment of deployment descriptor [C:\\Users\\user\\.SmartTomcat\\project\\conf\\Catalina\\localhost\\ROOT.xml] has finished in [25] ms\n", 0);
+        report.parse("21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1,012] milliseconds\n", 0);
+
+        assertFalse(report.isEmpty());
+        assertEquals(1012, report.getServerStartupMillis());
+        assertEquals("Context startup times:\n"
+                + "  /app/api     1000 ms\n"
+                + "  /              25 ms\n"
+                + "  Server startup: 1012 ms\n", report.format());
+    }
+
+    @Test
+    public void measuresTheContextsStartedBeforeTheDescriptors() {
+        ContextStartupReport report = new ContextStartupReport(List.of("/early"));
+        report.parse("21-Jun-2023 13:27:15.391 INFO [main] org.apache.catalina.core.StandardEngine.startInternal Starting Servlet engine: [Apache Tomcat/9.0.76]\n", 100 * MILLIS);
+        report.parse("21-Jun-2023 13:27:15.400 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deploying deployment descriptor [/conf/Catalina/localhost/app.xml]\n", 350 * MILLIS);
+        // Only the first descriptor ends the early phase
+        report.parse("21-Jun-2023 13:27:15.500 INFO [Catalina-startStop-1] org.apache.catalina.startup.HostConfig.deployDescriptor Deploying deployment descriptor [/conf/Catalina/localhost/other.xml]\n", 500 * MILLIS);
+
+        assertFalse(report.isEmpty());
+        assertEquals("Context startup times:\n"
+                + "  /early (started first): 250 ms\n", report.format());
+    }
+
+    @Test
+    public void endsTheEarlyPhaseAtTheServerStartupWithoutDescriptors() {
+        ContextStartupReport report = new ContextStartupReport(List.of("/a", "/b"));
+        report.parse("21-Jun-2023 13:27:15.391 INFO [main] org.apache.catalina.core.StandardEngine.startInternal Starting Servlet Engine: Apache Tomcat/8.5.93\n", 0);
+        report.parse("21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in 999 ms\n", 40 * MILLIS);
+
+        assertEquals(999, report.getServerStartupMillis());
+        assertEquals("Context startup times:\n"
+                + "  /a, /b (started first): 40 ms\n"
+                + "  Server startup: 999 ms\n", report.format());
+    }
+}
@@ -0,0 +1,49 @@
+package com.poratu.idea.plugins.tomcat.conf;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StartupLogParserTest {
+
+    private final StartupLogParser parser = new StartupLogParser(new ContextStartupReport(List.of()));
+
+    @Test
+    public void readsTheConnectorPortsOnce() {
+        parser.parse("21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler [\"http-nio-8080\"]\n", 0);
+        parser.parse("21-Jun-2023 13:27:15.385 INFO [main] org.apache.coyote.AbstractProtocol.init Initializing ProtocolHandler [\"https-jsse-nio-8443\"]\n", 0);
+        parser.parse("21-Jun-2023 13:27:16.380 INFO [main] org.apache.coyote.AbstractProtocol.start Starting ProtocolHandler [\"http-nio-8080\"]\n", 0);
+
+        assertEquals(List.of("8080"), parser.getHttpPorts());
+        assertEquals(List.of("8443"), parser.getHttpsPorts());
+    }
+
+    @Test
+    public void stopsAtTheServerStartup() {
+        assertFalse(parser.parse("21-Jun-2023 13:27:15.390 INFO [main] org.apache.catalina.core.StandardService.startInternal Starting service [Catalina]\n", 0));
+        assertTrue(parser.parse("21-Jun-2023 13:27:16.390 INFO [main] org.apache.catalina.startup.Catalina.start Server startup in [1,012] milliseconds\n", 0));
+        assertTrue(parser.isStarted());
+        assertEquals(1012, parser.getStartupReport().getServerStartupMillis());
+
+        // The lines after the startup are not parsed
+        assertFalse(parser.parse("21-Jun-2023 13:27:17.000 INFO [main] org.apache.coyote.AbstractProtocol.start Starting ProtocolHandler [\"http-nio-9090\"]\n", 0));
+        assertEquals(List.of(), parser.getHttpPorts());
+    }
+
+    @Test
+    public void readsTheStartupLoggedByTheOlderTomcats() {
+        assertTrue(parser.parse("Jun 21, 2023 1:27:16 PM org.apache.catalina.startup.Catalina start\n", 0));
+    }
+
+    @Test
+    public void skipsTheStackFramesAndTheApplicationLines() {
+        assertFalse(parser.parse("\tat org.apache.catalina.startup.Catalina.start(Catalina.java:772)\n", 0));
+        assertFalse(parser.parse("2023-06-21 13:27:15.512  INFO 4711 --- [startStop-1] o.s.b.f.s.DefaultListableBeanFactory : Creating shared instance of singleton bean 'http-nio-1234'\n", 0));
+        assertFalse(parser.isStarted());
+        assertEquals(List.of(), parser.getHttpPorts());
+    }
+}
@@ -0,0 +1,96 @@
+package com.poratu.idea.plugins.tomcat.logs;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+
+public class LineIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsTheLinesAcrossTheCheckpoints() throws IOException {
+        Path file = folder.newFile("catalina.log").toPath();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LineIndex.STRIDE * 3 + 10; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        Files.writeString(file, sb);
+
+        LineIndex index = new LineIndex(file);
+        index.update();
+
+        assertEquals(LineIndex.STRIDE * 3 + 10, index.getLineCount());
+        assertEquals(index.getLineCount(), index.getCompleteLineCount());
+        assertEquals(List.of("line 255", "line 256", "line 257"), index.readLines(LineIndex.STRIDE - 1, 3));
+        assertEquals(List.of("line 777"), index.readLines(LineIndex.STRIDE * 3 + 9, 5));
+        assertEquals(List.of(), index.readLines(LineIndex.STRIDE * 3 + 10, 5));
+    }
+
+    @Test
+    public void indexesTheAppendedLines() throws IOException {
+        Path file = folder.newFile("console.log").toPath();
+        Files.writeString(file, "first\r\nsecond\nthi");
+        LineIndex index = new LineIndex(file);
+        index.update();
+
+        // The last line is shown while it is written
+        assertEquals(3, index.getLineCount());
+        assertEquals(2, index.getCompleteLineCount());
+        assertEquals(List.of("first", "second", "thi"), index.readLines(0, 10));
+
+        Files.writeString(file, "rd\nfourth \u00e9\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        index.update();
+        assertEquals(4, index.getLineCount());
+        assertEquals(List.of("third", "fourth \u00e9"), index.readLines(2, 10));
+    }
+
+    @Test
+    public void indexesATruncatedFileAgain() throws IOException {
+        Path file = folder.newFile("console.log").toPath();
+        Files.writeString(file, "a\nb\nc\n");
+        LineIndex index = new LineIndex(file);
+        index.update();
+        assertEquals(3, index.getLineCount());
+
+        Files.writeString(file, "d\n");
+        index.update();
+        assertEquals(List.of("d"), index.readLines(0, 10));
+
+        Files.delete(file);
+        index.update();
+        assertEquals(0, index.getLineCount());
+    }
+
+    @Test
+    public void findsTheLinesForwardAndBackward() throws IOException {
+        Path file = folder.newFile("catalina.log").toPath();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LineIndex.STRIDE * 2; i++) {
+            sb.append(i % 100 == 0 ? "SEVERE " : "INFO ").append(i).append('\n');
+        }
+        Files.writeString(file, sb);
+        LineIndex index = new LineIndex(file);
+        index.update();
+
+        Pattern severe = Pattern.compile("SEVERE");
+        assertEquals(0, index.find(severe, 0, true));
+        assertEquals(300, index.find(severe, 201, true));
+        assertEquals(500, index.find(severe, 401, true));
+        assertEquals(-1, index.find(severe, 501, true));
+        assertEquals(300, index.find(severe, 399, false));
+        assertEquals(200, index.find(severe, 300, false));
+        assertEquals(-1, index.find(severe, 0, false));
+    }
+}
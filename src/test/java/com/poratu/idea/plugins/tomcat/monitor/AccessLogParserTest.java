@@ -0,0 +1,87 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AccessLogParserTest {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    @Test
+    public void parsesTheFieldsAndTheTimings() {
+        AccessLogParser parser = new AccessLogParser(true);
+        byte[] line = bytes("127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET /app/users/42?page=2 HTTP/1.1\" 200 2326 1500 3 http-nio-8080-exec-1\r");
+
+        assertTrue(parser.parse(line, 0, line.length));
+        assertEquals(epochSecond("10/Oct/2024:13:55:36 +0200"), parser.epochSecond);
+        assertEquals("/app/users/42", new String(line, parser.pathStart, parser.pathEnd - parser.pathStart, StandardCharsets.ISO_8859_1));
+        assertEquals(200, parser.status);
+        assertEquals(2326, parser.bytes);
+        assertEquals(1500, parser.processingMicros);
+        assertEquals(3000, parser.commitMicros);
+    }
+
+    @Test
+    public void readsTheTimingsAfterTheCombinedFields() {
+        AccessLogParser parser = new AccessLogParser(false);
+        byte[] line = bytes("10.0.0.1 - bob [01/Mar/2024:00:00:00 -0530] \"POST /app;jsessionid=A1 HTTP/1.1\" 302 - \"http://localhost/\" \"Mozilla/5.0 (X11; Linux)\" 12 - exec-2");
+
+        assertTrue(parser.parse(line, 0, line.length));
+        assertEquals("/app", new String(line, parser.pathStart, parser.pathEnd - parser.pathStart, StandardCharsets.ISO_8859_1));
+        assertEquals(302, parser.status);
+        assertEquals(0, parser.bytes);
+        // %D is in milliseconds before Tomcat 10
+        assertEquals(12_000, parser.processingMicros);
+        assertEquals(-1, parser.commitMicros);
+    }
+
+    @Test
+    public void parsesALineInTheMiddleOfTheBuffer() {
+        AccessLogParser parser = new AccessLogParser(true);
+        String first = "127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET /first HTTP/1.1\" 200 1 10 1 exec-1";
+        String second = "127.0.0.1 - - [10/Oct/2024:13:55:37 +0200] \"GET /second HTTP/1.1\" 404 2 20 2 exec-1";
+        byte[] buffer = bytes(first + "\n" + second + "\n");
+
+        assertTrue(parser.parse(buffer, first.length() + 1, buffer.length - 1));
+        assertEquals(404, parser.status);
+        assertEquals(20, parser.processingMicros);
+    }
+
+    @Test
+    public void rejectsTheLinesOfAnotherFormat() {
+        AccessLogParser parser = new AccessLogParser(true);
+        assertFalse(parse(parser, "127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET / HTTP/1.1\" 200 2326"));
+        assertFalse(parse(parser, "127.0.0.1 - - [10/Foo/2024:13:55:36 +0200] \"GET / HTTP/1.1\" 200 2326 1 1 exec-1"));
+        assertFalse(parse(parser, "127.0.0.1 - - [10/Oct/2024:13:55:36] \"GET / HTTP/1.1\" 200 2326 1 1 exec-1"));
+        assertFalse(parse(parser, "127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET / HTTP/1.1\" 200 2326 - 1 exec-1"));
+        assertFalse(parse(parser, ""));
+    }
+
+    @Test
+    public void convertsTheTimestampsToEpochSeconds() {
+        for (String timestamp : new String[]{"01/Jan/1970:00:00:00 +0000", "29/Feb/2024:23:59:59 -0530",
+                "31/Dec/1999:23:59:59 +1400", "01/Mar/2100:12:00:00 +0100", "15/Jul/1969:08:30:00 +0000"}) {
+            assertEquals(timestamp, epochSecond(timestamp), AccessLogParser.parseTimestamp(bytes(timestamp), 0));
+        }
+    }
+
+    private static boolean parse(AccessLogParser parser, String line) {
+        byte[] bytes = bytes(line);
+        return parser.parse(bytes, 0, bytes.length);
+    }
+
+    private static long epochSecond(String timestamp) {
+        return OffsetDateTime.parse(timestamp, TIMESTAMP).toEpochSecond();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,95 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GcLogParserTest {
+    private static final double DELTA = 1e-9;
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    public void readsTheG1PausesAndRates() {
+        GcLogParser parser = parse(
+                "[2024-10-10T13:55:35.000+0200][0.000s][info][gc,init] Heap Region Size: 1M",
+                "[2024-10-10T13:55:36.000+0200][1.000s][info][gc,heap     ] GC(0) Old regions: 10->12",
+                "[2024-10-10T13:55:36.000+0200][1.000s][info][gc          ] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 40M->16M(256M) 2.000ms",
+                "[2024-10-10T13:55:37.000+0200][2.000s][info][gc,heap     ] GC(1) Old regions: 12->15",
+                "[2024-10-10T13:55:37.000+0200][2.000s][info][gc,cpu      ] GC(1) User=0.01s Sys=0.00s Real=0.00s",
+                "[2024-10-10T13:55:37.000+0200][2.000s][info][gc          ] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 56M->20M(256M) 4.000ms",
+                "[2024-10-10T13:55:38.000+0200][3.000s][info][gc          ] GC(2) Pause Remark 60M->58M(256M) 1.000ms");
+
+        assertEquals(3, parser.getPauseCount());
+        assertEquals(7, parser.getTotalPauseMillis(), DELTA);
+        assertEquals(4, parser.getMaxPauseMillis(), DELTA);
+        assertEquals(1, parser.getPausePercentile(0), DELTA);
+        assertEquals(2, parser.getPausePercentile(50), DELTA);
+        assertEquals(4, parser.getPausePercentile(100), DELTA);
+        // 7 ms of pauses in 3 s
+        assertEquals(100 * 0.007 / 3, parser.getPauseOverhead(), DELTA);
+        // 40M allocated before each of the last two collections, promoted 2 and 3 regions in 2 s
+        assertEquals(40 * MB, parser.getAllocationRate(), DELTA);
+        assertEquals(2.5 * MB, parser.getPromotionRate(), DELTA);
+
+        List<MetricsSample> heapSamples = parser.getHeapSamples();
+        assertEquals(3, heapSamples.size());
+        assertEquals(1000, heapSamples.get(0).getTimestamp());
+        assertEquals(16 * MB, heapSamples.get(0).get(GcLogParser.HEAP_AFTER_GC), DELTA);
+        assertEquals(256 * MB, heapSamples.get(0).get(GcLogParser.HEAP_CAPACITY), DELTA);
+        assertEquals(3, parser.getPauseSamples().size());
+        assertEquals(4, parser.getPauseSamples().get(1).get(GcLogParser.PAUSE_MILLIS), DELTA);
+    }
+
+    @Test
+    public void readsTheParallelOldGenerationAndTheDecimalComma() {
+        GcLogParser parser = parse(
+                "[1,000s][info][gc,heap] GC(4) ParOldGen: 8192K(175104K)->10240K(175104K)",
+                "[1,000s][info][gc] GC(4) Pause Young (Allocation Failure) 30M->12M(200M) 5,5ms",
+                "[2,000s][info][gc,heap] GC(5) PSOldGen: 10240K->12288K(175104K)",
+                "[2,000s][info][gc] GC(5) Pause Young (Allocation Failure) 32M->14M(200M) 2,5ms");
+
+        assertEquals(2, parser.getPauseCount());
+        assertEquals(8, parser.getTotalPauseMillis(), DELTA);
+        assertEquals(20 * MB, parser.getAllocationRate(), DELTA);
+        assertEquals(4096 * 1024, parser.getPromotionRate(), DELTA);
+    }
+
+    @Test
+    public void readsTheZgcPausesAndHeap() {
+        GcLogParser parser = parse(
+                "[1.000s][info][gc,phases   ] GC(3) Pause Mark Start 0.010ms",
+                "[1.100s][info][gc,phases   ] GC(3) Pause Mark End 0.020ms",
+                "[1.200s][info][gc          ] GC(3) Garbage Collection (Allocation Rate) 120M(12%)->40M(4%)");
+
+        assertEquals(2, parser.getPauseCount());
+        assertEquals(0.03, parser.getTotalPauseMillis(), DELTA);
+        List<MetricsSample> heapSamples = parser.getHeapSamples();
+        assertEquals(1, heapSamples.size());
+        assertEquals(40 * MB, heapSamples.get(0).get(GcLogParser.HEAP_AFTER_GC), DELTA);
+        assertTrue(Double.isNaN(heapSamples.get(0).get(GcLogParser.HEAP_CAPACITY)));
+    }
+
+    @Test
+    public void skipsTheLinesWithoutDecorations() {
+        GcLogParser parser = parse(
+                "GC(1) Pause Young (Normal) (G1 Evacuation Pause) 40M->16M(256M) 2.000ms",
+                "[1.000s][info][gc GC(1) Pause Young (Normal) (G1 Evacuation Pause) 40M->16M(256M) 2.000ms",
+                "");
+
+        assertEquals(0, parser.getPauseCount());
+        assertTrue(Double.isNaN(parser.getPausePercentile(50)));
+        assertTrue(Double.isNaN(parser.getPauseOverhead()));
+        assertTrue(Double.isNaN(parser.getAllocationRate()));
+    }
+
+    private static GcLogParser parse(String... lines) {
+        GcLogParser parser = new GcLogParser();
+        for (String line : lines) {
+            parser.parse(line);
+        }
+        return parser;
+    }
+}
@@ -0,0 +1,74 @@
+package com.poratu.idea.plugins.tomcat.monitor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalLineReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final IncrementalLineReader reader = new IncrementalLineReader();
+    private final List<String> lines = new ArrayList<>();
+
+    @Test
+    public void readsTheCompleteLinesAppendedSinceThePreviousRead() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("gc.log");
+        append(file, "first\nsecond\nthi");
+        read(file);
+        assertEquals(List.of("first", "second"), lines);
+
+        append(file, "rd\nfourth\n");
+        read(file);
+        assertEquals(List.of("first", "second", "third", "fourth"), lines);
+
+        read(file);
+        assertEquals(4, lines.size());
+    }
+
+    @Test
+    public void readsATruncatedFileFromItsStart() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("gc.log");
+        append(file, "first\nsecond\n");
+        read(file);
+
+        Files.writeString(file, "new\n", StandardCharsets.UTF_8);
+        read(file);
+        assertEquals(List.of("first", "second", "new"), lines);
+    }
+
+    @Test
+    public void skipsALineLongerThanTheBuffer() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("gc.log");
+        append(file, "x".repeat(IncrementalLineReader.BUFFER_SIZE + 10) + "\nshort\n");
+        read(file);
+        assertEquals("short", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void startsAtTheGivenPosition() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("gc.log");
+        append(file, "first\nsecond\n");
+        reader.setPosition("first\n".length());
+        read(file);
+        assertEquals(List.of("second"), lines);
+    }
+
+    private void read(Path file) throws IOException {
+        reader.read(file, (buffer, start, end) -> lines.add(new String(buffer, start, end - start, StandardCharsets.UTF_8)));
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
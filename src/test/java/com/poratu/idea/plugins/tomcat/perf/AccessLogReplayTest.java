@@ -0,0 +1,74 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AccessLogReplayTest {
+    private static final URI BASE_URI = URI.create("http://localhost:8080");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void parsesTheRequestLine() {
+        LoadGenerator.Target target = AccessLogReplay.parse(
+                "127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET /app/users?page=2 HTTP/1.1\" 200 2326", BASE_URI);
+
+        assertEquals(new LoadGenerator.Target("GET", URI.create("http://localhost:8080/app/users?page=2")), target);
+    }
+
+    @Test
+    public void skipsTheUnsafeMethodsAndTheMalformedLines() {
+        assertNull(AccessLogReplay.parse("127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"POST /app/users HTTP/1.1\" 201 0", BASE_URI));
+        assertNull(AccessLogReplay.parse("127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"-\" 400 0", BASE_URI));
+        assertNull(AccessLogReplay.parse("127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET http://example.com/ HTTP/1.1\" 200 0", BASE_URI));
+        assertNull(AccessLogReplay.parse("127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET /a b|c HTTP/1.1", BASE_URI));
+        assertNull(AccessLogReplay.parse("127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET /a|b HTTP/1.1\" 400 0", BASE_URI));
+    }
+
+    @Test
+    public void readsTheArchivedFilesFirst() throws IOException {
+        Path logsDir = folder.getRoot().toPath();
+        Files.createDirectories(logsDir.resolve("archive"));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(logsDir.resolve("archive/localhost_access_log.2024-10-09.txt.gz")))) {
+            out.write(line("/first").getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(logsDir.resolve("localhost_access_log.2024-10-10.txt"), line("/second") + line("/third"));
+
+        assertEquals(List.of("/first", "/second"), paths(AccessLogReplay.read(logsDir, BASE_URI, 2)));
+    }
+
+    @Test
+    public void skipsAnArchiveWhoseFileIsNotDeletedYet() throws IOException {
+        Path logsDir = folder.getRoot().toPath();
+        Files.createDirectories(logsDir.resolve("archive"));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(logsDir.resolve("archive/localhost_access_log.2024-10-09.txt.gz")))) {
+            out.write(line("/archived").getBytes(StandardCharsets.UTF_8));
+        }
+        Files.writeString(logsDir.resolve("localhost_access_log.2024-10-09.txt"), line("/archived"));
+
+        assertEquals(List.of("/archived"), paths(AccessLogReplay.read(logsDir, BASE_URI, 10)));
+    }
+
+    private static String line(String path) {
+        return "127.0.0.1 - - [10/Oct/2024:13:55:36 +0200] \"GET " + path + " HTTP/1.1\" 200 12\n";
+    }
+
+    private static List<String> paths(List<LoadGenerator.Target> targets) {
+        return targets.stream().map(target -> target.uri().getPath()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassLoadLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsTheLoadedAndInitializedClasses() throws IOException {
+        List<ClassLoadLog.LoadedClass> classes = read(
+                "[1000000ns][4711][info ][class,load] org.example.Foo source: file:/home/me/.m2/repository/org/example/foo/1.0/foo-1.0.jar",
+                "[1000100ns][4711][debug][class,load]  klass: 0x0000000801234567 super: 0x0000000800001234 loader: [app] bytes: 2345 checksum: 1a2b3c4d",
+                "[1250000ns][4711][info ][class,load] java.lang.Runnable source: shared objects file",
+                "[1300000ns][4711][info ][class,init] 1234 Initializing 'org/example/Foo' (0x0000000801234567)");
+
+        assertEquals(2, classes.size());
+        ClassLoadLog.LoadedClass foo = classes.get(0);
+        assertEquals("org.example.Foo", foo.getName());
+        assertEquals("file:/home/me/.m2/repository/org/example/foo/1.0/foo-1.0.jar", foo.getSource());
+        assertEquals(2345, foo.getBytes());
+        assertEquals(0, foo.getLoadNanos());
+        assertTrue(foo.isInitialized());
+
+        ClassLoadLog.LoadedClass runnable = classes.get(1);
+        assertEquals("shared objects file", runnable.getSource());
+        assertEquals(-1, runnable.getBytes());
+        // The gap since the previous class event of the thread
+        assertEquals(250_000, runnable.getLoadNanos());
+        assertFalse(runnable.isInitialized());
+    }
+
+    @Test
+    public void capsTheLoadTimeAndKeepsTheThreadsApart() throws IOException {
+        List<ClassLoadLog.LoadedClass> classes = read(
+                "[1000000ns][1][info ][class,load] a.A source: jrt:/java.base",
+                "[1100000ns][2][info ][class,load] b.B source: jrt:/java.base",
+                "[9000000ns][1][info ][class,load] a.C source: jrt:/java.base",
+                "[1200000ns][2][info ][class,load] b.D source: jrt:/java.base");
+
+        assertEquals(1_000_000, classes.get(2).getLoadNanos());
+        assertEquals(100_000, classes.get(3).getLoadNanos());
+    }
+
+    @Test
+    public void initializesTheOldestClassOfTheSameName() throws IOException {
+        List<ClassLoadLog.LoadedClass> classes = read(
+                "[1000000ns][1][info ][class,load] org.example.Foo source: file:/webapps/a/WEB-INF/classes/",
+                "[1100000ns][1][info ][class,load] org.example.Foo source: file:/webapps/b/WEB-INF/classes/",
+                "[1200000ns][1][info ][class,init] 1 Initializing 'org/example/Foo' (0x0000000801234567)",
+                "not a log line",
+                "[1300000ns][1][info ]");
+
+        assertEquals(2, classes.size());
+        assertTrue(classes.get(0).isInitialized());
+        assertFalse(classes.get(1).isInitialized());
+    }
+
+    @Test
+    public void logsWithoutRotation() {
+        Path file = Path.of("perf", ClassLoadLog.FILE_NAME);
+        assertEquals("-Xlog:class+load=debug,class+init=info:file=\"" + file + "\":uptimenanos,tid,level,tags:filecount=0",
+                ClassLoadLog.getLogOption(file));
+    }
+
+    private List<ClassLoadLog.LoadedClass> read(String... lines) throws IOException {
+        Path file = folder.newFile(ClassLoadLog.FILE_NAME).toPath();
+        Files.write(file, List.of(lines));
+        return ClassLoadLog.read(file);
+    }
+}
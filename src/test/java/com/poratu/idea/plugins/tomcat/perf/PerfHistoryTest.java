@@ -0,0 +1,93 @@
+package com.poratu.idea.plugins.tomcat.perf;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PerfHistoryTest {
+    private static final int BUDGET_PERCENT = 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void comparesWithTheMedianOfTheLatestRuns() {
+        List<PerfHistory.Entry> previous = new ArrayList<>();
+        // The oldest run is beyond the latest five
+        for (double value : new double[]{100, 1000, 900, 1100, 1000, 5000}) {
+            previous.add(entry("ZGC", value));
+        }
+
+        // The median of 1000, 900, 1100, 1000 and 5000 is 1000
+        assertNull(PerfHistory.checkRegression(previous, entry("ZGC", 1100), BUDGET_PERCENT));
+        String regression = PerfHistory.checkRegression(previous, entry("ZGC", 1200), BUDGET_PERCENT);
+        assertNotNull(regression);
+        assertTrue(regression, regression.startsWith("startupMillis regressed") && regression.contains("over the last 5 runs (+20%"));
+    }
+
+    @Test
+    public void averagesTheMiddleValuesOfAnEvenNumberOfRuns() {
+        List<PerfHistory.Entry> previous = List.of(entry("ZGC", 1000), entry("ZGC", 1200));
+
+        assertNull(PerfHistory.checkRegression(previous, entry("ZGC", 1210), BUDGET_PERCENT));
+        assertNotNull(PerfHistory.checkRegression(previous, entry("ZGC", 1211), BUDGET_PERCENT));
+    }
+
+    @Test
+    public void onlyComparesTheRunsOfTheSameEnvironment() {
+        List<PerfHistory.Entry> previous = List.of(entry("ZGC", 1000), entry("", 100),
+                new PerfHistory.Entry(0, "abc", "10.1.34", "21.0.5", "ZGC", PerfHistory.STARTUP_MILLIS, 100),
+                new PerfHistory.Entry(0, "abc", "9.0.98", "21.0.5", "ZGC", PerfHistory.LOAD_P95_MILLIS, 100));
+
+        assertNull(PerfHistory.checkRegression(previous, entry("ZGC", 1050), BUDGET_PERCENT));
+        assertNull(PerfHistory.checkRegression(previous, entry("G1", 5000), BUDGET_PERCENT));
+        assertNull(PerfHistory.checkRegression(List.of(), entry("ZGC", 5000), BUDGET_PERCENT));
+    }
+
+    @Test
+    public void readsTheLinesRecordedBeforeTheOptionsColumn() {
+        PerfHistory.Entry entry = PerfHistory.Entry.parse("1718000000000,3f2a9c1e07,9.0.98,21.0.5,startupMillis,1012.0");
+
+        assertEquals(new PerfHistory.Entry(1718000000000L, "3f2a9c1e07", "9.0.98", "21.0.5", "", PerfHistory.STARTUP_MILLIS, 1012), entry);
+        assertNull(PerfHistory.Entry.parse("timestamp,revision,tomcat,jdk,options,metric,value"));
+        assertNull(PerfHistory.Entry.parse("1718000000000,3f2a9c1e07,9.0.98"));
+    }
+
+    @Test
+    public void appendsAndReadsTheEntries() throws IOException {
+        PerfHistory history = new PerfHistory(folder.getRoot().toPath().resolve("perf"));
+        history.append(List.of(new PerfHistory.Entry(1, "abc", "9.0.98", "21.0.5, Temurin", "LOW_PAUSE_ZGC+gc-log", PerfHistory.STARTUP_MILLIS, 1012)));
+        history.append(List.of(new PerfHistory.Entry(2, null, "9.0.98", "21.0.5", "", PerfHistory.LOAD_THROUGHPUT, 850.5)));
+
+        assertEquals(List.of(
+                new PerfHistory.Entry(1, "abc", "9.0.98", "21.0.5  Temurin", "LOW_PAUSE_ZGC+gc-log", PerfHistory.STARTUP_MILLIS, 1012),
+                new PerfHistory.Entry(2, "", "9.0.98", "21.0.5", "", PerfHistory.LOAD_THROUGHPUT, 850.5)), history.read());
+    }
+
+    @Test
+    public void replacesTheGateResultOfThePreviousCheck() throws IOException {
+        PerfHistory history = new PerfHistory(folder.getRoot().toPath().resolve("perf"));
+        history.writeGateResult(new PerfHistory.GateResult(1, "Tomcat", "abc", true, List.of(PerfHistory.STARTUP_MILLIS), List.of()));
+        history.writeGateResult(new PerfHistory.GateResult(2, "Tomcat", "def", false, List.of(PerfHistory.STARTUP_MILLIS),
+                List.of("startupMillis regressed")));
+
+        String gate = Files.readString(history.getFile().resolveSibling(PerfHistory.GATE_FILE_NAME), StandardCharsets.UTF_8);
+        assertEquals("{\"timestamp\":2,\"configuration\":\"Tomcat\",\"revision\":\"def\",\"passed\":false,"
+                + "\"metrics\":[\"startupMillis\"],\"regressions\":[\"startupMillis regressed\"]}", gate);
+    }
+
+    private static PerfHistory.Entry entry(String options, double value) {
+        return new PerfHistory.Entry(0, "abc", "9.0.98", "21.0.5", options, PerfHistory.STARTUP_MILLIS, value);
+    }
+}
@@ -0,0 +1,69 @@
+package com.poratu.idea.plugins.tomcat.shared;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void keepsTheSmallValuesExact() {
+        for (int micros = 0; micros < LatencyHistogram.SUB_BUCKETS * 2; micros++) {
+            assertEquals(micros, LatencyHistogram.bucketIndex(micros));
+            assertEquals(micros, LatencyHistogram.bucketUpperBound(micros));
+        }
+    }
+
+    @Test
+    public void splitsEachPowerOfTwoInLinearBuckets() {
+        assertEquals(64, LatencyHistogram.bucketIndex(64));
+        assertEquals(64, LatencyHistogram.bucketIndex(65));
+        assertEquals(65, LatencyHistogram.bucketIndex(66));
+        assertEquals(65, LatencyHistogram.bucketUpperBound(64));
+        assertEquals(127, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(127)));
+        assertEquals(96, LatencyHistogram.bucketIndex(128));
+    }
+
+    @Test
+    public void boundsTheRelativeError() {
+        int previous = 0;
+        for (long micros = 1; micros < 1L << 36; micros += micros / 7 + 1) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            assertTrue("index of " + micros, index >= previous);
+            assertTrue("upper bound of " + micros, upperBound >= micros);
+            assertTrue("error of " + micros, upperBound - micros <= micros / LatencyHistogram.SUB_BUCKETS);
+            assertEquals(index, LatencyHistogram.bucketIndex(upperBound));
+            previous = index;
+        }
+    }
+
+    @Test
+    public void clampsTheValuesOutOfRange() {
+        assertEquals(0, LatencyHistogram.bucketIndex(-5));
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void readsThePercentilesOfTheCounts() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 100; micros++) {
+            histogram.record(micros);
+        }
+        long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        histogram.forEachBucket((index, count) -> counts[index] = count);
+
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(5050, histogram.getTotalMicros());
+        assertEquals(1, LatencyHistogram.valueAtPercentile(counts, 0));
+        assertEquals(50, LatencyHistogram.valueAtPercentile(counts, 50));
+        assertEquals(99, LatencyHistogram.valueAtPercentile(counts, 99));
+        assertEquals(101, LatencyHistogram.valueAtPercentile(counts, 100));
+    }
+
+    @Test
+    public void hasNoPercentileWithoutValues() {
+        assertEquals(-1, LatencyHistogram.valueAtPercentile(new long[LatencyHistogram.BUCKET_COUNT], 50));
+    }
+}